@@ -1,5 +1,45 @@
 #!/bin/bash
 
+# Forwards to a running scripts/JpiDaemon.sh, if any, to save starting a JVM per call.
+# The socket and its directory must belong to this user, so that no one else can pose as
+# the daemon.
+if [ -n "$XDG_RUNTIME_DIR" ]; then
+  SOCKET_DIR=$XDG_RUNTIME_DIR/edmtools
+else
+  SOCKET_DIR=/tmp/edmtools-$(id -un)
+fi
+SOCKET=${EDMTOOLS_SOCKET:-$SOCKET_DIR/decode.sock}
+if [ -S "$SOCKET" ] && [ -O "$SOCKET" ] && [ -O "$(dirname "$SOCKET")" ] \
+    && command -v python3 > /dev/null; then
+  python3 -c '
+import os, socket, struct, sys
+sock = socket.socket(socket.AF_UNIX)
+try:
+  sock.connect(sys.argv[1])
+except OSError:
+  sys.exit(255)
+fields = [os.fsencode(field) for field in [os.getcwd()] + sys.argv[2:]]
+sock.sendall(struct.pack(">i", len(fields))
+    + b"".join(struct.pack(">i", len(field)) + field for field in fields))
+response = sock.makefile("rb")
+while True:
+  header = response.read(5)
+  if len(header) < 5:
+    sys.exit("Daemon closed the connection without an exit status")
+  kind, length = struct.unpack(">ci", header)
+  data = response.read(length)
+  if kind == b"x":
+    sys.exit(struct.unpack(">i", data)[0])
+  stream = sys.stdout if kind == b"o" else sys.stderr
+  stream.buffer.write(data)
+  stream.flush()
+' "$SOCKET" "$@"
+  STATUS=$?
+  if [ $STATUS -ne 255 ]; then
+    exit $STATUS
+  fi
+fi
+
 CLASSPATH=lib/guava-18.0.jar
 CLASSPATH=$CLASSPATH:lib/joda-time-2.8.2.jar
 CLASSPATH=$CLASSPATH:lib/gson-2.8.8.jar
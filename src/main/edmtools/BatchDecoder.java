@@ -0,0 +1,445 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiFileLayout.FlightRange;
+
+/**
+ * Decodes many JPI files concurrently on a work-stealing pool, writing either one output file
+ * per input or a single stream holding each input's output in turn.
+ *
+ * <p>Each input is read with {@link JpiArchiveReader}, so it may be plain, gzip or zip.  A file
+ * which fails to decode is recorded in the {@link Summary} and contributes no output; the rest
+ * of the batch carries on.
+ */
+public final class BatchDecoder {
+  private static final Logger logger = Logger.getLogger(BatchDecoder.class.getName());
+  private static final CharMatcher GLOB_CHARS = CharMatcher.anyOf("*?[{");
+  /** Inputs decoded ahead of the one being written, per thread. */
+  private static final int READ_AHEAD = 4;
+
+  /** Writes the output of one JPI file. */
+  public interface Decoder {
+    /**
+     * Decodes the JPI file {@code name} to {@code out}, without closing it.  Called
+     * concurrently for different inputs.
+     */
+    void decode(String name, JpiInputStream inputStream, OutputStream out) throws IOException;
+  }
+
+  /** The outcome of a batch. */
+  public static final class Summary {
+    private final int numFiles;
+    private final long numBytes;
+    private final long elapsedNanos;
+    private final Map<String, String> failures;
+
+    Summary(int numFiles, long numBytes, long elapsedNanos, Map<String, String> failures) {
+      this.numFiles = numFiles;
+      this.numBytes = numBytes;
+      this.elapsedNanos = elapsedNanos;
+      this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /** The number of inputs attempted. */
+    public int getFileCount() {
+      return numFiles;
+    }
+
+    /**
+     * The total size of the inputs decoded successfully.  Flights and files skipped because a
+     * journal already holds them are not counted.
+     */
+    public long getByteCount() {
+      return numBytes;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /** Maps each input which failed to its error, in input order. */
+    public Map<String, String> getFailures() {
+      return failures;
+    }
+
+    /** Input megabytes decoded per second. */
+    public double getMegabytesPerSecond() {
+      return elapsedNanos == 0 ? 0 : numBytes / 1e6 / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Decoded %d of %d files, %.1f MB in %.1f s (%.1f MB/s); %d failed",
+          numFiles - failures.size(), numFiles, numBytes / 1e6, elapsedNanos / 1e9,
+          getMegabytesPerSecond(), failures.size());
+    }
+  }
+
+  private final Decoder decoder;
+  private final int numThreads;
+
+  public BatchDecoder(Decoder decoder, int numThreads) {
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be positive");
+    this.decoder = decoder;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Decodes each input to {@code <input name><suffix>} in {@code outputDirectory}.  Outputs
+   * appear only once complete.  Throws {@link IllegalArgumentException} before decoding
+   * anything if two inputs have the same name (see {@link #checkDistinctNames}).
+   */
+  public Summary decodeToDirectory(List<File> inputs, final File outputDirectory,
+      final String suffix) throws IOException {
+    checkDistinctNames(inputs);
+    return decode(inputs, new Output() {
+      @Override
+      public Decoded write(final File input) throws IOException {
+        writeAtomically(new File(outputDirectory, input.getName() + suffix), new Content() {
+          @Override
+          public void writeTo(OutputStream out) throws IOException {
+            decode(input, out);
+          }
+        }, false);
+        return new Decoded(input.length(), null);
+      }
+    }, null);
+  }
+
+  /**
+   * Decodes each flight of each plain JPI input to {@code <input name>.<flight><suffix>} in
+   * {@code outputDirectory}, recording each in {@code journal} once its output is complete and
+   * synced to disk.
+   * Flights and files already in the journal are skipped, so a batch killed part way through
+   * resumes at the next flight when run again.  Each flight is passed to the {@link Decoder}
+   * as a JPI file of its own (see {@link JpiFileLayout#newInputStream}); other inputs, such as
+   * gzip or zip files, are decoded whole to {@code <input name><suffix>}.  As with
+   * {@link #decodeToDirectory}, inputs must have distinct names.
+   */
+  public Summary decodeFlightsToDirectory(List<File> inputs, final File outputDirectory,
+      final String suffix, final CheckpointJournal journal) throws IOException {
+    checkDistinctNames(inputs);
+    return decode(inputs, new Output() {
+      @Override
+      public Decoded write(final File input) throws IOException {
+        final String name = input.getPath();
+        if (journal.isComplete(name, CheckpointJournal.WHOLE_FILE)) {
+          return new Decoded(0, null);
+        }
+        long numBytes = 0;
+        if (isPlain(input)) {
+          final JpiFileLayout layout = JpiFileLayout.read(input);
+          try (final FileChannel channel =
+              FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            for (final FlightRange flight : layout.getFlights()) {
+              if (journal.isComplete(name, flight.getFlightNumber())) {
+                continue;
+              }
+              File output = new File(outputDirectory,
+                  input.getName() + "." + flight.getFlightNumber() + suffix);
+              writeAtomically(output, new Content() {
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                  decoder.decode(name, new JpiInputStream(new BufferedInputStream(
+                      layout.newInputStream(ImmutableList.of(flight), channel), 1 << 16)), out);
+                }
+              }, true);
+              journal.recordComplete(name, flight.getFlightNumber());
+              numBytes += flight.getLength();
+            }
+          }
+          if (numBytes > 0) {
+            numBytes += layout.getHeaderLength();
+          }
+        } else {
+          writeAtomically(new File(outputDirectory, input.getName() + suffix), new Content() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+              decode(input, out);
+            }
+          }, true);
+          numBytes = input.length();
+        }
+        journal.recordComplete(name, CheckpointJournal.WHOLE_FILE);
+        return new Decoded(numBytes, null);
+      }
+    }, null);
+  }
+
+  /**
+   * Decodes the inputs to {@code out}, one after another in input order.  Each input's output
+   * is buffered in memory until its turn.
+   */
+  public Summary decodeToStream(List<File> inputs, OutputStream out) throws IOException {
+    return decode(inputs, new Output() {
+      @Override
+      public Decoded write(File input) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        decode(input, buffer);
+        return new Decoded(input.length(), buffer.toByteArray());
+      }
+    }, out);
+  }
+
+  /**
+   * Throws {@link IllegalArgumentException} if two of {@code inputs} have names differing at
+   * most in case, such as {@code 2015/N1.jpi} and {@code 2016/n1.JPI}.  Outputs are named after
+   * the input's name alone, so such inputs would overwrite each other's output, or race on its
+   * temporary file, on any file system.
+   */
+  static void checkDistinctNames(List<File> inputs) {
+    Map<String, File> names = new HashMap<>();
+    for (File input : inputs) {
+      File previous = names.put(input.getName().toLowerCase(Locale.ROOT), input);
+      if (previous != null) {
+        throw new IllegalArgumentException(String.format(
+            "%s and %s would have the same output; rename one or decode them separately",
+            previous, input));
+      }
+    }
+  }
+
+  /** Produces the output of one input. */
+  private interface Output {
+    Decoded write(File input) throws IOException;
+  }
+
+  /** What an {@link Output} did with one input. */
+  private static final class Decoded {
+    /** The size of the input decoded, or 0 if it was skipped. */
+    final long numBytes;
+    /** The bytes for the merged stream, if any. */
+    final byte merged[];
+
+    Decoded(long numBytes, byte merged[]) {
+      this.numBytes = numBytes;
+      this.merged = merged;
+    }
+  }
+
+  private interface Content {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Writes {@code output} under a temporary name and renames it once complete.  If
+   * {@code durable}, the file and the rename are also synced to disk before returning, so that
+   * an output recorded as complete afterwards survives a crash of the machine.
+   */
+  private static void writeAtomically(File output, Content content, boolean durable)
+      throws IOException {
+    File temporary = new File(output.getPath() + ".tmp");
+    try {
+      FileOutputStream file = new FileOutputStream(temporary);
+      try (OutputStream out = new BufferedOutputStream(file, 1 << 16)) {
+        content.writeTo(out);
+        if (durable) {
+          out.flush();
+          file.getFD().sync();
+        }
+      }
+      Files.move(temporary.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      if (durable) {
+        syncDirectory(output.getAbsoluteFile().getParentFile());
+      }
+    } finally {
+      temporary.delete();
+    }
+  }
+
+  /** Syncs the entries of {@code directory}, where the platform allows it. */
+  private static void syncDirectory(File directory) throws IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+    } catch (IOException e) {
+      // Windows cannot open a directory, and there a rename is durable once it returns.
+      logger.fine("Unable to open " + directory + " to sync it: " + e);
+      return;
+    }
+    try {
+      channel.force(true);
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static boolean isPlain(File input) throws IOException {
+    try (BufferedInputStream stream = new BufferedInputStream(new FileInputStream(input))) {
+      return JpiArchiveReader.detectFormat(stream) == JpiArchiveReader.Format.PLAIN;
+    }
+  }
+
+  private void decode(File input, final OutputStream out) throws IOException {
+    JpiArchiveReader.read(input.getPath(), new JpiArchiveReader.Visitor() {
+      @Override
+      public void visit(String name, JpiInputStream inputStream) throws IOException {
+        decoder.decode(name, inputStream, out);
+      }
+    });
+  }
+
+  private Summary decode(List<File> inputs, final Output output, OutputStream merged)
+      throws IOException {
+    long start = System.nanoTime();
+    long numBytes = 0;
+    Map<String, String> failures = new LinkedHashMap<>();
+    ExecutorService executor = Executors.newWorkStealingPool(numThreads);
+    try {
+      Deque<Future<Decoded>> results = new ArrayDeque<>();
+      int next = 0;
+      for (int i = 0; i < inputs.size(); ++i) {
+        while (next < inputs.size() && next < i + READ_AHEAD * numThreads) {
+          final File input = inputs.get(next++);
+          results.add(executor.submit(new Callable<Decoded>() {
+            @Override
+            public Decoded call() throws IOException {
+              return output.write(input);
+            }
+          }));
+        }
+        File input = inputs.get(i);
+        try {
+          Decoded decoded = results.removeFirst().get();
+          if (merged != null) {
+            merged.write(decoded.merged);
+          }
+          numBytes += decoded.numBytes;
+          logger.fine("Decoded " + input);
+        } catch (ExecutionException e) {
+          Throwable cause = unwrap(e.getCause());
+          if (!(cause instanceof Exception)) {
+            throw new IOException("Unable to decode " + input, cause);
+          }
+          logger.warning(String.format("Unable to decode %s: %s", input, cause));
+          failures.put(input.getPath(), String.valueOf(cause));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while decoding", e);
+    } finally {
+      executor.shutdownNow();
+    }
+    if (merged != null) {
+      merged.flush();
+    }
+    return new Summary(inputs.size(), numBytes, System.nanoTime() - start, failures);
+  }
+
+  /**
+   * Strips the plain {@link RuntimeException}s in which a {@link java.util.concurrent.ForkJoinPool}
+   * wraps checked exceptions thrown by tasks.
+   */
+  private static Throwable unwrap(Throwable throwable) {
+    while (throwable.getClass() == RuntimeException.class && throwable.getCause() != null) {
+      throwable = throwable.getCause();
+    }
+    return throwable;
+  }
+
+  /**
+   * Expands files, directories (searched recursively for JPI files) and glob patterns such as
+   * {@code archive/**}{@code /*.jpi} into a list of files, in sorted order within each argument
+   * and without duplicates.  A pattern need not have been expanded by the shell, which avoids
+   * argument length limits.
+   */
+  public static List<File> expand(List<String> patterns) throws IOException {
+    Set<File> result = new LinkedHashSet<>();
+    for (String pattern : patterns) {
+      final List<File> files = new ArrayList<>();
+      int globIndex = GLOB_CHARS.indexIn(pattern);
+      if (globIndex >= 0) {
+        int slash = pattern.lastIndexOf(File.separatorChar, globIndex);
+        Path base = Paths.get(slash < 0 ? "." : pattern.substring(0, slash + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher(
+            "glob:" + (slash < 0 ? "./" + pattern : pattern));
+        walk(base, matcher, files);
+      } else if (new File(pattern).isDirectory()) {
+        walk(Paths.get(pattern), new PathMatcher() {
+          @Override
+          public boolean matches(Path path) {
+            return JpiArchiveReader.isJpiEntryName(path.getFileName().toString());
+          }
+        }, files);
+      } else {
+        files.add(new File(pattern));
+      }
+      Collections.sort(files);
+      result.addAll(files);
+    }
+    return new ArrayList<>(result);
+  }
+
+  private static void walk(Path base, final PathMatcher matcher, final List<File> files)
+      throws IOException {
+    if (!Files.isDirectory(base)) {
+      return;
+    }
+    Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
+        if (attributes.isRegularFile() && matcher.matches(path)) {
+          files.add(path.toFile());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+}
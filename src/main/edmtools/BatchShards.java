@@ -0,0 +1,224 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+
+import edmtools.BatchDecoder.Summary;
+
+/**
+ * Splits a {@link BatchDecoder} job across independent worker processes which share a job
+ * directory, such as a network filesystem.  There is no coordinator: each step only reads and
+ * writes files in the job directory.
+ *
+ * <ol>
+ * <li>{@link #plan} assigns each input to one of N shards by a hash of its absolute path and
+ *   writes one manifest per shard, {@code shard-<i>.manifest}, listing the absolute paths of
+ *   its inputs, so that workers may run in any directory.
+ * <li>{@link #runShard}, run anywhere for each shard, decodes the shard's inputs, writes its
+ *   summary to {@code shard-<i>.summary}, and then creates the completion marker
+ *   {@code shard-<i>.done}.  A shard already marked complete is not run again.  The marker
+ *   means every input was attempted, not that every input decoded: failures are listed in the
+ *   summary, and can be retried by planning a new job of just those inputs.
+ * <li>{@link #mergeSummaries} combines the summaries once every shard is complete.
+ * </ol>
+ *
+ * <p>Files are written under temporary names and renamed, so a killed worker leaves no partial
+ * manifest, summary or marker.
+ */
+public final class BatchShards {
+  private static final Logger logger = Logger.getLogger(BatchShards.class.getName());
+  private static final Splitter TAB_SPLITTER = Splitter.on('\t').limit(2);
+  private static final Joiner LINE_JOINER = Joiner.on('\n');
+
+  private BatchShards() {}
+
+  /** Returns the shard of {@code input}, a stable function of its absolute path. */
+  public static int getShard(File input, int numShards) {
+    return Hashing.consistentHash(Hashing.murmur3_128().hashString(
+        input.getAbsolutePath(), StandardCharsets.UTF_8), numShards);
+  }
+
+  /**
+   * Writes a manifest for each of {@code numShards} shards of {@code inputs}.  Throws
+   * {@link IllegalArgumentException} if two inputs have the same name, and
+   * {@link IOException} if {@code jobDirectory} already holds a job, whose summaries and
+   * completion markers would otherwise be taken for this one's.
+   */
+  public static void plan(List<File> inputs, int numShards, File jobDirectory)
+      throws IOException {
+    Preconditions.checkArgument(numShards > 0, "numShards must be positive");
+    // Every shard writes to the same output directory, so names must be distinct across shards.
+    BatchDecoder.checkDistinctNames(inputs);
+    Files.createDirectories(jobDirectory.toPath());
+    for (String name : jobDirectory.list()) {
+      if (name.equals("shards") || name.startsWith("shard-")) {
+        throw new IOException(String.format(
+            "%s already holds a job (%s); use a new job directory", jobDirectory, name));
+      }
+    }
+    List<List<String>> manifests = new ArrayList<>();
+    for (int i = 0; i < numShards; ++i) {
+      manifests.add(new ArrayList<String>());
+    }
+    for (File input : inputs) {
+      manifests.get(getShard(input, numShards)).add(input.getAbsolutePath());
+    }
+    for (int i = 0; i < numShards; ++i) {
+      write(getFile(jobDirectory, i, "manifest"), manifests.get(i));
+    }
+    write(new File(jobDirectory, "shards"), ImmutableList.of(String.valueOf(numShards)));
+  }
+
+  /** The number of shards planned in {@code jobDirectory}. */
+  public static int getShardCount(File jobDirectory) throws IOException {
+    return Integer.parseInt(read(new File(jobDirectory, "shards")).get(0));
+  }
+
+  /** The inputs of one shard. */
+  public static List<File> getInputs(File jobDirectory, int shard) throws IOException {
+    List<File> inputs = new ArrayList<>();
+    for (String line : read(getFile(jobDirectory, shard, "manifest"))) {
+      inputs.add(new File(line));
+    }
+    return inputs;
+  }
+
+  public static boolean isComplete(File jobDirectory, int shard) {
+    return getFile(jobDirectory, shard, "done").exists();
+  }
+
+  /**
+   * Decodes the inputs of {@code shard} into {@code outputDirectory} with {@code batch}, unless
+   * the shard is already complete, and marks it complete.  Returns the shard's summary.
+   */
+  public static Summary runShard(File jobDirectory, int shard, BatchDecoder batch,
+      File outputDirectory, String suffix) throws IOException {
+    if (isComplete(jobDirectory, shard)) {
+      logger.info("Shard " + shard + " is already complete");
+      return readSummary(getFile(jobDirectory, shard, "summary"));
+    }
+    Summary summary = batch.decodeToDirectory(getInputs(jobDirectory, shard), outputDirectory,
+        suffix);
+    writeSummary(getFile(jobDirectory, shard, "summary"), summary);
+    write(getFile(jobDirectory, shard, "done"), ImmutableList.<String>of());
+    logger.info("Shard " + shard + ": " + summary);
+    return summary;
+  }
+
+  /**
+   * Combines the summaries of every shard.  The elapsed time is that of the slowest shard.
+   * Throws if any shard is incomplete.
+   */
+  public static Summary mergeSummaries(File jobDirectory) throws IOException {
+    int numShards = getShardCount(jobDirectory);
+    List<Integer> incomplete = new ArrayList<>();
+    int numFiles = 0;
+    long numBytes = 0;
+    long elapsedNanos = 0;
+    Map<String, String> failures = new LinkedHashMap<>();
+    for (int i = 0; i < numShards; ++i) {
+      if (!isComplete(jobDirectory, i)) {
+        incomplete.add(i);
+        continue;
+      }
+      Summary summary = readSummary(getFile(jobDirectory, i, "summary"));
+      numFiles += summary.getFileCount();
+      numBytes += summary.getByteCount();
+      elapsedNanos = Math.max(elapsedNanos, summary.getElapsedNanos());
+      failures.putAll(summary.getFailures());
+    }
+    if (!incomplete.isEmpty()) {
+      throw new IOException("Incomplete shards: " + incomplete);
+    }
+    return new Summary(numFiles, numBytes, elapsedNanos, failures);
+  }
+
+  private static File getFile(File jobDirectory, int shard, String extension) {
+    return new File(jobDirectory, "shard-" + shard + "." + extension);
+  }
+
+  /** Summaries are lines of {@code key\tvalue}; each failure is a {@code failed} line. */
+  private static void writeSummary(File file, Summary summary) throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add("files\t" + summary.getFileCount());
+    lines.add("bytes\t" + summary.getByteCount());
+    lines.add("elapsedNanos\t" + summary.getElapsedNanos());
+    for (Map.Entry<String, String> failure : summary.getFailures().entrySet()) {
+      lines.add("failed\t" + failure.getKey() + "\t"
+          + failure.getValue().replace('\n', ' ').replace('\t', ' '));
+    }
+    write(file, lines);
+  }
+
+  private static Summary readSummary(File file) throws IOException {
+    Map<String, String> values = new LinkedHashMap<>();
+    Map<String, String> failures = new LinkedHashMap<>();
+    for (String line : read(file)) {
+      List<String> fields = TAB_SPLITTER.splitToList(line);
+      if (fields.size() != 2) {
+        throw new IOException(String.format("%s: malformed line %s", file, line));
+      }
+      if (fields.get(0).equals("failed")) {
+        List<String> failure = TAB_SPLITTER.splitToList(fields.get(1));
+        failures.put(failure.get(0), failure.size() > 1 ? failure.get(1) : "");
+      } else {
+        values.put(fields.get(0), fields.get(1));
+      }
+    }
+    try {
+      return new Summary(Integer.parseInt(values.get("files")),
+          Long.parseLong(values.get("bytes")), Long.parseLong(values.get("elapsedNanos")),
+          failures);
+    } catch (NumberFormatException e) {
+      throw new IOException(String.format("%s: %s", file, e.getMessage()));
+    }
+  }
+
+  private static List<String> read(File file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+      if (!line.isEmpty()) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  private static void write(File file, List<String> lines) throws IOException {
+    File temporary = new File(file.getPath() + ".tmp");
+    String contents = lines.isEmpty() ? "" : LINE_JOINER.join(lines) + "\n";
+    Files.write(temporary.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+
+/**
+ * An append-only log of the units of work a batch has completed, so that a restarted batch
+ * can skip them.  A unit is one flight of a JPI file, or a whole file ({@link #WHOLE_FILE}).
+ *
+ * <p>Records are lines of {@code <flight number>\t<file name>}.  They are buffered and
+ * written and forced to disk in groups: once {@code syncEveryRecords} are pending, or at the
+ * first record after {@code syncIntervalMillis}, and on {@link #sync} and {@link #close}.  A
+ * crash loses at most the unsynced records, whose units are then redone, so the work
+ * recorded must be idempotent, such as replacing an output file.  A record torn by a crash is
+ * discarded when the journal is reopened.
+ *
+ * <p>Instances are safe for concurrent use.
+ */
+public final class CheckpointJournal implements Closeable {
+  private static final Logger logger = Logger.getLogger(CheckpointJournal.class.getName());
+  private static final Splitter FIELD_SPLITTER = Splitter.on('\t').limit(2);
+
+  /** The flight number recording that a whole file is complete. */
+  public static final int WHOLE_FILE = -1;
+
+  private final FileChannel channel;
+  private final int syncEveryRecords;
+  private final long syncIntervalNanos;
+  private final Set<String> completed = new HashSet<>();
+  private final StringBuilder pending = new StringBuilder();
+  private int numPending;
+  private long lastSyncNanos = System.nanoTime();
+
+  /** Opens or creates a journal which syncs every 64 records or second. */
+  public CheckpointJournal(File file) throws IOException {
+    this(file, 64, 1000);
+  }
+
+  public CheckpointJournal(File file, int syncEveryRecords, long syncIntervalMillis)
+      throws IOException {
+    Preconditions.checkArgument(syncEveryRecords > 0, "syncEveryRecords must be positive");
+    this.syncEveryRecords = syncEveryRecords;
+    this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+    long validLength = 0;
+    if (file.exists()) {
+      byte contents[] = Files.readAllBytes(file.toPath());
+      int start = 0;
+      for (int i = 0; i < contents.length; ++i) {
+        if (contents[i] == '\n') {
+          String line = new String(contents, start, i - start, StandardCharsets.UTF_8);
+          List<String> fields = FIELD_SPLITTER.splitToList(line);
+          if (fields.size() != 2) {
+            throw new IOException(String.format("%s: malformed record %s", file, line));
+          }
+          try {
+            completed.add(key(fields.get(1), Integer.parseInt(fields.get(0))));
+          } catch (NumberFormatException e) {
+            throw new IOException(String.format("%s: malformed record %s", file, line));
+          }
+          start = i + 1;
+        }
+      }
+      validLength = start;
+      if (validLength < contents.length) {
+        logger.warning(String.format("Discarding %d bytes of a torn record at the end of %s",
+            contents.length - validLength, file));
+      }
+    }
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.truncate(validLength);
+    channel.position(validLength);
+  }
+
+  private static String key(String name, int flightNumber) {
+    return flightNumber + "\t" + name;
+  }
+
+  /** Returns true if the unit was recorded, even if not yet synced. */
+  public synchronized boolean isComplete(String name, int flightNumber) {
+    return completed.contains(key(name, flightNumber));
+  }
+
+  /** The number of distinct units recorded. */
+  public synchronized int getCompletedCount() {
+    return completed.size();
+  }
+
+  /** Records a completed unit, syncing if a group is due. */
+  public synchronized void recordComplete(String name, int flightNumber) throws IOException {
+    Preconditions.checkArgument(name.indexOf('\n') < 0, "Bad name %s", name);
+    completed.add(key(name, flightNumber));
+    pending.append(key(name, flightNumber)).append('\n');
+    numPending++;
+    if (numPending >= syncEveryRecords || System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+      sync();
+    }
+  }
+
+  /** Writes the pending records and forces them to disk. */
+  public synchronized void sync() throws IOException {
+    if (numPending > 0) {
+      ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+      pending.setLength(0);
+      numPending = 0;
+    }
+    lastSyncNanos = System.nanoTime();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      sync();
+    } finally {
+      channel.close();
+    }
+  }
+}
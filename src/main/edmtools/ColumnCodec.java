@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Integer column encodings of the {@link ColumnarFlightWriter} file format.
+ *
+ * <ul>
+ * <li>Delta: each value minus its predecessor (the first minus zero), zigzag-encoded so that
+ *   small negative deltas stay small, then written as a base-128 varint.
+ * <li>Bit-packed: each value minus the column minimum, in {@code bitWidth} bits, least
+ *   significant bit first.
+ * </ul>
+ */
+final class ColumnCodec {
+  private ColumnCodec() {}
+
+  static byte[] encodeDelta(int values[]) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(values.length + 8);
+    int previous = 0;
+    for (int value : values) {
+      writeVarint(out, zigzag((long) value - previous));
+      previous = value;
+    }
+    return out.toByteArray();
+  }
+
+  static byte[] encodeDelta(long values[]) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(values.length + 8);
+    long previous = 0;
+    for (long value : values) {
+      writeVarint(out, zigzag(value - previous));
+      previous = value;
+    }
+    return out.toByteArray();
+  }
+
+  /** Decodes {@code result.length} values from the current position of {@code in}. */
+  static void decodeDelta(ByteBuffer in, int result[]) {
+    long previous = 0;
+    for (int i = 0; i < result.length; ++i) {
+      previous += unzigzag(readVarint(in));
+      result[i] = (int) previous;
+    }
+  }
+
+  static void decodeDelta(ByteBuffer in, long result[]) {
+    long previous = 0;
+    for (int i = 0; i < result.length; ++i) {
+      previous += unzigzag(readVarint(in));
+      result[i] = previous;
+    }
+  }
+
+  /** Returns the bits needed to bit-pack values in {@code [min, max]}. */
+  static int bitWidth(long min, long max) {
+    return 64 - Long.numberOfLeadingZeros(max - min);
+  }
+
+  static int bitPackedLength(int count, int bitWidth) {
+    return (int) (((long) count * bitWidth + 7) / 8);
+  }
+
+  /** {@code bitWidth} is at most 32. */
+  static byte[] encodeBitPacked(int values[], int min, int bitWidth) {
+    byte result[] = new byte[bitPackedLength(values.length, bitWidth)];
+    long bits = 0;
+    int numBits = 0;
+    int position = 0;
+    for (int value : values) {
+      bits |= ((long) value - min) << numBits;
+      numBits += bitWidth;
+      while (numBits >= 8) {
+        result[position++] = (byte) bits;
+        bits >>>= 8;
+        numBits -= 8;
+      }
+    }
+    if (numBits > 0) {
+      result[position] = (byte) bits;
+    }
+    return result;
+  }
+
+  static void decodeBitPacked(ByteBuffer in, int min, int bitWidth, int result[]) {
+    long mask = (1L << bitWidth) - 1;
+    long bits = 0;
+    int numBits = 0;
+    int position = in.position();
+    for (int i = 0; i < result.length; ++i) {
+      while (numBits < bitWidth) {
+        bits |= (long) (in.get(position++) & 0xff) << numBits;
+        numBits += 8;
+      }
+      result[i] = (int) (min + (bits & mask));
+      bits >>>= bitWidth;
+      numBits -= bitWidth;
+    }
+    in.position(position);
+  }
+
+  static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7fL) != 0) {
+      out.write((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  static long readVarint(ByteBuffer in) {
+    long result = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte b = in.get();
+      result |= (long) (b & 0x7f) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+  }
+}
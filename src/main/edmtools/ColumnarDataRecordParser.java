@@ -0,0 +1,257 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.EngineDataRecord;
+import edmtools.RecordLayout.Target;
+
+/**
+ * Decodes binary data records straight into {@link RecordColumns}.
+ *
+ * <p>This mirrors {@link DataRecordParser} value for value, including its treatment of "N/A"
+ * values and of repeated fields, so that {@link DataRecordView#toProto} reproduces its output.
+ * It keeps the running state in primitive columns instead of proto builders.
+ */
+class ColumnarDataRecordParser {
+  /** A recorded value of 0 means the value is "not available". */
+  private static final int NOT_AVAILABLE_VALUE_MARKER = 0;
+  private static final int MAX_NUM_VALUE_BYTES = 16;
+  private static final int EGT = EngineDataRecord.EXHAUST_GAS_TEMPERATURE_FIELD_NUMBER;
+  private static final int EGT_DIFFERENCE =
+      EngineDataRecord.MAX_EXHAUST_GAS_TEMPERATURE_DIFFERENCE_FIELD_NUMBER;
+
+  private final BitSet valueFlags = new BitSet(MAX_NUM_VALUE_BYTES);
+  private final BitSet signFlags = new BitSet(MAX_NUM_VALUE_BYTES);
+
+  private final MetadataUtil metadataUtil;
+  private final JpiInputStream inputStream;
+  private final RecordLayout layout;
+  private final RecordColumns columns;
+
+  /** Last known actual values of metrics currently marked "N/A"; see {@link DataRecordParser}. */
+  private final boolean isNotAvailable[];
+  private final float notAvailableValues[];
+
+  /** The row being decoded. */
+  private int row;
+
+  public ColumnarDataRecordParser(
+      MetadataUtil metadataUtil, JpiInputStream inputStream, RecordColumns columns) {
+    this.metadataUtil = metadataUtil;
+    this.inputStream = inputStream;
+    this.layout = columns.getLayout();
+    this.columns = columns;
+    this.isNotAvailable = new boolean[layout.getNumMetrics()];
+    this.notAvailableValues = new float[layout.getNumMetrics()];
+  }
+
+  /**
+   * Decodes one binary record and appends it to the columns, preceded by the previous record
+   * as many times as the record's repeat count says.
+   */
+  public void parse() throws IOException {
+    valueFlags.clear();
+    signFlags.clear();
+    inputStream.clearCurrentRecord();
+
+    int decodeMask;
+    int secondDecodeMask;
+    if (metadataUtil.isDecodeMaskSingleByte()) {
+      decodeMask = inputStream.read();
+      secondDecodeMask = inputStream.read();
+    } else {
+      decodeMask = inputStream.readWord();
+      secondDecodeMask = inputStream.readWord();
+    }
+    if (decodeMask != secondDecodeMask) {
+      throw new IOException(String.format("Expected the decode byte %02X to appear twice: %s",
+            decodeMask, inputStream.getCurrentRecord()));
+    }
+    // TODO: verify this logic.  We believe the count means "add the previous record N times".
+    int previousRecordRepeatCount = inputStream.read();
+    if (previousRecordRepeatCount > 0) {
+      columns.repeatLastRow(previousRecordRepeatCount);
+    }
+    row = columns.appendRow();
+
+    int numDecodeBits = metadataUtil.isDecodeMaskSingleByte() ? 8 : 16;
+    Preconditions.checkState(numDecodeBits <= valueFlags.numBytes());
+    for (int i = 0; i < numDecodeBits; ++i) {
+      if ((decodeMask & (1 << i)) > 0) {
+        int nextByte = inputStream.read();
+        if (nextByte == 0) {
+          columns.addWarning(row, "value byte is 00.  Don't know how many bytes to read.");
+        }
+        valueFlags.setByte(i, nextByte);
+      }
+    }
+    for (int i = 0; i < numDecodeBits; ++i) {
+      // Bytes 6 and 7 do not have a sign byte.
+      if (i != 6 && i != 7 && (decodeMask & (1 << i)) > 0) {
+        signFlags.setByte(i, inputStream.read());
+      }
+    }
+
+    for (int bitIndex = 0; bitIndex < valueFlags.numBits(); ++bitIndex) {
+      if (valueFlags.testBit(bitIndex)) {
+        updateValue(bitIndex, inputStream.read());
+      }
+    }
+    calculateExhaustGasTemperatureMaxDiffs();
+
+    Optional<String> checksumFailureMessage = inputStream.getChecksumFailureMessage();
+    if (checksumFailureMessage.isPresent()) {
+      columns.addWarning(row, checksumFailureMessage.get());
+    }
+  }
+
+  private void updateValue(int bitIndex, int value) throws IOException {
+    int metricIndex = layout.getMetricIndexForBit(bitIndex);
+    if (metricIndex < 0) {
+      throw new IOException("No metric for mask bit " + bitIndex);
+    }
+    Metric metric = layout.getMetric(metricIndex);
+    Target target = layout.getTarget(metricIndex);
+    if (target == null) {
+      columns.addWarning(row, "Unexpected value for " + metric);
+      return;
+    }
+    // Addressing any engine field creates the engines up to it, as BuilderUtil does.
+    byte engineCounts[] = columns.getEngineCountColumn();
+    if (target.container > engineCounts[row]) {
+      engineCounts[row] = (byte) target.container;
+    }
+
+    if (value == NOT_AVAILABLE_VALUE_MARKER) {
+      // Transition from a valid value to a "N/A" value.
+      if (!isNotAvailable[metricIndex]) {
+        isNotAvailable[metricIndex] = true;
+        notAvailableValues[metricIndex] = getExistingValueOrDefault(metric, target);
+        clearValue(target);
+      }
+      return;
+    } else if (isNotAvailable[metricIndex]) {
+      // Transition from a "N/A" value back to a valid value.
+      setValue(target, notAvailableValues[metricIndex]);
+      isNotAvailable[metricIndex] = false;
+    }
+
+    // For high bytes, use the low byte sign bit.
+    if (signFlags.testBit(metric.getLowByteBit())) {
+      value = -value;
+    }
+    if (metric.isHighByteBit(bitIndex)) {
+      value <<= 8;
+    }
+    float newValue = metric.scale(metadataUtil, value);
+    setValue(target, getExistingValueOrDefault(metric, target) + newValue);
+  }
+
+  private boolean hasValue(Target target) {
+    if (target.isRepeated()) {
+      return listLength(target) > target.index;
+    }
+    int bit = layout.getPresenceBit(target.container, target.fieldNumber);
+    return (columns.getPresenceColumn()[row] & (1L << bit)) != 0;
+  }
+
+  private int listLength(Target target) {
+    return columns.getListLengthColumn(
+        layout.getListId(target.container, target.fieldNumber))[row];
+  }
+
+  private int getSlot(Target target, int position) {
+    return target.isRepeated()
+        ? layout.getListSlot(layout.getListId(target.container, target.fieldNumber), position)
+        : layout.getScalarSlot(target.container, target.fieldNumber);
+  }
+
+  private float getExistingValueOrDefault(Metric metric, Target target) {
+    if (!hasValue(target)) {
+      return metric.getDefaultValue(metadataUtil);
+    }
+    int slot = getSlot(target, target.index);
+    return target.isFloat ? columns.getFloatColumn(slot)[row] : columns.getIntColumn(slot)[row];
+  }
+
+  /** As {@link BuilderUtil}: "clearing" a repeated field means setting it to 0. */
+  private void clearValue(Target target) {
+    if (!hasValue(target)) {
+      return;
+    }
+    if (target.isRepeated()) {
+      setValue(target, 0);
+    } else {
+      columns.getPresenceColumn()[row] &=
+          ~(1L << layout.getPresenceBit(target.container, target.fieldNumber));
+    }
+  }
+
+  /**
+   * As {@link BuilderUtil}: values are truncated to int or rounded to tenths, and setting a
+   * repeated field past its end appends to it.
+   */
+  private void setValue(Target target, float value) {
+    int position = target.index;
+    if (target.isRepeated()) {
+      byte lengths[] = columns.getListLengthColumn(
+          layout.getListId(target.container, target.fieldNumber));
+      if (lengths[row] <= target.index) {
+        position = lengths[row]++;
+      }
+    } else {
+      columns.getPresenceColumn()[row] |=
+          1L << layout.getPresenceBit(target.container, target.fieldNumber);
+    }
+    int slot = getSlot(target, position);
+    if (target.isFloat) {
+      columns.getFloatColumn(slot)[row] = Math.round(value * 10) / 10.0f;
+    } else {
+      columns.getIntColumn(slot)[row] = (int) value;
+    }
+  }
+
+  private void calculateExhaustGasTemperatureMaxDiffs() {
+    for (int engine = 0; engine < columns.getEngineCountColumn()[row]; ++engine) {
+      int container = RecordLayout.engine(engine);
+      int listId = layout.getListId(container, EGT);
+      if (listId < 0 || columns.getListLengthColumn(listId)[row] == 0) {
+        continue;
+      }
+      int length = columns.getListLengthColumn(listId)[row];
+      int maximumExhaustGasTemperature = 0;
+      for (int i = 0; i < length; ++i) {
+        maximumExhaustGasTemperature = Math.max(maximumExhaustGasTemperature,
+            columns.getIntColumn(layout.getListSlot(listId, i))[row]);
+      }
+      int minimumExhaustGasTemperature = maximumExhaustGasTemperature;
+      for (int i = 0; i < length; ++i) {
+        minimumExhaustGasTemperature = Math.min(minimumExhaustGasTemperature,
+            columns.getIntColumn(layout.getListSlot(listId, i))[row]);
+      }
+      columns.getIntColumn(layout.getScalarSlot(container, EGT_DIFFERENCE))[row] =
+          maximumExhaustGasTemperature - minimumExhaustGasTemperature;
+      columns.getPresenceColumn()[row] |=
+          1L << layout.getPresenceBit(container, EGT_DIFFERENCE);
+    }
+  }
+}
@@ -0,0 +1,325 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static edmtools.ColumnarFlightWriter.ENCODING_BIT_PACKED;
+import static edmtools.ColumnarFlightWriter.ENCODING_DELTA;
+import static edmtools.ColumnarFlightWriter.ENCODING_RAW_FLOAT;
+import static edmtools.ColumnarFlightWriter.MAGIC;
+import static edmtools.ColumnarFlightWriter.MARK_COLUMN;
+import static edmtools.ColumnarFlightWriter.TIMESTAMP_COLUMN;
+import static edmtools.ColumnarFlightWriter.TRAILER_BYTES;
+import static edmtools.ColumnarFlightWriter.TYPE_FLOAT;
+import static edmtools.ColumnarFlightWriter.TYPE_INT;
+import static edmtools.ColumnarFlightWriter.VERSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Reads a file written by {@link ColumnarFlightWriter}.
+ *
+ * <p>The file is memory-mapped and only its footer is parsed on open; each {@code read} call
+ * decodes just the one column asked for.  Column statistics allow whole flights to be skipped
+ * without decoding anything:
+ * <pre>
+ * for (StoredFlight flight : reader.getFlights()) {
+ *   Column cht = flight.getColumn("engine[0].cylinder_head_temperature[0]");
+ *   if (cht != null &amp;&amp; cht.getMax() > 400) {
+ *     int values[] = reader.readInts(flight, cht.getName());
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>Files are limited to 2 GiB, the largest region which can be mapped at once.
+ */
+public final class ColumnarFlightReader implements Closeable {
+  /** A column of a {@link StoredFlight}, and its statistics. */
+  public static final class Column {
+    private final String name;
+    private final int type;
+    private final int encoding;
+    private final int offset;
+    private final int length;
+    private final int presenceLength;
+    private final double min;
+    private final double max;
+    private final int nullCount;
+
+    private Column(DataInputStream in) throws IOException {
+      name = in.readUTF();
+      type = in.readByte();
+      encoding = in.readByte();
+      long longOffset = in.readLong();
+      offset = (int) longOffset;
+      length = in.readInt();
+      presenceLength = in.readInt();
+      min = in.readDouble();
+      max = in.readDouble();
+      nullCount = in.readInt();
+      if (offset != longOffset || length < 0 || presenceLength < 0) {
+        throw new IOException("Corrupt column " + name);
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** True for float channels, which are read with {@link ColumnarFlightReader#readFloats}. */
+    public boolean isFloat() {
+      return type == TYPE_FLOAT;
+    }
+
+    /** The smallest present value, or NaN if every value is N/A. */
+    public double getMin() {
+      return min;
+    }
+
+    /** The largest present value, or NaN if every value is N/A. */
+    public double getMax() {
+      return max;
+    }
+
+    /** The number of N/A values. */
+    public int getNullCount() {
+      return nullCount;
+    }
+
+    /** The number of bytes the column occupies in the file. */
+    public int getEncodedLength() {
+      return length + presenceLength;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s [%s, %s] nulls=%d bytes=%d", name, min, max, nullCount,
+          getEncodedLength());
+    }
+  }
+
+  /** The header and column directory of one flight. */
+  public static final class StoredFlight {
+    private final Flight header;
+    private final int size;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    private StoredFlight(DataInputStream in) throws IOException {
+      header = Flight.parseFrom(readBytes(in));
+      size = in.readInt();
+      int numColumns = in.readInt();
+      for (int i = 0; i < numColumns; ++i) {
+        Column column = new Column(in);
+        columns.put(column.getName(), column);
+      }
+    }
+
+    /** The flight header, without {@code data}. */
+    public Flight getHeader() {
+      return header;
+    }
+
+    /** The number of records. */
+    public int size() {
+      return size;
+    }
+
+    /** Channel names, not including the {@code timestamp} and {@code mark} columns. */
+    public List<String> getChannelNames() {
+      List<String> names = new ArrayList<>(columns.keySet());
+      names.remove(TIMESTAMP_COLUMN);
+      names.remove(MARK_COLUMN);
+      return names;
+    }
+
+    /** Returns the named column, or null if the flight does not have it. */
+    public Column getColumn(String name) {
+      return columns.get(name);
+    }
+
+    private Column getExistingColumn(String name) {
+      Column column = columns.get(name);
+      Preconditions.checkArgument(column != null, "No column %s", name);
+      return column;
+    }
+  }
+
+  private final MappedByteBuffer buffer;
+  private volatile boolean closed;
+  private final Metadata metadata;
+  private final List<StoredFlight> flights;
+
+  private ColumnarFlightReader(MappedByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    int limit = buffer.capacity();
+    if (limit < 8 + TRAILER_BYTES || buffer.getInt(0) != MAGIC
+        || buffer.getInt(limit - 4) != MAGIC) {
+      throw new IOException("Not a columnar flight file");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported columnar flight file version " + buffer.getInt(4));
+    }
+    long footerOffset = buffer.getLong(limit - TRAILER_BYTES);
+    if (footerOffset < 8 || footerOffset > limit - TRAILER_BYTES) {
+      throw new IOException("Corrupt columnar flight file footer");
+    }
+    byte footer[] = new byte[limit - TRAILER_BYTES - (int) footerOffset];
+    ByteBuffer slice = buffer.duplicate();
+    slice.position((int) footerOffset);
+    slice.get(footer);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer));
+    metadata = Metadata.parseFrom(readBytes(in));
+    int numFlights = in.readInt();
+    List<StoredFlight> list = new ArrayList<>(numFlights);
+    for (int i = 0; i < numFlights; ++i) {
+      list.add(new StoredFlight(in));
+    }
+    flights = Collections.unmodifiableList(list);
+  }
+
+  public static ColumnarFlightReader open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large to map");
+      }
+      return new ColumnarFlightReader(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte bytes[] = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  public Metadata getMetadata() {
+    return metadata;
+  }
+
+  public List<StoredFlight> getFlights() {
+    return flights;
+  }
+
+  public long[] readTimestamps(StoredFlight flight) {
+    Column column = flight.getExistingColumn(TIMESTAMP_COLUMN);
+    long result[] = new long[flight.size()];
+    ColumnCodec.decodeDelta(chunk(column), result);
+    return result;
+  }
+
+  /** Returns the {@link Proto.DataRecord.Mark} number of each record. */
+  public byte[] readMarks(StoredFlight flight) {
+    int marks[] = readInts(flight, MARK_COLUMN);
+    byte result[] = new byte[marks.length];
+    for (int row = 0; row < marks.length; ++row) {
+      result[row] = (byte) marks[row];
+    }
+    return result;
+  }
+
+  public int[] readInts(StoredFlight flight, String name) {
+    Column column = flight.getExistingColumn(name);
+    Preconditions.checkArgument(column.type == TYPE_INT, "%s is not an int column", name);
+    return decodeInts(flight, column);
+  }
+
+  public float[] readFloats(StoredFlight flight, String name) {
+    Column column = flight.getExistingColumn(name);
+    Preconditions.checkArgument(column.type == TYPE_FLOAT, "%s is not a float column", name);
+    float result[] = new float[flight.size()];
+    if (column.encoding == ENCODING_RAW_FLOAT) {
+      chunk(column).asFloatBuffer().get(result);
+    } else {
+      int tenths[] = decodeInts(flight, column);
+      for (int row = 0; row < result.length; ++row) {
+        result[row] = tenths[row] / 10.0f;
+      }
+    }
+    return result;
+  }
+
+  /** Returns false for each record where the value was "N/A". */
+  public boolean[] readPresence(StoredFlight flight, String name) {
+    Column column = flight.getExistingColumn(name);
+    boolean result[] = new boolean[flight.size()];
+    if (column.presenceLength == 0) {
+      Arrays.fill(result, true);
+      return result;
+    }
+    checkOpen();
+    int offset = column.offset + column.length;
+    for (int row = 0; row < result.length; ++row) {
+      result[row] = (buffer.get(offset + row / 8) & (1 << (row % 8))) != 0;
+    }
+    return result;
+  }
+
+  private int[] decodeInts(StoredFlight flight, Column column) {
+    int result[] = new int[flight.size()];
+    ByteBuffer in = chunk(column);
+    if (column.encoding == ENCODING_BIT_PACKED) {
+      int min = in.getInt();
+      int bitWidth = in.get();
+      ColumnCodec.decodeBitPacked(in, min, bitWidth, result);
+    } else {
+      Preconditions.checkState(column.encoding == ENCODING_DELTA,
+          "Unknown encoding %s of %s", column.encoding, column.name);
+      ColumnCodec.decodeDelta(in, result);
+    }
+    return result;
+  }
+
+  private ByteBuffer chunk(Column column) {
+    checkOpen();
+    ByteBuffer chunk = buffer.duplicate();
+    chunk.position(column.offset).limit(column.offset + column.length);
+    return chunk.slice();
+  }
+
+  private void checkOpen() {
+    Preconditions.checkState(!closed, "Reader is closed");
+  }
+
+  /**
+   * Closes the reader; columns may not be read afterwards.  The file is unmapped by the
+   * garbage collector once the reader is unreachable, since unmapping it here would crash a
+   * read still in progress.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
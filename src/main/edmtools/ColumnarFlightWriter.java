@@ -0,0 +1,299 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Writes decoded flights to a columnar file which {@link ColumnarFlightReader} memory-maps, so
+ * that queries decode only the columns they need instead of re-decoding the JPI file.
+ *
+ * <p>The file holds a magic number and version, then each flight's columns, then a footer, then
+ * the footer's offset and the magic number again.  The footer holds the {@link Metadata}, and
+ * per flight its header and a directory of columns: name, type, encoding, offset and length,
+ * and statistics (min and max of the present values, and the count of N/A values).
+ *
+ * <p>Each flight has a {@code timestamp} column, a {@code mark} column and one column per
+ * {@link FlightFrame} channel.  Integer columns are delta-varint or bit-packed, whichever is
+ * smaller (see {@link ColumnCodec}).  Float columns are encoded the same way as integer tenths,
+ * since the decoder rounds them to tenths, unless that would not be exact.  A channel with N/A
+ * values is followed by a presence bitmap.  All fixed-width fields are big-endian.
+ *
+ * <pre>
+ * try (ColumnarFlightWriter writer = new ColumnarFlightWriter(file)) {
+ *   JpiDecoder.decode(inputStream, config, writer);
+ * }
+ * </pre>
+ */
+public final class ColumnarFlightWriter implements JpiDecoder.FlightVisitor, Closeable {
+  static final int MAGIC = 0x45444d43;  // "EDMC"
+  static final int VERSION = 1;
+  static final int TRAILER_BYTES = 12;
+
+  static final String TIMESTAMP_COLUMN = "timestamp";
+  static final String MARK_COLUMN = "mark";
+
+  static final int TYPE_INT = 0;
+  static final int TYPE_FLOAT = 1;
+  static final int TYPE_TIMESTAMP = 2;
+
+  static final int ENCODING_DELTA = 0;
+  /** Preceded by the reference value (int) and bit width (byte). */
+  static final int ENCODING_BIT_PACKED = 1;
+  static final int ENCODING_RAW_FLOAT = 2;
+
+  private static final class ColumnEntry {
+    String name;
+    int type;
+    int encoding;
+    long offset;
+    int length;
+    int presenceLength;
+    double min = Double.NaN;
+    double max = Double.NaN;
+    int nullCount;
+  }
+
+  private static final class FlightEntry {
+    Flight header;
+    int size;
+    List<ColumnEntry> columns = new ArrayList<>();
+  }
+
+  private final CountingOutputStream counter;
+  private final DataOutputStream out;
+  private Metadata metadata = Metadata.getDefaultInstance();
+  private final List<FlightEntry> flights = new ArrayList<>();
+  private boolean closed;
+
+  public ColumnarFlightWriter(File file) throws IOException {
+    this(new FileOutputStream(file));
+  }
+
+  /** The writer closes {@code outputStream}. */
+  public ColumnarFlightWriter(OutputStream outputStream) throws IOException {
+    counter = new CountingOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+    out = new DataOutputStream(counter);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+  }
+
+  /** Decodes {@code inputStream} into a new columnar file. */
+  public static void write(JpiInputStream inputStream, JpiDecoderConfiguration config, File file)
+      throws IOException {
+    try (ColumnarFlightWriter writer = new ColumnarFlightWriter(file)) {
+      JpiDecoder.decode(inputStream, config, writer);
+    }
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) {
+    this.metadata = metadata;
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    write(FlightFrame.of(records));
+  }
+
+  public void write(FlightFrame frame) throws IOException {
+    Preconditions.checkState(!closed, "Writer is closed");
+    FlightEntry flight = new FlightEntry();
+    flight.header = frame.getHeader();
+    flight.size = frame.size();
+
+    ColumnEntry timestamps = newColumn(TIMESTAMP_COLUMN, TYPE_TIMESTAMP, ENCODING_DELTA);
+    writeChunk(timestamps, ColumnCodec.encodeDelta(frame.getTimestamps()));
+    if (frame.size() > 0) {
+      timestamps.min = frame.getTimestamps()[0];
+      timestamps.max = frame.getTimestamps()[frame.size() - 1];
+    }
+    flight.columns.add(timestamps);
+
+    int marks[] = new int[frame.size()];
+    for (int row = 0; row < marks.length; ++row) {
+      marks[row] = frame.getMarks()[row];
+    }
+    flight.columns.add(writeIntColumn(MARK_COLUMN, TYPE_INT, marks, null));
+
+    for (Channel channel : frame.getChannels()) {
+      boolean present[] = new boolean[frame.size()];
+      for (int row = 0; row < present.length; ++row) {
+        present[row] = channel.isAlwaysPresent() || frame.isPresent(channel, row);
+      }
+      ColumnEntry column = channel.isFloat()
+          ? writeFloatColumn(channel.getName(), frame.getFloatColumn(channel), present)
+          : writeIntColumn(channel.getName(), TYPE_INT, frame.getIntColumn(channel), present);
+      if (!channel.isAlwaysPresent()) {
+        column.presenceLength = writePresence(present);
+      }
+      flight.columns.add(column);
+    }
+    flights.add(flight);
+  }
+
+  private static ColumnEntry newColumn(String name, int type, int encoding) {
+    ColumnEntry column = new ColumnEntry();
+    column.name = name;
+    column.type = type;
+    column.encoding = encoding;
+    return column;
+  }
+
+  private ColumnEntry writeIntColumn(String name, int type, int values[], boolean present[])
+      throws IOException {
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int value : values) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    byte delta[] = ColumnCodec.encodeDelta(values);
+    int bitWidth = values.length == 0 ? 0 : ColumnCodec.bitWidth(min, max);
+    ColumnEntry column;
+    if (values.length > 0
+        && ColumnCodec.bitPackedLength(values.length, bitWidth) + 5 < delta.length) {
+      column = newColumn(name, type, ENCODING_BIT_PACKED);
+      column.offset = counter.getCount();
+      out.writeInt(min);
+      out.writeByte(bitWidth);
+      out.write(ColumnCodec.encodeBitPacked(values, min, bitWidth));
+      column.length = (int) (counter.getCount() - column.offset);
+    } else {
+      column = newColumn(name, type, ENCODING_DELTA);
+      writeChunk(column, delta);
+    }
+    for (int row = 0; row < values.length; ++row) {
+      if (present != null && !present[row]) {
+        column.nullCount++;
+      } else if (Double.isNaN(column.min)) {
+        column.min = column.max = values[row];
+      } else {
+        column.min = Math.min(column.min, values[row]);
+        column.max = Math.max(column.max, values[row]);
+      }
+    }
+    return column;
+  }
+
+  private ColumnEntry writeFloatColumn(String name, float values[], boolean present[])
+      throws IOException {
+    int tenths[] = new int[values.length];
+    boolean exact = true;
+    for (int row = 0; row < values.length && exact; ++row) {
+      tenths[row] = Math.round(values[row] * 10);
+      exact = Float.floatToIntBits(tenths[row] / 10.0f) == Float.floatToIntBits(values[row]);
+    }
+    ColumnEntry column;
+    if (exact) {
+      column = writeIntColumn(name, TYPE_FLOAT, tenths, present);
+      if (!Double.isNaN(column.min)) {
+        column.min = (int) column.min / 10.0f;
+        column.max = (int) column.max / 10.0f;
+      }
+    } else {
+      column = newColumn(name, TYPE_FLOAT, ENCODING_RAW_FLOAT);
+      column.offset = counter.getCount();
+      for (int row = 0; row < values.length; ++row) {
+        out.writeFloat(values[row]);
+        if (!present[row]) {
+          column.nullCount++;
+        } else if (Double.isNaN(column.min)) {
+          column.min = column.max = values[row];
+        } else {
+          column.min = Math.min(column.min, values[row]);
+          column.max = Math.max(column.max, values[row]);
+        }
+      }
+      column.length = (int) (counter.getCount() - column.offset);
+    }
+    return column;
+  }
+
+  private void writeChunk(ColumnEntry column, byte bytes[]) throws IOException {
+    column.offset = counter.getCount();
+    column.length = bytes.length;
+    out.write(bytes);
+  }
+
+  /** Writes a bitmap, least significant bit first, and returns its length. */
+  private int writePresence(boolean present[]) throws IOException {
+    byte bitmap[] = new byte[(present.length + 7) / 8];
+    for (int row = 0; row < present.length; ++row) {
+      if (present[row]) {
+        bitmap[row / 8] |= 1 << (row % 8);
+      }
+    }
+    out.write(bitmap);
+    return bitmap.length;
+  }
+
+  /** Writes the footer and closes the file. */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      long footerOffset = counter.getCount();
+      writeBytes(metadata.toByteArray());
+      out.writeInt(flights.size());
+      for (FlightEntry flight : flights) {
+        writeBytes(flight.header.toByteArray());
+        out.writeInt(flight.size);
+        out.writeInt(flight.columns.size());
+        for (ColumnEntry column : flight.columns) {
+          out.writeUTF(column.name);
+          out.writeByte(column.type);
+          out.writeByte(column.encoding);
+          out.writeLong(column.offset);
+          out.writeInt(column.length);
+          out.writeInt(column.presenceLength);
+          out.writeDouble(column.min);
+          out.writeDouble(column.max);
+          out.writeInt(column.nullCount);
+        }
+      }
+      out.writeLong(footerOffset);
+      out.writeInt(MAGIC);
+    } finally {
+      out.close();
+    }
+  }
+
+  private void writeBytes(byte bytes[]) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
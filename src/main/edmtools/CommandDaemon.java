@@ -0,0 +1,353 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Runs a command line tool for clients of a Unix domain socket, so that repeated calls share
+ * one warm JVM rather than each paying for startup and for running the decoder interpreted.
+ *
+ * <p>A client sends a 4-byte count followed by that many strings, each a 4-byte length and
+ * UTF-8 bytes: its working directory, then the tool's arguments.  The daemon replies with
+ * frames of a type byte, a 4-byte length and data: {@code 'o'} for standard output,
+ * {@code 'e'} for standard error, and finally {@code 'x'} holding the 4-byte exit status.
+ * Integers are big-endian.  See {@link #call} for a client.
+ *
+ * <p>Records logged under {@code edmtools} by the thread running a call are copied to the
+ * call's standard error, as well as to the daemon's own log.  Records from other threads the
+ * command starts appear only in the daemon's log, and the daemon's logging level applies to
+ * every call.
+ *
+ * <p>Since a client may have the daemon read any file the daemon's user can, the socket is
+ * created in a directory which only that user may enter: the directory is created with mode
+ * 0700 if missing, and the daemon refuses to start if it belongs to another user or others
+ * have access to it.  Clients should likewise check that the socket is their own.
+ */
+public final class CommandDaemon implements Closeable {
+  private static final Logger logger = Logger.getLogger(CommandDaemon.class.getName());
+  /** Held so that the handler added to it is not lost if the logger is collected. */
+  private static final Logger edmtoolsLogger = Logger.getLogger("edmtools");
+
+  static final byte STDOUT = 'o';
+  static final byte STDERR = 'e';
+  static final byte EXIT = 'x';
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_FIELDS = 4096;
+  private static final int MAX_FIELD_LENGTH = 1 << 16;
+  private static final Set<PosixFilePermission> PRIVATE_DIRECTORY =
+      PosixFilePermissions.fromString("rwx------");
+
+  /** A tool run once per client call. */
+  public interface Command {
+    /**
+     * Runs with {@code args}, resolving relative paths against {@code workingDirectory}, and
+     * returns the exit status.  An exception is reported on standard error, with status 1.
+     */
+    int run(File workingDirectory, List<String> args, PrintStream out, PrintStream err)
+        throws Exception;
+  }
+
+  private final File socketFile;
+  private final Command command;
+  private final ServerSocketChannel server;
+  private final Semaphore permits;
+  private final ExecutorService executor;
+
+  /** The standard error of the call running on each thread. */
+  private final ThreadLocal<PrintStream> callStderr = new ThreadLocal<>();
+  /** Copies log records of the thread running a call to that call's standard error. */
+  private final Handler callLogHandler = new Handler() {
+    @Override
+    public void publish(LogRecord record) {
+      PrintStream stderr = callStderr.get();
+      if (stderr != null && isLoggable(record)) {
+        stderr.print(getFormatter().format(record));
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  };
+
+  /**
+   * Listens on {@code socketFile}.  A socket file left by a daemon which has exited is
+   * replaced; one with a live daemon behind it is an error.
+   */
+  public CommandDaemon(File socketFile, Command command, int maxConcurrency)
+      throws IOException {
+    this.socketFile = socketFile;
+    this.command = command;
+    Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+    checkPrivateDirectory(socketFile.getAbsoluteFile().getParentFile().toPath());
+    if (socketFile.exists()) {
+      if (isListening(socketFile)) {
+        throw new IOException("A daemon is already listening on " + socketFile);
+      }
+      logger.fine("Replacing stale socket " + socketFile);
+      Files.delete(socketFile.toPath());
+    }
+    this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    server.bind(address(socketFile));
+    this.permits = new Semaphore(maxConcurrency);
+    this.executor = VirtualThreads.newExecutor(maxConcurrency);
+    callLogHandler.setFormatter(new SimpleFormatter());
+    edmtoolsLogger.addHandler(callLogHandler);
+  }
+
+  /** Serves clients until {@link #close} is called. */
+  public void run() throws IOException {
+    try {
+      while (true) {
+        final SocketChannel channel = server.accept();
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              serve(channel);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          channel.close();
+        }
+      }
+    } catch (ClosedChannelException e) {
+      // Closed; stop serving.
+    }
+  }
+
+  /** Stops accepting clients, waits for those being served, and deletes the socket file. */
+  @Override
+  public void close() throws IOException {
+    server.close();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted waiting for clients", e);
+    } finally {
+      edmtoolsLogger.removeHandler(callLogHandler);
+      socketFile.delete();
+    }
+  }
+
+  private void serve(SocketChannel channel) {
+    try (SocketChannel c = channel) {
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Channels.newInputStream(c)));
+      int numFields = in.readInt();
+      Preconditions.checkArgument(numFields >= 1 && numFields <= MAX_FIELDS,
+          "Bad field count %s", numFields);
+      File workingDirectory = new File(readString(in));
+      List<String> args = new ArrayList<>(numFields - 1);
+      for (int i = 1; i < numFields; ++i) {
+        args.add(readString(in));
+      }
+
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(c)));
+      PrintStream stdout = newFramedStream(out, STDOUT);
+      PrintStream stderr = newFramedStream(out, STDERR);
+      int status = run(workingDirectory, args, stdout, stderr);
+      stdout.flush();
+      stderr.flush();
+      synchronized (out) {
+        out.writeByte(EXIT);
+        out.writeInt(4);
+        out.writeInt(status);
+        out.flush();
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.log(Level.FINE, "Dropped client", e);
+    }
+  }
+
+  private int run(File workingDirectory, List<String> args, PrintStream stdout,
+      PrintStream stderr) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      stderr.println("Interrupted");
+      return 1;
+    }
+    callStderr.set(stderr);
+    try {
+      return command.run(workingDirectory, args, stdout, stderr);
+    } catch (Exception e) {
+      e.printStackTrace(stderr);
+      return 1;
+    } finally {
+      callStderr.remove();
+      permits.release();
+    }
+  }
+
+  /**
+   * Runs {@code args} in the daemon listening on {@code socketFile}, copying its output to
+   * {@code out} and {@code err}, and returns the exit status.
+   */
+  public static int call(File socketFile, File workingDirectory, List<String> args,
+      OutputStream out, OutputStream err) throws IOException {
+    try (SocketChannel channel = SocketChannel.open(address(socketFile))) {
+      DataOutputStream request =
+          new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      request.writeInt(args.size() + 1);
+      writeString(request, workingDirectory.getAbsolutePath());
+      for (String arg : args) {
+        writeString(request, arg);
+      }
+      request.flush();
+
+      DataInputStream response =
+          new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      byte buffer[] = new byte[BUFFER_SIZE];
+      while (true) {
+        byte type = response.readByte();
+        int length = response.readInt();
+        if (type == EXIT) {
+          return response.readInt();
+        }
+        OutputStream target = type == STDOUT ? out : err;
+        while (length > 0) {
+          int count = Math.min(length, buffer.length);
+          response.readFully(buffer, 0, count);
+          target.write(buffer, 0, count);
+          length -= count;
+        }
+      }
+    } catch (EOFException e) {
+      throw new IOException("Daemon closed the connection without an exit status", e);
+    }
+  }
+
+  /** Creates {@code directory} with mode 0700, or checks that it is private to this user. */
+  private static void checkPrivateDirectory(Path directory) throws IOException {
+    try {
+      Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(PRIVATE_DIRECTORY));
+    } catch (FileAlreadyExistsException e) {
+      // Checked below.
+    }
+    UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+        .lookupPrincipalByName(System.getProperty("user.name"));
+    if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)
+        || !Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(user)
+        || !Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS)
+            .equals(PRIVATE_DIRECTORY)) {
+      throw new IOException(directory + " must be a directory with mode 0700 owned by " + user);
+    }
+  }
+
+  private static boolean isListening(File socketFile) {
+    try {
+      SocketChannel.open(address(socketFile)).close();
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static UnixDomainSocketAddress address(File socketFile) {
+    return UnixDomainSocketAddress.of(socketFile.toPath());
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    Preconditions.checkArgument(length >= 0 && length <= MAX_FIELD_LENGTH,
+        "Bad field length %s", length);
+    byte bytes[] = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte bytes[] = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /** Returns a buffered stream which writes each buffer-full to {@code out} as one frame. */
+  private static PrintStream newFramedStream(final DataOutputStream out, final byte type) {
+    return new PrintStream(new BufferedOutputStream(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+      }
+
+      @Override
+      public void write(byte b[], int offset, int length) throws IOException {
+        if (length == 0) {
+          return;
+        }
+        synchronized (out) {
+          out.writeByte(type);
+          out.writeInt(length);
+          out.write(b, offset, length);
+        }
+      }
+
+      @Override
+      public void flush() throws IOException {
+        synchronized (out) {
+          out.flush();
+        }
+      }
+    }, BUFFER_SIZE), false, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,492 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static edmtools.RecordLayout.RECORD;
+import static edmtools.RecordLayout.engine;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.EngineDataRecord;
+
+/**
+ * A {@link DataRecordView} which moves over the records of one flight held in columns.
+ *
+ * <p>The cursor and its engine views are allocated once; moving the cursor allocates nothing.
+ * <pre>
+ * while (cursor.next()) {
+ *   int egt = cursor.getEngine(0).getExhaustGasTemperature(0);
+ * }
+ * </pre>
+ */
+public final class DataRecordCursor implements DataRecordView {
+  private final RecordColumns columns;
+  private final RecordLayout layout;
+  private final EngineView engines[];
+  private int row = -1;
+
+  DataRecordCursor(RecordColumns columns) {
+    this.columns = columns;
+    this.layout = columns.getLayout();
+    this.engines = new EngineView[RecordLayout.MAX_ENGINES];
+    for (int i = 0; i < engines.length; ++i) {
+      engines[i] = new EngineView(engine(i));
+    }
+  }
+
+  RecordColumns getColumns() {
+    return columns;
+  }
+
+  /** The number of records in the flight. */
+  public int size() {
+    return columns.size();
+  }
+
+  /** The current record number, or -1 before the first call to {@link #next}. */
+  public int getPosition() {
+    return row;
+  }
+
+  /** Advances to the next record.  Returns false, leaving the cursor after the end, if none. */
+  public boolean next() {
+    if (row < columns.size()) {
+      row++;
+    }
+    return row < columns.size();
+  }
+
+  /** Positions the cursor at the given record. */
+  public void moveTo(int position) {
+    Preconditions.checkElementIndex(position, columns.size());
+    row = position;
+  }
+
+  /** Positions the cursor before the first record. */
+  public void rewind() {
+    row = -1;
+  }
+
+  @Override
+  public int getVoltageCount() {
+    return count(RECORD, DataRecord.VOLTAGE_FIELD_NUMBER);
+  }
+
+  @Override
+  public float getVoltage(int index) {
+    return getFloat(RECORD, DataRecord.VOLTAGE_FIELD_NUMBER, index);
+  }
+
+  @Override
+  public int getAmperageCount() {
+    return count(RECORD, DataRecord.AMPERAGE_FIELD_NUMBER);
+  }
+
+  @Override
+  public int getAmperage(int index) {
+    return getInt(RECORD, DataRecord.AMPERAGE_FIELD_NUMBER, index);
+  }
+
+  @Override
+  public boolean hasOutsideAirTemperature() {
+    return has(RECORD, DataRecord.OUTSIDE_AIR_TEMPERATURE_FIELD_NUMBER);
+  }
+
+  @Override
+  public int getOutsideAirTemperature() {
+    return getInt(RECORD, DataRecord.OUTSIDE_AIR_TEMPERATURE_FIELD_NUMBER);
+  }
+
+  @Override
+  public boolean hasMark() {
+    return has(RECORD, DataRecord.MARK_FIELD_NUMBER);
+  }
+
+  @Override
+  public Mark getMark() {
+    return hasMark()
+        ? Mark.valueOf(getInt(RECORD, DataRecord.MARK_FIELD_NUMBER)) : Mark.NOT_MARKED;
+  }
+
+  @Override
+  public int getEngineCount() {
+    checkPosition();
+    return columns.getEngineCountColumn()[row];
+  }
+
+  @Override
+  public EngineDataRecordView getEngine(int index) {
+    Preconditions.checkElementIndex(index, getEngineCount());
+    return engines[index];
+  }
+
+  @Override
+  public int getParseWarningCount() {
+    checkPosition();
+    return columns.getWarnings(row).size();
+  }
+
+  @Override
+  public String getParseWarning(int index) {
+    checkPosition();
+    return columns.getWarnings(row).get(index);
+  }
+
+  @Override
+  public DataRecord toProto() {
+    DataRecord.Builder builder = DataRecord.newBuilder();
+    for (int i = 0; i < getVoltageCount(); ++i) {
+      builder.addVoltage(getVoltage(i));
+    }
+    for (int i = 0; i < getAmperageCount(); ++i) {
+      builder.addAmperage(getAmperage(i));
+    }
+    if (hasOutsideAirTemperature()) {
+      builder.setOutsideAirTemperature(getOutsideAirTemperature());
+    }
+    if (hasMark()) {
+      builder.setMark(getMark());
+    }
+    for (int i = 0; i < getEngineCount(); ++i) {
+      builder.addEngine(engines[i].toProto());
+    }
+    builder.addAllParseWarning(columns.getWarnings(row));
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return row >= 0 && row < columns.size()
+        ? "record " + row + " " + toProto() : "cursor at " + row;
+  }
+
+  private void checkPosition() {
+    Preconditions.checkState(row >= 0 && row < columns.size(), "Cursor is not on a record");
+  }
+
+  private boolean has(int container, int fieldNumber) {
+    checkPosition();
+    int bit = layout.getPresenceBit(container, fieldNumber);
+    return bit >= 0 && (columns.getPresenceColumn()[row] & (1L << bit)) != 0;
+  }
+
+  private int getInt(int container, int fieldNumber) {
+    return has(container, fieldNumber)
+        ? columns.getIntColumn(layout.getScalarSlot(container, fieldNumber))[row] : 0;
+  }
+
+  private float getFloat(int container, int fieldNumber) {
+    return has(container, fieldNumber)
+        ? columns.getFloatColumn(layout.getScalarSlot(container, fieldNumber))[row] : 0;
+  }
+
+  private int count(int container, int fieldNumber) {
+    checkPosition();
+    int listId = layout.getListId(container, fieldNumber);
+    return listId < 0 ? 0 : columns.getListLengthColumn(listId)[row];
+  }
+
+  private int getInt(int container, int fieldNumber, int index) {
+    Preconditions.checkElementIndex(index, count(container, fieldNumber));
+    int slot = layout.getListSlot(layout.getListId(container, fieldNumber), index);
+    return columns.getIntColumn(slot)[row];
+  }
+
+  private float getFloat(int container, int fieldNumber, int index) {
+    Preconditions.checkElementIndex(index, count(container, fieldNumber));
+    int slot = layout.getListSlot(layout.getListId(container, fieldNumber), index);
+    return columns.getFloatColumn(slot)[row];
+  }
+
+  private class EngineView implements EngineDataRecordView {
+    private final int container;
+
+    private EngineView(int container) {
+      this.container = container;
+    }
+
+    @Override
+    public int getExhaustGasTemperatureCount() {
+      return count(container, EngineDataRecord.EXHAUST_GAS_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getExhaustGasTemperature(int index) {
+      return getInt(container, EngineDataRecord.EXHAUST_GAS_TEMPERATURE_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public boolean hasMaxExhaustGasTemperatureDifference() {
+      return has(container, EngineDataRecord.MAX_EXHAUST_GAS_TEMPERATURE_DIFFERENCE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getMaxExhaustGasTemperatureDifference() {
+      return getInt(container,
+          EngineDataRecord.MAX_EXHAUST_GAS_TEMPERATURE_DIFFERENCE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getTurbineInletTemperatureCount() {
+      return count(container, EngineDataRecord.TURBINE_INLET_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getTurbineInletTemperature(int index) {
+      return getInt(container, EngineDataRecord.TURBINE_INLET_TEMPERATURE_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public int getCylinderHeadTemperatureCount() {
+      return count(container, EngineDataRecord.CYLINDER_HEAD_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getCylinderHeadTemperature(int index) {
+      return getInt(container, EngineDataRecord.CYLINDER_HEAD_TEMPERATURE_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public boolean hasCylinderHeadTemperatureCoolingRate() {
+      return has(container, EngineDataRecord.CYLINDER_HEAD_TEMPERATURE_COOLING_RATE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getCylinderHeadTemperatureCoolingRate() {
+      return getInt(container,
+          EngineDataRecord.CYLINDER_HEAD_TEMPERATURE_COOLING_RATE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasOilTemperature() {
+      return has(container, EngineDataRecord.OIL_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getOilTemperature() {
+      return getInt(container, EngineDataRecord.OIL_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasCompressorDischargeTemperature() {
+      return has(container, EngineDataRecord.COMPRESSOR_DISCHARGE_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getCompressorDischargeTemperature() {
+      return getInt(container, EngineDataRecord.COMPRESSOR_DISCHARGE_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasInductionAirTemperature() {
+      return has(container, EngineDataRecord.INDUCTION_AIR_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getInductionAirTemperature() {
+      return getInt(container, EngineDataRecord.INDUCTION_AIR_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasInterstageTurbineTemperature() {
+      return has(container, EngineDataRecord.INTERSTAGE_TURBINE_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getInterstageTurbineTemperature() {
+      return getInt(container, EngineDataRecord.INTERSTAGE_TURBINE_TEMPERATURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getFuelUsedCount() {
+      return count(container, EngineDataRecord.FUEL_USED_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getFuelUsed(int index) {
+      return getFloat(container, EngineDataRecord.FUEL_USED_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public int getFuelFlowCount() {
+      return count(container, EngineDataRecord.FUEL_FLOW_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getFuelFlow(int index) {
+      return getFloat(container, EngineDataRecord.FUEL_FLOW_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public boolean hasFuelPressure() {
+      return has(container, EngineDataRecord.FUEL_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getFuelPressure() {
+      return getFloat(container, EngineDataRecord.FUEL_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getFuelLevelCount() {
+      return count(container, EngineDataRecord.FUEL_LEVEL_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getFuelLevel(int index) {
+      return getFloat(container, EngineDataRecord.FUEL_LEVEL_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public boolean hasOilPressure() {
+      return has(container, EngineDataRecord.OIL_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getOilPressure() {
+      return getInt(container, EngineDataRecord.OIL_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasManifoldPressure() {
+      return has(container, EngineDataRecord.MANIFOLD_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getManifoldPressure() {
+      return getFloat(container, EngineDataRecord.MANIFOLD_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getHydraulicPressureCount() {
+      return count(container, EngineDataRecord.HYDRAULIC_PRESSURE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getHydraulicPressure(int index) {
+      return getInt(container, EngineDataRecord.HYDRAULIC_PRESSURE_FIELD_NUMBER, index);
+    }
+
+    @Override
+    public boolean hasHorsepower() {
+      return has(container, EngineDataRecord.HORSEPOWER_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getHorsepower() {
+      return getInt(container, EngineDataRecord.HORSEPOWER_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasRpm() {
+      return has(container, EngineDataRecord.RPM_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getRpm() {
+      return getInt(container, EngineDataRecord.RPM_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasTorque() {
+      return has(container, EngineDataRecord.TORQUE_FIELD_NUMBER);
+    }
+
+    @Override
+    public int getTorque() {
+      return getInt(container, EngineDataRecord.TORQUE_FIELD_NUMBER);
+    }
+
+    @Override
+    public boolean hasHours() {
+      return has(container, EngineDataRecord.HOURS_FIELD_NUMBER);
+    }
+
+    @Override
+    public float getHours() {
+      return getFloat(container, EngineDataRecord.HOURS_FIELD_NUMBER);
+    }
+
+    @Override
+    public EngineDataRecord toProto() {
+      EngineDataRecord.Builder builder = EngineDataRecord.newBuilder();
+      for (int i = 0; i < getExhaustGasTemperatureCount(); ++i) {
+        builder.addExhaustGasTemperature(getExhaustGasTemperature(i));
+      }
+      if (hasMaxExhaustGasTemperatureDifference()) {
+        builder.setMaxExhaustGasTemperatureDifference(getMaxExhaustGasTemperatureDifference());
+      }
+      for (int i = 0; i < getTurbineInletTemperatureCount(); ++i) {
+        builder.addTurbineInletTemperature(getTurbineInletTemperature(i));
+      }
+      for (int i = 0; i < getCylinderHeadTemperatureCount(); ++i) {
+        builder.addCylinderHeadTemperature(getCylinderHeadTemperature(i));
+      }
+      if (hasCylinderHeadTemperatureCoolingRate()) {
+        builder.setCylinderHeadTemperatureCoolingRate(getCylinderHeadTemperatureCoolingRate());
+      }
+      if (hasOilTemperature()) {
+        builder.setOilTemperature(getOilTemperature());
+      }
+      if (hasCompressorDischargeTemperature()) {
+        builder.setCompressorDischargeTemperature(getCompressorDischargeTemperature());
+      }
+      if (hasInductionAirTemperature()) {
+        builder.setInductionAirTemperature(getInductionAirTemperature());
+      }
+      if (hasInterstageTurbineTemperature()) {
+        builder.setInterstageTurbineTemperature(getInterstageTurbineTemperature());
+      }
+      for (int i = 0; i < getFuelUsedCount(); ++i) {
+        builder.addFuelUsed(getFuelUsed(i));
+      }
+      for (int i = 0; i < getFuelFlowCount(); ++i) {
+        builder.addFuelFlow(getFuelFlow(i));
+      }
+      if (hasFuelPressure()) {
+        builder.setFuelPressure(getFuelPressure());
+      }
+      for (int i = 0; i < getFuelLevelCount(); ++i) {
+        builder.addFuelLevel(getFuelLevel(i));
+      }
+      if (hasOilPressure()) {
+        builder.setOilPressure(getOilPressure());
+      }
+      if (hasManifoldPressure()) {
+        builder.setManifoldPressure(getManifoldPressure());
+      }
+      for (int i = 0; i < getHydraulicPressureCount(); ++i) {
+        builder.addHydraulicPressure(getHydraulicPressure(i));
+      }
+      if (hasHorsepower()) {
+        builder.setHorsepower(getHorsepower());
+      }
+      if (hasRpm()) {
+        builder.setRpm(getRpm());
+      }
+      if (hasTorque()) {
+        builder.setTorque(getTorque());
+      }
+      if (hasHours()) {
+        builder.setHours(getHours());
+      }
+      return builder.build();
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+
+/**
+ * Read-only access to a {@link DataRecord} without materializing the message.
+ *
+ * <p>Getters behave like those of {@link DataRecord}: absent optional fields return their
+ * default, and indexing past the end of a repeated field throws.
+ */
+public interface DataRecordView {
+  int getVoltageCount();
+  float getVoltage(int index);
+
+  int getAmperageCount();
+  int getAmperage(int index);
+
+  boolean hasOutsideAirTemperature();
+  int getOutsideAirTemperature();
+
+  boolean hasMark();
+  Mark getMark();
+
+  int getEngineCount();
+  /** The returned view may be reused; it is only valid until the underlying record changes. */
+  EngineDataRecordView getEngine(int index);
+
+  int getParseWarningCount();
+  String getParseWarning(int index);
+
+  /** Builds a {@link DataRecord} equal to the one the proto decoder produces. */
+  DataRecord toProto();
+}
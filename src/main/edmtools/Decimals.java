@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+/**
+ * Number formatting for the text encoders, which spend most of their time printing floats.
+ *
+ * <p>EDM values have at most one decimal place, which is printed directly rather than through
+ * {@link Float#toString}'s general algorithm.
+ */
+final class Decimals {
+  /** Above this, a float's spacing exceeds 0.0625 and several tenths may round to it. */
+  private static final float MAX_DIRECT = 1 << 20;
+
+  private Decimals() {}
+
+  /** Appends exactly what {@link StringBuilder#append(float)} would. */
+  static StringBuilder appendFloat(StringBuilder out, float value) {
+    // Excludes NaN, infinities, signed zeros and large values.
+    if (value != 0 && value > -MAX_DIRECT && value < MAX_DIRECT) {
+      long tenths = Math.round(value * 10.0);
+      if ((float) (tenths / 10.0) == value) {
+        if (tenths < 0) {
+          out.append('-');
+          tenths = -tenths;
+        }
+        return out.append(tenths / 10).append('.').append((char) ('0' + tenths % 10));
+      }
+    }
+    return out.append(value);
+  }
+
+  /** Appends {@code value}, rounded to tenths, with exactly one decimal place. */
+  static StringBuilder appendTenths(StringBuilder out, float value) {
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      return out.append(value);
+    }
+    long tenths = Math.round(value * 10.0);
+    if (tenths < 0) {
+      out.append('-');
+      tenths = -tenths;
+    }
+    return out.append(tenths / 10).append('.').append((char) ('0' + tenths % 10));
+  }
+
+  /** Appends {@code value}, which must be in [0, 100), as two digits. */
+  static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+    return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+}
@@ -0,0 +1,414 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.io.CountingInputStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP service which decodes uploaded JPI files, so that callers need not start a JVM per
+ * file.
+ *
+ * <p>{@code POST /decode?format=<format>&name=<name>} decodes the request body (a plain,
+ * gzip-compressed or zipped JPI file, as read by {@link JpiArchiveReader}) with the named
+ * format's {@link BatchDecoder.Decoder}, and streams the output back as a chunked response
+ * while decoding.  A malformed query, or a file which fails before any output is written, gets
+ * a 400 response; one which fails later has its connection dropped, so the client sees an
+ * incomplete response.
+ * {@code GET /stats} returns the counters and latencies of {@link Stats} as text.
+ *
+ * <p>Each request runs on its own thread: a virtual thread when the JVM has them.  At most
+ * {@code maxConcurrency} uploads are decoded at once and at most {@code maxQueued} more wait
+ * for a turn; further uploads are refused with 503 and a {@code Retry-After} header.
+ */
+public final class DecodeServer implements Closeable {
+  private static final Logger logger = Logger.getLogger(DecodeServer.class.getName());
+
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int NUM_LATENCIES = 4096;
+  private static final int STOP_DELAY_SECONDS = 1;
+  /** Pooled threads beyond those admitted, so that refusals and stats are still answered. */
+  private static final int SPARE_THREADS = 4;
+  private static final Splitter.MapSplitter QUERY_SPLITTER =
+      Splitter.on('&').omitEmptyStrings().withKeyValueSeparator('=');
+
+  /** An output format: its decoder and the content type of its output. */
+  private static final class Format {
+    final String contentType;
+    final BatchDecoder.Decoder decoder;
+
+    Format(String contentType, BatchDecoder.Decoder decoder) {
+      this.contentType = contentType;
+      this.decoder = decoder;
+    }
+  }
+
+  /** A snapshot of the service's counters. */
+  public static final class Stats {
+    private final long numCompleted;
+    private final long numFailed;
+    private final long numRejected;
+    private final int numActive;
+    private final int numQueued;
+    private final long numBytes;
+    private final long uptimeNanos;
+    private final long latencyNanos[];
+
+    private Stats(long numCompleted, long numFailed, long numRejected, int numActive,
+        int numQueued, long numBytes, long uptimeNanos, long latencyNanos[]) {
+      this.numCompleted = numCompleted;
+      this.numFailed = numFailed;
+      this.numRejected = numRejected;
+      this.numActive = numActive;
+      this.numQueued = numQueued;
+      this.numBytes = numBytes;
+      this.uptimeNanos = uptimeNanos;
+      this.latencyNanos = latencyNanos;
+      Arrays.sort(latencyNanos);
+    }
+
+    /** The number of uploads decoded successfully. */
+    public long getCompletedCount() {
+      return numCompleted;
+    }
+
+    /** The number of uploads which failed to decode. */
+    public long getFailedCount() {
+      return numFailed;
+    }
+
+    /** The number of uploads refused because the queue was full. */
+    public long getRejectedCount() {
+      return numRejected;
+    }
+
+    public int getActiveCount() {
+      return numActive;
+    }
+
+    public int getQueuedCount() {
+      return numQueued;
+    }
+
+    /** The number of upload bytes read. */
+    public long getBytes() {
+      return numBytes;
+    }
+
+    /** Upload bytes read per second since the service started. */
+    public double getMegabytesPerSecond() {
+      return uptimeNanos == 0 ? 0 : numBytes / 1e6 / (uptimeNanos / 1e9);
+    }
+
+    /**
+     * Returns the given quantile (0 to 1) of the latencies, queueing included, of recent
+     * uploads, or 0 if there were none.
+     */
+    public double getLatencyMillis(double quantile) {
+      Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "Bad quantile %s", quantile);
+      if (latencyNanos.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(quantile * latencyNanos.length) - 1;
+      return latencyNanos[Math.max(0, index)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("completed %d\nfailed %d\nrejected %d\nactive %d\nqueued %d\n"
+          + "bytes %d\nmegabytes_per_second %.2f\n"
+          + "latency_ms_p50 %.1f\nlatency_ms_p90 %.1f\nlatency_ms_p99 %.1f\n",
+          numCompleted, numFailed, numRejected, numActive, numQueued, numBytes,
+          getMegabytesPerSecond(), getLatencyMillis(0.5), getLatencyMillis(0.9),
+          getLatencyMillis(0.99));
+    }
+  }
+
+  private final Map<String, Format> formats = new LinkedHashMap<>();
+  private final int maxConcurrency;
+  private final int maxQueued;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final long startNanos = System.nanoTime();
+
+  /** Uploads decoding or waiting to. */
+  private final AtomicInteger numAdmitted = new AtomicInteger();
+  private final AtomicInteger numActive = new AtomicInteger();
+  private final AtomicLong numCompleted = new AtomicLong();
+  private final AtomicLong numFailed = new AtomicLong();
+  private final AtomicLong numRejected = new AtomicLong();
+  private final AtomicLong numBytes = new AtomicLong();
+
+  /** The latencies of the last {@link #NUM_LATENCIES} uploads, guarded by itself. */
+  private final long latencyNanos[] = new long[NUM_LATENCIES];
+  private long numLatencies;
+
+  /**
+   * Creates a service bound to {@code address} (port 0 picks a free port).  Formats must be
+   * added before {@link #start}.
+   */
+  public DecodeServer(InetSocketAddress address, int maxConcurrency, int maxQueued)
+      throws IOException {
+    Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+    Preconditions.checkArgument(maxQueued >= 0, "maxQueued must not be negative");
+    this.maxConcurrency = maxConcurrency;
+    this.maxQueued = maxQueued;
+    this.permits = new Semaphore(maxConcurrency);
+    this.server = HttpServer.create(address, 0);
+    this.executor = VirtualThreads.newExecutor(maxConcurrency + maxQueued + SPARE_THREADS);
+    server.setExecutor(executor);
+    server.createContext("/decode", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        // An exception leaves the exchange open, so the server drops the connection and a
+        // response cut short is not mistaken for a complete one.
+        handleDecode(exchange);
+        exchange.close();
+      }
+    });
+    server.createContext("/stats", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          sendText(exchange, 200, getStats().toString());
+        } finally {
+          exchange.close();
+        }
+      }
+    });
+  }
+
+  /** Adds a format, selected by {@code ?format=name}.  The first format added is the default. */
+  public DecodeServer addFormat(String name, String contentType, BatchDecoder.Decoder decoder) {
+    formats.put(name, new Format(contentType, decoder));
+    return this;
+  }
+
+  public void start() {
+    Preconditions.checkState(!formats.isEmpty(), "No formats");
+    server.start();
+  }
+
+  /** The port the service listens on. */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  public Stats getStats() {
+    long latencies[];
+    synchronized (latencyNanos) {
+      latencies = Arrays.copyOf(latencyNanos, (int) Math.min(numLatencies, NUM_LATENCIES));
+    }
+    int active = numActive.get();
+    return new Stats(numCompleted.get(), numFailed.get(), numRejected.get(), active,
+        Math.max(0, numAdmitted.get() - active), numBytes.get(), System.nanoTime() - startNanos,
+        latencies);
+  }
+
+  /** Stops accepting uploads, and waits briefly for those in progress to finish. */
+  @Override
+  public void close() {
+    server.stop(STOP_DELAY_SECONDS);
+    executor.shutdown();
+    try {
+      executor.awaitTermination(STOP_DELAY_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void handleDecode(HttpExchange exchange) throws IOException {
+    if (!exchange.getRequestMethod().equals("POST")) {
+      exchange.getResponseHeaders().set("Allow", "POST");
+      sendText(exchange, 405, "Use POST\n");
+      return;
+    }
+    Map<String, String> query;
+    try {
+      query = parseQuery(exchange.getRequestURI().getRawQuery());
+    } catch (IllegalArgumentException e) {
+      sendText(exchange, 400, String.format("Malformed query: %s\n", e.getMessage()));
+      return;
+    }
+    String formatName = query.containsKey("format")
+        ? query.get("format") : formats.keySet().iterator().next();
+    Format format = formats.get(formatName);
+    if (format == null) {
+      sendText(exchange, 400, String.format("Unknown format %s; use one of %s\n",
+          formatName, formats.keySet()));
+      return;
+    }
+    String name = query.containsKey("name") ? query.get("name") : "upload.jpi";
+
+    if (numAdmitted.incrementAndGet() > maxConcurrency + maxQueued) {
+      numAdmitted.decrementAndGet();
+      numRejected.incrementAndGet();
+      exchange.getResponseHeaders().set("Retry-After", "1");
+      sendText(exchange, 503, "Busy\n");
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      numAdmitted.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted waiting to decode " + name, e);
+    }
+    numActive.incrementAndGet();
+    try {
+      decode(exchange, name, format);
+    } finally {
+      numActive.decrementAndGet();
+      permits.release();
+      numAdmitted.decrementAndGet();
+      recordLatency(System.nanoTime() - start);
+    }
+  }
+
+  private void decode(final HttpExchange exchange, String name, final Format format)
+      throws IOException {
+    CountingInputStream upload = new CountingInputStream(exchange.getRequestBody());
+    ResponseStream response = new ResponseStream(exchange, format.contentType);
+    final OutputStream out = new BufferedOutputStream(response, BUFFER_SIZE);
+    try {
+      int numFiles = JpiArchiveReader.read(name, new BufferedInputStream(upload, BUFFER_SIZE),
+          new JpiArchiveReader.Visitor() {
+            @Override
+            public void visit(String name, JpiInputStream inputStream) throws IOException {
+              format.decoder.decode(name, inputStream, out);
+            }
+          });
+      if (numFiles == 0) {
+        throw new IOException("No JPI file in upload");
+      }
+      out.flush();
+      numCompleted.incrementAndGet();
+    } catch (IOException | RuntimeException e) {
+      numFailed.incrementAndGet();
+      if (response.isCommitted()) {
+        logger.log(Level.WARNING, "Failed decoding " + name + " after output began", e);
+        throw new IOException("Response to " + name + " cut short", e);
+      } else {
+        logger.log(Level.FINE, "Failed decoding " + name, e);
+        sendText(exchange, 400, String.format("Unable to decode %s: %s\n", name, e));
+      }
+    } finally {
+      numBytes.addAndGet(upload.getCount());
+    }
+  }
+
+  private void recordLatency(long nanos) {
+    synchronized (latencyNanos) {
+      latencyNanos[(int) (numLatencies++ % NUM_LATENCIES)] = nanos;
+    }
+  }
+
+  /**
+   * Splits a query into its decoded parameters.
+   *
+   * @throws IllegalArgumentException if a parameter has no value, is repeated or is badly escaped
+   */
+  private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+    Map<String, String> result = new HashMap<>();
+    if (rawQuery == null) {
+      return result;
+    }
+    for (Map.Entry<String, String> entry : QUERY_SPLITTER.split(rawQuery).entrySet()) {
+      result.put(URLDecoder.decode(entry.getKey(), "UTF-8"),
+          URLDecoder.decode(entry.getValue(), "UTF-8"));
+    }
+    return result;
+  }
+
+  private static void sendText(HttpExchange exchange, int status, String text)
+      throws IOException {
+    byte bytes[] = text.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  /**
+   * The body of a successful response, whose headers are sent on the first write so that a
+   * failure before any output may still be reported with an error status.  The body is sent
+   * chunked.
+   */
+  private static final class ResponseStream extends OutputStream {
+    private final HttpExchange exchange;
+    private final String contentType;
+    private OutputStream body;
+
+    ResponseStream(HttpExchange exchange, String contentType) {
+      this.exchange = exchange;
+      this.contentType = contentType;
+    }
+
+    boolean isCommitted() {
+      return body != null;
+    }
+
+    private OutputStream commit() throws IOException {
+      if (body == null) {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, 0);
+        body = exchange.getResponseBody();
+      }
+      return body;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      commit().write(b);
+    }
+
+    @Override
+    public void write(byte b[], int offset, int length) throws IOException {
+      commit().write(b, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      commit().flush();
+    }
+  }
+}
@@ -0,0 +1,357 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.FieldMaskUtil;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiFileLayout.FlightRange;
+import edmtools.Proto.Flight;
+
+/**
+ * Decoded flights, cached by the content of the flight's bytes so that a flight decodes once
+ * no matter how many downloads contain it.
+ *
+ * <p>A flight is keyed by its {@link FlightFingerprint} hash, {@link JpiDecoder#DECODER_VERSION}
+ * and a projection: a {@link FieldMask} of {@link Flight} paths to keep, which may pass through
+ * repeated messages (as in {@code data.engine.exhaust_gas_temperature}).  An empty mask keeps the
+ * whole flight.
+ *
+ * <p>Flights are held in a memory tier bounded by their serialized size and evicted in LRU
+ * order, and optionally in a directory of serialized {@link Flight} protos which is never
+ * evicted.  The fingerprints of each file are computed once per file size and modification
+ * time, so a warm read does not touch the file's contents.
+ *
+ * <p>Instances are safe for concurrent use; concurrent misses on one key decode it once.
+ */
+public final class DecodedFlightCache {
+  private static final Logger logger = Logger.getLogger(DecodedFlightCache.class.getName());
+  private static final String SUFFIX = ".flight";
+  private static final int MAX_FILES = 10000;
+
+  private static final class Key {
+    final HashCode hash;
+    final int decoderVersion;
+    final FieldMask projection;
+
+    Key(HashCode hash, int decoderVersion, FieldMask projection) {
+      this.hash = hash;
+      this.decoderVersion = decoderVersion;
+      this.projection = projection;
+    }
+
+    /** A filename unique to this key. */
+    String getFilename() {
+      return String.format("%s.%d.%s%s", hash, decoderVersion, Hashing.murmur3_32().hashString(
+          FieldMaskUtil.toString(projection), Charsets.UTF_8), SUFFIX);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) object;
+      return this.hash.equals(that.hash)
+          && this.decoderVersion == that.decoderVersion
+          && this.projection.equals(that.projection);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(hash, decoderVersion, projection);
+    }
+  }
+
+  /** A version of a file on disk. */
+  private static final class FileKey {
+    final String path;
+    final long length;
+    final long lastModified;
+
+    FileKey(File file) throws IOException {
+      this.path = file.getCanonicalPath();
+      this.length = file.length();
+      this.lastModified = file.lastModified();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof FileKey)) {
+        return false;
+      }
+      FileKey that = (FileKey) object;
+      return this.path.equals(that.path)
+          && this.length == that.length
+          && this.lastModified == that.lastModified;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(path, length, lastModified);
+    }
+  }
+
+  /** A field of a projection; a node without children keeps the whole field. */
+  private static final class Projection {
+    final Map<String, Projection> children = new TreeMap<>();
+
+    static Projection of(FieldMask mask) {
+      Projection root = new Projection();
+      for (String path : mask.getPathsList()) {
+        Projection node = root;
+        for (String name : path.split("\\.")) {
+          Projection child = node.children.get(name);
+          if (child == null) {
+            child = new Projection();
+            node.children.put(name, child);
+          }
+          node = child;
+        }
+      }
+      return root;
+    }
+
+    /** Copies the projected fields of {@code message}, descending into repeated fields. */
+    Message apply(Message message) {
+      Message.Builder builder = message.newBuilderForType();
+      for (Map.Entry<String, Projection> entry : children.entrySet()) {
+        FieldDescriptor field = message.getDescriptorForType().findFieldByName(entry.getKey());
+        if (field.isRepeated()) {
+          for (Object value : (List<?>) message.getField(field)) {
+            builder.addRepeatedField(field, entry.getValue().apply(value));
+          }
+        } else if (message.hasField(field)) {
+          builder.setField(field, entry.getValue().apply(message.getField(field)));
+        }
+      }
+      return builder.build();
+    }
+
+    private Object apply(Object value) {
+      return children.isEmpty() || !(value instanceof Message) ? value : apply((Message) value);
+    }
+  }
+
+  private final File directory;
+  private final Cache<Key, Flight> flights;
+  private final Cache<FileKey, Map<Integer, HashCode>> fileHashes;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong diskHitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Creates a cache holding up to {@code maxMemoryBytes} of serialized flights in memory and,
+   * if {@code directory} is not null, every flight decoded in that directory.
+   */
+  public DecodedFlightCache(long maxMemoryBytes, File directory) {
+    Preconditions.checkArgument(maxMemoryBytes >= 0, "maxMemoryBytes must not be negative");
+    Preconditions.checkArgument(directory == null || directory.isDirectory(),
+        "%s is not a directory", directory);
+    this.directory = directory;
+    this.flights = CacheBuilder.newBuilder()
+        .maximumWeight(maxMemoryBytes)
+        .weigher(new Weigher<Key, Flight>() {
+          @Override
+          public int weigh(Key key, Flight flight) {
+            return flight.getSerializedSize();
+          }
+        })
+        .build();
+    this.fileHashes = CacheBuilder.newBuilder().maximumSize(MAX_FILES).build();
+  }
+
+  /**
+   * Returns flight {@code flightNumber} of a JPI file, projected to {@code projection}, or null
+   * if the file has no such flight.
+   */
+  public Flight get(final File file, final int flightNumber, FieldMask projection)
+      throws IOException {
+    final FieldMask normalized = FieldMaskUtil.normalize(projection);
+    for (String path : normalized.getPathsList()) {
+      checkPath(Flight.getDescriptor(), path);
+    }
+    HashCode hash = getFileHashes(file).get(flightNumber);
+    if (hash == null) {
+      return null;
+    }
+    final Key key = new Key(hash, JpiDecoder.DECODER_VERSION, normalized);
+    Flight flight = flights.getIfPresent(key);
+    if (flight != null) {
+      hitCount.incrementAndGet();
+      return flight;
+    }
+    return get(key, new Callable<Flight>() {
+      @Override
+      public Flight call() throws IOException {
+        Flight flight = readFromDisk(key);
+        if (flight != null) {
+          diskHitCount.incrementAndGet();
+          return flight;
+        }
+        missCount.incrementAndGet();
+        flight = decode(file, flightNumber, normalized);
+        writeToDisk(key, flight);
+        return flight;
+      }
+    });
+  }
+
+  /** The number of reads served from memory. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** The number of reads served from the directory. */
+  public long getDiskHitCount() {
+    return diskHitCount.get();
+  }
+
+  /** The number of reads which decoded the flight. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /** Drops every flight from memory; the directory is kept. */
+  public void invalidateMemory() {
+    flights.invalidateAll();
+  }
+
+  private Map<Integer, HashCode> getFileHashes(final File file) throws IOException {
+    return get(fileHashes, new FileKey(file), new Callable<Map<Integer, HashCode>>() {
+      @Override
+      public Map<Integer, HashCode> call() throws IOException {
+        JpiFileLayout layout = JpiFileLayout.read(file);
+        ImmutableMap.Builder<Integer, HashCode> result = ImmutableMap.builder();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+          for (FlightRange flight : layout.getFlights()) {
+            result.put(flight.getFlightNumber(), FlightFingerprint.of(
+                layout.getMetadata().getRegistration(), flight, channel).getHash());
+          }
+        }
+        return result.build();
+      }
+    });
+  }
+
+  private Flight get(Key key, Callable<Flight> loader) throws IOException {
+    return get(flights, key, loader);
+  }
+
+  private static <K, V> V get(Cache<K, V> cache, K key, Callable<V> loader) throws IOException {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private static Flight decode(File file, int flightNumber, FieldMask projection)
+      throws IOException {
+    List<Flight> decoded = JpiDecoder.decode(new JpiInputStream(file.getPath()),
+        JpiDecoderConfiguration.newBuilder().withExactFlightNumber(flightNumber).build())
+        .getFlightList();
+    if (decoded.size() != 1) {
+      throw new IOException(String.format("Flight %d of %s did not decode", flightNumber, file));
+    }
+    Flight flight = decoded.get(0);
+    if (projection.getPathsCount() == 0) {
+      return flight;
+    }
+    return (Flight) Projection.of(projection).apply(flight);
+  }
+
+  private Flight readFromDisk(Key key) throws IOException {
+    if (directory == null) {
+      return null;
+    }
+    File file = new File(directory, key.getFilename());
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return Flight.parseFrom(Files.readAllBytes(file.toPath()));
+    } catch (IOException e) {
+      logger.warning(String.format("Ignoring unreadable cached flight %s: %s", file, e));
+      return null;
+    }
+  }
+
+  private void writeToDisk(Key key, Flight flight) throws IOException {
+    if (directory == null) {
+      return;
+    }
+    File file = new File(directory, key.getFilename());
+    File temporary = File.createTempFile(key.hash.toString(), ".tmp", directory);
+    try {
+      try (OutputStream out = new FileOutputStream(temporary)) {
+        flight.writeTo(out);
+      }
+      Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      temporary.delete();
+    }
+  }
+
+  private static void checkPath(Descriptor descriptor, String path) {
+    int dot = path.indexOf('.');
+    String name = dot < 0 ? path : path.substring(0, dot);
+    FieldDescriptor field = descriptor.findFieldByName(name);
+    Preconditions.checkArgument(field != null, "Unknown field %s in %s", name, descriptor);
+    if (dot >= 0) {
+      Preconditions.checkArgument(field.getJavaType() == FieldDescriptor.JavaType.MESSAGE,
+          "%s is not a message", field);
+      checkPath(field.getMessageType(), path.substring(dot + 1));
+    }
+  }
+}
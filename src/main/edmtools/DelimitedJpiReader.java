@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.CodedInputStream;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/** Reads a stream written by {@link DelimitedJpiWriter}. */
+public final class DelimitedJpiReader {
+  /** Receives the messages of the stream as they are read. */
+  public interface Visitor {
+    void visitMetadata(Metadata metadata) throws IOException;
+
+    /** Called before the flight's {@code recordCount} records. */
+    void visitFlight(Flight header, int recordCount) throws IOException;
+
+    void visitRecord(DataRecord record) throws IOException;
+
+    /** Called after the last flight of each file. */
+    void endFile() throws IOException;
+  }
+
+  private DelimitedJpiReader() {}
+
+  /** Reads every file in the stream, calling {@code visitor} for each message. */
+  public static void read(InputStream in, Visitor visitor) throws IOException {
+    Metadata metadata;
+    while ((metadata = Metadata.parseDelimitedFrom(in)) != null) {
+      visitor.visitMetadata(metadata);
+      while (true) {
+        byte header[] = readDelimited(in);
+        if (header.length == 0) {
+          break;
+        }
+        int recordCount = readVarint(in);
+        visitor.visitFlight(Flight.parseFrom(header), recordCount);
+        for (int i = 0; i < recordCount; ++i) {
+          visitor.visitRecord(DataRecord.parseFrom(readDelimited(in)));
+        }
+      }
+      visitor.endFile();
+    }
+  }
+
+  /** Reads every file in the stream into memory. */
+  public static List<JpiFile> readAll(InputStream in) throws IOException {
+    final List<JpiFile> result = new ArrayList<>();
+    read(in, new Visitor() {
+      private JpiFile.Builder jpiFile;
+      private Flight.Builder flight;
+
+      @Override
+      public void visitMetadata(Metadata metadata) {
+        jpiFile = JpiFile.newBuilder().setMetadata(metadata);
+      }
+
+      @Override
+      public void visitFlight(Flight header, int recordCount) {
+        flight = jpiFile.addFlightBuilder().mergeFrom(header);
+      }
+
+      @Override
+      public void visitRecord(DataRecord record) {
+        flight.addData(record);
+      }
+
+      @Override
+      public void endFile() {
+        result.add(jpiFile.build());
+      }
+    });
+    return result;
+  }
+
+  private static byte[] readDelimited(InputStream in) throws IOException {
+    byte bytes[] = new byte[readVarint(in)];
+    ByteStreams.readFully(in, bytes);
+    return bytes;
+  }
+
+  private static int readVarint(InputStream in) throws IOException {
+    int firstByte = in.read();
+    if (firstByte == -1) {
+      throw new EOFException("Truncated delimited stream");
+    }
+    return CodedInputStream.readRawVarint32(firstByte, in);
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.protobuf.CodedOutputStream;
+
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Streams decoded flights as length-delimited protocol buffers, one message at a time, so that
+ * a consumer can process each flight (and each record) as soon as it is decoded.
+ *
+ * <p>For each JPI file the stream holds:
+ * <ul>
+ * <li>the {@link Metadata}, written with {@code writeDelimitedTo};
+ * <li>for each flight, the {@link Flight} header (without {@code data}), written with
+ *   {@code writeDelimitedTo}, then the number of records as a varint, then each
+ *   {@link Proto.DataRecord}, written with {@code writeDelimitedTo};
+ * <li>a zero-length message, which ends the file.  Another file may follow.
+ * </ul>
+ * {@link DelimitedJpiReader} reads the stream back.
+ */
+public final class DelimitedJpiWriter implements JpiDecoder.FlightVisitor {
+  private final OutputStream out;
+  private boolean inFile;
+
+  /** {@code out} should be buffered; the writer does not flush or close it. */
+  public DelimitedJpiWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) throws IOException {
+    finishFile();
+    metadata.writeDelimitedTo(out);
+    inFile = true;
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    header.writeDelimitedTo(out);
+    writeVarint(records.size());
+    while (records.next()) {
+      records.toProto().writeDelimitedTo(out);
+    }
+  }
+
+  /** Ends the current file, if any.  Must be called after the last file. */
+  public void finishFile() throws IOException {
+    if (inFile) {
+      writeVarint(0);
+      inFile = false;
+    }
+  }
+
+  private void writeVarint(int value) throws IOException {
+    byte bytes[] = new byte[CodedOutputStream.computeUInt32SizeNoTag(value)];
+    CodedOutputStream coded = CodedOutputStream.newInstance(bytes);
+    coded.writeUInt32NoTag(value);
+    coded.flush();
+    out.write(bytes);
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import edmtools.Proto.EngineDataRecord;
+
+/**
+ * Read-only access to an {@link EngineDataRecord} without materializing the message.
+ *
+ * @see DataRecordView
+ */
+public interface EngineDataRecordView {
+  int getExhaustGasTemperatureCount();
+  int getExhaustGasTemperature(int index);
+
+  boolean hasMaxExhaustGasTemperatureDifference();
+  int getMaxExhaustGasTemperatureDifference();
+
+  int getTurbineInletTemperatureCount();
+  int getTurbineInletTemperature(int index);
+
+  int getCylinderHeadTemperatureCount();
+  int getCylinderHeadTemperature(int index);
+
+  boolean hasCylinderHeadTemperatureCoolingRate();
+  int getCylinderHeadTemperatureCoolingRate();
+
+  boolean hasOilTemperature();
+  int getOilTemperature();
+
+  boolean hasCompressorDischargeTemperature();
+  int getCompressorDischargeTemperature();
+
+  boolean hasInductionAirTemperature();
+  int getInductionAirTemperature();
+
+  boolean hasInterstageTurbineTemperature();
+  int getInterstageTurbineTemperature();
+
+  int getFuelUsedCount();
+  float getFuelUsed(int index);
+
+  int getFuelFlowCount();
+  float getFuelFlow(int index);
+
+  boolean hasFuelPressure();
+  float getFuelPressure();
+
+  int getFuelLevelCount();
+  float getFuelLevel(int index);
+
+  boolean hasOilPressure();
+  int getOilPressure();
+
+  boolean hasManifoldPressure();
+  float getManifoldPressure();
+
+  int getHydraulicPressureCount();
+  int getHydraulicPressure(int index);
+
+  boolean hasHorsepower();
+  int getHorsepower();
+
+  boolean hasRpm();
+  int getRpm();
+
+  boolean hasTorque();
+  int getTorque();
+
+  boolean hasHours();
+  float getHours();
+
+  /** Builds an {@link EngineDataRecord} equal to the one the proto decoder produces. */
+  EngineDataRecord toProto();
+}
@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The data columns of JPI's EZSave CSV files, by header label, and the {@link Proto.DataRecord}
+ * path (see {@link BuilderUtil}) each holds.  Only the first engine is exported.
+ */
+final class EzSaveColumns {
+  static final String DATE = "Date";
+  static final String TIME = "TIME";
+  static final String MARK = "MARK";
+
+  private static final String ENGINE = "engine[0].";
+  private static final String EXHAUST_GAS_TEMPERATURE_PREFIX = "E";
+  private static final String CYLINDER_HEAD_TEMPERATURE_PREFIX = "C";
+
+  /** The paths of the labels other than En and Cn, in EZSave's column order. */
+  private static final Map<String, String> PATHS = ImmutableMap.<String, String>builder()
+      .put("T1", ENGINE + "turbine_inlet_temperature[0]")
+      .put("T2", ENGINE + "turbine_inlet_temperature[1]")
+      .put("OILT", ENGINE + "oil_temperature")
+      .put("DIF", ENGINE + "max_exhaust_gas_temperature_difference")
+      .put("CLD", ENGINE + "cylinder_head_temperature_cooling_rate")
+      .put("CDT", ENGINE + "compressor_discharge_temperature")
+      .put("IAT", ENGINE + "induction_air_temperature")
+      .put("OAT", "outside_air_temperature")
+      .put("BAT", "voltage[0]")
+      .put("FF", ENGINE + "fuel_flow[0]")
+      .put("USD", ENGINE + "fuel_used[0]")
+      .put("RPM", ENGINE + "rpm")
+      .put("MAP", ENGINE + "manifold_pressure")
+      .put("HP", ENGINE + "horsepower")
+      .put("OILP", ENGINE + "oil_pressure")
+      .put("HRS", ENGINE + "hours")
+      .put("FF2", ENGINE + "fuel_flow[1]")
+      .put("USD2", ENGINE + "fuel_used[1]")
+      .build();
+
+  private EzSaveColumns() {}
+
+  static String exhaustGasTemperature(int index) {
+    return EXHAUST_GAS_TEMPERATURE_PREFIX + (index + 1);
+  }
+
+  static String cylinderHeadTemperature(int index) {
+    return CYLINDER_HEAD_TEMPERATURE_PREFIX + (index + 1);
+  }
+
+  /** Returns the path of the value in a data column, or null if the label is unknown. */
+  static String getPath(String label) {
+    String path = PATHS.get(label);
+    if (path != null) {
+      return path;
+    }
+    int index = parseIndex(label, EXHAUST_GAS_TEMPERATURE_PREFIX);
+    if (index >= 0) {
+      return ENGINE + "exhaust_gas_temperature[" + index + "]";
+    }
+    index = parseIndex(label, CYLINDER_HEAD_TEMPERATURE_PREFIX);
+    if (index >= 0) {
+      return ENGINE + "cylinder_head_temperature[" + index + "]";
+    }
+    return null;
+  }
+
+  /** Parses the zero-based index of eg "E3", or returns -1. */
+  private static int parseIndex(String label, String prefix) {
+    if (!label.startsWith(prefix) || label.length() == prefix.length()) {
+      return -1;
+    }
+    int number = 0;
+    for (int i = prefix.length(); i < label.length(); ++i) {
+      char c = label.charAt(i);
+      if (c < '0' || c > '9' || number > 100) {
+        return -1;
+      }
+      number = number * 10 + c - '0';
+    }
+    return number - 1;
+  }
+}
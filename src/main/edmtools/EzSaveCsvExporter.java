@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+import org.joda.time.LocalDate;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Writes each decoded flight to its own EZSave CSV file, named
+ * {@code <registration>.<flight number>.csv}, in an output directory.  The registration is
+ * made safe with {@link FileNames#forRegistration}; a name already written by this exporter,
+ * say by a second file in a zip, gets a {@code -2}, {@code -3}, ... suffix.
+ *
+ * <p>Files are formatted and written on a pool of threads while the decoder moves on to the
+ * next flight.  At most two flights per thread wait to be written, which bounds memory use.
+ * {@link #close} waits for every file and rethrows the first failure.
+ */
+public final class EzSaveCsvExporter implements JpiDecoder.FlightVisitor, Closeable {
+  private static final Logger logger = Logger.getLogger(EzSaveCsvExporter.class.getName());
+
+  private final File outputDirectory;
+  private final LocalDate exportDate;
+  private final ExecutorService executor;
+  private final Semaphore pendingFlights;
+  private final List<Future<File>> results = new ArrayList<>();
+  private final Set<String> names = new HashSet<>();
+  private Metadata metadata;
+  private EzSaveCsvWriter writer;
+
+  public EzSaveCsvExporter(File outputDirectory, LocalDate exportDate, int numThreads) {
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be positive");
+    this.outputDirectory = outputDirectory;
+    this.exportDate = exportDate;
+    this.executor = Executors.newFixedThreadPool(numThreads);
+    this.pendingFlights = new Semaphore(numThreads * 2);
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) {
+    this.metadata = metadata;
+    this.writer = new EzSaveCsvWriter(metadata, exportDate);
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    final FlightFrame frame = new FlightFrame(records.getColumns());
+    final EzSaveCsvWriter flightWriter = writer;
+    final File file = new File(outputDirectory, newName(header.getFlightNumber()));
+    try {
+      pendingFlights.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting to write " + file, e);
+    }
+    results.add(executor.submit(new Callable<File>() {
+      @Override
+      public File call() throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16)) {
+          flightWriter.write(frame, out);
+        } finally {
+          pendingFlights.release();
+        }
+        logger.fine("Wrote " + file);
+        return file;
+      }
+    }));
+  }
+
+  private String newName(int flightNumber) {
+    String base = FileNames.forRegistration(metadata.getRegistration()) + "." + flightNumber;
+    String name = base + ".csv";
+    for (int i = 2; !names.add(name); ++i) {
+      name = base + "-" + i + ".csv";
+    }
+    if (!name.equals(base + ".csv")) {
+      logger.warning(String.format("Flight %d of %s written to %s, as its name is taken",
+          flightNumber, metadata.getRegistration(), name));
+    }
+    return name;
+  }
+
+  /** Waits for the files written so far.  Returns them in decode order. */
+  public List<File> await() throws IOException {
+    List<File> files = new ArrayList<>();
+    try {
+      for (Future<File> result : results) {
+        files.add(result.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing CSV files", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to write CSV file", e.getCause());
+    }
+    return files;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      await();
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,521 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Enums;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.google.protobuf.Message;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.EngineDataRecord;
+import edmtools.Proto.Features;
+import edmtools.Proto.Features.TemperatureUnit;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Fuel;
+import edmtools.Proto.Fuel.FuelFlowUnits;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+import edmtools.Proto.Sensors;
+
+/**
+ * Reads CSV files exported by JPI's EZSave program, as {@link EzSaveCsvWriter} writes them,
+ * into a {@link JpiFile} holding one {@link Flight}.
+ *
+ * <p>Data columns are mapped by their header label (see {@link EzSaveColumns}); unknown columns
+ * are skipped.  The flight's {@link Sensors} are inferred from the columns present, and the
+ * {@link Metadata} holds what the preamble tells: registration, model, firmware version and
+ * units.  {@code [} and {@code ]} marks are read as rich-finding marks, which EZSave does not
+ * distinguish from lean-finding ones.
+ *
+ * <p>The file is memory mapped and scanned byte by byte; only the preamble and header row are
+ * decoded to strings.
+ */
+public final class EzSaveCsvReader {
+  private static final Logger logger = Logger.getLogger(EzSaveCsvReader.class.getName());
+  private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+  /** Receives each file's flight, in file order. */
+  public interface Visitor {
+    void visit(File file, JpiFile jpiFile) throws IOException;
+  }
+
+  /** Where a data column's values go. */
+  private static final class Target {
+    final boolean isEngine;
+    final FieldDescriptor field;
+    final boolean isFloat;
+
+    Target(boolean isEngine, FieldDescriptor field) {
+      this.isEngine = isEngine;
+      this.field = field;
+      this.isFloat = field.getJavaType() == JavaType.FLOAT;
+    }
+  }
+
+  private final String name;
+  private final ByteBuffer buffer;
+  private int position;
+  private int lineNumber;
+
+  private EzSaveCsvReader(String name, ByteBuffer buffer) {
+    this.name = name;
+    this.buffer = buffer;
+  }
+
+  /** Reads one EZSave CSV file. */
+  public static JpiFile read(File file) throws IOException {
+    try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+      FileChannel channel = input.getChannel();
+      return read(file.getPath(), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /** Reads EZSave CSV text from the remaining bytes of {@code buffer}. */
+  public static JpiFile read(String name, ByteBuffer buffer) throws IOException {
+    return new EzSaveCsvReader(name, buffer).read();
+  }
+
+  /**
+   * Reads {@code files} on {@code numThreads} threads and passes each result to
+   * {@code visitor} in order.  A few files per thread are read ahead of the visitor.
+   */
+  public static void readAll(List<File> files, int numThreads, Visitor visitor)
+      throws IOException {
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be positive");
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      Deque<Future<JpiFile>> pending = new ArrayDeque<>();
+      int next = 0;
+      for (File file : files) {
+        while (next < files.size() && pending.size() < numThreads * 2) {
+          final File nextFile = files.get(next++);
+          pending.addLast(executor.submit(new Callable<JpiFile>() {
+            @Override
+            public JpiFile call() throws IOException {
+              return read(nextFile);
+            }
+          }));
+        }
+        visitor.visit(file, getResult(pending.removeFirst()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static JpiFile getResult(Future<JpiFile> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading CSV files", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to read CSV file", e.getCause());
+    }
+  }
+
+  private JpiFile read() throws IOException {
+    position = buffer.position();
+    Metadata.Builder metadata = Metadata.newBuilder();
+    Features.Builder features = Features.newBuilder();
+    Flight.Builder flight = Flight.newBuilder();
+
+    // The preamble runs up to the header row.
+    String header = null;
+    while (header == null) {
+      int end = nextLineEnd();
+      if (end < 0) {
+        throw error("No header row");
+      }
+      String line = new String(lineBytes(end), StandardCharsets.US_ASCII).trim();
+      if (line.startsWith(EzSaveColumns.DATE + ",")) {
+        header = line;
+      } else {
+        parsePreambleLine(line, metadata, features, flight);
+      }
+    }
+
+    String labels[] = header.split(",");
+    Target targets[] = new Target[labels.length];
+    int timeColumn = -1;
+    int markColumn = -1;
+    Sensors.Builder sensors = Sensors.newBuilder();
+    for (int i = 1; i < labels.length; ++i) {
+      String label = labels[i].trim();
+      if (label.equals(EzSaveColumns.TIME)) {
+        timeColumn = i;
+      } else if (label.equals(EzSaveColumns.MARK)) {
+        markColumn = i;
+      } else {
+        targets[i] = getTarget(label);
+        if (targets[i] == null) {
+          logger.warning(String.format("%s: ignoring unknown column %s", name, label));
+        } else {
+          addSensor(sensors, label);
+        }
+      }
+    }
+    if (timeColumn < 0) {
+      throw error("No TIME column");
+    }
+    flight.setSensors(sensors);
+    features.setSensors(sensors);
+
+    int fieldStarts[] = new int[labels.length + 1];
+    for (int end = nextLineEnd(); end >= 0; end = nextLineEnd()) {
+      int numFields = splitFields(end, fieldStarts);
+      position = skipLineBreak(end);
+      if (numFields == 1 && fieldStarts[1] - 1 == fieldStarts[0]) {
+        continue;  // Blank line.
+      }
+      if (numFields != labels.length) {
+        throw error(String.format("Expected %d fields but found %d", labels.length, numFields));
+      }
+      if (flight.getDataCount() == 0) {
+        flight.setStartTimestamp(parseTimestamp(fieldStarts[0], fieldStarts[1] - 1,
+            fieldStarts[timeColumn], fieldStarts[timeColumn + 1] - 1));
+      }
+      DataRecord.Builder record = flight.addDataBuilder();
+      EngineDataRecord.Builder engine = null;
+      for (int i = 0; i < numFields; ++i) {
+        if (targets[i] == null) {
+          continue;
+        }
+        int start = skipSpaces(fieldStarts[i], fieldStarts[i + 1] - 1);
+        int fieldEnd = fieldStarts[i + 1] - 1;
+        if (start == fieldEnd || isNotAvailable(start, fieldEnd)) {
+          continue;
+        }
+        Object value = targets[i].isFloat
+            ? (Object) parseFloat(start, fieldEnd) : (Object) parseInt(start, fieldEnd);
+        Message.Builder builder;
+        if (targets[i].isEngine) {
+          if (engine == null) {
+            engine = record.addEngineBuilder();
+          }
+          builder = engine;
+        } else {
+          builder = record;
+        }
+        if (targets[i].field.isRepeated()) {
+          builder.addRepeatedField(targets[i].field, value);
+        } else {
+          builder.setField(targets[i].field, value);
+        }
+      }
+      record.setMark(markColumn < 0
+          ? Mark.NOT_MARKED : parseMark(fieldStarts[markColumn], fieldStarts[markColumn + 1] - 1));
+    }
+
+    return JpiFile.newBuilder()
+        .setMetadata(metadata.setFeatures(features))
+        .addFlight(flight)
+        .build();
+  }
+
+  private static Target getTarget(String label) {
+    String path = EzSaveColumns.getPath(label);
+    if (path == null) {
+      return null;
+    }
+    boolean isEngine = path.startsWith("engine[0].");
+    Descriptor descriptor = isEngine
+        ? EngineDataRecord.getDescriptor() : DataRecord.getDescriptor();
+    String fieldName = path.substring(isEngine ? "engine[0].".length() : 0);
+    if (fieldName.indexOf('[') >= 0) {
+      fieldName = fieldName.substring(0, fieldName.indexOf('['));
+    }
+    return new Target(isEngine, descriptor.findFieldByName(fieldName));
+  }
+
+  private static void addSensor(Sensors.Builder sensors, String label) {
+    switch (label) {
+      case "T1": sensors.setTurbineInletTemperature1(true); break;
+      case "T2": sensors.setTurbineInletTemperature2(true); break;
+      case "OILT": sensors.setOilTemperature(true); break;
+      case "CDT": sensors.setCompressorDischargeTemperature(true); break;
+      case "IAT": sensors.setInductionAirTemperature(true); break;
+      case "OAT": sensors.setOutsideAirTemperature(true); break;
+      case "BAT": sensors.setVoltage(true); break;
+      case "FF": sensors.setFuelFlow(true); break;
+      case "RPM": sensors.setRpm(true); break;
+      case "MAP": sensors.setManifoldPressure(true); break;
+      default:
+        if (label.equals(EzSaveColumns.exhaustGasTemperature(
+            sensors.getNumExhaustGasTemperature()))) {
+          sensors.setNumExhaustGasTemperature(sensors.getNumExhaustGasTemperature() + 1);
+        } else if (label.equals(EzSaveColumns.cylinderHeadTemperature(
+            sensors.getNumCylinderHeadTemperature()))) {
+          sensors.setNumCylinderHeadTemperature(sensors.getNumCylinderHeadTemperature() + 1);
+        }
+    }
+  }
+
+  private void parsePreambleLine(String line, Metadata.Builder metadata,
+      Features.Builder features, Flight.Builder flight) throws IOException {
+    try {
+      parsePreambleFields(line, metadata, features, flight);
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw error("Unexpected preamble line: " + line);
+    }
+  }
+
+  private static void parsePreambleFields(String line, Metadata.Builder metadata,
+      Features.Builder features, Flight.Builder flight) {
+    if (line.startsWith("Aircraft Number ")) {
+      metadata.setRegistration(line.substring("Aircraft Number ".length()).trim());
+    } else if (line.startsWith("Flight #")) {
+      String number = line.substring("Flight #".length()).split(" ")[0];
+      flight.setFlightNumber(Integer.parseInt(number));
+    } else if (line.startsWith("Eng Deg ")) {
+      String fields[] = line.split(" +");
+      features.setEngineTemperatureUnit(
+          fields[2].equals("C") ? TemperatureUnit.CELSIUS : TemperatureUnit.FAHRENHEIT);
+      Optional<FuelFlowUnits> units =
+          Enums.getIfPresent(FuelFlowUnits.class, fields[fields.length - 1]);
+      if (units.isPresent()) {
+        metadata.setFuel(Fuel.newBuilder().setFuelFlowUnits(units.get()));
+      }
+    } else if (line.contains("Interval ")) {
+      String interval = line.substring(line.indexOf("Interval ") + "Interval ".length());
+      flight.setRecordingIntervalSecs(Integer.parseInt(interval.split(" ")[0]));
+    } else if (line.contains(" J.P.Instruments")) {
+      // eg "VM-830 V3.40 J.P.Instruments (c) 2015"
+      String fields[] = line.split(" ");
+      String model = fields[0].substring(fields[0].indexOf('-') + 1);
+      if (!model.isEmpty() && CharMatcher.DIGIT.matchesAllOf(model)) {
+        features.setModelNumber(Integer.parseInt(model));
+      }
+      if (fields.length > 1 && fields[1].matches("V\\d+\\.\\d\\d")) {
+        features.setFirmwareVersion(Integer.parseInt(fields[1].substring(1).replace(".", "")));
+      }
+    }
+  }
+
+  /** Returns the end (exclusive, before any CR) of the next line, or -1 at end of input. */
+  private int nextLineEnd() {
+    int limit = buffer.limit();
+    if (position >= limit) {
+      return -1;
+    }
+    lineNumber++;
+    int end = position;
+    while (end < limit && buffer.get(end) != '\n') {
+      end++;
+    }
+    if (end > position && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+  /** Returns the start of the line after the one ending at {@code end}. */
+  private int skipLineBreak(int end) {
+    int limit = buffer.limit();
+    while (end < limit && buffer.get(end) != '\n') {
+      end++;
+    }
+    return Math.min(end + 1, limit);
+  }
+
+  private byte[] lineBytes(int end) {
+    byte bytes[] = new byte[end - position];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = buffer.get(position + i);
+    }
+    position = skipLineBreak(end);
+    return bytes;
+  }
+
+  /**
+   * Records the start of each comma-separated field of the current line, and one past the end
+   * of the last field, in {@code starts}.  Field i spans {@code [starts[i], starts[i+1] - 1)}.
+   * Returns the number of fields, which may exceed the array's capacity.
+   */
+  private int splitFields(int end, int starts[]) {
+    int numFields = 0;
+    starts[numFields++] = position;
+    for (int i = position; i < end; ++i) {
+      if (buffer.get(i) == ',') {
+        if (numFields < starts.length) {
+          starts[numFields] = i + 1;
+        }
+        numFields++;
+      }
+    }
+    if (numFields < starts.length) {
+      starts[numFields] = end + 1;
+    }
+    return numFields;
+  }
+
+  private int skipSpaces(int start, int end) {
+    while (start < end && buffer.get(start) == ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  private boolean isNotAvailable(int start, int end) {
+    return end - start >= 2 && buffer.get(start) == 'N' && buffer.get(start + 1) == 'A';
+  }
+
+  private int parseInt(int start, int end) throws IOException {
+    boolean negative = buffer.get(start) == '-';
+    int i = negative ? start + 1 : start;
+    long value = 0;
+    int digits = 0;
+    for (; i < end && isDigit(buffer.get(i)); ++i, ++digits) {
+      value = value * 10 + buffer.get(i) - '0';
+      if (value > Integer.MAX_VALUE) {
+        throw error("Integer out of range");
+      }
+    }
+    if (digits == 0 || skipSpaces(i, end) != end) {
+      throw error("Expected an integer: " + text(start, end));
+    }
+    return (int) (negative ? -value : value);
+  }
+
+  /** Parses a decimal exactly as {@link Float#parseFloat} would. */
+  private float parseFloat(int start, int end) throws IOException {
+    boolean negative = buffer.get(start) == '-';
+    int i = negative ? start + 1 : start;
+    int mantissa = 0;
+    int digits = 0;
+    int fractionDigits = -1;
+    for (; i < end; ++i) {
+      byte b = buffer.get(i);
+      if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else if (isDigit(b) && digits < 7) {
+        mantissa = mantissa * 10 + b - '0';
+        digits++;
+        if (fractionDigits >= 0) {
+          fractionDigits++;
+        }
+      } else {
+        break;
+      }
+    }
+    if (digits > 0 && fractionDigits <= 1 && skipSpaces(i, end) == end) {
+      // Both operands are exact, so the quotient is correctly rounded.
+      float value = fractionDigits == 1 ? mantissa / 10f : mantissa;
+      return negative ? -value : value;
+    }
+    try {
+      return Float.parseFloat(text(start, end).trim());
+    } catch (NumberFormatException e) {
+      throw error("Expected a number: " + text(start, end));
+    }
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private Mark parseMark(int start, int end) {
+    start = skipSpaces(start, end);
+    if (start == end) {
+      return Mark.NOT_MARKED;
+    }
+    switch (buffer.get(start)) {
+      case '[': return Mark.RICH_START;
+      case ']': return Mark.RICH_END;
+      default: return Mark.MARKED;
+    }
+  }
+
+  /** Parses MM/dd/yy and HH:mm:ss fields to seconds since the epoch, without time zone. */
+  private long parseTimestamp(int dateStart, int dateEnd, int timeStart, int timeEnd)
+      throws IOException {
+    int date[] = parseTriple(dateStart, dateEnd, '/');
+    int time[] = parseTriple(timeStart, timeEnd, ':');
+    int year = date[2] < 100 ? 2000 + date[2] : date[2];
+    long day;
+    try {
+      day = new LocalDate(year, date[0], date[1]).toDateTimeAtStartOfDay(DateTimeZone.UTC)
+          .getMillis() / 1000 / SECONDS_PER_DAY;
+    } catch (IllegalArgumentException e) {
+      throw error("Bad date: " + text(dateStart, dateEnd));
+    }
+    return day * SECONDS_PER_DAY + time[0] * 3600 + time[1] * 60 + time[2];
+  }
+
+  private int[] parseTriple(int start, int end, char separator) throws IOException {
+    int values[] = new int[3];
+    int index = 0;
+    int i = skipSpaces(start, end);
+    int digits = 0;
+    for (; i < end; ++i) {
+      byte b = buffer.get(i);
+      if (b == separator && index < 2 && digits > 0) {
+        index++;
+        digits = 0;
+      } else if (isDigit(b)) {
+        values[index] = values[index] * 10 + b - '0';
+        digits++;
+      } else {
+        break;
+      }
+    }
+    if (index != 2 || digits == 0 || skipSpaces(i, end) != end) {
+      throw error("Bad date or time: " + text(start, end));
+    }
+    return values;
+  }
+
+  private String text(int start, int end) {
+    byte bytes[] = new byte[end - start];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  private IOException error(String message) {
+    return new IOException(String.format("%s:%d: %s", name, lineNumber, message));
+  }
+}
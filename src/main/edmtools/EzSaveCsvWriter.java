@@ -0,0 +1,234 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Features.TemperatureUnit;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+import edmtools.Proto.Sensors;
+
+/**
+ * Writes a flight in the CSV layout of JPI's EZSave program: six preamble lines, a header row,
+ * then one row per record with CRLF line endings.  Absent values are written as {@code NA},
+ * and lean- or rich-finding start and end marks as {@code [} and {@code ]}.
+ *
+ * <p>The columns are those EZSave writes for a single engine; see {@link EzSaveColumns}.  A
+ * column is included if the model's {@link Metrics} record it and, for sensor-dependent
+ * columns, the flight's {@link Sensors} declare it; EGT and CHT columns follow the flight's
+ * cylinder counts.
+ *
+ * <p>Timestamps are written as recorded, without time zone conversion.
+ */
+public final class EzSaveCsvWriter {
+  private static final String CRLF = "\r\n";
+  private static final DateTimeFormatter FLIGHT_START_FORMAT =
+      DateTimeFormat.forPattern("M/d/yyyy h:mm:ss a").withZoneUTC().withLocale(Locale.US);
+  private static final DateTimeFormatter EXPORT_DATE_FORMAT =
+      DateTimeFormat.forPattern("MM/dd/yyyy");
+
+  private final Metadata metadata;
+  private final LocalDate exportDate;
+
+  /** {@code exportDate} is written in the preamble, as EZSave writes the date of export. */
+  public EzSaveCsvWriter(Metadata metadata, LocalDate exportDate) {
+    this.metadata = metadata;
+    this.exportDate = exportDate;
+  }
+
+  /** A CSV column and the {@link FlightFrame} channel it prints. */
+  private static final class Column {
+    final String label;
+    final Channel channel;
+
+    Column(String label, Channel channel) {
+      this.label = label;
+      this.channel = channel;
+    }
+  }
+
+  /** Returns the header row labels for {@code frame}, without Date, TIME and MARK. */
+  public static List<String> getColumnLabels(FlightFrame frame) {
+    List<String> labels = new ArrayList<>();
+    for (Column column : getColumns(frame)) {
+      labels.add(column.label);
+    }
+    return labels;
+  }
+
+  private static List<Column> getColumns(FlightFrame frame) {
+    Sensors sensors = frame.getHeader().getSensors();
+    List<Column> columns = new ArrayList<>();
+    for (int i = 0; i < sensors.getNumExhaustGasTemperature(); ++i) {
+      addColumn(frame, columns, EzSaveColumns.exhaustGasTemperature(i));
+    }
+    for (int i = 0; i < sensors.getNumCylinderHeadTemperature(); ++i) {
+      addColumn(frame, columns, EzSaveColumns.cylinderHeadTemperature(i));
+    }
+    if (sensors.getTurbineInletTemperature1()) {
+      addColumn(frame, columns, "T1");
+    }
+    if (sensors.getTurbineInletTemperature2()) {
+      addColumn(frame, columns, "T2");
+    }
+    if (sensors.getOilTemperature()) {
+      addColumn(frame, columns, "OILT");
+    }
+    if (sensors.getNumExhaustGasTemperature() > 0) {
+      addColumn(frame, columns, "DIF");
+    }
+    if (sensors.getNumCylinderHeadTemperature() > 0) {
+      addColumn(frame, columns, "CLD");
+    }
+    if (sensors.getCompressorDischargeTemperature()) {
+      addColumn(frame, columns, "CDT");
+    }
+    if (sensors.getInductionAirTemperature()) {
+      addColumn(frame, columns, "IAT");
+    }
+    if (sensors.getOutsideAirTemperature()) {
+      addColumn(frame, columns, "OAT");
+    }
+    if (sensors.getVoltage()) {
+      addColumn(frame, columns, "BAT");
+    }
+    if (sensors.getFuelFlow()) {
+      addColumn(frame, columns, "FF");
+      addColumn(frame, columns, "USD");
+    }
+    if (sensors.getRpm()) {
+      addColumn(frame, columns, "RPM");
+    }
+    if (sensors.getManifoldPressure()) {
+      addColumn(frame, columns, "MAP");
+    }
+    addColumn(frame, columns, "HP");
+    addColumn(frame, columns, "OILP");
+    addColumn(frame, columns, "HRS");
+    if (sensors.getFuelFlow()) {
+      addColumn(frame, columns, "FF2");
+      addColumn(frame, columns, "USD2");
+    }
+    return columns;
+  }
+
+  private static void addColumn(FlightFrame frame, List<Column> columns, String label) {
+    String channelName = EzSaveColumns.getPath(label);
+    if (frame.hasChannel(channelName)) {
+      columns.add(new Column(label, frame.getChannel(channelName)));
+    }
+  }
+
+  /** Writes {@code frame} as one EZSave CSV file. */
+  public void write(FlightFrame frame, Writer out) throws IOException {
+    List<Column> columns = getColumns(frame);
+    StringBuilder text = new StringBuilder(512 + frame.size() * (16 + columns.size() * 6));
+    appendPreamble(frame, columns, text);
+
+    long timestamps[] = frame.getTimestamps();
+    byte marks[] = frame.getMarks();
+    long day = Long.MIN_VALUE;
+    String date = null;
+    for (int row = 0; row < frame.size(); ++row) {
+      long timestamp = timestamps[row];
+      if (Math.floorDiv(timestamp, 86400) != day) {
+        day = Math.floorDiv(timestamp, 86400);
+        date = formatDate(day);
+      }
+      int secondOfDay = Math.floorMod(timestamp, 86400);
+      text.append(date).append(", ");
+      Decimals.appendTwoDigits(text, secondOfDay / 3600).append(':');
+      Decimals.appendTwoDigits(text, secondOfDay / 60 % 60).append(':');
+      Decimals.appendTwoDigits(text, secondOfDay % 60);
+      for (Column column : columns) {
+        text.append(',');
+        if (!frame.isPresent(column.channel, row)) {
+          text.append("NA");
+        } else if (column.channel.isFloat()) {
+          Decimals.appendTenths(text, frame.getFloatColumn(column.channel)[row]);
+        } else {
+          text.append(' ').append(frame.getIntColumn(column.channel)[row]);
+        }
+      }
+      text.append(',').append(formatMark(marks[row])).append(CRLF);
+    }
+    out.append(text);
+  }
+
+  private void appendPreamble(FlightFrame frame, List<Column> columns, StringBuilder text) {
+    Flight header = frame.getHeader();
+    int firmwareVersion = metadata.getFeatures().getFirmwareVersion();
+    String temperatureUnit =
+        metadata.getFeatures().getEngineTemperatureUnit() == TemperatureUnit.CELSIUS ? "C" : "F";
+    long timestamps[] = frame.getTimestamps();
+    long durationSecs =
+        timestamps.length == 0 ? 0 : timestamps[timestamps.length - 1] - timestamps[0];
+    long hundredthsOfHours = Math.round(durationSecs / 36.0);
+
+    text.append("EZSave    ").append(EXPORT_DATE_FORMAT.print(exportDate)).append(CRLF);
+    text.append("VM-").append(metadata.getFeatures().getModelNumber())
+        .append(" V").append(firmwareVersion / 100).append('.');
+    Decimals.appendTwoDigits(text, firmwareVersion % 100)
+        .append(" J.P.Instruments (c) ").append(exportDate.getYear()).append(CRLF);
+    text.append("Aircraft Number ").append(metadata.getRegistration()).append(CRLF);
+    text.append("Flight #").append(header.getFlightNumber()).append(' ')
+        .append(FLIGHT_START_FORMAT.print(header.getStartTimestamp() * 1000)).append(CRLF);
+    text.append("Eng Deg    ").append(temperatureUnit)
+        .append(" OAT Deg    ").append(temperatureUnit)
+        .append("     F/F ").append(metadata.getFuel().getFuelFlowUnits()).append(CRLF);
+    text.append("Actual Duration ").append(hundredthsOfHours / 100).append('.');
+    Decimals.appendTwoDigits(text, (int) (hundredthsOfHours % 100))
+        .append(" Hours, Interval ").append(header.getRecordingIntervalSecs())
+        .append(" Seconds").append(CRLF);
+
+    text.append(EzSaveColumns.DATE).append(',').append(EzSaveColumns.TIME);
+    for (Column column : columns) {
+      text.append(',').append(column.label);
+    }
+    text.append(',').append(EzSaveColumns.MARK).append(CRLF);
+  }
+
+  /** Formats a day since the epoch as MM/dd/yy. */
+  private static String formatDate(long day) {
+    LocalDate date = new LocalDate(day * 86400000L, DateTimeZone.UTC);
+    StringBuilder text = new StringBuilder(8);
+    Decimals.appendTwoDigits(text, date.getMonthOfYear()).append('/');
+    Decimals.appendTwoDigits(text, date.getDayOfMonth()).append('/');
+    return Decimals.appendTwoDigits(text, date.getYear() % 100).toString();
+  }
+
+  private static String formatMark(int mark) {
+    if (mark == Mark.RICH_START_VALUE || mark == Mark.LEAN_START_VALUE) {
+      return "[";
+    } else if (mark == Mark.RICH_END_VALUE || mark == Mark.LEAN_END_VALUE) {
+      return "]";
+    }
+    return "";
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.google.common.base.CharMatcher;
+
+/**
+ * Builds file names from values read out of JPI files, which may hold any characters, and
+ * places files under names not already taken.
+ */
+public final class FileNames {
+  private static final CharMatcher SAFE_CHARS =
+      CharMatcher.JAVA_LETTER_OR_DIGIT.or(CharMatcher.anyOf("-_"));
+
+  private FileNames() {}
+
+  /**
+   * Returns {@code registration} with each character other than a letter, digit, {@code -} or
+   * {@code _} replaced by {@code _}, or {@code unknown} if it is empty.  The result never names
+   * another directory.  Distinct registrations may map to the same name.
+   */
+  public static String forRegistration(String registration) {
+    String name = SAFE_CHARS.negate().replaceFrom(registration, '_');
+    return name.isEmpty() ? "unknown" : name;
+  }
+
+  /**
+   * Moves {@code source} into {@code directory} as {@code name}, or, if that is taken, as
+   * {@code <base>-2.<extension>}, {@code <base>-3.<extension>} and so on, and returns the new
+   * file.  Each name is claimed by creating it exclusively, so concurrent callers never
+   * replace each other's files, nor any file already there.
+   */
+  public static File moveToUnusedName(File source, File directory, String name)
+      throws IOException {
+    int dot = name.lastIndexOf('.');
+    String base = dot > 0 ? name.substring(0, dot) : name;
+    String extension = dot > 0 ? name.substring(dot) : "";
+    for (int i = 1; ; ++i) {
+      File target = new File(directory, i == 1 ? name : base + "-" + i + extension);
+      try {
+        Files.createFile(target.toPath());
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+      try {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        target.delete();
+        throw e;
+      }
+      return target;
+    }
+  }
+}
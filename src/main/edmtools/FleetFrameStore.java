@@ -0,0 +1,255 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.io.BaseEncoding;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Decoded flights of many aircraft, held outside the Java heap so that the fleet's data is
+ * bounded by native memory or disk rather than by {@code -Xmx}.
+ *
+ * <p>Each flight is addressed by the aircraft registration ({@link Metadata#getRegistration})
+ * and flight number, and stored as an {@link OffHeapFlight}: one {@link ByteBuffer} allocated
+ * with {@link ByteBuffer#allocateDirect}, or, if the store has a directory, memory-mapped from a
+ * backing file in it.  A store with a directory reopens the flights already there.
+ *
+ * <p>A flight obtained from the store stays readable after it is replaced or removed, or the
+ * store closed, so readers need no locking; its memory is reclaimed by the garbage collector
+ * once the flight is unreachable.  A replacement is written to a new backing file which is
+ * then renamed over the old one, so an earlier mapping keeps its own bytes.  Removing a flight
+ * also deletes its backing file, while closing the store keeps the files.
+ */
+public final class FleetFrameStore implements Closeable {
+  private static final Logger logger = Logger.getLogger(FleetFrameStore.class.getName());
+  private static final String SUFFIX = ".frame";
+  private static final BaseEncoding FILENAME_ENCODING = BaseEncoding.base16().lowerCase();
+
+  private static final class Key {
+    final String registration;
+    final int flightNumber;
+
+    Key(String registration, int flightNumber) {
+      this.registration = Preconditions.checkNotNull(registration);
+      this.flightNumber = flightNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return registration.equals(other.registration) && flightNumber == other.flightNumber;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(registration, flightNumber);
+    }
+  }
+
+  private static final Comparator<OffHeapFlight> BY_KEY = new Comparator<OffHeapFlight>() {
+    @Override
+    public int compare(OffHeapFlight a, OffHeapFlight b) {
+      int result = a.getRegistration().compareTo(b.getRegistration());
+      return result != 0 ? result : Integer.compare(a.getFlightNumber(), b.getFlightNumber());
+    }
+  };
+
+  private final File directory;
+  private final Map<Key, OffHeapFlight> flights = new ConcurrentHashMap<>();
+  private boolean closed;
+
+  /** Creates a store in direct (native) memory. */
+  public FleetFrameStore() {
+    this.directory = null;
+  }
+
+  /**
+   * Creates a store backed by memory-mapped files in {@code directory}, and maps the flights
+   * already stored there.
+   */
+  public FleetFrameStore(File directory) throws IOException {
+    Preconditions.checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+    this.directory = directory;
+    File files[] = directory.listFiles();
+    if (files == null) {
+      throw new IOException("Unable to list " + directory);
+    }
+    for (File file : files) {
+      if (file.getName().endsWith(SUFFIX)) {
+        OffHeapFlight flight = new OffHeapFlight(map(file, MapMode.READ_ONLY, file.length()));
+        flights.put(new Key(flight.getRegistration(), flight.getFlightNumber()), flight);
+      }
+    }
+  }
+
+  /**
+   * Decodes every selected flight of {@code inputStream} and stores it under the file's
+   * registration.  Returns the number of flights stored.
+   */
+  public int add(JpiInputStream inputStream, JpiDecoderConfiguration config) throws IOException {
+    final int count[] = new int[1];
+    JpiDecoder.decode(inputStream, config, new JpiDecoder.FlightVisitor() {
+      private String registration;
+
+      @Override
+      public void visitMetadata(Metadata metadata) {
+        registration = metadata.getRegistration();
+      }
+
+      @Override
+      public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+        put(registration, FlightFrame.of(records));
+        count[0]++;
+      }
+    });
+    return count[0];
+  }
+
+  /**
+   * Copies {@code frame} out of the heap, replacing any flight already stored under the same
+   * key.
+   */
+  public synchronized OffHeapFlight put(String registration, FlightFrame frame)
+      throws IOException {
+    Preconditions.checkState(!closed, "Store is closed");
+    int size = OffHeapFlight.sizeOf(registration, frame);
+    Key key = new Key(registration, frame.getHeader().getFlightNumber());
+    ByteBuffer buffer;
+    File temporary = null;
+    if (directory == null) {
+      buffer = ByteBuffer.allocateDirect(size);
+    } else {
+      // Never truncate a file which an earlier flight may still have mapped.
+      temporary = new File(fileFor(key).getPath() + ".tmp");
+      buffer = map(temporary, MapMode.READ_WRITE, size);
+    }
+    OffHeapFlight.write(registration, frame, buffer);
+    if (temporary != null) {
+      ((MappedByteBuffer) buffer).force();
+      Files.move(temporary.toPath(), fileFor(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    OffHeapFlight flight = new OffHeapFlight(buffer);
+    flights.put(key, flight);
+    return flight;
+  }
+
+  private File fileFor(Key key) {
+    return new File(directory, FILENAME_ENCODING.encode(
+        key.registration.getBytes(StandardCharsets.UTF_8)) + "-" + key.flightNumber + SUFFIX);
+  }
+
+  private static MappedByteBuffer map(File file, MapMode mode, long size) throws IOException {
+    StandardOpenOption options[] = mode == MapMode.READ_ONLY
+        ? new StandardOpenOption[] {StandardOpenOption.READ}
+        : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING};
+    try (FileChannel channel = FileChannel.open(file.toPath(), options)) {
+      return channel.map(mode, 0, size);
+    }
+  }
+
+  /** Returns the flight, or null if it is not stored. */
+  public OffHeapFlight get(String registration, int flightNumber) {
+    return flights.get(new Key(registration, flightNumber));
+  }
+
+  public boolean contains(String registration, int flightNumber) {
+    return flights.containsKey(new Key(registration, flightNumber));
+  }
+
+  /** Returns the flights of one aircraft, by flight number. */
+  public List<OffHeapFlight> getFlights(String registration) {
+    List<OffHeapFlight> result = new ArrayList<>();
+    for (OffHeapFlight flight : flights.values()) {
+      if (flight.getRegistration().equals(registration)) {
+        result.add(flight);
+      }
+    }
+    Collections.sort(result, BY_KEY);
+    return result;
+  }
+
+  /** Returns every flight, by registration and flight number. */
+  public List<OffHeapFlight> getFlights() {
+    List<OffHeapFlight> result = new ArrayList<>(flights.values());
+    Collections.sort(result, BY_KEY);
+    return result;
+  }
+
+  public int getFlightCount() {
+    return flights.size();
+  }
+
+  /** The number of off-heap bytes held by all flights. */
+  public long getSizeInBytes() {
+    long total = 0;
+    for (OffHeapFlight flight : flights.values()) {
+      total += flight.getSizeInBytes();
+    }
+    return total;
+  }
+
+  /**
+   * Removes a flight and deletes its backing file.  Returns false if it was not stored.
+   */
+  public synchronized boolean remove(String registration, int flightNumber) {
+    Key key = new Key(registration, flightNumber);
+    OffHeapFlight flight = flights.remove(key);
+    if (flight != null && directory != null) {
+      File file = fileFor(key);
+      if (!file.delete()) {
+        logger.warning("Unable to delete " + file);
+      }
+    }
+    return flight != null;
+  }
+
+  /** Drops every flight.  Backing files are kept, and reopened by a new store. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    flights.clear();
+  }
+}
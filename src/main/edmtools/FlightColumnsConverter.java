@@ -0,0 +1,377 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.google.protobuf.Message;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.EngineDataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.FlightColumns;
+
+/**
+ * Converts between {@link Flight} and the column-oriented {@link FlightColumns}.
+ *
+ * <p>The conversion is lossless: {@code toFlight(fromFlight(flight))} equals {@code flight}, and
+ * {@link #fromFrame} produces the same message as {@link #fromFlight} for the same flight,
+ * without creating {@link DataRecord}s.
+ */
+public final class FlightColumnsConverter {
+  private static final Splitter PATH_SPLITTER = Splitter.on('.');
+  private static final Splitter INDEX_SPLITTER = Splitter.on(CharMatcher.anyOf("[]"));
+
+  private FlightColumnsConverter() {}
+
+  /** Collects the present values of one channel, in record order. */
+  private static final class ChannelBuilder {
+    private final String name;
+    private final boolean isFloat;
+    private int rows[] = new int[16];
+    private int ints[];
+    private float floats[];
+    private int count;
+
+    ChannelBuilder(String name, boolean isFloat) {
+      this.name = name;
+      this.isFloat = isFloat;
+      if (isFloat) {
+        floats = new float[16];
+      } else {
+        ints = new int[16];
+      }
+    }
+
+    private void grow() {
+      if (count == rows.length) {
+        rows = Arrays.copyOf(rows, count * 2);
+        if (isFloat) {
+          floats = Arrays.copyOf(floats, count * 2);
+        } else {
+          ints = Arrays.copyOf(ints, count * 2);
+        }
+      }
+    }
+
+    void addInt(int row, int value) {
+      grow();
+      rows[count] = row;
+      ints[count++] = value;
+    }
+
+    void addFloat(int row, float value) {
+      grow();
+      rows[count] = row;
+      floats[count++] = value;
+    }
+
+    FlightColumns.Channel build(int recordCount) {
+      FlightColumns.Channel.Builder channel = FlightColumns.Channel.newBuilder().setName(name);
+      if (count < recordCount) {
+        int row = 0;
+        int i = 0;
+        while (row < recordCount) {
+          int start = row;
+          while (i < count && rows[i] == row) {
+            i++;
+            row++;
+          }
+          channel.addPresenceRun(row - start);
+          if (row < recordCount) {
+            int end = i < count ? rows[i] : recordCount;
+            channel.addPresenceRun(end - row);
+            row = end;
+          }
+        }
+      }
+      if (!isFloat) {
+        int previous = 0;
+        for (int i = 0; i < count; ++i) {
+          channel.addIntDelta(ints[i] - previous);
+          previous = ints[i];
+        }
+        return channel.build();
+      }
+      int tenths[] = new int[count];
+      for (int i = 0; i < count; ++i) {
+        tenths[i] = Math.round(floats[i] * 10);
+        if (Float.floatToIntBits(tenths[i] / 10.0f) != Float.floatToIntBits(floats[i])) {
+          for (int j = 0; j < count; ++j) {
+            channel.addFloatValue(floats[j]);
+          }
+          return channel.build();
+        }
+      }
+      int previous = 0;
+      for (int i = 0; i < count; ++i) {
+        channel.addTenthsDelta(tenths[i] - previous);
+        previous = tenths[i];
+      }
+      return channel.build();
+    }
+  }
+
+  /** Orders channels by engine, then field number, then index. */
+  private static long channelKey(int engine, FieldDescriptor field, int index) {
+    return ((long) (engine + 1) << 40) | ((long) field.getNumber() << 20) | (index + 1);
+  }
+
+  private static String channelName(int engine, FieldDescriptor field, int index) {
+    String name = index >= 0 ? field.getName() + "[" + index + "]" : field.getName();
+    return engine >= 0 ? "engine[" + engine + "]." + name : name;
+  }
+
+  public static FlightColumns fromFlight(Flight flight) {
+    FlightColumns.Builder columns = FlightColumns.newBuilder()
+        .setHeader(flight.toBuilder().clearData())
+        .setRecordCount(flight.getDataCount());
+    TreeMap<Long, ChannelBuilder> channels = new TreeMap<>();
+    int engineCounts[] = new int[flight.getDataCount()];
+    boolean finding = false;
+    for (int row = 0; row < flight.getDataCount(); ++row) {
+      DataRecord record = flight.getData(row);
+      columns.addTimestampDeltaSecs(
+          row == 0 ? 0 : finding ? 1 : flight.getRecordingIntervalSecs());
+      finding = FlightFrame.isFinding(finding, record.getMark());
+      columns.addMark(record.getMark());
+      if (!record.hasMark()) {
+        columns.addUnmarkedRecord(row);
+      }
+      engineCounts[row] = record.getEngineCount();
+      for (String warning : record.getParseWarningList()) {
+        columns.addRecordWarning(
+            FlightColumns.RecordWarning.newBuilder().setRecord(row).setText(warning));
+      }
+      addFields(channels, -1, record, row);
+      for (int engine = 0; engine < record.getEngineCount(); ++engine) {
+        addFields(channels, engine, record.getEngine(engine), row);
+      }
+    }
+    addEngineCounts(columns, engineCounts);
+    for (ChannelBuilder channel : channels.values()) {
+      columns.addChannel(channel.build(flight.getDataCount()));
+    }
+    return columns.build();
+  }
+
+  private static void addEngineCounts(FlightColumns.Builder columns, int engineCounts[]) {
+    boolean constant = true;
+    for (int row = 1; row < engineCounts.length && constant; ++row) {
+      constant = engineCounts[row] == engineCounts[0];
+    }
+    if (constant && engineCounts.length > 0) {
+      columns.addEngineCount(engineCounts[0]);
+    } else {
+      for (int engineCount : engineCounts) {
+        columns.addEngineCount(engineCount);
+      }
+    }
+  }
+
+  private static void addFields(
+      Map<Long, ChannelBuilder> channels, int engine, Message message, int row) {
+    for (Map.Entry<FieldDescriptor, Object> entry : message.getAllFields().entrySet()) {
+      FieldDescriptor field = entry.getKey();
+      if (field.getJavaType() != JavaType.INT && field.getJavaType() != JavaType.FLOAT) {
+        continue;  // mark, engine and parse_warning have columns of their own.
+      }
+      if (field.isRepeated()) {
+        List<?> values = (List<?>) entry.getValue();
+        for (int i = 0; i < values.size(); ++i) {
+          add(channels, engine, field, i, row, values.get(i));
+        }
+      } else {
+        add(channels, engine, field, -1, row, entry.getValue());
+      }
+    }
+  }
+
+  private static void add(Map<Long, ChannelBuilder> channels, int engine,
+      FieldDescriptor field, int index, int row, Object value) {
+    long key = channelKey(engine, field, index);
+    ChannelBuilder channel = channels.get(key);
+    if (channel == null) {
+      channel = new ChannelBuilder(
+          channelName(engine, field, index), field.getJavaType() == JavaType.FLOAT);
+      channels.put(key, channel);
+    }
+    if (channel.isFloat) {
+      channel.addFloat(row, (Float) value);
+    } else {
+      channel.addInt(row, (Integer) value);
+    }
+  }
+
+  /** Converts a frame, as produced by {@link JpiDecoder#decodeFrames}. */
+  public static FlightColumns fromFrame(FlightFrame frame) {
+    RecordColumns records = frame.getColumns();
+    int size = frame.size();
+    FlightColumns.Builder columns = FlightColumns.newBuilder()
+        .setHeader(frame.getHeader())
+        .setRecordCount(size);
+    long timestamps[] = frame.getTimestamps();
+    for (int row = 0; row < size; ++row) {
+      columns.addTimestampDeltaSecs(
+          row == 0 ? 0 : (int) (timestamps[row] - timestamps[row - 1]));
+    }
+    int markBit = records.getLayout().getPresenceBit(
+        RecordLayout.RECORD, DataRecord.MARK_FIELD_NUMBER);
+    long presence[] = records.getPresenceColumn();
+    int engineCounts[] = new int[size];
+    for (int row = 0; row < size; ++row) {
+      columns.addMark(frame.getMark(row));
+      if (markBit < 0 || (presence[row] & (1L << markBit)) == 0) {
+        columns.addUnmarkedRecord(row);
+      }
+      engineCounts[row] = records.getEngineCountColumn()[row];
+      for (String warning : records.getWarnings(row)) {
+        columns.addRecordWarning(
+            FlightColumns.RecordWarning.newBuilder().setRecord(row).setText(warning));
+      }
+    }
+    addEngineCounts(columns, engineCounts);
+    for (Channel channel : frame.getChannels()) {
+      ChannelBuilder builder = new ChannelBuilder(channel.getName(), channel.isFloat());
+      for (int row = 0; row < size; ++row) {
+        if (channel.isAlwaysPresent() || frame.isPresent(channel, row)) {
+          if (channel.isFloat()) {
+            builder.addFloat(row, frame.getFloatColumn(channel)[row]);
+          } else {
+            builder.addInt(row, frame.getIntColumn(channel)[row]);
+          }
+        }
+      }
+      if (builder.count > 0) {
+        columns.addChannel(builder.build(size));
+      }
+    }
+    return columns.build();
+  }
+
+  /** Converts back to a {@link Flight} with data records. */
+  public static Flight toFlight(FlightColumns columns) {
+    int size = columns.getRecordCount();
+    Preconditions.checkArgument(
+        columns.getMarkCount() == size, "Marks must have one entry per record");
+    Preconditions.checkArgument(size == 0 || columns.getEngineCountCount() == 1
+        || columns.getEngineCountCount() == size, "Engine counts must have one entry per record");
+    Set<Integer> unmarked = new HashSet<>(columns.getUnmarkedRecordList());
+    DataRecord.Builder records[] = new DataRecord.Builder[size];
+    for (int row = 0; row < size; ++row) {
+      records[row] = DataRecord.newBuilder();
+      if (!unmarked.contains(row)) {
+        records[row].setMark(columns.getMark(row));
+      }
+      int engineCount = columns.getEngineCount(columns.getEngineCountCount() == 1 ? 0 : row);
+      for (int engine = 0; engine < engineCount; ++engine) {
+        records[row].addEngineBuilder();
+      }
+    }
+    for (FlightColumns.Channel channel : columns.getChannelList()) {
+      addChannel(channel, records);
+    }
+    for (FlightColumns.RecordWarning warning : columns.getRecordWarningList()) {
+      Preconditions.checkElementIndex(warning.getRecord(), size, "Warning record");
+      records[warning.getRecord()].addParseWarning(warning.getText());
+    }
+    Flight.Builder flight = columns.getHeader().toBuilder();
+    for (DataRecord.Builder record : records) {
+      flight.addData(record);
+    }
+    return flight.build();
+  }
+
+  private static void addChannel(FlightColumns.Channel channel, DataRecord.Builder records[]) {
+    String name = channel.getName();
+    Iterator<String> components = PATH_SPLITTER.split(name).iterator();
+    String component = components.next();
+    int engine = -1;
+    Descriptor descriptor = DataRecord.getDescriptor();
+    if (components.hasNext()) {
+      Iterator<String> engineComponents = INDEX_SPLITTER.split(component).iterator();
+      Preconditions.checkArgument(engineComponents.next().equals("engine"),
+          "Unexpected channel %s", name);
+      engine = Integer.parseInt(engineComponents.next());
+      descriptor = EngineDataRecord.getDescriptor();
+      component = components.next();
+    }
+    Iterator<String> subcomponents = INDEX_SPLITTER.split(component).iterator();
+    FieldDescriptor field = descriptor.findFieldByName(subcomponents.next());
+    Preconditions.checkArgument(field != null, "Unknown channel %s", name);
+    int index = subcomponents.hasNext() ? Integer.parseInt(subcomponents.next()) : -1;
+    Preconditions.checkArgument(field.isRepeated() == (index >= 0), "Bad index in %s", name);
+
+    int valueIndex = 0;
+    int previous = 0;
+    int row = 0;
+    int runIndex = 0;
+    boolean present = true;
+    int remaining = channel.getPresenceRunCount() == 0 ? records.length : 0;
+    while (row < records.length) {
+      if (remaining == 0) {
+        Preconditions.checkArgument(runIndex < channel.getPresenceRunCount(),
+            "Presence runs of %s are too short", name);
+        remaining = channel.getPresenceRun(runIndex);
+        present = runIndex % 2 == 0;
+        runIndex++;
+        continue;
+      }
+      if (present) {
+        Object value;
+        if (channel.getIntDeltaCount() > 0) {
+          previous += channel.getIntDelta(valueIndex++);
+          value = previous;
+        } else if (channel.getTenthsDeltaCount() > 0) {
+          previous += channel.getTenthsDelta(valueIndex++);
+          value = previous / 10.0f;
+        } else {
+          value = channel.getFloatValue(valueIndex++);
+        }
+        Message.Builder target = records[row];
+        if (engine >= 0) {
+          Preconditions.checkArgument(engine < records[row].getEngineCount(),
+              "Channel %s at record %s has no engine", name, row);
+          target = records[row].getEngineBuilder(engine);
+        }
+        if (index >= 0) {
+          Preconditions.checkArgument(target.getRepeatedFieldCount(field) == index,
+              "Channel %s at record %s is out of order", name, row);
+          target.addRepeatedField(field, value);
+        } else {
+          target.setField(field, value);
+        }
+      }
+      row++;
+      remaining--;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import edmtools.JpiFileLayout.FlightRange;
+
+/**
+ * Identifies a flight by its registration, number and start time, and by a murmur3 hash of
+ * its raw bytes in the JPI file (flight header and data records), so that the same flight
+ * downloaded more than once can be recognized without decoding its data.
+ */
+public final class FlightFingerprint {
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final String registration;
+  private final int flightNumber;
+  private final long startTimestamp;
+  private final long length;
+  private final HashCode hash;
+
+  public FlightFingerprint(String registration, int flightNumber, long startTimestamp,
+      long length, HashCode hash) {
+    this.registration = registration;
+    this.flightNumber = flightNumber;
+    this.startTimestamp = startTimestamp;
+    this.length = length;
+    this.hash = hash;
+  }
+
+  /** Returns a new {@link Hasher} for a flight's bytes. */
+  static Hasher newHasher() {
+    return HASH_FUNCTION.newHasher();
+  }
+
+  /** Fingerprints a flight by reading its bytes from {@code channel}, its file's channel. */
+  public static FlightFingerprint of(String registration, FlightRange flight, FileChannel channel)
+      throws IOException {
+    Hasher hasher = newHasher();
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, flight.getLength()));
+    long position = flight.getOffset();
+    long end = position + flight.getLength();
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file hashing flight " + flight.getFlightNumber());
+      }
+      hasher.putBytes(buffer.array(), 0, read);
+      position += read;
+    }
+    return new FlightFingerprint(registration, flight.getFlightNumber(),
+        flight.getHeader().getStartTimestamp(), flight.getLength(), hasher.hash());
+  }
+
+  public String getRegistration() {
+    return registration;
+  }
+
+  public int getFlightNumber() {
+    return flightNumber;
+  }
+
+  /** Unix timestamp of the flight's start. */
+  public long getStartTimestamp() {
+    return startTimestamp;
+  }
+
+  /** The number of bytes hashed. */
+  public long getLength() {
+    return length;
+  }
+
+  public HashCode getHash() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof FlightFingerprint)) {
+      return false;
+    }
+    FlightFingerprint that = (FlightFingerprint) object;
+    return Objects.equal(this.registration, that.registration)
+        && this.flightNumber == that.flightNumber
+        && this.startTimestamp == that.startTimestamp
+        && this.length == that.length
+        && Objects.equal(this.hash, that.hash);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(registration, flightNumber, startTimestamp, length, hash);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("registration", registration)
+        .add("flightNumber", flightNumber)
+        .add("startTimestamp", startTimestamp)
+        .add("length", length)
+        .add("hash", hash)
+        .toString();
+  }
+}
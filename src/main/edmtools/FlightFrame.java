@@ -0,0 +1,382 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Flight;
+
+/**
+ * One flight held as one primitive column per channel: {@code int[]} for temperatures, rpm and
+ * the like, {@code float[]} for voltage, fuel and manifold pressure, plus a mark column and a
+ * timestamp column.
+ *
+ * <p>A channel is one value of a {@link DataRecord}, named by its path, eg
+ * {@code engine[0].exhaust_gas_temperature[2]} or {@code voltage[0]}.  Values recorded as "N/A"
+ * are absent; the aggregate operations skip them.
+ *
+ * <p>Column accessors return the backing arrays, whose length is {@link #size()}, without
+ * copying.  Callers must not modify them.
+ */
+public final class FlightFrame {
+  /** A column of the frame. */
+  public static final class Channel {
+    private final String name;
+    private final boolean isFloat;
+    private final int slot;
+    /** Presence bit for an optional field, or -1 for a repeated field position. */
+    private final int presenceBit;
+    private final int listId;
+    private final int position;
+    private boolean alwaysPresent;
+
+    private Channel(String name, boolean isFloat, int slot, int presenceBit, int listId,
+        int position) {
+      this.name = name;
+      this.isFloat = isFloat;
+      this.slot = slot;
+      this.presenceBit = presenceBit;
+      this.listId = listId;
+      this.position = position;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** True for {@code float} channels, false for {@code int} channels. */
+    public boolean isFloat() {
+      return isFloat;
+    }
+
+    /** True if the channel has a value in every record. */
+    public boolean isAlwaysPresent() {
+      return alwaysPresent;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private final RecordColumns columns;
+  private final long timestamps[];
+  private final byte marks[];
+  private final Map<String, Channel> channels = new LinkedHashMap<>();
+
+  FlightFrame(RecordColumns columns) {
+    this(columns, computeTimestamps(columns));
+  }
+
+  private FlightFrame(RecordColumns columns, long timestamps[]) {
+    columns.trimToSize();
+    this.columns = columns;
+    this.timestamps = timestamps;
+    RecordLayout layout = columns.getLayout();
+    for (int container = RecordLayout.RECORD;
+        container <= RecordLayout.engine(RecordLayout.MAX_ENGINES - 1); ++container) {
+      for (int fieldNumber = 1; fieldNumber < 32; ++fieldNumber) {
+        addChannels(layout, container, fieldNumber);
+      }
+    }
+    Channel mark = channels.remove("mark");
+    this.marks = new byte[columns.size()];
+    if (mark != null) {
+      for (int row = 0; row < marks.length; ++row) {
+        marks[row] = (byte) (isPresent(mark, row) ? columns.getIntColumn(mark.slot)[row] : 0);
+      }
+    }
+  }
+
+  private void addChannels(RecordLayout layout, int container, int fieldNumber) {
+    boolean isFloat = layout.isFloat(container, fieldNumber);
+    if (layout.getPresenceBit(container, fieldNumber) >= 0) {
+      int slot = layout.getScalarSlot(container, fieldNumber);
+      addChannel(new Channel(slotName(layout, isFloat, slot), isFloat, slot,
+          layout.getPresenceBit(container, fieldNumber), -1, -1));
+    } else if (layout.hasList(container, fieldNumber)) {
+      int listId = layout.getListId(container, fieldNumber);
+      for (int position = 0; position < layout.getListCapacity(listId); ++position) {
+        int slot = layout.getListSlot(listId, position);
+        addChannel(new Channel(slotName(layout, isFloat, slot), isFloat, slot, -1, listId,
+            position));
+      }
+    }
+  }
+
+  private static String slotName(RecordLayout layout, boolean isFloat, int slot) {
+    return isFloat ? layout.getFloatSlotName(slot) : layout.getIntSlotName(slot);
+  }
+
+  private void addChannel(Channel channel) {
+    channel.alwaysPresent = true;
+    for (int row = 0; row < columns.size() && channel.alwaysPresent; ++row) {
+      channel.alwaysPresent = isPresent(channel, row);
+    }
+    channels.put(channel.name, channel);
+  }
+
+  /**
+   * Records are {@code recording_interval_secs} apart, except during lean- or rich-finding,
+   * when they are one second apart.
+   */
+  private static long[] computeTimestamps(RecordColumns columns) {
+    DataRecordCursor cursor = columns.cursor();
+    long timestamps[] = new long[columns.size()];
+    long timestamp = columns.getHeader().getStartTimestamp();
+    boolean finding = false;
+    while (cursor.next()) {
+      timestamps[cursor.getPosition()] = timestamp;
+      finding = isFinding(finding, cursor.getMark());
+      timestamp += finding ? 1 : columns.getHeader().getRecordingIntervalSecs();
+    }
+    return timestamps;
+  }
+
+  /** Returns whether lean- or rich-finding is in progress after a record with {@code mark}. */
+  static boolean isFinding(boolean wasFinding, Mark mark) {
+    if (mark == Mark.LEAN_START || mark == Mark.RICH_START) {
+      return true;
+    } else if (mark == Mark.LEAN_END || mark == Mark.RICH_END) {
+      return false;
+    }
+    return wasFinding;
+  }
+
+  /** The flight header, without {@code data}. */
+  public Flight getHeader() {
+    return columns.getHeader();
+  }
+
+  /** The number of records. */
+  public int size() {
+    return columns.size();
+  }
+
+  /** Unix timestamp of each record. */
+  public long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /** The {@link Mark} number of each record. */
+  public byte[] getMarks() {
+    return marks;
+  }
+
+  public Mark getMark(int row) {
+    return Mark.valueOf(marks[row]);
+  }
+
+  /** The channels this model records, in field order. */
+  public List<Channel> getChannels() {
+    return Collections.unmodifiableList(new ArrayList<>(channels.values()));
+  }
+
+  public boolean hasChannel(String name) {
+    return channels.containsKey(name);
+  }
+
+  public Channel getChannel(String name) {
+    Channel channel = channels.get(name);
+    Preconditions.checkArgument(channel != null, "No channel %s", name);
+    return channel;
+  }
+
+  public int[] getIntColumn(Channel channel) {
+    Preconditions.checkArgument(!channel.isFloat, "%s is a float channel", channel);
+    return columns.getIntColumn(channel.slot);
+  }
+
+  public float[] getFloatColumn(Channel channel) {
+    Preconditions.checkArgument(channel.isFloat, "%s is an int channel", channel);
+    return columns.getFloatColumn(channel.slot);
+  }
+
+  public int[] getIntColumn(String name) {
+    return getIntColumn(getChannel(name));
+  }
+
+  public float[] getFloatColumn(String name) {
+    return getFloatColumn(getChannel(name));
+  }
+
+  /** Returns false if the value was "N/A" (or not yet recorded) at {@code row}. */
+  public boolean isPresent(Channel channel, int row) {
+    if (channel.presenceBit >= 0) {
+      return (columns.getPresenceColumn()[row] & (1L << channel.presenceBit)) != 0;
+    }
+    return columns.getListLengthColumn(channel.listId)[row] > channel.position;
+  }
+
+  /** Returns the value at {@code row} as a double, whatever the channel type. */
+  public double getValue(Channel channel, int row) {
+    return channel.isFloat
+        ? columns.getFloatColumn(channel.slot)[row] : columns.getIntColumn(channel.slot)[row];
+  }
+
+  /** Returns the smallest present value, or NaN if there is none. */
+  public double min(Channel channel) {
+    int row = argMin(channel);
+    return row < 0 ? Double.NaN : getValue(channel, row);
+  }
+
+  /** Returns the largest present value, or NaN if there is none. */
+  public double max(Channel channel) {
+    int row = argMax(channel);
+    return row < 0 ? Double.NaN : getValue(channel, row);
+  }
+
+  /** Returns the mean of the present values, or NaN if there are none. */
+  public double mean(Channel channel) {
+    double sum = 0;
+    int count = 0;
+    if (channel.isFloat) {
+      float values[] = columns.getFloatColumn(channel.slot);
+      if (channel.alwaysPresent) {
+        for (int row = 0; row < values.length; ++row) {
+          sum += values[row];
+        }
+        count = values.length;
+      } else {
+        for (int row = 0; row < values.length; ++row) {
+          if (isPresent(channel, row)) {
+            sum += values[row];
+            count++;
+          }
+        }
+      }
+    } else {
+      int values[] = columns.getIntColumn(channel.slot);
+      if (channel.alwaysPresent) {
+        long intSum = 0;
+        for (int row = 0; row < values.length; ++row) {
+          intSum += values[row];
+        }
+        sum = intSum;
+        count = values.length;
+      } else {
+        for (int row = 0; row < values.length; ++row) {
+          if (isPresent(channel, row)) {
+            sum += values[row];
+            count++;
+          }
+        }
+      }
+    }
+    return count == 0 ? Double.NaN : sum / count;
+  }
+
+  /** Returns the first row holding the largest present value, or -1 if there is none. */
+  public int argMax(Channel channel) {
+    return argExtreme(channel, 1);
+  }
+
+  /** Returns the first row holding the smallest present value, or -1 if there is none. */
+  public int argMin(Channel channel) {
+    return argExtreme(channel, -1);
+  }
+
+  /** {@code sign} is 1 to find the maximum and -1 to find the minimum. */
+  private int argExtreme(Channel channel, int sign) {
+    int best = -1;
+    if (channel.isFloat) {
+      float values[] = columns.getFloatColumn(channel.slot);
+      for (int row = 0; row < values.length; ++row) {
+        if ((channel.alwaysPresent || isPresent(channel, row))
+            && (best < 0 || Float.compare(values[row], values[best]) * sign > 0)) {
+          best = row;
+        }
+      }
+    } else {
+      int values[] = columns.getIntColumn(channel.slot);
+      for (int row = 0; row < values.length; ++row) {
+        if ((channel.alwaysPresent || isPresent(channel, row))
+            && (best < 0 || Integer.compare(values[row], values[best]) * sign > 0)) {
+          best = row;
+        }
+      }
+    }
+    return best;
+  }
+
+  /** Returns a copy of rows {@code [fromRow, toRow)}. */
+  public FlightFrame slice(int fromRow, int toRow) {
+    return new FlightFrame(columns.copyOfRange(fromRow, toRow),
+        Arrays.copyOfRange(timestamps, fromRow, toRow));
+  }
+
+  /** Returns a copy of the records timestamped in {@code [fromTimestamp, toTimestamp)}. */
+  public FlightFrame sliceByTime(long fromTimestamp, long toTimestamp) {
+    int from = lowerBound(fromTimestamp);
+    return slice(from, Math.max(from, lowerBound(toTimestamp)));
+  }
+
+  /** The first row timestamped at or after {@code timestamp}.  Timestamps never decrease. */
+  private int lowerBound(long timestamp) {
+    int low = 0;
+    int high = timestamps.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Returns a cursor positioned before the first record. */
+  public DataRecordCursor cursor() {
+    return columns.cursor();
+  }
+
+  /** Builds the equivalent {@link Flight} proto, data records included. */
+  public Flight toFlight() {
+    Flight.Builder builder = getHeader().toBuilder();
+    DataRecordCursor cursor = cursor();
+    while (cursor.next()) {
+      builder.addData(cursor.toProto());
+    }
+    return builder.build();
+  }
+
+  /** Builds a frame from the records visited by a {@link JpiDecoder.FlightVisitor}. */
+  public static FlightFrame of(DataRecordCursor records) {
+    return new FlightFrame(records.getColumns());
+  }
+
+  RecordColumns getColumns() {
+    return columns;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FlightFrame[flight %d, %d records, %d channels]",
+        getHeader().getFlightNumber(), size(), channels.size());
+  }
+}
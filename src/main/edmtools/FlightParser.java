@@ -23,6 +23,7 @@ import org.joda.time.DateTime;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
 
 import edmtools.Proto.DataRecord;
 import edmtools.Proto.Flight;
@@ -36,6 +37,7 @@ class FlightParser {
   private static final Logger logger = Logger.getLogger(FlightParser.class.getName());
 
   private final JpiInputStream inputStream;
+  private final FlightMetadata metadata;
   private final int flightNumber;
 
   /**
@@ -47,6 +49,7 @@ class FlightParser {
 
   public FlightParser(JpiInputStream stream, FlightMetadata metadata, MetadataUtil metadataUtil) {
     this.inputStream = stream;
+    this.metadata = metadata;
     this.flightNumber = metadata.getFlightNumber();
     this.estimatedFlightLengthBytes = metadata.getFlightDataLengthWords() * 2;
     this.metadataUtil = metadataUtil;
@@ -63,6 +66,33 @@ class FlightParser {
     return builder.build();
   }
 
+  /**
+   * Parses a flight header and decodes all data records associated with the flight into columns.
+   * The stream should be at the beginning of the flight.  The returned header has no data.
+   */
+  public RecordColumns parseColumns(RecordLayout layout) throws IOException {
+    Flight.Builder builder = Flight.newBuilder();
+    parseFlightHeader(builder);
+    RecordColumns columns = new RecordColumns(layout, estimateRecordCount(builder));
+    ColumnarDataRecordParser parser =
+        new ColumnarDataRecordParser(metadataUtil, inputStream, columns);
+    while (hasMoreRecords()) {
+      parser.parse();
+    }
+    skipToNextFlightHeader();
+    builder.setDataLength(inputStream.getCounter());
+    columns.setHeader(builder.build());
+    return columns;
+  }
+
+  /**
+   * Parses a flight into a {@link FlightFrame}.  The stream should be at the beginning of the
+   * flight.
+   */
+  public FlightFrame parseFrame(RecordLayout layout) throws IOException {
+    return new FlightFrame(parseColumns(layout));
+  }
+
   /**
    * Parses a flight header and skips all data records associated with the flight.
    * The stream should be at the beginning of the flight.
@@ -74,6 +104,71 @@ class FlightParser {
     return builder.build();
   }
 
+  /**
+   * Hashes the flight's header and data bytes into a {@link FlightFingerprint}, decoding only
+   * the header, and leaves the stream at the start of the flight, where it should be.
+   *
+   * <p>If the stream reads a file, the flight is hashed with positional reads of the file.
+   * Otherwise, as for a decompressed stream, the flight is read ahead and buffered in the
+   * stream: at most its length from the file's metadata plus three bytes, which is held until
+   * the flight has been decoded or skipped.  Either way an unknown flight's bytes are read
+   * twice, once to hash and once to decode.
+   */
+  public FlightFingerprint fingerprint(String registration) throws IOException {
+    JpiInputStream fork = inputStream.forkFromHere();
+    if (fork != null) {
+      return new FlightParser(fork, metadata, metadataUtil).hash(registration);
+    }
+    // The mark must outlive the three bytes read past the flight to find where it ends.
+    int readLimit = estimatedFlightLengthBytes + 3;
+    inputStream.mark(readLimit);
+    FlightFingerprint fingerprint = hash(registration);
+    try {
+      inputStream.reset();
+    } catch (IOException e) {
+      // Only the last flight, which runs to the end of the file, can overrun the mark.
+      throw new IOException(String.format(
+          "Flight %d is longer than the %d bytes buffered to fingerprint it; decode the file "
+          + "from disk instead", flightNumber, readLimit), e);
+    }
+    return fingerprint;
+  }
+
+  /** Hashes the flight's bytes, reading them from the stream, whose position is then lost. */
+  private FlightFingerprint hash(String registration) throws IOException {
+    Hasher hasher = FlightFingerprint.newHasher();
+    inputStream.setHasher(hasher);
+    try {
+      Flight.Builder builder = Flight.newBuilder();
+      parseFlightHeader(builder);
+      long length = builder.getHeaderLength();
+      if (metadataUtil.isLastFlight(flightNumber)) {
+        length += inputStream.skipToEndOfFile();
+      } else {
+        int numSkip = estimatedFlightLengthBytes - builder.getHeaderLength() - 1;
+        inputStream.skip(numSkip);
+        length += numSkip;
+        // As in skipDataRecords, the next flight starts here or one byte later.
+        inputStream.setHasher(null);
+        int next0 = inputStream.read();
+        int next1 = inputStream.read();
+        int next2 = inputStream.read();
+        int nextFlightNumber = metadataUtil.getNextFlightNumber(flightNumber);
+        if (((next0 << 8) | next1) != nextFlightNumber) {
+          if (((next1 << 8) | next2) != nextFlightNumber) {
+            throw new IOException("Could not find next flight header");
+          }
+          hasher.putByte((byte) next0);
+          length++;
+        }
+      }
+      return new FlightFingerprint(
+          registration, flightNumber, builder.getStartTimestamp(), length, hasher.hash());
+    } finally {
+      inputStream.setHasher(null);
+    }
+  }
+
   /**
    * We don't know the exact length of the data.
    * estimatedFlightSizeWords = (header length + data length) / 2, which is a good hint, but
@@ -155,7 +250,7 @@ class FlightParser {
   private void parseFlightData(Flight.Builder builder) throws IOException {
     DataRecordParser parser = new DataRecordParser(metadataUtil, inputStream);
     DataRecord previousDataRecord = null;
-    while (inputStream.getCounter() + getMinimumRecordSize() < estimatedFlightLengthBytes) {
+    while (hasMoreRecords()) {
       DataRecord dataRecord = parser.parse(previousDataRecord);
 
       // TODO: verify this logic.  We believe the count means "add the previous record N times".
@@ -166,6 +261,16 @@ class FlightParser {
       builder.addData(dataRecord);
       previousDataRecord = dataRecord;
     }
+    skipToNextFlightHeader();
+    builder.setDataLength(inputStream.getCounter());
+  }
+
+  private boolean hasMoreRecords() {
+    return inputStream.getCounter() + getMinimumRecordSize() < estimatedFlightLengthBytes;
+  }
+
+  /** Records are unpadded, so the next flight may start one byte early. */
+  private void skipToNextFlightHeader() throws IOException {
     // Each flight header begins with the flight number.
     try { 
       byte peek[] = inputStream.peek(3);
@@ -182,8 +287,11 @@ class FlightParser {
     catch (java.io.EOFException e){
       logger.finer(String.format("Tried to peek beyond EOF\n"));
     }
-    
-    builder.setDataLength(inputStream.getCounter());
+  }
+
+  /** Sizes the columns for a typical record of a few dozen bytes; they grow if needed. */
+  private int estimateRecordCount(Flight.Builder builder) {
+    return Math.max(0, estimatedFlightLengthBytes - builder.getHeaderLength()) / 16;
   }
 
   private int getMinimumRecordSize() {
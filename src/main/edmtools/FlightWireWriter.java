@@ -0,0 +1,192 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/**
+ * Writes decoded flights in the protocol buffer wire format of {@link JpiFile} straight from
+ * the decoder's columns, without building {@link DataRecord} messages.
+ *
+ * <p>The output is byte-for-byte what {@code JpiDecoder.decode(...).writeTo(out)} writes: each
+ * record's size is computed from the columns in a first pass, so that messages can be
+ * length-prefixed, and its fields are then written in field number order.
+ *
+ * <p>Callers which pass their own {@link CodedOutputStream} must flush it after decoding.
+ */
+public final class FlightWireWriter implements JpiDecoder.FlightVisitor {
+  private static final int ENGINE_TAG_SIZE =
+      CodedOutputStream.computeTagSize(DataRecord.ENGINE_FIELD_NUMBER);
+
+  private final CodedOutputStream out;
+  private RecordLayout layout;
+  /** Indexed by container. */
+  private RecordFieldPlan plans[][];
+  private int recordSizes[] = new int[0];
+  /** Indexed by engine, then row. */
+  private int engineSizes[][] = new int[RecordLayout.MAX_ENGINES][0];
+
+  public FlightWireWriter(CodedOutputStream out) {
+    this.out = out;
+  }
+
+  /** Decodes {@code inputStream} to {@code outputStream} as a serialized {@link JpiFile}. */
+  public static void write(JpiInputStream inputStream, JpiDecoderConfiguration config,
+      OutputStream outputStream) throws IOException {
+    CodedOutputStream out = CodedOutputStream.newInstance(outputStream, 1 << 16);
+    JpiDecoder.decode(inputStream, config, new FlightWireWriter(out));
+    out.flush();
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) throws IOException {
+    out.writeMessage(JpiFile.METADATA_FIELD_NUMBER, metadata);
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    RecordColumns columns = records.getColumns();
+    if (columns.getLayout() != layout) {
+      layout = columns.getLayout();
+      plans = RecordFieldPlan.forLayout(layout);
+    }
+    // Flight.data is field 5 of 8, so the header is written in two parts around it.
+    Flight head = header.toBuilder()
+        .clearHeaderLength()
+        .clearDataLength()
+        .clearParseWarning()
+        .build();
+    Flight.Builder tail = Flight.newBuilder().addAllParseWarning(header.getParseWarningList());
+    if (header.hasHeaderLength()) {
+      tail.setHeaderLength(header.getHeaderLength());
+    }
+    if (header.hasDataLength()) {
+      tail.setDataLength(header.getDataLength());
+    }
+
+    int size = columns.size();
+    computeRecordSizes(columns);
+    long flightSize = head.getSerializedSize() + tail.build().getSerializedSize();
+    int dataTagSize = CodedOutputStream.computeTagSize(Flight.DATA_FIELD_NUMBER);
+    for (int row = 0; row < size; ++row) {
+      flightSize += dataTagSize
+          + CodedOutputStream.computeUInt32SizeNoTag(recordSizes[row]) + recordSizes[row];
+    }
+    if (flightSize > Integer.MAX_VALUE) {
+      throw new IOException("Flight " + header.getFlightNumber() + " is too large to encode");
+    }
+
+    out.writeTag(JpiFile.FLIGHT_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    out.writeUInt32NoTag((int) flightSize);
+    head.writeTo(out);
+    for (int row = 0; row < size; ++row) {
+      out.writeTag(Flight.DATA_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      out.writeUInt32NoTag(recordSizes[row]);
+      writeRecord(columns, row);
+    }
+    tail.build().writeTo(out);
+  }
+
+  private void computeRecordSizes(RecordColumns columns) {
+    int size = columns.size();
+    if (recordSizes.length < size) {
+      recordSizes = new int[size];
+      for (int engine = 0; engine < engineSizes.length; ++engine) {
+        engineSizes[engine] = new int[size];
+      }
+    }
+    byte engineCounts[] = columns.getEngineCountColumn();
+    for (int row = 0; row < size; ++row) {
+      int recordSize = containerSize(columns, plans[RecordLayout.RECORD], row);
+      for (int engine = 0; engine < engineCounts[row]; ++engine) {
+        int engineSize = containerSize(columns, plans[RecordLayout.engine(engine)], row);
+        engineSizes[engine][row] = engineSize;
+        recordSize += ENGINE_TAG_SIZE
+            + CodedOutputStream.computeUInt32SizeNoTag(engineSize) + engineSize;
+      }
+      if (columns.hasWarnings()) {
+        for (String warning : columns.getWarnings(row)) {
+          recordSize +=
+              CodedOutputStream.computeStringSize(DataRecord.PARSE_WARNING_FIELD_NUMBER, warning);
+        }
+      }
+      recordSizes[row] = recordSize;
+    }
+  }
+
+  private static int containerSize(
+      RecordColumns columns, RecordFieldPlan fields[], int row) {
+    int size = 0;
+    for (RecordFieldPlan field : fields) {
+      int count = field.count(columns, row);
+      if (field.isFloat) {
+        size += count * CodedOutputStream.computeFloatSize(field.fieldNumber, 0);
+      } else {
+        for (int i = 0; i < count; ++i) {
+          size += CodedOutputStream.computeInt32Size(
+              field.fieldNumber, columns.getIntColumn(field.slot(i))[row]);
+        }
+      }
+    }
+    return size;
+  }
+
+  private void writeRecord(RecordColumns columns, int row) throws IOException {
+    // DataRecord's value fields all precede engine (5) and parse_warning (6).
+    writeContainer(columns, plans[RecordLayout.RECORD], row);
+    byte engineCounts[] = columns.getEngineCountColumn();
+    for (int engine = 0; engine < engineCounts[row]; ++engine) {
+      out.writeTag(DataRecord.ENGINE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      out.writeUInt32NoTag(engineSizes[engine][row]);
+      writeContainer(columns, plans[RecordLayout.engine(engine)], row);
+    }
+    if (columns.hasWarnings()) {
+      for (String warning : columns.getWarnings(row)) {
+        out.writeString(DataRecord.PARSE_WARNING_FIELD_NUMBER, warning);
+      }
+    }
+  }
+
+  private void writeContainer(RecordColumns columns, RecordFieldPlan fields[], int row)
+      throws IOException {
+    for (RecordFieldPlan field : fields) {
+      int count = field.count(columns, row);
+      for (int i = 0; i < count; ++i) {
+        writeValue(columns, field, field.slot(i), row);
+      }
+    }
+  }
+
+  private void writeValue(RecordColumns columns, RecordFieldPlan field, int slot, int row)
+      throws IOException {
+    if (field.isFloat) {
+      out.writeFloat(field.fieldNumber, columns.getFloatColumn(slot)[row]);
+    } else {
+      out.writeInt32(field.fieldNumber, columns.getIntColumn(slot)[row]);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import edmtools.GorillaCodec.BitReader;
+import edmtools.JpiDecoder.FlightVisitor;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/** Reads an archive written by {@link GorillaArchiveWriter}. */
+public final class GorillaArchiveReader {
+  private GorillaArchiveReader() {}
+
+  /** Reads the whole archive into a {@link JpiFile}, as {@link JpiDecoder#decode} would. */
+  public static JpiFile read(File file) throws IOException {
+    try (InputStream inputStream = new FileInputStream(file)) {
+      return read(inputStream);
+    }
+  }
+
+  public static JpiFile read(InputStream inputStream) throws IOException {
+    final JpiFile.Builder jpiFile = JpiFile.newBuilder();
+    read(inputStream, new FlightVisitor() {
+      @Override
+      public void visitMetadata(Metadata metadata) {
+        jpiFile.setMetadata(metadata);
+      }
+
+      @Override
+      public void visitFlight(Flight header, DataRecordCursor records) {
+        Flight.Builder flight = header.toBuilder();
+        while (records.next()) {
+          flight.addData(records.toProto());
+        }
+        jpiFile.addFlight(flight);
+      }
+    });
+    return jpiFile.build();
+  }
+
+  /** Reads the archive one flight at a time into {@code visitor}. */
+  public static void read(InputStream inputStream, FlightVisitor visitor) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+    if (in.readInt() != GorillaArchiveWriter.MAGIC) {
+      throw new IOException("Not a flight archive");
+    }
+    int version = in.readInt();
+    if (version != GorillaArchiveWriter.VERSION) {
+      throw new IOException("Unsupported flight archive version " + version);
+    }
+    Metadata metadata = Metadata.parseFrom(readBytes(in, in.readInt()));
+    int schema[] = new int[in.readInt()];
+    for (int i = 0; i < schema.length; ++i) {
+      schema[i] = in.readShort();
+    }
+    int headerLength = in.readInt();
+    if (headerLength == GorillaArchiveWriter.END_OF_ARCHIVE) {
+      // An archive without flights may have no layout to check.
+      visitor.visitMetadata(metadata);
+      return;
+    }
+    RecordLayout layout = RecordLayout.forMetadata(new MetadataUtil(metadata));
+    if (!Arrays.equals(schema, layout.getSchema())) {
+      // A change to RecordLayout or the metric tables has moved fields between columns.
+      throw new IOException("The archive's columns do not match this version's layout of them");
+    }
+    visitor.visitMetadata(metadata);
+    do {
+      Flight header = Flight.parseFrom(readBytes(in, headerLength));
+      RecordColumns columns = readColumns(in, layout);
+      columns.setHeader(header);
+      visitor.visitFlight(header, columns.cursor());
+    } while ((headerLength = in.readInt()) != GorillaArchiveWriter.END_OF_ARCHIVE);
+  }
+
+  private static RecordColumns readColumns(DataInputStream in, RecordLayout layout)
+      throws IOException {
+    int size = in.readInt();
+    if (in.readShort() != layout.getNumIntSlots()
+        || in.readShort() != layout.getNumFloatSlots()
+        || in.readShort() != layout.getNumLists()) {
+      throw new IOException("Archived columns do not match the layout of this model");
+    }
+    RecordColumns columns = new RecordColumns(layout, size);
+    columns.setSize(size);
+    BitReader bits = new BitReader(readBytes(in, in.readInt()));
+    for (int slot = 0; slot < layout.getNumIntSlots(); ++slot) {
+      GorillaCodec.decodeInts(bits, columns.getIntColumn(slot), size);
+    }
+    for (int slot = 0; slot < layout.getNumFloatSlots(); ++slot) {
+      GorillaCodec.decodeFloats(bits, columns.getFloatColumn(slot), size);
+    }
+    GorillaCodec.decodeLongs(bits, columns.getPresenceColumn(), size);
+    for (int list = 0; list < layout.getNumLists(); ++list) {
+      GorillaCodec.decodeBytes(bits, columns.getListLengthColumn(list), size);
+    }
+    GorillaCodec.decodeBytes(bits, columns.getEngineCountColumn(), size);
+    int numWarnings = in.readInt();
+    for (int i = 0; i < numWarnings; ++i) {
+      int row = in.readInt();
+      if (row < 0 || row >= size) {
+        throw new IOException("Corrupt parse warning row " + row);
+      }
+      columns.addWarning(row, in.readUTF());
+    }
+    return columns;
+  }
+
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    if (length < 0) {
+      throw new IOException("Corrupt length " + length);
+    }
+    byte bytes[] = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.GorillaCodec.BitWriter;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Writes decoded flights to a compact, lossless archive for long-term storage, read back by
+ * {@link GorillaArchiveReader}.
+ *
+ * <p>The archive holds a magic number and version, the {@link Metadata}, the column schema
+ * ({@link RecordLayout#getSchema}, which the reader checks against the layout it derives from
+ * the metadata), then each flight: its header, record count, the
+ * {@link GorillaCodec}-compressed columns, and any parse warnings.
+ * Every value column of the model's {@link RecordLayout} is stored, together with presence and
+ * list lengths, so that the reader reproduces the decoder's {@link Proto.DataRecord}s exactly.
+ * Int columns are delta-of-delta coded; float columns and presence words are XOR coded.
+ *
+ * <pre>
+ * try (GorillaArchiveWriter writer = new GorillaArchiveWriter(file)) {
+ *   JpiDecoder.decode(inputStream, config, writer);
+ * }
+ * </pre>
+ */
+public final class GorillaArchiveWriter implements JpiDecoder.FlightVisitor, Closeable {
+  static final int MAGIC = 0x45444d47;  // "EDMG"
+  static final int VERSION = 2;
+  /** Written in place of a flight header length after the last flight. */
+  static final int END_OF_ARCHIVE = -1;
+
+  private final DataOutputStream out;
+  private boolean wroteMetadata;
+  /** The schema written with the metadata, and the last layout found to match it. */
+  private int schema[];
+  private RecordLayout checkedLayout;
+
+  public GorillaArchiveWriter(File file) throws IOException {
+    this(new FileOutputStream(file));
+  }
+
+  /** The writer closes {@code outputStream}. */
+  public GorillaArchiveWriter(OutputStream outputStream) throws IOException {
+    out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+  }
+
+  /** Decodes {@code inputStream} into a new archive. */
+  public static void write(JpiInputStream inputStream, JpiDecoderConfiguration config, File file)
+      throws IOException {
+    try (GorillaArchiveWriter writer = new GorillaArchiveWriter(file)) {
+      JpiDecoder.decode(inputStream, config, writer);
+    }
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) throws IOException {
+    writeMetadata(metadata, RecordLayout.forMetadata(new MetadataUtil(metadata)));
+  }
+
+  private void writeMetadata(Metadata metadata, RecordLayout layout) throws IOException {
+    Preconditions.checkState(!wroteMetadata, "An archive holds one file's metadata");
+    writeBytes(metadata.toByteArray());
+    schema = layout == null ? new int[0] : layout.getSchema();
+    out.writeInt(schema.length);
+    for (int value : schema) {
+      out.writeShort(value);
+    }
+    checkedLayout = layout;
+    wroteMetadata = true;
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    Preconditions.checkState(wroteMetadata, "Metadata must be written first");
+    RecordColumns columns = records.getColumns();
+    RecordLayout layout = columns.getLayout();
+    if (layout != checkedLayout) {
+      Preconditions.checkArgument(Arrays.equals(layout.getSchema(), schema),
+          "Flight columns do not match the layout of the metadata");
+      checkedLayout = layout;
+    }
+    int size = columns.size();
+    writeBytes(header.toByteArray());
+    out.writeInt(size);
+
+    BitWriter bits = new BitWriter();
+    for (int slot = 0; slot < layout.getNumIntSlots(); ++slot) {
+      GorillaCodec.encodeInts(bits, columns.getIntColumn(slot), size);
+    }
+    for (int slot = 0; slot < layout.getNumFloatSlots(); ++slot) {
+      GorillaCodec.encodeFloats(bits, columns.getFloatColumn(slot), size);
+    }
+    GorillaCodec.encodeLongs(bits, columns.getPresenceColumn(), size);
+    for (int list = 0; list < layout.getNumLists(); ++list) {
+      GorillaCodec.encodeBytes(bits, columns.getListLengthColumn(list), size);
+    }
+    GorillaCodec.encodeBytes(bits, columns.getEngineCountColumn(), size);
+    out.writeShort(layout.getNumIntSlots());
+    out.writeShort(layout.getNumFloatSlots());
+    out.writeShort(layout.getNumLists());
+    writeBytes(bits.toByteArray());
+
+    int numWarnings = 0;
+    for (int row = 0; row < size; ++row) {
+      numWarnings += columns.getWarnings(row).size();
+    }
+    out.writeInt(numWarnings);
+    for (int row = 0; row < size && numWarnings > 0; ++row) {
+      List<String> warnings = columns.getWarnings(row);
+      for (String warning : warnings) {
+        out.writeInt(row);
+        out.writeUTF(warning);
+      }
+    }
+  }
+
+  private void writeBytes(byte bytes[]) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (!wroteMetadata) {
+        writeMetadata(Metadata.getDefaultInstance(), null);
+      }
+      out.writeInt(END_OF_ARCHIVE);
+    } finally {
+      out.close();
+    }
+  }
+}
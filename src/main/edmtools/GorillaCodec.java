@@ -0,0 +1,266 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.EOFException;
+import java.util.Arrays;
+
+/**
+ * Time-series column encodings after Facebook's Gorilla, for series whose consecutive values are
+ * usually equal or close.
+ *
+ * <p>Floats (and presence words) are XORed with their predecessor.  An unchanged value costs one
+ * bit; otherwise the meaningful (non-zero) bits of the XOR are stored, reusing the previous
+ * value's leading and trailing zero counts when they still fit.
+ *
+ * <p>Integers are stored as the difference between consecutive deltas, zigzag-encoded: 0 costs
+ * one bit, and larger values take 2+7, 3+9, 4+12 or 4+64 bits.
+ */
+final class GorillaCodec {
+  private GorillaCodec() {}
+
+  /** Appends bits, most significant first, to a growing byte array. */
+  static final class BitWriter {
+    private byte bytes[] = new byte[256];
+    private int length;
+    private long current;
+    private int numBits;
+
+    /** Writes the low {@code count} bits of {@code value}; {@code count} is at most 64. */
+    void write(long value, int count) {
+      if (count > 32) {
+        write(value >>> 32, count - 32);
+        count = 32;
+      }
+      current = (current << count) | (value & ((1L << count) - 1));
+      numBits += count;
+      while (numBits >= 8) {
+        numBits -= 8;
+        if (length == bytes.length) {
+          bytes = Arrays.copyOf(bytes, length * 2);
+        }
+        bytes[length++] = (byte) (current >>> numBits);
+      }
+    }
+
+    void writeBit(boolean bit) {
+      write(bit ? 1 : 0, 1);
+    }
+
+    /** Returns the bits written, padded with zeros to a whole byte. */
+    byte[] toByteArray() {
+      byte result[] = Arrays.copyOf(bytes, length + (numBits > 0 ? 1 : 0));
+      if (numBits > 0) {
+        result[length] = (byte) (current << (8 - numBits));
+      }
+      return result;
+    }
+  }
+
+  /** Reads bits written by {@link BitWriter}. */
+  static final class BitReader {
+    private final byte bytes[];
+    private int position;
+    private long current;
+    private int numBits;
+
+    BitReader(byte bytes[]) {
+      this.bytes = bytes;
+    }
+
+    /** Reads {@code count} bits, at most 64. */
+    long read(int count) throws EOFException {
+      if (count > 32) {
+        long high = read(count - 32);
+        return (high << 32) | read(32);
+      }
+      while (numBits < count) {
+        if (position == bytes.length) {
+          throw new EOFException("Truncated bit stream");
+        }
+        current = (current << 8) | (bytes[position++] & 0xff);
+        numBits += 8;
+      }
+      numBits -= count;
+      return (current >>> numBits) & ((1L << count) - 1);
+    }
+
+    boolean readBit() throws EOFException {
+      return read(1) != 0;
+    }
+  }
+
+  static void encodeInts(BitWriter out, int values[], int count) {
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < count; ++i) {
+      long delta = values[i] - previous;
+      long zigzag = ColumnCodec.zigzag(delta - previousDelta);
+      if (zigzag == 0) {
+        out.write(0, 1);
+      } else if (zigzag < (1 << 7)) {
+        out.write(0b10, 2);
+        out.write(zigzag, 7);
+      } else if (zigzag < (1 << 9)) {
+        out.write(0b110, 3);
+        out.write(zigzag, 9);
+      } else if (zigzag < (1 << 12)) {
+        out.write(0b1110, 4);
+        out.write(zigzag, 12);
+      } else {
+        out.write(0b1111, 4);
+        out.write(zigzag, 64);
+      }
+      previous = values[i];
+      previousDelta = delta;
+    }
+  }
+
+  static void decodeInts(BitReader in, int values[], int count) throws EOFException {
+    long previous = 0;
+    long previousDelta = 0;
+    for (int i = 0; i < count; ++i) {
+      long zigzag;
+      if (!in.readBit()) {
+        zigzag = 0;
+      } else if (!in.readBit()) {
+        zigzag = in.read(7);
+      } else if (!in.readBit()) {
+        zigzag = in.read(9);
+      } else if (!in.readBit()) {
+        zigzag = in.read(12);
+      } else {
+        zigzag = in.read(64);
+      }
+      long delta = previousDelta + ColumnCodec.unzigzag(zigzag);
+      previous += delta;
+      values[i] = (int) previous;
+      previousDelta = delta;
+    }
+  }
+
+  static void encodeFloats(BitWriter out, float values[], int count) {
+    XorEncoder encoder = new XorEncoder(out, 32);
+    for (int i = 0; i < count; ++i) {
+      encoder.encode(Float.floatToRawIntBits(values[i]) & 0xffffffffL);
+    }
+  }
+
+  static void decodeFloats(BitReader in, float values[], int count) throws EOFException {
+    XorDecoder decoder = new XorDecoder(in, 32);
+    for (int i = 0; i < count; ++i) {
+      values[i] = Float.intBitsToFloat((int) decoder.decode());
+    }
+  }
+
+  static void encodeLongs(BitWriter out, long values[], int count) {
+    XorEncoder encoder = new XorEncoder(out, 64);
+    for (int i = 0; i < count; ++i) {
+      encoder.encode(values[i]);
+    }
+  }
+
+  static void decodeLongs(BitReader in, long values[], int count) throws EOFException {
+    XorDecoder decoder = new XorDecoder(in, 64);
+    for (int i = 0; i < count; ++i) {
+      values[i] = decoder.decode();
+    }
+  }
+
+  static void encodeBytes(BitWriter out, byte values[], int count) {
+    int ints[] = new int[count];
+    for (int i = 0; i < count; ++i) {
+      ints[i] = values[i];
+    }
+    encodeInts(out, ints, count);
+  }
+
+  static void decodeBytes(BitReader in, byte values[], int count) throws EOFException {
+    int ints[] = new int[count];
+    decodeInts(in, ints, count);
+    for (int i = 0; i < count; ++i) {
+      values[i] = (byte) ints[i];
+    }
+  }
+
+  /** Field width, in bits, of the leading zero count and of the meaningful bit count - 1. */
+  private static int fieldBits(int width) {
+    return width == 32 ? 5 : 6;
+  }
+
+  private static final class XorEncoder {
+    private final BitWriter out;
+    private final int width;
+    private long previous;
+    private int leading = -1;
+    private int trailing;
+
+    XorEncoder(BitWriter out, int width) {
+      this.out = out;
+      this.width = width;
+    }
+
+    void encode(long value) {
+      long xor = value ^ previous;
+      previous = value;
+      if (xor == 0) {
+        out.write(0, 1);
+        return;
+      }
+      int newLeading = Long.numberOfLeadingZeros(xor) - (64 - width);
+      int newTrailing = Long.numberOfTrailingZeros(xor);
+      if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+        out.write(0b10, 2);
+        out.write(xor >>> trailing, width - leading - trailing);
+        return;
+      }
+      leading = newLeading;
+      trailing = newTrailing;
+      int meaningful = width - leading - trailing;
+      out.write(0b11, 2);
+      out.write(leading, fieldBits(width));
+      out.write(meaningful - 1, fieldBits(width));
+      out.write(xor >>> trailing, meaningful);
+    }
+  }
+
+  private static final class XorDecoder {
+    private final BitReader in;
+    private final int width;
+    private long previous;
+    private int leading;
+    private int trailing;
+
+    XorDecoder(BitReader in, int width) {
+      this.in = in;
+      this.width = width;
+    }
+
+    long decode() throws EOFException {
+      if (!in.readBit()) {
+        return previous;
+      }
+      if (in.readBit()) {
+        leading = (int) in.read(fieldBits(width));
+        int meaningful = (int) in.read(fieldBits(width)) + 1;
+        trailing = width - leading - meaningful;
+      }
+      previous ^= in.read(width - leading - trailing) << trailing;
+      return previous;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import com.google.common.base.Splitter;
+
+import edmtools.JpiDecoder.FlightVisitor;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiFileLayout.FlightRange;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Decodes only the flights of a JPI download which are newer than those already ingested for
+ * the aircraft.
+ *
+ * <p>Each registration ({@link Metadata#getRegistration}) has a watermark: the highest flight
+ * number and start time ingested.  A flight is new if its number or its start time is above the
+ * watermark.  Ingesting reads the {@code $D} lines and flight headers with
+ * {@link JpiFileLayout}, seeking past every flight's data, then decodes the new flights alone
+ * from {@link JpiFileLayout#newInputStream}.
+ *
+ * <p>Watermarks are kept in a text file of tab-separated registration, flight number and start
+ * time lines.  Instances are not thread-safe.
+ */
+public final class IncrementalIngester {
+  private static final Logger logger = Logger.getLogger(IncrementalIngester.class.getName());
+  private static final Splitter FIELD_SPLITTER = Splitter.on('\t');
+
+  /** The newest flight ingested for a registration. */
+  public static final class Watermark {
+    private final int flightNumber;
+    private final long startTimestamp;
+
+    Watermark(int flightNumber, long startTimestamp) {
+      this.flightNumber = flightNumber;
+      this.startTimestamp = startTimestamp;
+    }
+
+    public int getFlightNumber() {
+      return flightNumber;
+    }
+
+    public long getStartTimestamp() {
+      return startTimestamp;
+    }
+
+    boolean isNew(Flight header) {
+      return header.getFlightNumber() > flightNumber || header.getStartTimestamp() > startTimestamp;
+    }
+
+    Watermark advance(Flight header) {
+      return new Watermark(Math.max(flightNumber, header.getFlightNumber()),
+          Math.max(startTimestamp, header.getStartTimestamp()));
+    }
+  }
+
+  private final Map<String, Watermark> watermarks = new TreeMap<>();
+
+  /** Creates an ingester which has ingested nothing. */
+  public IncrementalIngester() {}
+
+  /** Creates an ingester with the watermarks saved in {@code file}, if it exists. */
+  public static IncrementalIngester load(File file) throws IOException {
+    IncrementalIngester ingester = new IncrementalIngester();
+    if (!file.exists()) {
+      return ingester;
+    }
+    int lineNumber = 0;
+    for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+      lineNumber++;
+      if (line.isEmpty()) {
+        continue;
+      }
+      List<String> fields = FIELD_SPLITTER.splitToList(line);
+      try {
+        if (fields.size() != 3) {
+          throw new NumberFormatException("expected 3 fields");
+        }
+        ingester.watermarks.put(fields.get(0), new Watermark(
+            Integer.parseInt(fields.get(1)), Long.parseLong(fields.get(2))));
+      } catch (NumberFormatException e) {
+        throw new IOException(String.format("%s:%d: %s", file, lineNumber, e.getMessage()));
+      }
+    }
+    return ingester;
+  }
+
+  /** Writes the watermarks to {@code file}, replacing it atomically. */
+  public void save(File file) throws IOException {
+    StringBuilder contents = new StringBuilder();
+    for (Map.Entry<String, Watermark> entry : watermarks.entrySet()) {
+      contents.append(entry.getKey()).append('\t')
+          .append(entry.getValue().getFlightNumber()).append('\t')
+          .append(entry.getValue().getStartTimestamp()).append('\n');
+    }
+    File temporary = new File(file.getPath() + ".tmp");
+    Files.write(temporary.toPath(), contents.toString().getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary.toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Returns the watermark of {@code registration}, or null if nothing was ingested for it. */
+  public Watermark getWatermark(String registration) {
+    return watermarks.get(registration);
+  }
+
+  /**
+   * Decodes the new flights of {@code file} into {@code visitor} and advances the watermark
+   * past each flight the visitor accepts.  The metadata passed to the visitor lists only the
+   * new flights.  If there are none, the visitor is not called.  Returns the number decoded.
+   */
+  public int ingest(File file, final FlightVisitor visitor) throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(file);
+    final String registration = layout.getMetadata().getRegistration();
+    Watermark watermark = watermarks.get(registration);
+    List<FlightRange> newFlights = new ArrayList<>();
+    for (FlightRange flight : layout.getFlights()) {
+      if (watermark == null || watermark.isNew(flight.getHeader())) {
+        newFlights.add(flight);
+      }
+    }
+    logger.fine(String.format("%s: %d new of %d flights for %s", file, newFlights.size(),
+        layout.getFlights().size(), registration));
+    if (newFlights.isEmpty()) {
+      return 0;
+    }
+
+    final int decoded[] = new int[1];
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      JpiDecoder.decode(
+          new JpiInputStream(new BufferedInputStream(
+              layout.newInputStream(newFlights, channel), 1 << 16)),
+          JpiDecoderConfiguration.newBuilder().build(),
+          new FlightVisitor() {
+            @Override
+            public void visitMetadata(Metadata metadata) throws IOException {
+              visitor.visitMetadata(metadata);
+            }
+
+            @Override
+            public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+              visitor.visitFlight(header, records);
+              Watermark current = watermarks.get(registration);
+              watermarks.put(registration, current == null
+                  ? new Watermark(header.getFlightNumber(), header.getStartTimestamp())
+                  : current.advance(header));
+              decoded[0]++;
+            }
+          });
+    }
+    return decoded[0];
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads JPI files stored plain, gzip-compressed, or bundled in zip (or jar) archives.
+ *
+ * <p>Each JPI file is decoded in place from the decompressing stream; nothing is copied to disk.
+ * The format is detected from the leading magic bytes rather than the filename, and archives may
+ * be nested (eg a {@code .jpi.gz} inside a zip).
+ */
+public class JpiArchiveReader {
+  private static final Logger logger = Logger.getLogger(JpiArchiveReader.class.getName());
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAGIC_LENGTH = 4;
+  private static final String GZIP_SUFFIX = ".gz";
+
+  /** Receives each JPI file found in the input. */
+  public interface Visitor {
+    /**
+     * Called once per JPI file.  {@code name} is the archive entry name, or the filename (less
+     * any {@code .gz} suffix) for a plain or gzip file.  The stream is only valid during the call.
+     */
+    void visit(String name, JpiInputStream inputStream) throws IOException;
+  }
+
+  /** Visits every JPI file in {@code filename}.  Returns the number of JPI files visited. */
+  public static int read(String filename, Visitor visitor) throws IOException {
+    try (InputStream stream = new FileInputStream(filename)) {
+      return read(filename, stream, visitor);
+    }
+  }
+
+  /**
+   * Visits every JPI file in {@code stream}.  Returns the number of JPI files visited.
+   * The stream is not closed.
+   */
+  public static int read(String name, InputStream stream, Visitor visitor) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(stream, BUFFER_SIZE);
+    switch (detectFormat(buffered)) {
+      case GZIP:
+        if (name.toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX)) {
+          name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+        }
+        return read(name, new GZIPInputStream(buffered, BUFFER_SIZE), visitor);
+      case ZIP:
+        return readZip(new ZipInputStream(buffered), visitor);
+      default:
+        visitor.visit(name, new JpiInputStream(buffered));
+        return 1;
+    }
+  }
+
+  private static int readZip(ZipInputStream zip, Visitor visitor) throws IOException {
+    int count = 0;
+    ZipEntry entry;
+    while ((entry = zip.getNextEntry()) != null) {
+      if (entry.isDirectory() || !isJpiEntryName(entry.getName())) {
+        logger.fine("Skipping archive entry " + entry.getName());
+        continue;
+      }
+      // The visitor must not be able to close the archive out from under the next entry.
+      count += read(entry.getName(), new FilterInputStream(zip) {
+        @Override
+        public void close() {}
+      }, visitor);
+      zip.closeEntry();
+    }
+    return count;
+  }
+
+  /** Returns true if {@code name} looks like a plain, gzip or zip JPI file. */
+  static boolean isJpiEntryName(String name) {
+    String lower = name.toLowerCase(Locale.ROOT);
+    return lower.endsWith(".jpi") || lower.endsWith(".jpi.gz") || lower.endsWith(".zip");
+  }
+
+  enum Format {
+    PLAIN,
+    GZIP,
+    ZIP
+  }
+
+  /** Peeks at the magic bytes without consuming them. */
+  static Format detectFormat(BufferedInputStream stream) throws IOException {
+    byte magic[] = new byte[MAGIC_LENGTH];
+    stream.mark(MAGIC_LENGTH);
+    int length = 0;
+    try {
+      int read;
+      while (length < MAGIC_LENGTH
+          && (read = stream.read(magic, length, MAGIC_LENGTH - length)) > 0) {
+        length += read;
+      }
+    } finally {
+      stream.reset();
+    }
+    if (length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+      return Format.GZIP;
+    }
+    if (length == MAGIC_LENGTH
+        && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 0x03 && magic[3] == 0x04) {
+      return Format.ZIP;
+    }
+    return Format.PLAIN;
+  }
+}
@@ -17,24 +17,42 @@
 package edmtools;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+
+import edmtools.Proto.Flight;
 import edmtools.Proto.FlightMetadata;
 import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
 
 /**
  * Public API for decoding a JPI data file.
  */
 public class JpiDecoder {
+  /**
+   * Identifies the decoder's output.  Increment when a change alters how any flight decodes,
+   * so that {@link DecodedFlightCache} entries from earlier versions are not used.
+   */
+  public static final int DECODER_VERSION = 1;
+
   public static class JpiDecoderConfiguration {
-    private JpiDecoderConfiguration(boolean headersOnly, Integer startFlightNumber, Integer endFlightNumber) {
+    private JpiDecoderConfiguration(boolean headersOnly, Integer startFlightNumber, Integer endFlightNumber,
+        long memoryBudgetBytes, Predicate<FlightFingerprint> isKnownFlight) {
       this.headersOnly = headersOnly;
       this.startFlightNumber = startFlightNumber;
       this.endFlightNumber = endFlightNumber;
+      this.memoryBudgetBytes = memoryBudgetBytes;
+      this.isKnownFlight = isKnownFlight;
     }
 
     private boolean headersOnly;
     private Integer startFlightNumber;
     private Integer endFlightNumber;
+    private long memoryBudgetBytes;
+    private Predicate<FlightFingerprint> isKnownFlight;
 
     public static Builder newBuilder() { return new Builder(); }
 
@@ -43,6 +61,8 @@ public class JpiDecoder {
       private boolean headersOnly;
       private Integer startFlightNumber;
       private Integer endFlightNumber;
+      private long memoryBudgetBytes = Long.MAX_VALUE;
+      private Predicate<FlightFingerprint> isKnownFlight;
 
       /**
        * If called, only the metadata for each flight will be parsed.  The actual data will be
@@ -78,22 +98,175 @@ public class JpiDecoder {
         return this;
       }
 
+      /**
+       * Bounds the serialized size of flights held in memory by
+       * {@link JpiDecoder#decodeSpillable}.  Flights beyond the budget are spilled to disk.
+       */
+      public Builder withMemoryBudgetBytes(long memoryBudgetBytes) {
+        Preconditions.checkArgument(memoryBudgetBytes >= 0, "budget must not be negative");
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        return this;
+      }
+
+      /**
+       * Fingerprints each selected flight from its raw bytes before decoding it, and skips the
+       * flights for which {@code isKnownFlight} returns true, as if they were not selected.
+       * The predicate sees every selected flight, so it may also record the new ones.
+       *
+       * <p>A stream opened on a file name is hashed with positional reads of the file.  Any
+       * other stream holds one flight at a time in its buffer while hashing, outside
+       * {@link #withMemoryBudgetBytes}, and fails if the last flight runs past its length in
+       * the file's metadata.
+       */
+      public Builder withKnownFlights(Predicate<FlightFingerprint> isKnownFlight) {
+        this.isKnownFlight = isKnownFlight;
+        return this;
+      }
+
       public JpiDecoderConfiguration build() {
-        return new JpiDecoderConfiguration(headersOnly, startFlightNumber, endFlightNumber);
+        return new JpiDecoderConfiguration(headersOnly, startFlightNumber, endFlightNumber,
+            memoryBudgetBytes, isKnownFlight);
       }
     }
   }
 
+  /**
+   * Receives the flights decoded by
+   * {@link JpiDecoder#decode(JpiInputStream, JpiDecoderConfiguration, FlightVisitor)}.
+   */
+  public interface FlightVisitor {
+    /** Called once, before any flight. */
+    void visitMetadata(Metadata metadata) throws IOException;
+
+    /**
+     * Called for each selected flight.  {@code header} has no {@code data}; {@code records}
+     * is positioned before the first record, and is empty if only headers were requested.
+     */
+    void visitFlight(Flight header, DataRecordCursor records) throws IOException;
+  }
+
   /**
    * Decodes a {@link JpiInputStream}, based on the settings of {@link JpiDecoderConfiguration},
    * into a {@link JpiFile} protocol buffer.
    */
   public static JpiFile decode(JpiInputStream inputStream, JpiDecoderConfiguration config)
       throws IOException {
-    JpiFile.Builder jpiFile = JpiFile.newBuilder();
-    jpiFile.setMetadata(new MetadataParser(inputStream).parse());
-    MetadataUtil metadataUtil = new MetadataUtil(jpiFile.getMetadata());
-    for (FlightMetadata flightMetadata : jpiFile.getMetadata().getFlightMetadataList()) {
+    final JpiFile.Builder jpiFile = JpiFile.newBuilder();
+    decode(inputStream, config, new FlightConsumer() {
+      @Override
+      public void acceptMetadata(Metadata metadata, MetadataUtil metadataUtil) {
+        jpiFile.setMetadata(metadata);
+      }
+
+      @Override
+      public void accept(FlightParser parser, boolean headersOnly) throws IOException {
+        jpiFile.addFlight(headersOnly ? parser.parseHeaderAndSkipData() : parser.parse());
+      }
+    });
+    return jpiFile.build();
+  }
+
+  /**
+   * Decodes a {@link JpiInputStream} like {@link #decode(JpiInputStream, JpiDecoderConfiguration)},
+   * but holds at most {@link JpiDecoderConfiguration.Builder#withMemoryBudgetBytes} of flights on
+   * the heap.  The caller must close the result.
+   */
+  public static SpillableJpiFile decodeSpillable(
+      JpiInputStream inputStream, JpiDecoderConfiguration config) throws IOException {
+    final SpillableJpiFile jpiFile = new SpillableJpiFile(config.memoryBudgetBytes);
+    try {
+      decode(inputStream, config, new FlightConsumer() {
+        @Override
+        public void acceptMetadata(Metadata metadata, MetadataUtil metadataUtil) {
+          jpiFile.setMetadata(metadata);
+        }
+
+        @Override
+        public void accept(FlightParser parser, boolean headersOnly) throws IOException {
+          jpiFile.addFlight(headersOnly ? parser.parseHeaderAndSkipData() : parser.parse());
+        }
+      });
+    } catch (IOException | RuntimeException e) {
+      jpiFile.close();
+      throw e;
+    }
+    return jpiFile;
+  }
+
+  /**
+   * Decodes a {@link JpiInputStream} one flight at a time into {@code visitor}.  Records are
+   * decoded into primitive columns and presented through a {@link DataRecordCursor}, so no
+   * {@link Proto.DataRecord} messages are created.
+   */
+  public static void decode(JpiInputStream inputStream, JpiDecoderConfiguration config,
+      final FlightVisitor visitor) throws IOException {
+    decode(inputStream, config, new FlightConsumer() {
+      private RecordLayout layout;
+
+      @Override
+      public void acceptMetadata(Metadata metadata, MetadataUtil metadataUtil)
+          throws IOException {
+        layout = RecordLayout.forMetadata(metadataUtil);
+        visitor.visitMetadata(metadata);
+      }
+
+      @Override
+      public void accept(FlightParser parser, boolean headersOnly) throws IOException {
+        RecordColumns columns;
+        if (headersOnly) {
+          columns = new RecordColumns(layout, 0);
+          columns.setHeader(parser.parseHeaderAndSkipData());
+        } else {
+          columns = parser.parseColumns(layout);
+        }
+        visitor.visitFlight(columns.getHeader(), columns.cursor());
+      }
+    });
+  }
+
+  /**
+   * Decodes each selected flight of a {@link JpiInputStream} into a {@link FlightFrame}, one
+   * primitive column per channel.  Frames of flights skipped by
+   * {@link JpiDecoderConfiguration.Builder#withFlightHeadersOnly} have no records.
+   */
+  public static List<FlightFrame> decodeFrames(
+      JpiInputStream inputStream, JpiDecoderConfiguration config) throws IOException {
+    final List<FlightFrame> frames = new ArrayList<>();
+    decode(inputStream, config, new FlightConsumer() {
+      private RecordLayout layout;
+
+      @Override
+      public void acceptMetadata(Metadata metadata, MetadataUtil metadataUtil) {
+        layout = RecordLayout.forMetadata(metadataUtil);
+      }
+
+      @Override
+      public void accept(FlightParser parser, boolean headersOnly) throws IOException {
+        if (headersOnly) {
+          RecordColumns columns = new RecordColumns(layout, 0);
+          columns.setHeader(parser.parseHeaderAndSkipData());
+          frames.add(new FlightFrame(columns));
+        } else {
+          frames.add(parser.parseFrame(layout));
+        }
+      }
+    });
+    return frames;
+  }
+
+  private interface FlightConsumer {
+    void acceptMetadata(Metadata metadata, MetadataUtil metadataUtil) throws IOException;
+
+    /** Called with a parser positioned at the start of each selected flight. */
+    void accept(FlightParser parser, boolean headersOnly) throws IOException;
+  }
+
+  private static void decode(JpiInputStream inputStream, JpiDecoderConfiguration config,
+      FlightConsumer consumer) throws IOException {
+    Metadata metadata = new MetadataParser(inputStream).parse();
+    MetadataUtil metadataUtil = new MetadataUtil(metadata);
+    consumer.acceptMetadata(metadata, metadataUtil);
+    for (FlightMetadata flightMetadata : metadata.getFlightMetadataList()) {
       FlightParser parser = new FlightParser(inputStream, flightMetadata, metadataUtil);
       int flightNumber = flightMetadata.getFlightNumber();
       if ((config.startFlightNumber != null && flightNumber < config.startFlightNumber)
@@ -101,8 +274,12 @@ public class JpiDecoder {
         parser.parseHeaderAndSkipData();
         continue;
       }
-      jpiFile.addFlight(config.headersOnly ? parser.parseHeaderAndSkipData() : parser.parse());
+      if (config.isKnownFlight != null
+          && config.isKnownFlight.apply(parser.fingerprint(metadata.getRegistration()))) {
+        parser.parseHeaderAndSkipData();
+        continue;
+      }
+      consumer.accept(parser, config.headersOnly);
     }
-    return jpiFile.build();
   }
 }
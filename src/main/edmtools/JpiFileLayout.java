@@ -0,0 +1,299 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.FlightMetadata;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/**
+ * Where each flight of a JPI file lies, found with a headers-only decode, so that flights can
+ * be copied between files as raw bytes without decoding their data records.
+ *
+ * <p>A JPI file is a block of {@code $}-prefixed ASCII header lines, one {@code $D} line per
+ * flight, followed by the flights in {@code $D} order.  {@link #writeHeader} rebuilds the header
+ * block for a different selection of flights, and {@link #transfer} copies flight bytes from
+ * one file channel to another.
+ */
+public final class JpiFileLayout {
+  private static final String CR_LF = "\r\n";
+  private static final Splitter LINE_SPLITTER = Splitter.on(CR_LF).omitEmptyStrings();
+
+  /** The bytes of one flight, header and data records, within its JPI file. */
+  public static final class FlightRange {
+    private final File file;
+    private final FlightMetadata flightMetadata;
+    private final Flight header;
+    private final long offset;
+    private final long length;
+
+    FlightRange(
+        File file, FlightMetadata flightMetadata, Flight header, long offset, long length) {
+      this.file = file;
+      this.flightMetadata = flightMetadata;
+      this.header = header;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /** The JPI file holding the flight. */
+    public File getFile() {
+      return file;
+    }
+
+    public int getFlightNumber() {
+      return flightMetadata.getFlightNumber();
+    }
+
+    /** The flight's {@code $D} entry. */
+    public FlightMetadata getFlightMetadata() {
+      return flightMetadata;
+    }
+
+    /** The decoded flight header, without {@code data}. */
+    public Flight getHeader() {
+      return header;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public long getLength() {
+      return length;
+    }
+  }
+
+  private final File file;
+  private final Metadata metadata;
+  private final List<String> headerLines;
+  private final List<FlightRange> flights;
+
+  private JpiFileLayout(
+      File file, Metadata metadata, List<String> headerLines, List<FlightRange> flights) {
+    this.file = file;
+    this.metadata = metadata;
+    this.headerLines = headerLines;
+    this.flights = flights;
+  }
+
+  /** Reads the layout of a JPI file with a headers-only decode. */
+  public static JpiFileLayout read(File file) throws IOException {
+    JpiFile jpiFile = JpiDecoder.decode(new JpiInputStream(file.getPath()),
+        JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build());
+    Metadata metadata = jpiFile.getMetadata();
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer headerBytes = ByteBuffer.allocate(metadata.getLength());
+      while (headerBytes.hasRemaining() && channel.read(headerBytes) >= 0) {}
+      List<String> headerLines = LINE_SPLITTER.splitToList(
+          new String(headerBytes.array(), 0, headerBytes.position(), StandardCharsets.US_ASCII));
+
+      List<FlightRange> flights = new ArrayList<>();
+      long offset = metadata.getLength();
+      for (int i = 0; i < jpiFile.getFlightCount(); ++i) {
+        Flight header = jpiFile.getFlight(i);
+        long length = header.getHeaderLength() + header.getDataLength();
+        flights.add(new FlightRange(file, metadata.getFlightMetadata(i), header, offset, length));
+        offset += length;
+      }
+      if (offset != channel.size()) {
+        throw new IOException(String.format(
+            "Flights of %s end at %d, but the file is %d bytes", file, offset, channel.size()));
+      }
+      return new JpiFileLayout(file, metadata, headerLines, Collections.unmodifiableList(flights));
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public Metadata getMetadata() {
+    return metadata;
+  }
+
+  /** The length of the header block, which the first flight follows. */
+  public int getHeaderLength() {
+    return metadata.getLength();
+  }
+
+  public List<FlightRange> getFlights() {
+    return flights;
+  }
+
+  /** Returns the flight with the given number, or null. */
+  public FlightRange getFlight(int flightNumber) {
+    for (FlightRange flight : flights) {
+      if (flight.getFlightNumber() == flightNumber) {
+        return flight;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns this file's header block with one {@code $D} line per flight of {@code flights},
+   * in order, in place of the original {@code $D} lines.  If {@code registration} is not null,
+   * it replaces the {@code $U} registration.  Other lines, including {@code $L}, are kept.
+   */
+  public byte[] writeHeader(List<FlightRange> flights, String registration) {
+    StringBuilder header = new StringBuilder();
+    boolean wroteFlights = false;
+    for (String line : headerLines) {
+      if (line.startsWith("$D,")) {
+        if (!wroteFlights) {
+          for (FlightRange flight : flights) {
+            appendLine(header, String.format("D, %d, %d", flight.getFlightNumber(),
+                flight.getFlightMetadata().getFlightDataLengthWords()));
+          }
+          wroteFlights = true;
+        }
+      } else if (registration != null && line.startsWith("$U,")) {
+        appendLine(header, "U," + registration);
+      } else {
+        header.append(line).append(CR_LF);
+      }
+    }
+    Preconditions.checkState(wroteFlights || flights.isEmpty(), "No $D lines in %s", file);
+    return header.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /** Appends {@code $<data>*<checksum>}; the checksum is the XOR of the data bytes. */
+  private static void appendLine(StringBuilder header, String data) {
+    int checksum = 0;
+    for (byte b : data.getBytes(StandardCharsets.US_ASCII)) {
+      checksum ^= b;
+    }
+    header.append('$').append(data).append(String.format("*%02X", checksum)).append(CR_LF);
+  }
+
+  /**
+   * Writes a JPI file holding {@code flights}, in order, under this file's header block.  The
+   * flights may come from any JPI files.  See {@link #writeHeader} for {@code registration}.
+   * Safe to call from several threads at once.
+   */
+  public void write(List<FlightRange> flights, String registration, File output)
+      throws IOException {
+    Map<File, FileChannel> sources = new HashMap<>();
+    try (FileChannel target = FileChannel.open(output.toPath(), StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.wrap(writeHeader(flights, registration));
+      while (header.hasRemaining()) {
+        target.write(header);
+      }
+      for (FlightRange flight : flights) {
+        FileChannel source = sources.get(flight.getFile());
+        if (source == null) {
+          source = FileChannel.open(flight.getFile().toPath(), StandardOpenOption.READ);
+          sources.put(flight.getFile(), source);
+        }
+        transfer(source, flight, target);
+      }
+    } finally {
+      for (FileChannel source : sources.values()) {
+        source.close();
+      }
+    }
+  }
+
+  /**
+   * Returns a stream of a JPI file holding {@code flights} of this file, in order, under this
+   * file's header block, without copying the file.  {@code channel} must be this file's and
+   * must stay open while the stream is read.
+   */
+  public InputStream newInputStream(List<FlightRange> flights, FileChannel channel) {
+    return new SequenceInputStream(new ByteArrayInputStream(writeHeader(flights, null)),
+        new RangeInputStream(channel, flights));
+  }
+
+  /**
+   * Copies a flight's bytes from {@code source}, its file's channel, to the current position of
+   * {@code target}.  The copy is left to the kernel where the platform allows.
+   */
+  public static void transfer(FileChannel source, FlightRange flight, FileChannel target)
+      throws IOException {
+    long position = flight.getOffset();
+    long end = position + flight.getLength();
+    while (position < end) {
+      long transferred = source.transferTo(position, end - position, target);
+      if (transferred <= 0) {
+        throw new IOException("Unexpected end of file copying flight " + flight.getFlightNumber());
+      }
+      position += transferred;
+    }
+  }
+
+  /** Reads the bytes of several flights, in order, with positional reads. */
+  private static final class RangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private final List<FlightRange> flights;
+    private int index;
+    private long position;
+    private long end;
+
+    RangeInputStream(FileChannel channel, List<FlightRange> flights) {
+      this.channel = channel;
+      this.flights = flights;
+      this.index = -1;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte b[] = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) throws IOException {
+      while (position == end) {
+        if (index + 1 == flights.size()) {
+          return -1;
+        }
+        index++;
+        position = flights.get(index).getOffset();
+        end = position + flights.get(index).getLength();
+      }
+      int read = channel.read(
+          ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      position += read;
+      return read;
+    }
+  }
+}
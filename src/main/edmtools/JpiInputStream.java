@@ -18,37 +18,92 @@ package edmtools;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
 
 // TODO: *ducks* this isn't really an InputStream.
 public class JpiInputStream {
+  private static final int HASH_BUFFER_SIZE = 1 << 16;
+
   private final InputStream stream;
 
+  /** The file read by {@link #stream}, if it reads a file from its start; else null. */
+  private final FileChannel channel;
+
   private final List<Integer> currentRecord;
 
   /** Current byte counter, independent of currentRecord. */
   private int counter;
 
+  /** Bytes consumed from the start of the stream, and at the last {@link #mark}. */
+  private long position;
+  private long markPosition;
+
+  /** If set, receives every byte read or skipped. */
+  private Hasher hasher;
+
   public JpiInputStream(String filename) throws FileNotFoundException {
-    this(new BufferedInputStream(new FileInputStream(new File(filename))));
+    this(new FileInputStream(new File(filename)));
+  }
+
+  private JpiInputStream(FileInputStream stream) {
+    this(new BufferedInputStream(stream), stream.getChannel());
   }
 
   public JpiInputStream(InputStream stream) {
+    this(stream, null);
+  }
+
+  private JpiInputStream(InputStream stream, FileChannel channel) {
     this.stream = stream;
+    this.channel = channel;
     this.currentRecord = new ArrayList<>();
     this.counter = 0;
     Preconditions.checkArgument(stream.markSupported(), "stream must support mark()");
   }
 
+  /**
+   * If this stream reads a file, returns a new stream of the rest of the file from the current
+   * position, read with positional reads so that this stream does not move; otherwise returns
+   * null.
+   */
+  JpiInputStream forkFromHere() {
+    if (channel == null) {
+      return null;
+    }
+    final long start = position;
+    return new JpiInputStream(new BufferedInputStream(new InputStream() {
+      private long next = start;
+
+      @Override
+      public int read() throws IOException {
+        byte b[] = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte b[], int off, int len) throws IOException {
+        int read = channel.read(ByteBuffer.wrap(b, off, len), next);
+        if (read > 0) {
+          next += read;
+        }
+        return read;
+      }
+    }, HASH_BUFFER_SIZE));
+  }
+
   public void clearCurrentRecord() {
     currentRecord.clear();
   }
@@ -76,6 +131,14 @@ public class JpiInputStream {
     return (-computedChecksum) & 0xff;
   }
 
+  /**
+   * Feeds every byte subsequently read or skipped, but not peeked, to {@code hasher}, or stops
+   * doing so if {@code hasher} is null.  Skipping reads the bytes while a hasher is set.
+   */
+  void setHasher(Hasher hasher) {
+    this.hasher = hasher;
+  }
+
   public void resetCounter() {
     counter = 0;
   }
@@ -97,7 +160,11 @@ public class JpiInputStream {
       throw new IOException("Unexpected EOF");
     }
     read = read & 0xff;
+    if (hasher != null) {
+      hasher.putByte((byte) read);
+    }
     counter++;
+    position++;
     currentRecord.add(read);
     return read;
   }
@@ -121,29 +188,67 @@ public class JpiInputStream {
 
   public void mark(int readLimit) {
     stream.mark(readLimit);
+    markPosition = position;
   }
 
   public void reset() throws IOException {
     stream.reset();
+    position = markPosition;
     // TODO: counter and currentRecord are not updated.
   }
 
   public void skip(long numBytes) throws IOException {
     counter += numBytes;
-    do {
-      numBytes -= stream.skip(numBytes);
-    } while (numBytes > 0);
+    position += numBytes;
+    if (hasher != null) {
+      hashBytes(numBytes);
+      return;
+    }
+    while (numBytes > 0) {
+      long skipped = stream.skip(numBytes);
+      if (skipped <= 0) {
+        // Decompressing streams may skip nothing short of EOF; read a byte to tell them apart.
+        if (stream.read() == -1) {
+          throw new EOFException("Unexpected EOF");
+        }
+        skipped = 1;
+      }
+      numBytes -= skipped;
+    }
     // TODO: currentRecord is not updated.
   }
 
   public int skipToEndOfFile() throws IOException {
     int length = 0;
-    while (stream.read() != -1) {
-      length++;
+    if (hasher != null) {
+      length = (int) hashBytes(Long.MAX_VALUE);
+    } else {
+      while (stream.read() != -1) {
+        length++;
+      }
     }
+    position += length;
     return length;
   }
 
+  /** Reads and hashes up to {@code numBytes}, throwing at EOF unless reading to the end. */
+  private long hashBytes(long numBytes) throws IOException {
+    byte buffer[] = new byte[(int) Math.min(numBytes, HASH_BUFFER_SIZE)];
+    long remaining = numBytes;
+    while (remaining > 0) {
+      int read = stream.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+      if (read == -1) {
+        if (numBytes == Long.MAX_VALUE) {
+          break;
+        }
+        throw new EOFException("Unexpected EOF");
+      }
+      hasher.putBytes(buffer, 0, read);
+      remaining -= read;
+    }
+    return numBytes - remaining;
+  }
+
   public String getCurrentRecord() {
     String result = "";
     for (int b : currentRecord) {
@@ -0,0 +1,174 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiFileLayout.FlightRange;
+
+/**
+ * Merges JPI downloads into one archive per aircraft, keeping one copy of each flight.
+ *
+ * <p>Flights are identified by {@link FlightFingerprint}, computed from their raw bytes, so
+ * merging reads each flight once and decodes only the headers.  An archive is itself a JPI
+ * file and may be merged again with later downloads.
+ *
+ * <p>The header block of an archive is that of the aircraft's most recent download, with its
+ * {@code $D} lines rebuilt; flights are assumed to decode under it.
+ */
+public final class JpiMerger {
+  private static final Logger logger = Logger.getLogger(JpiMerger.class.getName());
+
+  private final boolean keepLongest;
+  /** Kept flights in the order they were added. */
+  private final Map<FlightFingerprint, FlightRange> flights = new LinkedHashMap<>();
+  /** The most recent download of each registration. */
+  private final Map<String, JpiFileLayout> templates = new HashMap<>();
+  private int numDuplicates;
+
+  /** Creates a merger which refuses to write an archive whose flights conflict. */
+  public JpiMerger() {
+    this(false);
+  }
+
+  /**
+   * Creates a merger which, if {@code keepLongest}, resolves flights which conflict by keeping
+   * the longest, and otherwise refuses to write them.  See {@link #getFlights}.
+   */
+  public JpiMerger(boolean keepLongest) {
+    this.keepLongest = keepLongest;
+  }
+
+  /** Adds the flights of a JPI file which were not seen before.  Returns the number added. */
+  public int add(File file) throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(file);
+    String registration = layout.getMetadata().getRegistration();
+    JpiFileLayout template = templates.get(registration);
+    if (template == null || template.getMetadata().getDownloadTimestamp()
+        <= layout.getMetadata().getDownloadTimestamp()) {
+      templates.put(registration, layout);
+    }
+    int added = 0;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      for (FlightRange flight : layout.getFlights()) {
+        FlightFingerprint fingerprint = FlightFingerprint.of(registration, flight, channel);
+        if (flights.containsKey(fingerprint)) {
+          numDuplicates++;
+        } else {
+          flights.put(fingerprint, flight);
+          added++;
+        }
+      }
+    }
+    logger.fine(String.format("%s: %d new of %d flights", file, added, layout.getFlights().size()));
+    return added;
+  }
+
+  /** The number of flights skipped by {@link #add} because they were already present. */
+  public int getDuplicateCount() {
+    return numDuplicates;
+  }
+
+  /** The registrations seen, in order. */
+  public Set<String> getRegistrations() {
+    return new TreeSet<>(templates.keySet());
+  }
+
+  /** The fingerprints of the kept flights, in the order they were added. */
+  public List<FlightFingerprint> getFingerprints() {
+    return ImmutableList.copyOf(flights.keySet());
+  }
+
+  /**
+   * Returns the flights of an archive for {@code registration}, ordered by start time.
+   *
+   * <p>The decoder finds flights by number, so an archive may hold only one flight per number.
+   * Different flights which share a number conflict.  This happens when a download was cut
+   * short, but also when the instrument's flight numbers were reset, so unless the merger was
+   * created to keep the longest of them, conflicts throw rather than lose a flight.
+   */
+  public List<FlightRange> getFlights(String registration) throws IOException {
+    Map<Integer, FlightFingerprint> byNumber = new HashMap<>();
+    Set<Integer> conflicts = new TreeSet<>();
+    for (FlightFingerprint fingerprint : flights.keySet()) {
+      if (!fingerprint.getRegistration().equals(registration)) {
+        continue;
+      }
+      FlightFingerprint previous = byNumber.get(fingerprint.getFlightNumber());
+      if (previous == null || previous.getLength() < fingerprint.getLength()) {
+        byNumber.put(fingerprint.getFlightNumber(), fingerprint);
+      }
+      if (previous != null) {
+        conflicts.add(fingerprint.getFlightNumber());
+        if (keepLongest) {
+          logger.warning(String.format(
+              "%s flight %d differs between downloads; keeping %d bytes", registration,
+              fingerprint.getFlightNumber(),
+              Math.max(previous.getLength(), fingerprint.getLength())));
+        }
+      }
+    }
+    if (!keepLongest && !conflicts.isEmpty()) {
+      throw new IOException(String.format(
+          "%s flights %s differ between downloads; merge them separately, or keep the longest",
+          registration, conflicts));
+    }
+    List<FlightFingerprint> kept = new ArrayList<>(byNumber.values());
+    Collections.sort(kept, new Comparator<FlightFingerprint>() {
+      @Override
+      public int compare(FlightFingerprint a, FlightFingerprint b) {
+        int result = Long.compare(a.getStartTimestamp(), b.getStartTimestamp());
+        return result != 0 ? result : Integer.compare(a.getFlightNumber(), b.getFlightNumber());
+      }
+    });
+    List<FlightRange> result = new ArrayList<>(kept.size());
+    for (FlightFingerprint fingerprint : kept) {
+      result.add(flights.get(fingerprint));
+    }
+    return result;
+  }
+
+  /**
+   * Writes the archive for {@code registration} to {@code output}.  The archive is written to
+   * a temporary file first, so {@code output} may be one of the merged files.
+   */
+  public void write(String registration, File output) throws IOException {
+    JpiFileLayout template = templates.get(registration);
+    Preconditions.checkArgument(template != null, "No flights for %s", registration);
+    File temporary = new File(output.getPath() + ".tmp");
+    template.write(getFlights(registration), null, temporary);
+    Files.move(temporary.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+}
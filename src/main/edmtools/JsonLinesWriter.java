@@ -0,0 +1,206 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.protobuf.util.JsonFormat;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+
+/**
+ * Streams decoded flights as JSON Lines: one JSON object per line, written as each record is
+ * decoded, so that memory use does not grow with the size of the file.
+ *
+ * <p>For each JPI file the stream holds a {@code {"metadata":{...}}} line, then for each flight
+ * a {@code {"flight":{...}}} line holding the header (without {@code data}) followed by one
+ * {@code {"data":{...}}} line per record.  Each object is in the proto3 JSON mapping that
+ * {@link JsonFormat} uses, so it may be parsed back with {@code JsonFormat.parser()}.
+ *
+ * <p>Metadata and headers are printed with {@link JsonFormat}; records, which are nearly all of
+ * the output, are encoded by hand from the decoder's columns.
+ */
+public final class JsonLinesWriter implements JpiDecoder.FlightVisitor {
+  private static final JsonFormat.Printer PRINTER =
+      JsonFormat.printer().omittingInsignificantWhitespace();
+  private static final char HEX_DIGITS[] = "0123456789abcdef".toCharArray();
+
+  private final Writer out;
+  private final StringBuilder line = new StringBuilder(1024);
+  private RecordLayout layout;
+  /** Indexed by container. */
+  private RecordFieldPlan plans[][];
+
+  /** {@code out} should be buffered; the writer does not flush or close it. */
+  public JsonLinesWriter(Writer out) {
+    this.out = out;
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) throws IOException {
+    out.write("{\"metadata\":");
+    out.write(PRINTER.print(metadata));
+    out.write("}\n");
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    out.write("{\"flight\":");
+    out.write(PRINTER.print(header));
+    out.write("}\n");
+
+    RecordColumns columns = records.getColumns();
+    if (columns.getLayout() != layout) {
+      layout = columns.getLayout();
+      plans = RecordFieldPlan.forLayout(layout);
+    }
+    byte engineCounts[] = columns.getEngineCountColumn();
+    for (int row = 0; row < columns.size(); ++row) {
+      line.setLength(0);
+      line.append("{\"data\":{");
+      boolean empty = appendFields(columns, plans[RecordLayout.RECORD], row, true);
+      if (engineCounts[row] > 0) {
+        line.append(empty ? "" : ",").append("\"engine\":[");
+        for (int engine = 0; engine < engineCounts[row]; ++engine) {
+          line.append(engine == 0 ? "{" : ",{");
+          appendFields(columns, plans[RecordLayout.engine(engine)], row, true);
+          line.append('}');
+        }
+        line.append(']');
+        empty = false;
+      }
+      if (columns.hasWarnings() && !columns.getWarnings(row).isEmpty()) {
+        line.append(empty ? "" : ",").append("\"parseWarning\":[");
+        boolean first = true;
+        for (String warning : columns.getWarnings(row)) {
+          line.append(first ? "" : ",");
+          appendString(warning);
+          first = false;
+        }
+        line.append(']');
+      }
+      line.append("}}\n");
+      out.append(line);
+    }
+  }
+
+  /** Appends the fields of one container.  Returns true if none was present. */
+  private boolean appendFields(
+      RecordColumns columns, RecordFieldPlan fields[], int row, boolean empty) {
+    for (RecordFieldPlan field : fields) {
+      int count = field.count(columns, row);
+      if (count == 0) {
+        continue;
+      }
+      line.append(empty ? "\"" : ",\"").append(field.jsonName).append("\":");
+      empty = false;
+      if (!field.isRepeated()) {
+        appendValue(columns, field, field.scalarSlot, row);
+        continue;
+      }
+      line.append('[');
+      for (int i = 0; i < count; ++i) {
+        if (i > 0) {
+          line.append(',');
+        }
+        appendValue(columns, field, field.slot(i), row);
+      }
+      line.append(']');
+    }
+    return empty;
+  }
+
+  private void appendValue(RecordColumns columns, RecordFieldPlan field, int slot, int row) {
+    if (field.isFloat) {
+      float value = columns.getFloatColumn(slot)[row];
+      if (Float.isNaN(value) || Float.isInfinite(value)) {
+        line.append('"').append(value).append('"');
+      } else {
+        Decimals.appendFloat(line, value);
+      }
+    } else if (field.isEnum) {
+      int value = columns.getIntColumn(slot)[row];
+      Mark mark = Mark.valueOf(value);
+      if (mark == null) {
+        line.append(value);
+      } else {
+        line.append('"').append(mark.name()).append('"');
+      }
+    } else {
+      line.append(columns.getIntColumn(slot)[row]);
+    }
+  }
+
+  /** Appends a JSON string, escaped as {@link JsonFormat} escapes it. */
+  private void appendString(String value) {
+    line.append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          line.append("\\\"");
+          break;
+        case '\\':
+          line.append("\\\\");
+          break;
+        case '\b':
+          line.append("\\b");
+          break;
+        case '\f':
+          line.append("\\f");
+          break;
+        case '\n':
+          line.append("\\n");
+          break;
+        case '\r':
+          line.append("\\r");
+          break;
+        case '\t':
+          line.append("\\t");
+          break;
+        case '<':
+        case '>':
+        case '&':
+        case '=':
+        case '\'':
+        case '\u2028':
+        case '\u2029':
+          appendUnicodeEscape(c);
+          break;
+        default:
+          if (c < 0x20) {
+            appendUnicodeEscape(c);
+          } else {
+            line.append(c);
+          }
+      }
+    }
+    line.append('"');
+  }
+
+  private void appendUnicodeEscape(char c) {
+    line.append("\\u")
+        .append(HEX_DIGITS[(c >> 12) & 0xf])
+        .append(HEX_DIGITS[(c >> 8) & 0xf])
+        .append(HEX_DIGITS[(c >> 4) & 0xf])
+        .append(HEX_DIGITS[c & 0xf]);
+  }
+}
@@ -0,0 +1,332 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Flight;
+
+/**
+ * A {@link FlightFrame} copied into one direct or memory-mapped {@link ByteBuffer}, as held by
+ * a {@link FleetFrameStore}.
+ *
+ * <p>Only the flight header and the channel directory live on the heap; reading values and
+ * the {@link #min}, {@link #max} and {@link #mean} scans allocate nothing.  Channels are
+ * addressed by index, see {@link #getChannelIndex}.
+ *
+ * <p>The buffer holds, little-endian: a fixed header (magic, version, record count, channel
+ * count, and the lengths of the registration and the serialized flight header), the
+ * registration and flight header bytes, the channel directory (flags and name of each
+ * channel), then 8-byte aligned, the timestamp column, the mark column, and one 4-byte value
+ * column per channel, each followed, if the channel has N/A values, by a presence bitmap.
+ *
+ * <p>Instances are immutable, and may be read by any number of threads.
+ */
+public final class OffHeapFlight {
+  private static final int MAGIC = 0x464d4445;  // "EDMF"
+  private static final int VERSION = 1;
+  private static final int FIXED_HEADER_BYTES = 24;
+  private static final int FLAG_FLOAT = 1;
+  private static final int FLAG_PRESENCE = 2;
+
+  private final ByteBuffer buffer;
+  private final String registration;
+  private final Flight header;
+  private final int size;
+  private final List<String> channelNames;
+  private final boolean isFloat[];
+  private final int valueOffsets[];
+  /** Offset of each channel's presence bitmap, or -1 if the channel is always present. */
+  private final int presenceOffsets[];
+  private final int timestampOffset;
+  private final int markOffset;
+
+  /** Reads a buffer written by {@link #write}. */
+  OffHeapFlight(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.capacity() < FIXED_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not an off-heap flight");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported off-heap flight version " + buffer.getInt(4));
+    }
+    size = buffer.getInt(8);
+    int numChannels = buffer.getInt(12);
+    int registrationLength = buffer.getInt(16);
+    int headerLength = buffer.getInt(20);
+    int offset = FIXED_HEADER_BYTES;
+    registration = new String(getBytes(offset, registrationLength), StandardCharsets.UTF_8);
+    offset += registrationLength;
+    try {
+      header = Flight.parseFrom(getBytes(offset, headerLength));
+    } catch (InvalidProtocolBufferException e) {
+      throw new IOException("Corrupt off-heap flight header", e);
+    }
+    offset += headerLength;
+
+    List<String> names = new ArrayList<>(numChannels);
+    int flags[] = new int[numChannels];
+    for (int i = 0; i < numChannels; ++i) {
+      flags[i] = buffer.get(offset);
+      int nameLength = buffer.getShort(offset + 1);
+      names.add(new String(getBytes(offset + 3, nameLength), StandardCharsets.UTF_8));
+      offset += 3 + nameLength;
+    }
+    channelNames = Collections.unmodifiableList(names);
+
+    timestampOffset = align(offset, 8);
+    markOffset = timestampOffset + 8 * size;
+    offset = align(markOffset + size, 8);
+    isFloat = new boolean[numChannels];
+    valueOffsets = new int[numChannels];
+    presenceOffsets = new int[numChannels];
+    for (int i = 0; i < numChannels; ++i) {
+      isFloat[i] = (flags[i] & FLAG_FLOAT) != 0;
+      valueOffsets[i] = offset;
+      offset = align(offset + 4 * size, 8);
+      if ((flags[i] & FLAG_PRESENCE) != 0) {
+        presenceOffsets[i] = offset;
+        offset += bitmapBytes(size);
+      } else {
+        presenceOffsets[i] = -1;
+      }
+    }
+    if (offset > buffer.capacity()) {
+      throw new IOException("Truncated off-heap flight");
+    }
+  }
+
+  private byte[] getBytes(int offset, int length) {
+    byte bytes[] = new byte[length];
+    ByteBuffer slice = buffer.duplicate();
+    slice.position(offset);
+    slice.get(bytes);
+    return bytes;
+  }
+
+  private static int align(int offset, int alignment) {
+    return (offset + alignment - 1) / alignment * alignment;
+  }
+
+  private static int bitmapBytes(int size) {
+    return (size + 63) / 64 * 8;
+  }
+
+  /** Returns the number of bytes {@link #write} needs for {@code frame}. */
+  static int sizeOf(String registration, FlightFrame frame) {
+    int offset = FIXED_HEADER_BYTES + registration.getBytes(StandardCharsets.UTF_8).length
+        + frame.getHeader().getSerializedSize();
+    for (Channel channel : frame.getChannels()) {
+      offset += 3 + channel.getName().getBytes(StandardCharsets.UTF_8).length;
+    }
+    int rows = frame.size();
+    offset = align(align(offset, 8) + 9 * rows, 8);
+    for (Channel channel : frame.getChannels()) {
+      offset = align(offset + 4 * rows, 8);
+      if (!channel.isAlwaysPresent()) {
+        offset += bitmapBytes(rows);
+      }
+    }
+    return offset;
+  }
+
+  /** Writes {@code frame} into {@code buffer}, which must hold {@link #sizeOf} bytes. */
+  static void write(String registration, FlightFrame frame, ByteBuffer buffer) {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    byte registrationBytes[] = registration.getBytes(StandardCharsets.UTF_8);
+    byte headerBytes[] = frame.getHeader().toByteArray();
+    List<Channel> channels = frame.getChannels();
+    int rows = frame.size();
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(channels.size())
+        .putInt(registrationBytes.length).putInt(headerBytes.length)
+        .put(registrationBytes).put(headerBytes);
+    for (Channel channel : channels) {
+      byte name[] = channel.getName().getBytes(StandardCharsets.UTF_8);
+      buffer.put((byte) ((channel.isFloat() ? FLAG_FLOAT : 0)
+          | (channel.isAlwaysPresent() ? 0 : FLAG_PRESENCE)));
+      buffer.putShort((short) name.length).put(name);
+    }
+    buffer.position(align(buffer.position(), 8));
+    buffer.asLongBuffer().put(frame.getTimestamps());
+    buffer.position(buffer.position() + 8 * rows);
+    buffer.put(frame.getMarks());
+    buffer.position(align(buffer.position(), 8));
+    for (Channel channel : channels) {
+      if (channel.isFloat()) {
+        buffer.asFloatBuffer().put(frame.getFloatColumn(channel));
+      } else {
+        buffer.asIntBuffer().put(frame.getIntColumn(channel));
+      }
+      buffer.position(align(buffer.position() + 4 * rows, 8));
+      if (!channel.isAlwaysPresent()) {
+        int bitmapOffset = buffer.position();
+        for (int row = 0; row < rows; row += 64) {
+          long word = 0;
+          for (int bit = 0; bit < 64 && row + bit < rows; ++bit) {
+            if (frame.isPresent(channel, row + bit)) {
+              word |= 1L << bit;
+            }
+          }
+          buffer.putLong(bitmapOffset + row / 8, word);
+        }
+        buffer.position(bitmapOffset + bitmapBytes(rows));
+      }
+    }
+    buffer.flip();
+  }
+
+  /** Aircraft registration, from {@link Proto.Metadata#getRegistration}. */
+  public String getRegistration() {
+    return registration;
+  }
+
+  public int getFlightNumber() {
+    return header.getFlightNumber();
+  }
+
+  /** The flight header, without {@code data}. */
+  public Flight getHeader() {
+    return header;
+  }
+
+  /** The number of records. */
+  public int size() {
+    return size;
+  }
+
+  /** The number of off-heap bytes held. */
+  public long getSizeInBytes() {
+    return buffer.capacity();
+  }
+
+  public List<String> getChannelNames() {
+    return channelNames;
+  }
+
+  /** Returns the index of the named channel, or -1 if this flight does not record it. */
+  public int getChannelIndex(String name) {
+    return channelNames.indexOf(name);
+  }
+
+  public boolean isFloat(int channel) {
+    return isFloat[channel];
+  }
+
+  public long getTimestamp(int row) {
+    checkRow(row);
+    return buffer.getLong(timestampOffset + 8 * row);
+  }
+
+  public Mark getMark(int row) {
+    checkRow(row);
+    return Mark.valueOf(buffer.get(markOffset + row));
+  }
+
+  /** Returns false if the value was "N/A" (or not yet recorded) at {@code row}. */
+  public boolean isPresent(int channel, int row) {
+    checkRow(row);
+    return presenceOffsets[channel] < 0 || isPresentUnchecked(channel, row);
+  }
+
+  private boolean isPresentUnchecked(int channel, int row) {
+    return (buffer.getLong(presenceOffsets[channel] + (row >>> 6) * 8) & (1L << row)) != 0;
+  }
+
+  public int getInt(int channel, int row) {
+    Preconditions.checkArgument(!isFloat[channel], "%s is a float channel",
+        channelNames.get(channel));
+    checkRow(row);
+    return buffer.getInt(valueOffsets[channel] + 4 * row);
+  }
+
+  public float getFloat(int channel, int row) {
+    Preconditions.checkArgument(isFloat[channel], "%s is an int channel",
+        channelNames.get(channel));
+    checkRow(row);
+    return buffer.getFloat(valueOffsets[channel] + 4 * row);
+  }
+
+  private void checkRow(int row) {
+    Preconditions.checkElementIndex(row, size);
+  }
+
+  /** Returns the value at {@code row} as a double, whatever the channel type. */
+  private double getValueUnchecked(int channel, int row) {
+    int offset = valueOffsets[channel] + 4 * row;
+    return isFloat[channel] ? buffer.getFloat(offset) : buffer.getInt(offset);
+  }
+
+  /** Returns the smallest present value, or NaN if there is none. */
+  public double min(int channel) {
+    return extreme(channel, -1);
+  }
+
+  /** Returns the largest present value, or NaN if there is none. */
+  public double max(int channel) {
+    return extreme(channel, 1);
+  }
+
+  /** {@code sign} is 1 to find the maximum and -1 to find the minimum. */
+  private double extreme(int channel, int sign) {
+    double best = Double.NaN;
+    boolean alwaysPresent = presenceOffsets[channel] < 0;
+    for (int row = 0; row < size; ++row) {
+      if (alwaysPresent || isPresentUnchecked(channel, row)) {
+        double value = getValueUnchecked(channel, row);
+        if (Double.isNaN(best) || (value - best) * sign > 0) {
+          best = value;
+        }
+      }
+    }
+    return best;
+  }
+
+  /** Returns the mean of the present values, or NaN if there are none. */
+  public double mean(int channel) {
+    double sum = 0;
+    int count = 0;
+    boolean alwaysPresent = presenceOffsets[channel] < 0;
+    for (int row = 0; row < size; ++row) {
+      if (alwaysPresent || isPresentUnchecked(channel, row)) {
+        sum += getValueUnchecked(channel, row);
+        count++;
+      }
+    }
+    return count == 0 ? Double.NaN : sum / count;
+  }
+
+  ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("OffHeapFlight[%s flight %d, %d records, %d bytes]",
+        registration, getFlightNumber(), size, buffer.capacity());
+  }
+}
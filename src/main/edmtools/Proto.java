@@ -13695,6 +13695,4479 @@ public final class Proto {
     // @@protoc_insertion_point(class_scope:edmtools.JpiFile)
   }
 
+  public interface FlightColumnsOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:edmtools.FlightColumns)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    boolean hasHeader();
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    edmtools.Proto.Flight getHeader();
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    edmtools.Proto.FlightOrBuilder getHeaderOrBuilder();
+
+    /**
+     * <code>optional int32 record_count = 2;</code>
+     */
+    boolean hasRecordCount();
+    /**
+     * <code>optional int32 record_count = 2;</code>
+     */
+    int getRecordCount();
+
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getTimestampDeltaSecsList();
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    int getTimestampDeltaSecsCount();
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    int getTimestampDeltaSecs(int index);
+
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    java.util.List<edmtools.Proto.DataRecord.Mark> getMarkList();
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    int getMarkCount();
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    edmtools.Proto.DataRecord.Mark getMark(int index);
+
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getUnmarkedRecordList();
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    int getUnmarkedRecordCount();
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    int getUnmarkedRecord(int index);
+
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getEngineCountList();
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    int getEngineCountCount();
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    int getEngineCount(int index);
+
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    java.util.List<edmtools.Proto.FlightColumns.Channel> 
+        getChannelList();
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    edmtools.Proto.FlightColumns.Channel getChannel(int index);
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    int getChannelCount();
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    java.util.List<? extends edmtools.Proto.FlightColumns.ChannelOrBuilder> 
+        getChannelOrBuilderList();
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    edmtools.Proto.FlightColumns.ChannelOrBuilder getChannelOrBuilder(
+        int index);
+
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    java.util.List<edmtools.Proto.FlightColumns.RecordWarning> 
+        getRecordWarningList();
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    edmtools.Proto.FlightColumns.RecordWarning getRecordWarning(int index);
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    int getRecordWarningCount();
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    java.util.List<? extends edmtools.Proto.FlightColumns.RecordWarningOrBuilder> 
+        getRecordWarningOrBuilderList();
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    edmtools.Proto.FlightColumns.RecordWarningOrBuilder getRecordWarningOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code edmtools.FlightColumns}
+   *
+   * <pre>
+   * Column-oriented alternative to Flight.data: the same records, held as one
+   * packed column per channel rather than one DataRecord message per record.
+   * </pre>
+   */
+  public static final class FlightColumns extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:edmtools.FlightColumns)
+      FlightColumnsOrBuilder {
+    // Use FlightColumns.newBuilder() to construct.
+    private FlightColumns(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private FlightColumns(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final FlightColumns defaultInstance;
+    public static FlightColumns getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public FlightColumns getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private FlightColumns(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              edmtools.Proto.Flight.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = header_.toBuilder();
+              }
+              header_ = input.readMessage(edmtools.Proto.Flight.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(header_);
+                header_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              recordCount_ = input.readInt32();
+              break;
+            }
+            case 24: {
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+                timestampDeltaSecs_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              timestampDeltaSecs_.add(input.readInt32());
+              break;
+            }
+            case 26: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004) && input.getBytesUntilLimit() > 0) {
+                timestampDeltaSecs_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                timestampDeltaSecs_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 32: {
+              int rawValue = input.readEnum();
+              edmtools.Proto.DataRecord.Mark value = edmtools.Proto.DataRecord.Mark.valueOf(rawValue);
+              if (value == null) {
+                unknownFields.mergeVarintField(4, rawValue);
+                } else {
+                if (!((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+                  mark_ = new java.util.ArrayList<edmtools.Proto.DataRecord.Mark>();
+                  mutable_bitField0_ |= 0x00000008;
+                }
+                mark_.add(value);
+              }
+              break;
+            }
+            case 34: {
+              int length = input.readRawVarint32();
+              int oldLimit = input.pushLimit(length);
+              while(input.getBytesUntilLimit() > 0) {
+                int rawValue = input.readEnum();
+                edmtools.Proto.DataRecord.Mark value = edmtools.Proto.DataRecord.Mark.valueOf(rawValue);
+                if (value == null) {
+                  unknownFields.mergeVarintField(4, rawValue);
+                  } else {
+                  if (!((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+                    mark_ = new java.util.ArrayList<edmtools.Proto.DataRecord.Mark>();
+                    mutable_bitField0_ |= 0x00000008;
+                  }
+                  mark_.add(value);
+                }
+              }
+              input.popLimit(oldLimit);
+              break;
+            }
+            case 40: {
+              if (!((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+                unmarkedRecord_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000010;
+              }
+              unmarkedRecord_.add(input.readInt32());
+              break;
+            }
+            case 42: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000010) == 0x00000010) && input.getBytesUntilLimit() > 0) {
+                unmarkedRecord_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000010;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                unmarkedRecord_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 48: {
+              if (!((mutable_bitField0_ & 0x00000020) == 0x00000020)) {
+                engineCount_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000020;
+              }
+              engineCount_.add(input.readInt32());
+              break;
+            }
+            case 50: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000020) == 0x00000020) && input.getBytesUntilLimit() > 0) {
+                engineCount_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000020;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                engineCount_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 58: {
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+                channel_ = new java.util.ArrayList<edmtools.Proto.FlightColumns.Channel>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              channel_.add(input.readMessage(edmtools.Proto.FlightColumns.Channel.PARSER, extensionRegistry));
+              break;
+            }
+            case 66: {
+              if (!((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+                recordWarning_ = new java.util.ArrayList<edmtools.Proto.FlightColumns.RecordWarning>();
+                mutable_bitField0_ |= 0x00000080;
+              }
+              recordWarning_.add(input.readMessage(edmtools.Proto.FlightColumns.RecordWarning.PARSER, extensionRegistry));
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+          timestampDeltaSecs_ = java.util.Collections.unmodifiableList(timestampDeltaSecs_);
+        }
+        if (((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+          mark_ = java.util.Collections.unmodifiableList(mark_);
+        }
+        if (((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+          unmarkedRecord_ = java.util.Collections.unmodifiableList(unmarkedRecord_);
+        }
+        if (((mutable_bitField0_ & 0x00000020) == 0x00000020)) {
+          engineCount_ = java.util.Collections.unmodifiableList(engineCount_);
+        }
+        if (((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+          channel_ = java.util.Collections.unmodifiableList(channel_);
+        }
+        if (((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+          recordWarning_ = java.util.Collections.unmodifiableList(recordWarning_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return edmtools.Proto.internal_static_edmtools_FlightColumns_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return edmtools.Proto.internal_static_edmtools_FlightColumns_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              edmtools.Proto.FlightColumns.class, edmtools.Proto.FlightColumns.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<FlightColumns> PARSER =
+        new com.google.protobuf.AbstractParser<FlightColumns>() {
+      public FlightColumns parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new FlightColumns(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<FlightColumns> getParserForType() {
+      return PARSER;
+    }
+
+    public interface ChannelOrBuilder extends
+        // @@protoc_insertion_point(interface_extends:edmtools.FlightColumns.Channel)
+        com.google.protobuf.MessageOrBuilder {
+
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      boolean hasName();
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      java.lang.String getName();
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      com.google.protobuf.ByteString
+          getNameBytes();
+
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      java.util.List<java.lang.Integer> getPresenceRunList();
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      int getPresenceRunCount();
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      int getPresenceRun(int index);
+
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      java.util.List<java.lang.Integer> getIntDeltaList();
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      int getIntDeltaCount();
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      int getIntDelta(int index);
+
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      java.util.List<java.lang.Integer> getTenthsDeltaList();
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      int getTenthsDeltaCount();
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      int getTenthsDelta(int index);
+
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      java.util.List<java.lang.Float> getFloatValueList();
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      int getFloatValueCount();
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      float getFloatValue(int index);
+    }
+    /**
+     * Protobuf type {@code edmtools.FlightColumns.Channel}
+     *
+     * <pre>
+     * One value of DataRecord.
+     * </pre>
+     */
+    public static final class Channel extends
+        com.google.protobuf.GeneratedMessage implements
+        // @@protoc_insertion_point(message_implements:edmtools.FlightColumns.Channel)
+        ChannelOrBuilder {
+      // Use Channel.newBuilder() to construct.
+      private Channel(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+        super(builder);
+        this.unknownFields = builder.getUnknownFields();
+      }
+      private Channel(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+      private static final Channel defaultInstance;
+      public static Channel getDefaultInstance() {
+        return defaultInstance;
+      }
+
+      public Channel getDefaultInstanceForType() {
+        return defaultInstance;
+      }
+
+      private final com.google.protobuf.UnknownFieldSet unknownFields;
+      @java.lang.Override
+      public final com.google.protobuf.UnknownFieldSet
+          getUnknownFields() {
+        return this.unknownFields;
+      }
+      private Channel(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        initFields();
+        int mutable_bitField0_ = 0;
+        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+            com.google.protobuf.UnknownFieldSet.newBuilder();
+        try {
+          boolean done = false;
+          while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+              case 0:
+                done = true;
+                break;
+              default: {
+                if (!parseUnknownField(input, unknownFields,
+                                       extensionRegistry, tag)) {
+                  done = true;
+                }
+                break;
+              }
+              case 10: {
+                com.google.protobuf.ByteString bs = input.readBytes();
+                bitField0_ |= 0x00000001;
+                name_ = bs;
+                break;
+              }
+              case 16: {
+                if (!((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+                  presenceRun_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000002;
+                }
+                presenceRun_.add(input.readInt32());
+                break;
+              }
+              case 18: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                if (!((mutable_bitField0_ & 0x00000002) == 0x00000002) && input.getBytesUntilLimit() > 0) {
+                  presenceRun_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000002;
+                }
+                while (input.getBytesUntilLimit() > 0) {
+                  presenceRun_.add(input.readInt32());
+                }
+                input.popLimit(limit);
+                break;
+              }
+              case 24: {
+                if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+                  intDelta_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000004;
+                }
+                intDelta_.add(input.readSInt32());
+                break;
+              }
+              case 26: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                if (!((mutable_bitField0_ & 0x00000004) == 0x00000004) && input.getBytesUntilLimit() > 0) {
+                  intDelta_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000004;
+                }
+                while (input.getBytesUntilLimit() > 0) {
+                  intDelta_.add(input.readSInt32());
+                }
+                input.popLimit(limit);
+                break;
+              }
+              case 32: {
+                if (!((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+                  tenthsDelta_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000008;
+                }
+                tenthsDelta_.add(input.readSInt32());
+                break;
+              }
+              case 34: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                if (!((mutable_bitField0_ & 0x00000008) == 0x00000008) && input.getBytesUntilLimit() > 0) {
+                  tenthsDelta_ = new java.util.ArrayList<java.lang.Integer>();
+                  mutable_bitField0_ |= 0x00000008;
+                }
+                while (input.getBytesUntilLimit() > 0) {
+                  tenthsDelta_.add(input.readSInt32());
+                }
+                input.popLimit(limit);
+                break;
+              }
+              case 45: {
+                if (!((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+                  floatValue_ = new java.util.ArrayList<java.lang.Float>();
+                  mutable_bitField0_ |= 0x00000010;
+                }
+                floatValue_.add(input.readFloat());
+                break;
+              }
+              case 42: {
+                int length = input.readRawVarint32();
+                int limit = input.pushLimit(length);
+                if (!((mutable_bitField0_ & 0x00000010) == 0x00000010) && input.getBytesUntilLimit() > 0) {
+                  floatValue_ = new java.util.ArrayList<java.lang.Float>();
+                  mutable_bitField0_ |= 0x00000010;
+                }
+                while (input.getBytesUntilLimit() > 0) {
+                  floatValue_.add(input.readFloat());
+                }
+                input.popLimit(limit);
+                break;
+              }
+            }
+          }
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          throw e.setUnfinishedMessage(this);
+        } catch (java.io.IOException e) {
+          throw new com.google.protobuf.InvalidProtocolBufferException(
+              e.getMessage()).setUnfinishedMessage(this);
+        } finally {
+          if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
+            presenceRun_ = java.util.Collections.unmodifiableList(presenceRun_);
+          }
+          if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+            intDelta_ = java.util.Collections.unmodifiableList(intDelta_);
+          }
+          if (((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+            tenthsDelta_ = java.util.Collections.unmodifiableList(tenthsDelta_);
+          }
+          if (((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+            floatValue_ = java.util.Collections.unmodifiableList(floatValue_);
+          }
+          this.unknownFields = unknownFields.build();
+          makeExtensionsImmutable();
+        }
+      }
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_Channel_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_Channel_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                edmtools.Proto.FlightColumns.Channel.class, edmtools.Proto.FlightColumns.Channel.Builder.class);
+      }
+
+      public static com.google.protobuf.Parser<Channel> PARSER =
+          new com.google.protobuf.AbstractParser<Channel>() {
+        public Channel parsePartialFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws com.google.protobuf.InvalidProtocolBufferException {
+          return new Channel(input, extensionRegistry);
+        }
+      };
+
+      @java.lang.Override
+      public com.google.protobuf.Parser<Channel> getParserForType() {
+        return PARSER;
+      }
+
+      private int bitField0_;
+      public static final int NAME_FIELD_NUMBER = 1;
+      private java.lang.Object name_;
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      public boolean hasName() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      public java.lang.String getName() {
+        java.lang.Object ref = name_;
+        if (ref instanceof java.lang.String) {
+          return (java.lang.String) ref;
+        } else {
+          com.google.protobuf.ByteString bs = 
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            name_ = s;
+          }
+          return s;
+        }
+      }
+      /**
+       * <code>optional string name = 1;</code>
+       *
+       * <pre>
+       * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+       * </pre>
+       */
+      public com.google.protobuf.ByteString
+          getNameBytes() {
+        java.lang.Object ref = name_;
+        if (ref instanceof java.lang.String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          name_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+
+      public static final int PRESENCE_RUN_FIELD_NUMBER = 2;
+      private java.util.List<java.lang.Integer> presenceRun_;
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getPresenceRunList() {
+        return presenceRun_;
+      }
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      public int getPresenceRunCount() {
+        return presenceRun_.size();
+      }
+      /**
+       * <code>repeated int32 presence_run = 2 [packed = true];</code>
+       *
+       * <pre>
+       * Alternating counts of records with and without a value, starting with
+       * records with a value.  Empty if every record has a value.
+       * </pre>
+       */
+      public int getPresenceRun(int index) {
+        return presenceRun_.get(index);
+      }
+      private int presenceRunMemoizedSerializedSize = -1;
+
+      public static final int INT_DELTA_FIELD_NUMBER = 3;
+      private java.util.List<java.lang.Integer> intDelta_;
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getIntDeltaList() {
+        return intDelta_;
+      }
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      public int getIntDeltaCount() {
+        return intDelta_.size();
+      }
+      /**
+       * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+       *
+       * <pre>
+       * For int32 fields: each value minus the previous value.
+       * </pre>
+       */
+      public int getIntDelta(int index) {
+        return intDelta_.get(index);
+      }
+      private int intDeltaMemoizedSerializedSize = -1;
+
+      public static final int TENTHS_DELTA_FIELD_NUMBER = 4;
+      private java.util.List<java.lang.Integer> tenthsDelta_;
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getTenthsDeltaList() {
+        return tenthsDelta_;
+      }
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      public int getTenthsDeltaCount() {
+        return tenthsDelta_.size();
+      }
+      /**
+       * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+       *
+       * <pre>
+       * For float fields which hold exact tenths: as int_delta, in tenths.
+       * </pre>
+       */
+      public int getTenthsDelta(int index) {
+        return tenthsDelta_.get(index);
+      }
+      private int tenthsDeltaMemoizedSerializedSize = -1;
+
+      public static final int FLOAT_VALUE_FIELD_NUMBER = 5;
+      private java.util.List<java.lang.Float> floatValue_;
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      public java.util.List<java.lang.Float>
+          getFloatValueList() {
+        return floatValue_;
+      }
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      public int getFloatValueCount() {
+        return floatValue_.size();
+      }
+      /**
+       * <code>repeated float float_value = 5 [packed = true];</code>
+       *
+       * <pre>
+       * For other float fields: each value.
+       * </pre>
+       */
+      public float getFloatValue(int index) {
+        return floatValue_.get(index);
+      }
+      private int floatValueMemoizedSerializedSize = -1;
+
+      private void initFields() {
+        name_ = "";
+        presenceRun_ = java.util.Collections.emptyList();
+        intDelta_ = java.util.Collections.emptyList();
+        tenthsDelta_ = java.util.Collections.emptyList();
+        floatValue_ = java.util.Collections.emptyList();
+      }
+      private byte memoizedIsInitialized = -1;
+      public final boolean isInitialized() {
+        byte isInitialized = memoizedIsInitialized;
+        if (isInitialized == 1) return true;
+        if (isInitialized == 0) return false;
+
+        memoizedIsInitialized = 1;
+        return true;
+      }
+
+      public void writeTo(com.google.protobuf.CodedOutputStream output)
+                          throws java.io.IOException {
+        getSerializedSize();
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          output.writeBytes(1, getNameBytes());
+        }
+        if (getPresenceRunList().size() > 0) {
+          output.writeRawVarint32(18);
+          output.writeRawVarint32(presenceRunMemoizedSerializedSize);
+        }
+        for (int i = 0; i < presenceRun_.size(); i++) {
+          output.writeInt32NoTag(presenceRun_.get(i));
+        }
+        if (getIntDeltaList().size() > 0) {
+          output.writeRawVarint32(26);
+          output.writeRawVarint32(intDeltaMemoizedSerializedSize);
+        }
+        for (int i = 0; i < intDelta_.size(); i++) {
+          output.writeSInt32NoTag(intDelta_.get(i));
+        }
+        if (getTenthsDeltaList().size() > 0) {
+          output.writeRawVarint32(34);
+          output.writeRawVarint32(tenthsDeltaMemoizedSerializedSize);
+        }
+        for (int i = 0; i < tenthsDelta_.size(); i++) {
+          output.writeSInt32NoTag(tenthsDelta_.get(i));
+        }
+        if (getFloatValueList().size() > 0) {
+          output.writeRawVarint32(42);
+          output.writeRawVarint32(floatValueMemoizedSerializedSize);
+        }
+        for (int i = 0; i < floatValue_.size(); i++) {
+          output.writeFloatNoTag(floatValue_.get(i));
+        }
+        getUnknownFields().writeTo(output);
+      }
+
+      private int memoizedSerializedSize = -1;
+      public int getSerializedSize() {
+        int size = memoizedSerializedSize;
+        if (size != -1) return size;
+
+        size = 0;
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeBytesSize(1, getNameBytes());
+        }
+        {
+          int dataSize = 0;
+          for (int i = 0; i < presenceRun_.size(); i++) {
+            dataSize += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(presenceRun_.get(i));
+          }
+          size += dataSize;
+          if (!getPresenceRunList().isEmpty()) {
+            size += 1;
+            size += com.google.protobuf.CodedOutputStream
+                .computeInt32SizeNoTag(dataSize);
+          }
+          presenceRunMemoizedSerializedSize = dataSize;
+        }
+        {
+          int dataSize = 0;
+          for (int i = 0; i < intDelta_.size(); i++) {
+            dataSize += com.google.protobuf.CodedOutputStream
+              .computeSInt32SizeNoTag(intDelta_.get(i));
+          }
+          size += dataSize;
+          if (!getIntDeltaList().isEmpty()) {
+            size += 1;
+            size += com.google.protobuf.CodedOutputStream
+                .computeInt32SizeNoTag(dataSize);
+          }
+          intDeltaMemoizedSerializedSize = dataSize;
+        }
+        {
+          int dataSize = 0;
+          for (int i = 0; i < tenthsDelta_.size(); i++) {
+            dataSize += com.google.protobuf.CodedOutputStream
+              .computeSInt32SizeNoTag(tenthsDelta_.get(i));
+          }
+          size += dataSize;
+          if (!getTenthsDeltaList().isEmpty()) {
+            size += 1;
+            size += com.google.protobuf.CodedOutputStream
+                .computeInt32SizeNoTag(dataSize);
+          }
+          tenthsDeltaMemoizedSerializedSize = dataSize;
+        }
+        {
+          int dataSize = 0;
+          dataSize = 4 * getFloatValueList().size();
+          size += dataSize;
+          if (!getFloatValueList().isEmpty()) {
+            size += 1;
+            size += com.google.protobuf.CodedOutputStream
+                .computeInt32SizeNoTag(dataSize);
+          }
+          floatValueMemoizedSerializedSize = dataSize;
+        }
+        size += getUnknownFields().getSerializedSize();
+        memoizedSerializedSize = size;
+        return size;
+      }
+
+      private static final long serialVersionUID = 0L;
+      @java.lang.Override
+      protected java.lang.Object writeReplace()
+          throws java.io.ObjectStreamException {
+        return super.writeReplace();
+      }
+
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          com.google.protobuf.ByteString data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          com.google.protobuf.ByteString data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(byte[] data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          byte[] data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseDelimitedFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseDelimitedFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          com.google.protobuf.CodedInputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.Channel parseFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+
+      public static Builder newBuilder() { return Builder.create(); }
+      public Builder newBuilderForType() { return newBuilder(); }
+      public static Builder newBuilder(edmtools.Proto.FlightColumns.Channel prototype) {
+        return newBuilder().mergeFrom(prototype);
+      }
+      public Builder toBuilder() { return newBuilder(this); }
+
+      @java.lang.Override
+      protected Builder newBuilderForType(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        Builder builder = new Builder(parent);
+        return builder;
+      }
+      /**
+       * Protobuf type {@code edmtools.FlightColumns.Channel}
+       *
+       * <pre>
+       * One value of DataRecord.
+       * </pre>
+       */
+      public static final class Builder extends
+          com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+          // @@protoc_insertion_point(builder_implements:edmtools.FlightColumns.Channel)
+          edmtools.Proto.FlightColumns.ChannelOrBuilder {
+        public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_Channel_descriptor;
+        }
+
+        protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_Channel_fieldAccessorTable
+              .ensureFieldAccessorsInitialized(
+                  edmtools.Proto.FlightColumns.Channel.class, edmtools.Proto.FlightColumns.Channel.Builder.class);
+        }
+
+        // Construct using edmtools.Proto.FlightColumns.Channel.newBuilder()
+        private Builder() {
+          maybeForceBuilderInitialization();
+        }
+
+        private Builder(
+            com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+          super(parent);
+          maybeForceBuilderInitialization();
+        }
+        private void maybeForceBuilderInitialization() {
+          if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          }
+        }
+        private static Builder create() {
+          return new Builder();
+        }
+
+        public Builder clear() {
+          super.clear();
+          name_ = "";
+          bitField0_ = (bitField0_ & ~0x00000001);
+          presenceRun_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          intDelta_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000004);
+          tenthsDelta_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000008);
+          floatValue_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000010);
+          return this;
+        }
+
+        public Builder clone() {
+          return create().mergeFrom(buildPartial());
+        }
+
+        public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_Channel_descriptor;
+        }
+
+        public edmtools.Proto.FlightColumns.Channel getDefaultInstanceForType() {
+          return edmtools.Proto.FlightColumns.Channel.getDefaultInstance();
+        }
+
+        public edmtools.Proto.FlightColumns.Channel build() {
+          edmtools.Proto.FlightColumns.Channel result = buildPartial();
+          if (!result.isInitialized()) {
+            throw newUninitializedMessageException(result);
+          }
+          return result;
+        }
+
+        public edmtools.Proto.FlightColumns.Channel buildPartial() {
+          edmtools.Proto.FlightColumns.Channel result = new edmtools.Proto.FlightColumns.Channel(this);
+          int from_bitField0_ = bitField0_;
+          int to_bitField0_ = 0;
+          if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+            to_bitField0_ |= 0x00000001;
+          }
+          result.name_ = name_;
+          if (((bitField0_ & 0x00000002) == 0x00000002)) {
+            presenceRun_ = java.util.Collections.unmodifiableList(presenceRun_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.presenceRun_ = presenceRun_;
+          if (((bitField0_ & 0x00000004) == 0x00000004)) {
+            intDelta_ = java.util.Collections.unmodifiableList(intDelta_);
+            bitField0_ = (bitField0_ & ~0x00000004);
+          }
+          result.intDelta_ = intDelta_;
+          if (((bitField0_ & 0x00000008) == 0x00000008)) {
+            tenthsDelta_ = java.util.Collections.unmodifiableList(tenthsDelta_);
+            bitField0_ = (bitField0_ & ~0x00000008);
+          }
+          result.tenthsDelta_ = tenthsDelta_;
+          if (((bitField0_ & 0x00000010) == 0x00000010)) {
+            floatValue_ = java.util.Collections.unmodifiableList(floatValue_);
+            bitField0_ = (bitField0_ & ~0x00000010);
+          }
+          result.floatValue_ = floatValue_;
+          result.bitField0_ = to_bitField0_;
+          onBuilt();
+          return result;
+        }
+
+        public Builder mergeFrom(com.google.protobuf.Message other) {
+          if (other instanceof edmtools.Proto.FlightColumns.Channel) {
+            return mergeFrom((edmtools.Proto.FlightColumns.Channel)other);
+          } else {
+            super.mergeFrom(other);
+            return this;
+          }
+        }
+
+        public Builder mergeFrom(edmtools.Proto.FlightColumns.Channel other) {
+          if (other == edmtools.Proto.FlightColumns.Channel.getDefaultInstance()) return this;
+          if (other.hasName()) {
+            bitField0_ |= 0x00000001;
+            name_ = other.name_;
+            onChanged();
+          }
+          if (!other.presenceRun_.isEmpty()) {
+            if (presenceRun_.isEmpty()) {
+              presenceRun_ = other.presenceRun_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensurePresenceRunIsMutable();
+              presenceRun_.addAll(other.presenceRun_);
+            }
+            onChanged();
+          }
+          if (!other.intDelta_.isEmpty()) {
+            if (intDelta_.isEmpty()) {
+              intDelta_ = other.intDelta_;
+              bitField0_ = (bitField0_ & ~0x00000004);
+            } else {
+              ensureIntDeltaIsMutable();
+              intDelta_.addAll(other.intDelta_);
+            }
+            onChanged();
+          }
+          if (!other.tenthsDelta_.isEmpty()) {
+            if (tenthsDelta_.isEmpty()) {
+              tenthsDelta_ = other.tenthsDelta_;
+              bitField0_ = (bitField0_ & ~0x00000008);
+            } else {
+              ensureTenthsDeltaIsMutable();
+              tenthsDelta_.addAll(other.tenthsDelta_);
+            }
+            onChanged();
+          }
+          if (!other.floatValue_.isEmpty()) {
+            if (floatValue_.isEmpty()) {
+              floatValue_ = other.floatValue_;
+              bitField0_ = (bitField0_ & ~0x00000010);
+            } else {
+              ensureFloatValueIsMutable();
+              floatValue_.addAll(other.floatValue_);
+            }
+            onChanged();
+          }
+          this.mergeUnknownFields(other.getUnknownFields());
+          return this;
+        }
+
+        public final boolean isInitialized() {
+          return true;
+        }
+
+        public Builder mergeFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws java.io.IOException {
+          edmtools.Proto.FlightColumns.Channel parsedMessage = null;
+          try {
+            parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+          } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            parsedMessage = (edmtools.Proto.FlightColumns.Channel) e.getUnfinishedMessage();
+            throw e;
+          } finally {
+            if (parsedMessage != null) {
+              mergeFrom(parsedMessage);
+            }
+          }
+          return this;
+        }
+        private int bitField0_;
+
+        private java.lang.Object name_ = "";
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public boolean hasName() {
+          return ((bitField0_ & 0x00000001) == 0x00000001);
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public java.lang.String getName() {
+          java.lang.Object ref = name_;
+          if (!(ref instanceof java.lang.String)) {
+            com.google.protobuf.ByteString bs =
+                (com.google.protobuf.ByteString) ref;
+            java.lang.String s = bs.toStringUtf8();
+            if (bs.isValidUtf8()) {
+              name_ = s;
+            }
+            return s;
+          } else {
+            return (java.lang.String) ref;
+          }
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public com.google.protobuf.ByteString
+            getNameBytes() {
+          java.lang.Object ref = name_;
+          if (ref instanceof String) {
+            com.google.protobuf.ByteString b = 
+                com.google.protobuf.ByteString.copyFromUtf8(
+                    (java.lang.String) ref);
+            name_ = b;
+            return b;
+          } else {
+            return (com.google.protobuf.ByteString) ref;
+          }
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public Builder setName(
+            java.lang.String value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+          name_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public Builder clearName() {
+          bitField0_ = (bitField0_ & ~0x00000001);
+          name_ = getDefaultInstance().getName();
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         *
+         * <pre>
+         * Path of the value, eg "voltage[0]" or "engine[0].exhaust_gas_temperature[2]".
+         * </pre>
+         */
+        public Builder setNameBytes(
+            com.google.protobuf.ByteString value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+          name_ = value;
+          onChanged();
+          return this;
+        }
+
+        private java.util.List<java.lang.Integer> presenceRun_ = java.util.Collections.emptyList();
+        private void ensurePresenceRunIsMutable() {
+          if (!((bitField0_ & 0x00000002) == 0x00000002)) {
+            presenceRun_ = new java.util.ArrayList<java.lang.Integer>(presenceRun_);
+            bitField0_ |= 0x00000002;
+           }
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public java.util.List<java.lang.Integer>
+            getPresenceRunList() {
+          return java.util.Collections.unmodifiableList(presenceRun_);
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public int getPresenceRunCount() {
+          return presenceRun_.size();
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public int getPresenceRun(int index) {
+          return presenceRun_.get(index);
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public Builder setPresenceRun(
+            int index, int value) {
+          ensurePresenceRunIsMutable();
+          presenceRun_.set(index, value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public Builder addPresenceRun(int value) {
+          ensurePresenceRunIsMutable();
+          presenceRun_.add(value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public Builder addAllPresenceRun(
+            java.lang.Iterable<? extends java.lang.Integer> values) {
+          ensurePresenceRunIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, presenceRun_);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated int32 presence_run = 2 [packed = true];</code>
+         *
+         * <pre>
+         * Alternating counts of records with and without a value, starting with
+         * records with a value.  Empty if every record has a value.
+         * </pre>
+         */
+        public Builder clearPresenceRun() {
+          presenceRun_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+          return this;
+        }
+
+        private java.util.List<java.lang.Integer> intDelta_ = java.util.Collections.emptyList();
+        private void ensureIntDeltaIsMutable() {
+          if (!((bitField0_ & 0x00000004) == 0x00000004)) {
+            intDelta_ = new java.util.ArrayList<java.lang.Integer>(intDelta_);
+            bitField0_ |= 0x00000004;
+           }
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public java.util.List<java.lang.Integer>
+            getIntDeltaList() {
+          return java.util.Collections.unmodifiableList(intDelta_);
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public int getIntDeltaCount() {
+          return intDelta_.size();
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public int getIntDelta(int index) {
+          return intDelta_.get(index);
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public Builder setIntDelta(
+            int index, int value) {
+          ensureIntDeltaIsMutable();
+          intDelta_.set(index, value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public Builder addIntDelta(int value) {
+          ensureIntDeltaIsMutable();
+          intDelta_.add(value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public Builder addAllIntDelta(
+            java.lang.Iterable<? extends java.lang.Integer> values) {
+          ensureIntDeltaIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, intDelta_);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 int_delta = 3 [packed = true];</code>
+         *
+         * <pre>
+         * For int32 fields: each value minus the previous value.
+         * </pre>
+         */
+        public Builder clearIntDelta() {
+          intDelta_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000004);
+          onChanged();
+          return this;
+        }
+
+        private java.util.List<java.lang.Integer> tenthsDelta_ = java.util.Collections.emptyList();
+        private void ensureTenthsDeltaIsMutable() {
+          if (!((bitField0_ & 0x00000008) == 0x00000008)) {
+            tenthsDelta_ = new java.util.ArrayList<java.lang.Integer>(tenthsDelta_);
+            bitField0_ |= 0x00000008;
+           }
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public java.util.List<java.lang.Integer>
+            getTenthsDeltaList() {
+          return java.util.Collections.unmodifiableList(tenthsDelta_);
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public int getTenthsDeltaCount() {
+          return tenthsDelta_.size();
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public int getTenthsDelta(int index) {
+          return tenthsDelta_.get(index);
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public Builder setTenthsDelta(
+            int index, int value) {
+          ensureTenthsDeltaIsMutable();
+          tenthsDelta_.set(index, value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public Builder addTenthsDelta(int value) {
+          ensureTenthsDeltaIsMutable();
+          tenthsDelta_.add(value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public Builder addAllTenthsDelta(
+            java.lang.Iterable<? extends java.lang.Integer> values) {
+          ensureTenthsDeltaIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, tenthsDelta_);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated sint32 tenths_delta = 4 [packed = true];</code>
+         *
+         * <pre>
+         * For float fields which hold exact tenths: as int_delta, in tenths.
+         * </pre>
+         */
+        public Builder clearTenthsDelta() {
+          tenthsDelta_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000008);
+          onChanged();
+          return this;
+        }
+
+        private java.util.List<java.lang.Float> floatValue_ = java.util.Collections.emptyList();
+        private void ensureFloatValueIsMutable() {
+          if (!((bitField0_ & 0x00000010) == 0x00000010)) {
+            floatValue_ = new java.util.ArrayList<java.lang.Float>(floatValue_);
+            bitField0_ |= 0x00000010;
+           }
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public java.util.List<java.lang.Float>
+            getFloatValueList() {
+          return java.util.Collections.unmodifiableList(floatValue_);
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public int getFloatValueCount() {
+          return floatValue_.size();
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public float getFloatValue(int index) {
+          return floatValue_.get(index);
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public Builder setFloatValue(
+            int index, float value) {
+          ensureFloatValueIsMutable();
+          floatValue_.set(index, value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public Builder addFloatValue(float value) {
+          ensureFloatValueIsMutable();
+          floatValue_.add(value);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public Builder addAllFloatValue(
+            java.lang.Iterable<? extends java.lang.Float> values) {
+          ensureFloatValueIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, floatValue_);
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>repeated float float_value = 5 [packed = true];</code>
+         *
+         * <pre>
+         * For other float fields: each value.
+         * </pre>
+         */
+        public Builder clearFloatValue() {
+          floatValue_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000010);
+          onChanged();
+          return this;
+        }
+
+        // @@protoc_insertion_point(builder_scope:edmtools.FlightColumns.Channel)
+      }
+
+      static {
+        defaultInstance = new Channel(true);
+        defaultInstance.initFields();
+      }
+
+      // @@protoc_insertion_point(class_scope:edmtools.FlightColumns.Channel)
+    }
+
+    public interface RecordWarningOrBuilder extends
+        // @@protoc_insertion_point(interface_extends:edmtools.FlightColumns.RecordWarning)
+        com.google.protobuf.MessageOrBuilder {
+
+      /**
+       * <code>optional int32 record = 1;</code>
+       */
+      boolean hasRecord();
+      /**
+       * <code>optional int32 record = 1;</code>
+       */
+      int getRecord();
+
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      boolean hasText();
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      java.lang.String getText();
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      com.google.protobuf.ByteString
+          getTextBytes();
+    }
+    /**
+     * Protobuf type {@code edmtools.FlightColumns.RecordWarning}
+     */
+    public static final class RecordWarning extends
+        com.google.protobuf.GeneratedMessage implements
+        // @@protoc_insertion_point(message_implements:edmtools.FlightColumns.RecordWarning)
+        RecordWarningOrBuilder {
+      // Use RecordWarning.newBuilder() to construct.
+      private RecordWarning(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+        super(builder);
+        this.unknownFields = builder.getUnknownFields();
+      }
+      private RecordWarning(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+      private static final RecordWarning defaultInstance;
+      public static RecordWarning getDefaultInstance() {
+        return defaultInstance;
+      }
+
+      public RecordWarning getDefaultInstanceForType() {
+        return defaultInstance;
+      }
+
+      private final com.google.protobuf.UnknownFieldSet unknownFields;
+      @java.lang.Override
+      public final com.google.protobuf.UnknownFieldSet
+          getUnknownFields() {
+        return this.unknownFields;
+      }
+      private RecordWarning(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        initFields();
+        int mutable_bitField0_ = 0;
+        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+            com.google.protobuf.UnknownFieldSet.newBuilder();
+        try {
+          boolean done = false;
+          while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+              case 0:
+                done = true;
+                break;
+              default: {
+                if (!parseUnknownField(input, unknownFields,
+                                       extensionRegistry, tag)) {
+                  done = true;
+                }
+                break;
+              }
+              case 8: {
+                bitField0_ |= 0x00000001;
+                record_ = input.readInt32();
+                break;
+              }
+              case 18: {
+                com.google.protobuf.ByteString bs = input.readBytes();
+                bitField0_ |= 0x00000002;
+                text_ = bs;
+                break;
+              }
+            }
+          }
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          throw e.setUnfinishedMessage(this);
+        } catch (java.io.IOException e) {
+          throw new com.google.protobuf.InvalidProtocolBufferException(
+              e.getMessage()).setUnfinishedMessage(this);
+        } finally {
+          this.unknownFields = unknownFields.build();
+          makeExtensionsImmutable();
+        }
+      }
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_RecordWarning_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_RecordWarning_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                edmtools.Proto.FlightColumns.RecordWarning.class, edmtools.Proto.FlightColumns.RecordWarning.Builder.class);
+      }
+
+      public static com.google.protobuf.Parser<RecordWarning> PARSER =
+          new com.google.protobuf.AbstractParser<RecordWarning>() {
+        public RecordWarning parsePartialFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws com.google.protobuf.InvalidProtocolBufferException {
+          return new RecordWarning(input, extensionRegistry);
+        }
+      };
+
+      @java.lang.Override
+      public com.google.protobuf.Parser<RecordWarning> getParserForType() {
+        return PARSER;
+      }
+
+      private int bitField0_;
+      public static final int RECORD_FIELD_NUMBER = 1;
+      private int record_;
+      /**
+       * <code>optional int32 record = 1;</code>
+       */
+      public boolean hasRecord() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional int32 record = 1;</code>
+       */
+      public int getRecord() {
+        return record_;
+      }
+
+      public static final int TEXT_FIELD_NUMBER = 2;
+      private java.lang.Object text_;
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      public boolean hasText() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      public java.lang.String getText() {
+        java.lang.Object ref = text_;
+        if (ref instanceof java.lang.String) {
+          return (java.lang.String) ref;
+        } else {
+          com.google.protobuf.ByteString bs = 
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            text_ = s;
+          }
+          return s;
+        }
+      }
+      /**
+       * <code>optional string text = 2;</code>
+       */
+      public com.google.protobuf.ByteString
+          getTextBytes() {
+        java.lang.Object ref = text_;
+        if (ref instanceof java.lang.String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          text_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+
+      private void initFields() {
+        record_ = 0;
+        text_ = "";
+      }
+      private byte memoizedIsInitialized = -1;
+      public final boolean isInitialized() {
+        byte isInitialized = memoizedIsInitialized;
+        if (isInitialized == 1) return true;
+        if (isInitialized == 0) return false;
+
+        memoizedIsInitialized = 1;
+        return true;
+      }
+
+      public void writeTo(com.google.protobuf.CodedOutputStream output)
+                          throws java.io.IOException {
+        getSerializedSize();
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          output.writeInt32(1, record_);
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          output.writeBytes(2, getTextBytes());
+        }
+        getUnknownFields().writeTo(output);
+      }
+
+      private int memoizedSerializedSize = -1;
+      public int getSerializedSize() {
+        int size = memoizedSerializedSize;
+        if (size != -1) return size;
+
+        size = 0;
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt32Size(1, record_);
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeBytesSize(2, getTextBytes());
+        }
+        size += getUnknownFields().getSerializedSize();
+        memoizedSerializedSize = size;
+        return size;
+      }
+
+      private static final long serialVersionUID = 0L;
+      @java.lang.Override
+      protected java.lang.Object writeReplace()
+          throws java.io.ObjectStreamException {
+        return super.writeReplace();
+      }
+
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          com.google.protobuf.ByteString data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          com.google.protobuf.ByteString data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(byte[] data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          byte[] data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseDelimitedFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseDelimitedFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input, extensionRegistry);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          com.google.protobuf.CodedInputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static edmtools.Proto.FlightColumns.RecordWarning parseFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+
+      public static Builder newBuilder() { return Builder.create(); }
+      public Builder newBuilderForType() { return newBuilder(); }
+      public static Builder newBuilder(edmtools.Proto.FlightColumns.RecordWarning prototype) {
+        return newBuilder().mergeFrom(prototype);
+      }
+      public Builder toBuilder() { return newBuilder(this); }
+
+      @java.lang.Override
+      protected Builder newBuilderForType(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        Builder builder = new Builder(parent);
+        return builder;
+      }
+      /**
+       * Protobuf type {@code edmtools.FlightColumns.RecordWarning}
+       */
+      public static final class Builder extends
+          com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+          // @@protoc_insertion_point(builder_implements:edmtools.FlightColumns.RecordWarning)
+          edmtools.Proto.FlightColumns.RecordWarningOrBuilder {
+        public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_RecordWarning_descriptor;
+        }
+
+        protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_RecordWarning_fieldAccessorTable
+              .ensureFieldAccessorsInitialized(
+                  edmtools.Proto.FlightColumns.RecordWarning.class, edmtools.Proto.FlightColumns.RecordWarning.Builder.class);
+        }
+
+        // Construct using edmtools.Proto.FlightColumns.RecordWarning.newBuilder()
+        private Builder() {
+          maybeForceBuilderInitialization();
+        }
+
+        private Builder(
+            com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+          super(parent);
+          maybeForceBuilderInitialization();
+        }
+        private void maybeForceBuilderInitialization() {
+          if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          }
+        }
+        private static Builder create() {
+          return new Builder();
+        }
+
+        public Builder clear() {
+          super.clear();
+          record_ = 0;
+          bitField0_ = (bitField0_ & ~0x00000001);
+          text_ = "";
+          bitField0_ = (bitField0_ & ~0x00000002);
+          return this;
+        }
+
+        public Builder clone() {
+          return create().mergeFrom(buildPartial());
+        }
+
+        public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+          return edmtools.Proto.internal_static_edmtools_FlightColumns_RecordWarning_descriptor;
+        }
+
+        public edmtools.Proto.FlightColumns.RecordWarning getDefaultInstanceForType() {
+          return edmtools.Proto.FlightColumns.RecordWarning.getDefaultInstance();
+        }
+
+        public edmtools.Proto.FlightColumns.RecordWarning build() {
+          edmtools.Proto.FlightColumns.RecordWarning result = buildPartial();
+          if (!result.isInitialized()) {
+            throw newUninitializedMessageException(result);
+          }
+          return result;
+        }
+
+        public edmtools.Proto.FlightColumns.RecordWarning buildPartial() {
+          edmtools.Proto.FlightColumns.RecordWarning result = new edmtools.Proto.FlightColumns.RecordWarning(this);
+          int from_bitField0_ = bitField0_;
+          int to_bitField0_ = 0;
+          if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+            to_bitField0_ |= 0x00000001;
+          }
+          result.record_ = record_;
+          if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+            to_bitField0_ |= 0x00000002;
+          }
+          result.text_ = text_;
+          result.bitField0_ = to_bitField0_;
+          onBuilt();
+          return result;
+        }
+
+        public Builder mergeFrom(com.google.protobuf.Message other) {
+          if (other instanceof edmtools.Proto.FlightColumns.RecordWarning) {
+            return mergeFrom((edmtools.Proto.FlightColumns.RecordWarning)other);
+          } else {
+            super.mergeFrom(other);
+            return this;
+          }
+        }
+
+        public Builder mergeFrom(edmtools.Proto.FlightColumns.RecordWarning other) {
+          if (other == edmtools.Proto.FlightColumns.RecordWarning.getDefaultInstance()) return this;
+          if (other.hasRecord()) {
+            setRecord(other.getRecord());
+          }
+          if (other.hasText()) {
+            bitField0_ |= 0x00000002;
+            text_ = other.text_;
+            onChanged();
+          }
+          this.mergeUnknownFields(other.getUnknownFields());
+          return this;
+        }
+
+        public final boolean isInitialized() {
+          return true;
+        }
+
+        public Builder mergeFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws java.io.IOException {
+          edmtools.Proto.FlightColumns.RecordWarning parsedMessage = null;
+          try {
+            parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+          } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            parsedMessage = (edmtools.Proto.FlightColumns.RecordWarning) e.getUnfinishedMessage();
+            throw e;
+          } finally {
+            if (parsedMessage != null) {
+              mergeFrom(parsedMessage);
+            }
+          }
+          return this;
+        }
+        private int bitField0_;
+
+        private int record_ ;
+        /**
+         * <code>optional int32 record = 1;</code>
+         */
+        public boolean hasRecord() {
+          return ((bitField0_ & 0x00000001) == 0x00000001);
+        }
+        /**
+         * <code>optional int32 record = 1;</code>
+         */
+        public int getRecord() {
+          return record_;
+        }
+        /**
+         * <code>optional int32 record = 1;</code>
+         */
+        public Builder setRecord(int value) {
+          bitField0_ |= 0x00000001;
+          record_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int32 record = 1;</code>
+         */
+        public Builder clearRecord() {
+          bitField0_ = (bitField0_ & ~0x00000001);
+          record_ = 0;
+          onChanged();
+          return this;
+        }
+
+        private java.lang.Object text_ = "";
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public boolean hasText() {
+          return ((bitField0_ & 0x00000002) == 0x00000002);
+        }
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public java.lang.String getText() {
+          java.lang.Object ref = text_;
+          if (!(ref instanceof java.lang.String)) {
+            com.google.protobuf.ByteString bs =
+                (com.google.protobuf.ByteString) ref;
+            java.lang.String s = bs.toStringUtf8();
+            if (bs.isValidUtf8()) {
+              text_ = s;
+            }
+            return s;
+          } else {
+            return (java.lang.String) ref;
+          }
+        }
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public com.google.protobuf.ByteString
+            getTextBytes() {
+          java.lang.Object ref = text_;
+          if (ref instanceof String) {
+            com.google.protobuf.ByteString b = 
+                com.google.protobuf.ByteString.copyFromUtf8(
+                    (java.lang.String) ref);
+            text_ = b;
+            return b;
+          } else {
+            return (com.google.protobuf.ByteString) ref;
+          }
+        }
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public Builder setText(
+            java.lang.String value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+          text_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public Builder clearText() {
+          bitField0_ = (bitField0_ & ~0x00000002);
+          text_ = getDefaultInstance().getText();
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string text = 2;</code>
+         */
+        public Builder setTextBytes(
+            com.google.protobuf.ByteString value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+          text_ = value;
+          onChanged();
+          return this;
+        }
+
+        // @@protoc_insertion_point(builder_scope:edmtools.FlightColumns.RecordWarning)
+      }
+
+      static {
+        defaultInstance = new RecordWarning(true);
+        defaultInstance.initFields();
+      }
+
+      // @@protoc_insertion_point(class_scope:edmtools.FlightColumns.RecordWarning)
+    }
+
+    private int bitField0_;
+    public static final int HEADER_FIELD_NUMBER = 1;
+    private edmtools.Proto.Flight header_;
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    public boolean hasHeader() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    public edmtools.Proto.Flight getHeader() {
+      return header_;
+    }
+    /**
+     * <code>optional .edmtools.Flight header = 1;</code>
+     *
+     * <pre>
+     * The flight, without data.
+     * </pre>
+     */
+    public edmtools.Proto.FlightOrBuilder getHeaderOrBuilder() {
+      return header_;
+    }
+
+    public static final int RECORD_COUNT_FIELD_NUMBER = 2;
+    private int recordCount_;
+    /**
+     * <code>optional int32 record_count = 2;</code>
+     */
+    public boolean hasRecordCount() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional int32 record_count = 2;</code>
+     */
+    public int getRecordCount() {
+      return recordCount_;
+    }
+
+    public static final int TIMESTAMP_DELTA_SECS_FIELD_NUMBER = 3;
+    private java.util.List<java.lang.Integer> timestampDeltaSecs_;
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getTimestampDeltaSecsList() {
+      return timestampDeltaSecs_;
+    }
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    public int getTimestampDeltaSecsCount() {
+      return timestampDeltaSecs_.size();
+    }
+    /**
+     * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+     *
+     * <pre>
+     * Seconds between each record and the previous one.  The first record is
+     * taken at header.start_timestamp, so its entry is always 0.
+     * </pre>
+     */
+    public int getTimestampDeltaSecs(int index) {
+      return timestampDeltaSecs_.get(index);
+    }
+    private int timestampDeltaSecsMemoizedSerializedSize = -1;
+
+    public static final int MARK_FIELD_NUMBER = 4;
+    private java.util.List<edmtools.Proto.DataRecord.Mark> mark_;
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    public java.util.List<edmtools.Proto.DataRecord.Mark> getMarkList() {
+      return mark_;
+    }
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    public int getMarkCount() {
+      return mark_.size();
+    }
+    /**
+     * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+     *
+     * <pre>
+     * DataRecord.mark of each record.
+     * </pre>
+     */
+    public edmtools.Proto.DataRecord.Mark getMark(int index) {
+      return mark_.get(index);
+    }
+    private int markMemoizedSerializedSize;
+
+    public static final int UNMARKED_RECORD_FIELD_NUMBER = 5;
+    private java.util.List<java.lang.Integer> unmarkedRecord_;
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getUnmarkedRecordList() {
+      return unmarkedRecord_;
+    }
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    public int getUnmarkedRecordCount() {
+      return unmarkedRecord_.size();
+    }
+    /**
+     * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+     *
+     * <pre>
+     * Records with no mark, whose entry in mark is NOT_MARKED.
+     * </pre>
+     */
+    public int getUnmarkedRecord(int index) {
+      return unmarkedRecord_.get(index);
+    }
+    private int unmarkedRecordMemoizedSerializedSize = -1;
+
+    public static final int ENGINE_COUNT_FIELD_NUMBER = 6;
+    private java.util.List<java.lang.Integer> engineCount_;
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getEngineCountList() {
+      return engineCount_;
+    }
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    public int getEngineCountCount() {
+      return engineCount_.size();
+    }
+    /**
+     * <code>repeated int32 engine_count = 6 [packed = true];</code>
+     *
+     * <pre>
+     * The length of DataRecord.engine of each record, or a single entry if
+     * every record has the same length.
+     * </pre>
+     */
+    public int getEngineCount(int index) {
+      return engineCount_.get(index);
+    }
+    private int engineCountMemoizedSerializedSize = -1;
+
+    public static final int CHANNEL_FIELD_NUMBER = 7;
+    private java.util.List<edmtools.Proto.FlightColumns.Channel> channel_;
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    public java.util.List<edmtools.Proto.FlightColumns.Channel> getChannelList() {
+      return channel_;
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    public java.util.List<? extends edmtools.Proto.FlightColumns.ChannelOrBuilder> 
+        getChannelOrBuilderList() {
+      return channel_;
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    public int getChannelCount() {
+      return channel_.size();
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    public edmtools.Proto.FlightColumns.Channel getChannel(int index) {
+      return channel_.get(index);
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+     *
+     * <pre>
+     * Channels with a value in at least one record, in field order.
+     * </pre>
+     */
+    public edmtools.Proto.FlightColumns.ChannelOrBuilder getChannelOrBuilder(
+        int index) {
+      return channel_.get(index);
+    }
+
+    public static final int RECORD_WARNING_FIELD_NUMBER = 8;
+    private java.util.List<edmtools.Proto.FlightColumns.RecordWarning> recordWarning_;
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    public java.util.List<edmtools.Proto.FlightColumns.RecordWarning> getRecordWarningList() {
+      return recordWarning_;
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    public java.util.List<? extends edmtools.Proto.FlightColumns.RecordWarningOrBuilder> 
+        getRecordWarningOrBuilderList() {
+      return recordWarning_;
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    public int getRecordWarningCount() {
+      return recordWarning_.size();
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    public edmtools.Proto.FlightColumns.RecordWarning getRecordWarning(int index) {
+      return recordWarning_.get(index);
+    }
+    /**
+     * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+     *
+     * <pre>
+     * DataRecord.parse_warning of each record.
+     * </pre>
+     */
+    public edmtools.Proto.FlightColumns.RecordWarningOrBuilder getRecordWarningOrBuilder(
+        int index) {
+      return recordWarning_.get(index);
+    }
+
+    private void initFields() {
+      header_ = edmtools.Proto.Flight.getDefaultInstance();
+      recordCount_ = 0;
+      timestampDeltaSecs_ = java.util.Collections.emptyList();
+      mark_ = java.util.Collections.emptyList();
+      unmarkedRecord_ = java.util.Collections.emptyList();
+      engineCount_ = java.util.Collections.emptyList();
+      channel_ = java.util.Collections.emptyList();
+      recordWarning_ = java.util.Collections.emptyList();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, header_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeInt32(2, recordCount_);
+      }
+      if (getTimestampDeltaSecsList().size() > 0) {
+        output.writeRawVarint32(26);
+        output.writeRawVarint32(timestampDeltaSecsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < timestampDeltaSecs_.size(); i++) {
+        output.writeInt32NoTag(timestampDeltaSecs_.get(i));
+      }
+      if (getMarkList().size() > 0) {
+        output.writeRawVarint32(34);
+        output.writeRawVarint32(markMemoizedSerializedSize);
+      }
+      for (int i = 0; i < mark_.size(); i++) {
+        output.writeEnumNoTag(mark_.get(i).getNumber());
+      }
+      if (getUnmarkedRecordList().size() > 0) {
+        output.writeRawVarint32(42);
+        output.writeRawVarint32(unmarkedRecordMemoizedSerializedSize);
+      }
+      for (int i = 0; i < unmarkedRecord_.size(); i++) {
+        output.writeInt32NoTag(unmarkedRecord_.get(i));
+      }
+      if (getEngineCountList().size() > 0) {
+        output.writeRawVarint32(50);
+        output.writeRawVarint32(engineCountMemoizedSerializedSize);
+      }
+      for (int i = 0; i < engineCount_.size(); i++) {
+        output.writeInt32NoTag(engineCount_.get(i));
+      }
+      for (int i = 0; i < channel_.size(); i++) {
+        output.writeMessage(7, channel_.get(i));
+      }
+      for (int i = 0; i < recordWarning_.size(); i++) {
+        output.writeMessage(8, recordWarning_.get(i));
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, header_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(2, recordCount_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < timestampDeltaSecs_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(timestampDeltaSecs_.get(i));
+        }
+        size += dataSize;
+        if (!getTimestampDeltaSecsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        timestampDeltaSecsMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < mark_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeEnumSizeNoTag(mark_.get(i).getNumber());
+        }
+        size += dataSize;
+        if (!getMarkList().isEmpty()) {  size += 1;
+          size += com.google.protobuf.CodedOutputStream
+            .computeRawVarint32Size(dataSize);
+        }markMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < unmarkedRecord_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(unmarkedRecord_.get(i));
+        }
+        size += dataSize;
+        if (!getUnmarkedRecordList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        unmarkedRecordMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < engineCount_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(engineCount_.get(i));
+        }
+        size += dataSize;
+        if (!getEngineCountList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        engineCountMemoizedSerializedSize = dataSize;
+      }
+      for (int i = 0; i < channel_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(7, channel_.get(i));
+      }
+      for (int i = 0; i < recordWarning_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(8, recordWarning_.get(i));
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static edmtools.Proto.FlightColumns parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static edmtools.Proto.FlightColumns parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static edmtools.Proto.FlightColumns parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static edmtools.Proto.FlightColumns parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(edmtools.Proto.FlightColumns prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code edmtools.FlightColumns}
+     *
+     * <pre>
+     * Column-oriented alternative to Flight.data: the same records, held as one
+     * packed column per channel rather than one DataRecord message per record.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:edmtools.FlightColumns)
+        edmtools.Proto.FlightColumnsOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                edmtools.Proto.FlightColumns.class, edmtools.Proto.FlightColumns.Builder.class);
+      }
+
+      // Construct using edmtools.Proto.FlightColumns.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getHeaderFieldBuilder();
+          getChannelFieldBuilder();
+          getRecordWarningFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (headerBuilder_ == null) {
+          header_ = edmtools.Proto.Flight.getDefaultInstance();
+        } else {
+          headerBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        recordCount_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        timestampDeltaSecs_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        mark_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        unmarkedRecord_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        engineCount_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000020);
+        if (channelBuilder_ == null) {
+          channel_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000040);
+        } else {
+          channelBuilder_.clear();
+        }
+        if (recordWarningBuilder_ == null) {
+          recordWarning_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000080);
+        } else {
+          recordWarningBuilder_.clear();
+        }
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return edmtools.Proto.internal_static_edmtools_FlightColumns_descriptor;
+      }
+
+      public edmtools.Proto.FlightColumns getDefaultInstanceForType() {
+        return edmtools.Proto.FlightColumns.getDefaultInstance();
+      }
+
+      public edmtools.Proto.FlightColumns build() {
+        edmtools.Proto.FlightColumns result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public edmtools.Proto.FlightColumns buildPartial() {
+        edmtools.Proto.FlightColumns result = new edmtools.Proto.FlightColumns(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (headerBuilder_ == null) {
+          result.header_ = header_;
+        } else {
+          result.header_ = headerBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.recordCount_ = recordCount_;
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          timestampDeltaSecs_ = java.util.Collections.unmodifiableList(timestampDeltaSecs_);
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.timestampDeltaSecs_ = timestampDeltaSecs_;
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          mark_ = java.util.Collections.unmodifiableList(mark_);
+          bitField0_ = (bitField0_ & ~0x00000008);
+        }
+        result.mark_ = mark_;
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          unmarkedRecord_ = java.util.Collections.unmodifiableList(unmarkedRecord_);
+          bitField0_ = (bitField0_ & ~0x00000010);
+        }
+        result.unmarkedRecord_ = unmarkedRecord_;
+        if (((bitField0_ & 0x00000020) == 0x00000020)) {
+          engineCount_ = java.util.Collections.unmodifiableList(engineCount_);
+          bitField0_ = (bitField0_ & ~0x00000020);
+        }
+        result.engineCount_ = engineCount_;
+        if (channelBuilder_ == null) {
+          if (((bitField0_ & 0x00000040) == 0x00000040)) {
+            channel_ = java.util.Collections.unmodifiableList(channel_);
+            bitField0_ = (bitField0_ & ~0x00000040);
+          }
+          result.channel_ = channel_;
+        } else {
+          result.channel_ = channelBuilder_.build();
+        }
+        if (recordWarningBuilder_ == null) {
+          if (((bitField0_ & 0x00000080) == 0x00000080)) {
+            recordWarning_ = java.util.Collections.unmodifiableList(recordWarning_);
+            bitField0_ = (bitField0_ & ~0x00000080);
+          }
+          result.recordWarning_ = recordWarning_;
+        } else {
+          result.recordWarning_ = recordWarningBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof edmtools.Proto.FlightColumns) {
+          return mergeFrom((edmtools.Proto.FlightColumns)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(edmtools.Proto.FlightColumns other) {
+        if (other == edmtools.Proto.FlightColumns.getDefaultInstance()) return this;
+        if (other.hasHeader()) {
+          mergeHeader(other.getHeader());
+        }
+        if (other.hasRecordCount()) {
+          setRecordCount(other.getRecordCount());
+        }
+        if (!other.timestampDeltaSecs_.isEmpty()) {
+          if (timestampDeltaSecs_.isEmpty()) {
+            timestampDeltaSecs_ = other.timestampDeltaSecs_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureTimestampDeltaSecsIsMutable();
+            timestampDeltaSecs_.addAll(other.timestampDeltaSecs_);
+          }
+          onChanged();
+        }
+        if (!other.mark_.isEmpty()) {
+          if (mark_.isEmpty()) {
+            mark_ = other.mark_;
+            bitField0_ = (bitField0_ & ~0x00000008);
+          } else {
+            ensureMarkIsMutable();
+            mark_.addAll(other.mark_);
+          }
+          onChanged();
+        }
+        if (!other.unmarkedRecord_.isEmpty()) {
+          if (unmarkedRecord_.isEmpty()) {
+            unmarkedRecord_ = other.unmarkedRecord_;
+            bitField0_ = (bitField0_ & ~0x00000010);
+          } else {
+            ensureUnmarkedRecordIsMutable();
+            unmarkedRecord_.addAll(other.unmarkedRecord_);
+          }
+          onChanged();
+        }
+        if (!other.engineCount_.isEmpty()) {
+          if (engineCount_.isEmpty()) {
+            engineCount_ = other.engineCount_;
+            bitField0_ = (bitField0_ & ~0x00000020);
+          } else {
+            ensureEngineCountIsMutable();
+            engineCount_.addAll(other.engineCount_);
+          }
+          onChanged();
+        }
+        if (channelBuilder_ == null) {
+          if (!other.channel_.isEmpty()) {
+            if (channel_.isEmpty()) {
+              channel_ = other.channel_;
+              bitField0_ = (bitField0_ & ~0x00000040);
+            } else {
+              ensureChannelIsMutable();
+              channel_.addAll(other.channel_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.channel_.isEmpty()) {
+            if (channelBuilder_.isEmpty()) {
+              channelBuilder_.dispose();
+              channelBuilder_ = null;
+              channel_ = other.channel_;
+              bitField0_ = (bitField0_ & ~0x00000040);
+              channelBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getChannelFieldBuilder() : null;
+            } else {
+              channelBuilder_.addAllMessages(other.channel_);
+            }
+          }
+        }
+        if (recordWarningBuilder_ == null) {
+          if (!other.recordWarning_.isEmpty()) {
+            if (recordWarning_.isEmpty()) {
+              recordWarning_ = other.recordWarning_;
+              bitField0_ = (bitField0_ & ~0x00000080);
+            } else {
+              ensureRecordWarningIsMutable();
+              recordWarning_.addAll(other.recordWarning_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.recordWarning_.isEmpty()) {
+            if (recordWarningBuilder_.isEmpty()) {
+              recordWarningBuilder_.dispose();
+              recordWarningBuilder_ = null;
+              recordWarning_ = other.recordWarning_;
+              bitField0_ = (bitField0_ & ~0x00000080);
+              recordWarningBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getRecordWarningFieldBuilder() : null;
+            } else {
+              recordWarningBuilder_.addAllMessages(other.recordWarning_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        edmtools.Proto.FlightColumns parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (edmtools.Proto.FlightColumns) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private edmtools.Proto.Flight header_ = edmtools.Proto.Flight.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          edmtools.Proto.Flight, edmtools.Proto.Flight.Builder, edmtools.Proto.FlightOrBuilder> headerBuilder_;
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public boolean hasHeader() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public edmtools.Proto.Flight getHeader() {
+        if (headerBuilder_ == null) {
+          return header_;
+        } else {
+          return headerBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public Builder setHeader(edmtools.Proto.Flight value) {
+        if (headerBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          header_ = value;
+          onChanged();
+        } else {
+          headerBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public Builder setHeader(
+          edmtools.Proto.Flight.Builder builderForValue) {
+        if (headerBuilder_ == null) {
+          header_ = builderForValue.build();
+          onChanged();
+        } else {
+          headerBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public Builder mergeHeader(edmtools.Proto.Flight value) {
+        if (headerBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              header_ != edmtools.Proto.Flight.getDefaultInstance()) {
+            header_ =
+              edmtools.Proto.Flight.newBuilder(header_).mergeFrom(value).buildPartial();
+          } else {
+            header_ = value;
+          }
+          onChanged();
+        } else {
+          headerBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public Builder clearHeader() {
+        if (headerBuilder_ == null) {
+          header_ = edmtools.Proto.Flight.getDefaultInstance();
+          onChanged();
+        } else {
+          headerBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public edmtools.Proto.Flight.Builder getHeaderBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getHeaderFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      public edmtools.Proto.FlightOrBuilder getHeaderOrBuilder() {
+        if (headerBuilder_ != null) {
+          return headerBuilder_.getMessageOrBuilder();
+        } else {
+          return header_;
+        }
+      }
+      /**
+       * <code>optional .edmtools.Flight header = 1;</code>
+       *
+       * <pre>
+       * The flight, without data.
+       * </pre>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          edmtools.Proto.Flight, edmtools.Proto.Flight.Builder, edmtools.Proto.FlightOrBuilder> 
+          getHeaderFieldBuilder() {
+        if (headerBuilder_ == null) {
+          headerBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              edmtools.Proto.Flight, edmtools.Proto.Flight.Builder, edmtools.Proto.FlightOrBuilder>(
+                  getHeader(),
+                  getParentForChildren(),
+                  isClean());
+          header_ = null;
+        }
+        return headerBuilder_;
+      }
+
+      private int recordCount_ ;
+      /**
+       * <code>optional int32 record_count = 2;</code>
+       */
+      public boolean hasRecordCount() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional int32 record_count = 2;</code>
+       */
+      public int getRecordCount() {
+        return recordCount_;
+      }
+      /**
+       * <code>optional int32 record_count = 2;</code>
+       */
+      public Builder setRecordCount(int value) {
+        bitField0_ |= 0x00000002;
+        recordCount_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 record_count = 2;</code>
+       */
+      public Builder clearRecordCount() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        recordCount_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> timestampDeltaSecs_ = java.util.Collections.emptyList();
+      private void ensureTimestampDeltaSecsIsMutable() {
+        if (!((bitField0_ & 0x00000004) == 0x00000004)) {
+          timestampDeltaSecs_ = new java.util.ArrayList<java.lang.Integer>(timestampDeltaSecs_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getTimestampDeltaSecsList() {
+        return java.util.Collections.unmodifiableList(timestampDeltaSecs_);
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public int getTimestampDeltaSecsCount() {
+        return timestampDeltaSecs_.size();
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public int getTimestampDeltaSecs(int index) {
+        return timestampDeltaSecs_.get(index);
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public Builder setTimestampDeltaSecs(
+          int index, int value) {
+        ensureTimestampDeltaSecsIsMutable();
+        timestampDeltaSecs_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public Builder addTimestampDeltaSecs(int value) {
+        ensureTimestampDeltaSecsIsMutable();
+        timestampDeltaSecs_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public Builder addAllTimestampDeltaSecs(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureTimestampDeltaSecsIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, timestampDeltaSecs_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 timestamp_delta_secs = 3 [packed = true];</code>
+       *
+       * <pre>
+       * Seconds between each record and the previous one.  The first record is
+       * taken at header.start_timestamp, so its entry is always 0.
+       * </pre>
+       */
+      public Builder clearTimestampDeltaSecs() {
+        timestampDeltaSecs_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<edmtools.Proto.DataRecord.Mark> mark_ =
+        java.util.Collections.emptyList();
+      private void ensureMarkIsMutable() {
+        if (!((bitField0_ & 0x00000008) == 0x00000008)) {
+          mark_ = new java.util.ArrayList<edmtools.Proto.DataRecord.Mark>(mark_);
+          bitField0_ |= 0x00000008;
+        }
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public java.util.List<edmtools.Proto.DataRecord.Mark> getMarkList() {
+        return java.util.Collections.unmodifiableList(mark_);
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public int getMarkCount() {
+        return mark_.size();
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public edmtools.Proto.DataRecord.Mark getMark(int index) {
+        return mark_.get(index);
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public Builder setMark(
+          int index, edmtools.Proto.DataRecord.Mark value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureMarkIsMutable();
+        mark_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public Builder addMark(edmtools.Proto.DataRecord.Mark value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureMarkIsMutable();
+        mark_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public Builder addAllMark(
+          java.lang.Iterable<? extends edmtools.Proto.DataRecord.Mark> values) {
+        ensureMarkIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, mark_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.DataRecord.Mark mark = 4 [packed = true];</code>
+       *
+       * <pre>
+       * DataRecord.mark of each record.
+       * </pre>
+       */
+      public Builder clearMark() {
+        mark_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> unmarkedRecord_ = java.util.Collections.emptyList();
+      private void ensureUnmarkedRecordIsMutable() {
+        if (!((bitField0_ & 0x00000010) == 0x00000010)) {
+          unmarkedRecord_ = new java.util.ArrayList<java.lang.Integer>(unmarkedRecord_);
+          bitField0_ |= 0x00000010;
+         }
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getUnmarkedRecordList() {
+        return java.util.Collections.unmodifiableList(unmarkedRecord_);
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public int getUnmarkedRecordCount() {
+        return unmarkedRecord_.size();
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public int getUnmarkedRecord(int index) {
+        return unmarkedRecord_.get(index);
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public Builder setUnmarkedRecord(
+          int index, int value) {
+        ensureUnmarkedRecordIsMutable();
+        unmarkedRecord_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public Builder addUnmarkedRecord(int value) {
+        ensureUnmarkedRecordIsMutable();
+        unmarkedRecord_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public Builder addAllUnmarkedRecord(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureUnmarkedRecordIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, unmarkedRecord_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 unmarked_record = 5 [packed = true];</code>
+       *
+       * <pre>
+       * Records with no mark, whose entry in mark is NOT_MARKED.
+       * </pre>
+       */
+      public Builder clearUnmarkedRecord() {
+        unmarkedRecord_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> engineCount_ = java.util.Collections.emptyList();
+      private void ensureEngineCountIsMutable() {
+        if (!((bitField0_ & 0x00000020) == 0x00000020)) {
+          engineCount_ = new java.util.ArrayList<java.lang.Integer>(engineCount_);
+          bitField0_ |= 0x00000020;
+         }
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getEngineCountList() {
+        return java.util.Collections.unmodifiableList(engineCount_);
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public int getEngineCountCount() {
+        return engineCount_.size();
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public int getEngineCount(int index) {
+        return engineCount_.get(index);
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public Builder setEngineCount(
+          int index, int value) {
+        ensureEngineCountIsMutable();
+        engineCount_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public Builder addEngineCount(int value) {
+        ensureEngineCountIsMutable();
+        engineCount_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public Builder addAllEngineCount(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureEngineCountIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, engineCount_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 engine_count = 6 [packed = true];</code>
+       *
+       * <pre>
+       * The length of DataRecord.engine of each record, or a single entry if
+       * every record has the same length.
+       * </pre>
+       */
+      public Builder clearEngineCount() {
+        engineCount_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000020);
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<edmtools.Proto.FlightColumns.Channel> channel_ =
+        java.util.Collections.emptyList();
+      private void ensureChannelIsMutable() {
+        if (!((bitField0_ & 0x00000040) == 0x00000040)) {
+          channel_ = new java.util.ArrayList<edmtools.Proto.FlightColumns.Channel>(channel_);
+          bitField0_ |= 0x00000040;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          edmtools.Proto.FlightColumns.Channel, edmtools.Proto.FlightColumns.Channel.Builder, edmtools.Proto.FlightColumns.ChannelOrBuilder> channelBuilder_;
+
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public java.util.List<edmtools.Proto.FlightColumns.Channel> getChannelList() {
+        if (channelBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(channel_);
+        } else {
+          return channelBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public int getChannelCount() {
+        if (channelBuilder_ == null) {
+          return channel_.size();
+        } else {
+          return channelBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.Channel getChannel(int index) {
+        if (channelBuilder_ == null) {
+          return channel_.get(index);
+        } else {
+          return channelBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder setChannel(
+          int index, edmtools.Proto.FlightColumns.Channel value) {
+        if (channelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChannelIsMutable();
+          channel_.set(index, value);
+          onChanged();
+        } else {
+          channelBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder setChannel(
+          int index, edmtools.Proto.FlightColumns.Channel.Builder builderForValue) {
+        if (channelBuilder_ == null) {
+          ensureChannelIsMutable();
+          channel_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          channelBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder addChannel(edmtools.Proto.FlightColumns.Channel value) {
+        if (channelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChannelIsMutable();
+          channel_.add(value);
+          onChanged();
+        } else {
+          channelBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder addChannel(
+          int index, edmtools.Proto.FlightColumns.Channel value) {
+        if (channelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureChannelIsMutable();
+          channel_.add(index, value);
+          onChanged();
+        } else {
+          channelBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder addChannel(
+          edmtools.Proto.FlightColumns.Channel.Builder builderForValue) {
+        if (channelBuilder_ == null) {
+          ensureChannelIsMutable();
+          channel_.add(builderForValue.build());
+          onChanged();
+        } else {
+          channelBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder addChannel(
+          int index, edmtools.Proto.FlightColumns.Channel.Builder builderForValue) {
+        if (channelBuilder_ == null) {
+          ensureChannelIsMutable();
+          channel_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          channelBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder addAllChannel(
+          java.lang.Iterable<? extends edmtools.Proto.FlightColumns.Channel> values) {
+        if (channelBuilder_ == null) {
+          ensureChannelIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, channel_);
+          onChanged();
+        } else {
+          channelBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder clearChannel() {
+        if (channelBuilder_ == null) {
+          channel_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000040);
+          onChanged();
+        } else {
+          channelBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public Builder removeChannel(int index) {
+        if (channelBuilder_ == null) {
+          ensureChannelIsMutable();
+          channel_.remove(index);
+          onChanged();
+        } else {
+          channelBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.Channel.Builder getChannelBuilder(
+          int index) {
+        return getChannelFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.ChannelOrBuilder getChannelOrBuilder(
+          int index) {
+        if (channelBuilder_ == null) {
+          return channel_.get(index);  } else {
+          return channelBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public java.util.List<? extends edmtools.Proto.FlightColumns.ChannelOrBuilder> 
+           getChannelOrBuilderList() {
+        if (channelBuilder_ != null) {
+          return channelBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(channel_);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.Channel.Builder addChannelBuilder() {
+        return getChannelFieldBuilder().addBuilder(
+            edmtools.Proto.FlightColumns.Channel.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.Channel.Builder addChannelBuilder(
+          int index) {
+        return getChannelFieldBuilder().addBuilder(
+            index, edmtools.Proto.FlightColumns.Channel.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.Channel channel = 7;</code>
+       *
+       * <pre>
+       * Channels with a value in at least one record, in field order.
+       * </pre>
+       */
+      public java.util.List<edmtools.Proto.FlightColumns.Channel.Builder> 
+           getChannelBuilderList() {
+        return getChannelFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          edmtools.Proto.FlightColumns.Channel, edmtools.Proto.FlightColumns.Channel.Builder, edmtools.Proto.FlightColumns.ChannelOrBuilder> 
+          getChannelFieldBuilder() {
+        if (channelBuilder_ == null) {
+          channelBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              edmtools.Proto.FlightColumns.Channel, edmtools.Proto.FlightColumns.Channel.Builder, edmtools.Proto.FlightColumns.ChannelOrBuilder>(
+                  channel_,
+                  ((bitField0_ & 0x00000040) == 0x00000040),
+                  getParentForChildren(),
+                  isClean());
+          channel_ = null;
+        }
+        return channelBuilder_;
+      }
+
+      private java.util.List<edmtools.Proto.FlightColumns.RecordWarning> recordWarning_ =
+        java.util.Collections.emptyList();
+      private void ensureRecordWarningIsMutable() {
+        if (!((bitField0_ & 0x00000080) == 0x00000080)) {
+          recordWarning_ = new java.util.ArrayList<edmtools.Proto.FlightColumns.RecordWarning>(recordWarning_);
+          bitField0_ |= 0x00000080;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          edmtools.Proto.FlightColumns.RecordWarning, edmtools.Proto.FlightColumns.RecordWarning.Builder, edmtools.Proto.FlightColumns.RecordWarningOrBuilder> recordWarningBuilder_;
+
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public java.util.List<edmtools.Proto.FlightColumns.RecordWarning> getRecordWarningList() {
+        if (recordWarningBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(recordWarning_);
+        } else {
+          return recordWarningBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public int getRecordWarningCount() {
+        if (recordWarningBuilder_ == null) {
+          return recordWarning_.size();
+        } else {
+          return recordWarningBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.RecordWarning getRecordWarning(int index) {
+        if (recordWarningBuilder_ == null) {
+          return recordWarning_.get(index);
+        } else {
+          return recordWarningBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder setRecordWarning(
+          int index, edmtools.Proto.FlightColumns.RecordWarning value) {
+        if (recordWarningBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordWarningIsMutable();
+          recordWarning_.set(index, value);
+          onChanged();
+        } else {
+          recordWarningBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder setRecordWarning(
+          int index, edmtools.Proto.FlightColumns.RecordWarning.Builder builderForValue) {
+        if (recordWarningBuilder_ == null) {
+          ensureRecordWarningIsMutable();
+          recordWarning_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordWarningBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder addRecordWarning(edmtools.Proto.FlightColumns.RecordWarning value) {
+        if (recordWarningBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordWarningIsMutable();
+          recordWarning_.add(value);
+          onChanged();
+        } else {
+          recordWarningBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder addRecordWarning(
+          int index, edmtools.Proto.FlightColumns.RecordWarning value) {
+        if (recordWarningBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureRecordWarningIsMutable();
+          recordWarning_.add(index, value);
+          onChanged();
+        } else {
+          recordWarningBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder addRecordWarning(
+          edmtools.Proto.FlightColumns.RecordWarning.Builder builderForValue) {
+        if (recordWarningBuilder_ == null) {
+          ensureRecordWarningIsMutable();
+          recordWarning_.add(builderForValue.build());
+          onChanged();
+        } else {
+          recordWarningBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder addRecordWarning(
+          int index, edmtools.Proto.FlightColumns.RecordWarning.Builder builderForValue) {
+        if (recordWarningBuilder_ == null) {
+          ensureRecordWarningIsMutable();
+          recordWarning_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          recordWarningBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder addAllRecordWarning(
+          java.lang.Iterable<? extends edmtools.Proto.FlightColumns.RecordWarning> values) {
+        if (recordWarningBuilder_ == null) {
+          ensureRecordWarningIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, recordWarning_);
+          onChanged();
+        } else {
+          recordWarningBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder clearRecordWarning() {
+        if (recordWarningBuilder_ == null) {
+          recordWarning_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000080);
+          onChanged();
+        } else {
+          recordWarningBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public Builder removeRecordWarning(int index) {
+        if (recordWarningBuilder_ == null) {
+          ensureRecordWarningIsMutable();
+          recordWarning_.remove(index);
+          onChanged();
+        } else {
+          recordWarningBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.RecordWarning.Builder getRecordWarningBuilder(
+          int index) {
+        return getRecordWarningFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.RecordWarningOrBuilder getRecordWarningOrBuilder(
+          int index) {
+        if (recordWarningBuilder_ == null) {
+          return recordWarning_.get(index);  } else {
+          return recordWarningBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public java.util.List<? extends edmtools.Proto.FlightColumns.RecordWarningOrBuilder> 
+           getRecordWarningOrBuilderList() {
+        if (recordWarningBuilder_ != null) {
+          return recordWarningBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(recordWarning_);
+        }
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.RecordWarning.Builder addRecordWarningBuilder() {
+        return getRecordWarningFieldBuilder().addBuilder(
+            edmtools.Proto.FlightColumns.RecordWarning.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public edmtools.Proto.FlightColumns.RecordWarning.Builder addRecordWarningBuilder(
+          int index) {
+        return getRecordWarningFieldBuilder().addBuilder(
+            index, edmtools.Proto.FlightColumns.RecordWarning.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .edmtools.FlightColumns.RecordWarning record_warning = 8;</code>
+       *
+       * <pre>
+       * DataRecord.parse_warning of each record.
+       * </pre>
+       */
+      public java.util.List<edmtools.Proto.FlightColumns.RecordWarning.Builder> 
+           getRecordWarningBuilderList() {
+        return getRecordWarningFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          edmtools.Proto.FlightColumns.RecordWarning, edmtools.Proto.FlightColumns.RecordWarning.Builder, edmtools.Proto.FlightColumns.RecordWarningOrBuilder> 
+          getRecordWarningFieldBuilder() {
+        if (recordWarningBuilder_ == null) {
+          recordWarningBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              edmtools.Proto.FlightColumns.RecordWarning, edmtools.Proto.FlightColumns.RecordWarning.Builder, edmtools.Proto.FlightColumns.RecordWarningOrBuilder>(
+                  recordWarning_,
+                  ((bitField0_ & 0x00000080) == 0x00000080),
+                  getParentForChildren(),
+                  isClean());
+          recordWarning_ = null;
+        }
+        return recordWarningBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:edmtools.FlightColumns)
+    }
+
+    static {
+      defaultInstance = new FlightColumns(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:edmtools.FlightColumns)
+  }
+
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_edmtools_Metadata_descriptor;
   private static
@@ -13745,6 +18218,21 @@ public final class Proto {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_edmtools_JpiFile_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_edmtools_FlightColumns_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_edmtools_FlightColumns_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_edmtools_FlightColumns_Channel_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_edmtools_FlightColumns_Channel_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_edmtools_FlightColumns_RecordWarning_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_edmtools_FlightColumns_RecordWarning_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -13821,8 +18309,20 @@ public final class Proto {
       "re\030\020 \003(\005\022\022\n\nhorsepower\030\021 \001(\005\022\013\n\003rpm\030\022 \001(" +
       "\005\022\016\n\006torque\030\023 \001(\005\022\r\n\005hours\030\024 \001(\002\"Q\n\007JpiF" +
       "ile\022$\n\010metadata\030\001 \001(\0132\022.edmtools.Metadat" +
-      "a\022 \n\006flight\030\002 \003(\0132\020.edmtools.FlightB\021\n\010e" +
-      "dmtoolsB\005Proto"
+      "a\022 \n\006flight\030\002 \003(\0132\020.edmtools.Flight\"\352\003\n\r" +
+      "FlightColumns\022 \n\006header\030\001 \001(\0132\020.edmtools" +
+      ".Flight\022\024\n\014record_count\030\002 \001(\005\022 \n\024timesta",
+      "mp_delta_secs\030\003 \003(\005B\002\020\001\022+\n\004mark\030\004 \003(\0162\031." +
+      "edmtools.DataRecord.MarkB\002\020\001\022\033\n\017unmarked" +
+      "_record\030\005 \003(\005B\002\020\001\022\030\n\014engine_count\030\006 \003(\005B" +
+      "\002\020\001\0220\n\007channel\030\007 \003(\0132\037.edmtools.FlightCo" +
+      "lumns.Channel\022=\n\016record_warning\030\010 \003(\0132%." +
+      "edmtools.FlightColumns.RecordWarning\032{\n\007" +
+      "Channel\022\014\n\004name\030\001 \001(\t\022\030\n\014presence_run\030\002 " +
+      "\003(\005B\002\020\001\022\025\n\tint_delta\030\003 \003(\021B\002\020\001\022\030\n\014tenths" +
+      "_delta\030\004 \003(\021B\002\020\001\022\027\n\013float_value\030\005 \003(\002B\002\020" +
+      "\001\032-\n\rRecordWarning\022\016\n\006record\030\001 \001(\005\022\014\n\004te",
+      "xt\030\002 \001(\tB\021\n\010edmtoolsB\005Proto"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -13896,6 +18396,24 @@ public final class Proto {
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_edmtools_JpiFile_descriptor,
         new java.lang.String[] { "Metadata", "Flight", });
+    internal_static_edmtools_FlightColumns_descriptor =
+      getDescriptor().getMessageTypes().get(10);
+    internal_static_edmtools_FlightColumns_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_edmtools_FlightColumns_descriptor,
+        new java.lang.String[] { "Header", "RecordCount", "TimestampDeltaSecs", "Mark", "UnmarkedRecord", "EngineCount", "Channel", "RecordWarning", });
+    internal_static_edmtools_FlightColumns_Channel_descriptor =
+      internal_static_edmtools_FlightColumns_descriptor.getNestedTypes().get(0);
+    internal_static_edmtools_FlightColumns_Channel_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_edmtools_FlightColumns_Channel_descriptor,
+        new java.lang.String[] { "Name", "PresenceRun", "IntDelta", "TenthsDelta", "FloatValue", });
+    internal_static_edmtools_FlightColumns_RecordWarning_descriptor =
+      internal_static_edmtools_FlightColumns_descriptor.getNestedTypes().get(1);
+    internal_static_edmtools_FlightColumns_RecordWarning_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_edmtools_FlightColumns_RecordWarning_descriptor,
+        new java.lang.String[] { "Record", "Text", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
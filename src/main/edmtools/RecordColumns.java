@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.Proto.Flight;
+
+/**
+ * The data records of one flight, stored as one primitive array per {@link RecordLayout} slot
+ * rather than as {@link Proto.DataRecord} messages.
+ *
+ * <p>Arrays are indexed by row (record number) and may be longer than {@link #size()}.
+ * Parse warnings are rare and kept in a sparse map.
+ */
+final class RecordColumns {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final RecordLayout layout;
+  private Flight header = Flight.getDefaultInstance();
+  private int size;
+  private int capacity;
+
+  private int ints[][];
+  private float floats[][];
+  private long presence[];
+  private byte listLengths[][];
+  private byte engineCounts[];
+  private final Map<Integer, List<String>> warnings = new HashMap<>();
+
+  RecordColumns(RecordLayout layout) {
+    this(layout, INITIAL_CAPACITY);
+  }
+
+  RecordColumns(RecordLayout layout, int initialCapacity) {
+    this.layout = layout;
+    this.capacity = Math.max(1, initialCapacity);
+    ints = new int[layout.getNumIntSlots()][capacity];
+    floats = new float[layout.getNumFloatSlots()][capacity];
+    presence = new long[capacity];
+    listLengths = new byte[layout.getNumLists()][capacity];
+    engineCounts = new byte[capacity];
+  }
+
+  RecordLayout getLayout() {
+    return layout;
+  }
+
+  /** The flight header, without {@code data}. */
+  Flight getHeader() {
+    return header;
+  }
+
+  void setHeader(Flight header) {
+    this.header = header;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int[] getIntColumn(int slot) {
+    return ints[slot];
+  }
+
+  float[] getFloatColumn(int slot) {
+    return floats[slot];
+  }
+
+  long[] getPresenceColumn() {
+    return presence;
+  }
+
+  byte[] getListLengthColumn(int listId) {
+    return listLengths[listId];
+  }
+
+  byte[] getEngineCountColumn() {
+    return engineCounts;
+  }
+
+  boolean hasWarnings() {
+    return !warnings.isEmpty();
+  }
+
+  List<String> getWarnings(int row) {
+    List<String> result = warnings.get(row);
+    return result == null ? Collections.<String>emptyList() : result;
+  }
+
+  void addWarning(int row, String warning) {
+    List<String> list = warnings.get(row);
+    if (list == null) {
+      list = new ArrayList<>(1);
+      warnings.put(row, list);
+    }
+    list.add(warning);
+  }
+
+  /**
+   * Appends a row holding the same values as the last row (or no values, if this is the first
+   * row) but no parse warnings.  Returns the new row.
+   */
+  int appendRow() {
+    ensureCapacity(size + 1);
+    if (size > 0) {
+      copyRow(size - 1, size);
+    }
+    return size++;
+  }
+
+  /** Appends {@code count} copies, warnings included, of the last row. */
+  void repeatLastRow(int count) {
+    Preconditions.checkState(size > 0, "No record to repeat");
+    ensureCapacity(size + count);
+    List<String> lastWarnings = warnings.get(size - 1);
+    for (int i = 0; i < count; ++i) {
+      copyRow(size - 1, size);
+      if (lastWarnings != null) {
+        warnings.put(size, new ArrayList<>(lastWarnings));
+      }
+      size++;
+    }
+  }
+
+  /**
+   * Sets the number of rows, growing the arrays as needed, so that a decoder may fill the
+   * columns directly.  Arrays must be fetched again afterwards.
+   */
+  void setSize(int size) {
+    ensureCapacity(size);
+    this.size = size;
+  }
+
+  private void copyRow(int from, int to) {
+    for (int column[] : ints) {
+      column[to] = column[from];
+    }
+    for (float column[] : floats) {
+      column[to] = column[from];
+    }
+    for (byte column[] : listLengths) {
+      column[to] = column[from];
+    }
+    presence[to] = presence[from];
+    engineCounts[to] = engineCounts[from];
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity <= capacity) {
+      return;
+    }
+    capacity = Math.max(minCapacity, capacity * 2);
+    for (int i = 0; i < ints.length; ++i) {
+      ints[i] = Arrays.copyOf(ints[i], capacity);
+    }
+    for (int i = 0; i < floats.length; ++i) {
+      floats[i] = Arrays.copyOf(floats[i], capacity);
+    }
+    for (int i = 0; i < listLengths.length; ++i) {
+      listLengths[i] = Arrays.copyOf(listLengths[i], capacity);
+    }
+    presence = Arrays.copyOf(presence, capacity);
+    engineCounts = Arrays.copyOf(engineCounts, capacity);
+  }
+
+  /** Shrinks the arrays to {@link #size()}, so that their length is the number of rows. */
+  void trimToSize() {
+    if (capacity == size) {
+      return;
+    }
+    capacity = size;
+    for (int i = 0; i < ints.length; ++i) {
+      ints[i] = Arrays.copyOf(ints[i], size);
+    }
+    for (int i = 0; i < floats.length; ++i) {
+      floats[i] = Arrays.copyOf(floats[i], size);
+    }
+    for (int i = 0; i < listLengths.length; ++i) {
+      listLengths[i] = Arrays.copyOf(listLengths[i], size);
+    }
+    presence = Arrays.copyOf(presence, size);
+    engineCounts = Arrays.copyOf(engineCounts, size);
+  }
+
+  /** Returns a trimmed copy of rows {@code [from, to)}. */
+  RecordColumns copyOfRange(int from, int to) {
+    Preconditions.checkPositionIndexes(from, to, size);
+    RecordColumns copy = new RecordColumns(layout, 0);
+    copy.header = header;
+    copy.size = to - from;
+    copy.capacity = to - from;
+    for (int i = 0; i < ints.length; ++i) {
+      copy.ints[i] = Arrays.copyOfRange(ints[i], from, to);
+    }
+    for (int i = 0; i < floats.length; ++i) {
+      copy.floats[i] = Arrays.copyOfRange(floats[i], from, to);
+    }
+    for (int i = 0; i < listLengths.length; ++i) {
+      copy.listLengths[i] = Arrays.copyOfRange(listLengths[i], from, to);
+    }
+    copy.presence = Arrays.copyOfRange(presence, from, to);
+    copy.engineCounts = Arrays.copyOfRange(engineCounts, from, to);
+    for (Map.Entry<Integer, List<String>> entry : warnings.entrySet()) {
+      if (entry.getKey() >= from && entry.getKey() < to) {
+        copy.warnings.put(entry.getKey() - from, new ArrayList<>(entry.getValue()));
+      }
+    }
+    return copy;
+  }
+
+  /** Returns a cursor positioned before the first row. */
+  DataRecordCursor cursor() {
+    return new DataRecordCursor(this);
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.Descriptors.FieldDescriptor;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.EngineDataRecord;
+
+/**
+ * One value field of a {@link DataRecord} or {@link EngineDataRecord} which a
+ * {@link RecordLayout} records, resolved to its columns, for encoders which write records
+ * straight from {@link RecordColumns}.
+ */
+final class RecordFieldPlan {
+  final int fieldNumber;
+  /** The proto field name, eg {@code exhaust_gas_temperature}. */
+  final String name;
+  /** The proto3 JSON name, eg {@code exhaustGasTemperature}. */
+  final String jsonName;
+  final boolean isFloat;
+  /** True for {@link DataRecord.Mark}, whose values are stored as numbers. */
+  final boolean isEnum;
+  /** Presence bit of an optional field, or -1. */
+  final int presenceBit;
+  final int scalarSlot;
+  /** List id of a repeated field, or -1. */
+  final int listId;
+  /** Value slot of each list position, or null for an optional field. */
+  final int listSlots[];
+
+  private RecordFieldPlan(RecordLayout layout, int container, FieldDescriptor field) {
+    this.fieldNumber = field.getNumber();
+    this.name = field.getName();
+    this.jsonName = field.getJsonName();
+    this.isFloat = layout.isFloat(container, fieldNumber);
+    this.isEnum = field.getType() == FieldDescriptor.Type.ENUM;
+    this.presenceBit = layout.getPresenceBit(container, fieldNumber);
+    this.scalarSlot = layout.getScalarSlot(container, fieldNumber);
+    this.listId = layout.getListId(container, fieldNumber);
+    if (listId >= 0) {
+      listSlots = new int[layout.getListCapacity(listId)];
+      for (int i = 0; i < listSlots.length; ++i) {
+        listSlots[i] = layout.getListSlot(listId, i);
+      }
+    } else {
+      listSlots = null;
+    }
+  }
+
+  /**
+   * Returns the fields of each container, indexed by container and in field number order.
+   * {@link DataRecord}'s are all numbered below {@code engine} and {@code parse_warning}.
+   */
+  static RecordFieldPlan[][] forLayout(RecordLayout layout) {
+    RecordFieldPlan plans[][] = new RecordFieldPlan[RecordLayout.MAX_ENGINES + 1][];
+    for (int container = 0; container < plans.length; ++container) {
+      List<RecordFieldPlan> fields = new ArrayList<>();
+      List<FieldDescriptor> descriptors = container == RecordLayout.RECORD
+          ? DataRecord.getDescriptor().getFields()
+          : EngineDataRecord.getDescriptor().getFields();
+      for (FieldDescriptor field : descriptors) {
+        if (layout.getPresenceBit(container, field.getNumber()) >= 0
+            || layout.hasList(container, field.getNumber())) {
+          fields.add(new RecordFieldPlan(layout, container, field));
+        }
+      }
+      plans[container] = fields.toArray(new RecordFieldPlan[fields.size()]);
+    }
+    return plans;
+  }
+
+  boolean isRepeated() {
+    return listSlots != null;
+  }
+
+  /** Returns the number of values at {@code row}: the list length, or 0 or 1. */
+  int count(RecordColumns columns, int row) {
+    if (listSlots != null) {
+      return columns.getListLengthColumn(listId)[row];
+    }
+    return (columns.getPresenceColumn()[row] & (1L << presenceBit)) != 0 ? 1 : 0;
+  }
+
+  /** Returns the slot of the {@code index}th value. */
+  int slot(int index) {
+    return listSlots != null ? listSlots[index] : scalarSlot;
+  }
+}
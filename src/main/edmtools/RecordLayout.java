@@ -0,0 +1,323 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Ints;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.EngineDataRecord;
+
+/**
+ * Assigns each {@link DataRecord} value that a given EDM model can record to a primitive column.
+ *
+ * <p>A "container" is the {@link DataRecord} itself ({@link #RECORD}) or one of its engines
+ * ({@link #engine}).  Within a container, an optional field has a presence bit and one value
+ * slot; a repeated field is a list with a length and one value slot per position.  Slots index
+ * into either the int columns (int32 and enum fields) or the float columns.
+ *
+ * <p>Paths are resolved once per file, so the record decoder does no string handling.
+ */
+final class RecordLayout {
+  static final int RECORD = 0;
+  static final int MAX_ENGINES = 2;
+  static final int MAX_PRESENCE_BITS = 64;
+  private static final int NUM_CONTAINERS = MAX_ENGINES + 1;
+  private static final int MAX_FIELD_NUMBER = 32;
+
+  private static final Splitter PATH_SPLITTER = Splitter.on('.');
+  private static final Splitter INDEX_SPLITTER = Splitter.on(CharMatcher.anyOf("[]"));
+
+  /** Where a {@link Metric} writes its value. */
+  static final class Target {
+    final int container;
+    final int fieldNumber;
+    /** The repeated field index from the path, or -1 for an optional field. */
+    final int index;
+    final boolean isFloat;
+
+    private Target(int container, int fieldNumber, int index, boolean isFloat) {
+      this.container = container;
+      this.fieldNumber = fieldNumber;
+      this.index = index;
+      this.isFloat = isFloat;
+    }
+
+    boolean isRepeated() {
+      return index >= 0;
+    }
+  }
+
+  private final int presenceBit[][] = newTable();
+  private final int scalarSlot[][] = newTable();
+  private final int listId[][] = newTable();
+  private final boolean isFloat[][] = new boolean[NUM_CONTAINERS][MAX_FIELD_NUMBER];
+  private final List<int[]> listSlots = new ArrayList<>();
+  private final List<String> intSlotNames = new ArrayList<>();
+  private final List<String> floatSlotNames = new ArrayList<>();
+  private int numPresenceBits;
+  private int maxEngineCount;
+
+  /** Metrics in decode order, and the target of each. */
+  private final Metric metrics[];
+  private final Target targets[];
+  /** Maps a mask bit index to its index in {@link #metrics}, or -1. */
+  private final int bitToMetric[];
+
+  static int engine(int engineIndex) {
+    return engineIndex + 1;
+  }
+
+  static RecordLayout forMetadata(MetadataUtil metadataUtil) {
+    return new RecordLayout(Metrics.getBitToMetricMap(metadataUtil));
+  }
+
+  private RecordLayout(Map<Integer, Metric> handlers) {
+    Map<Metric, Integer> metricIndexes = new IdentityHashMap<>();
+    List<Metric> metricList = new ArrayList<>();
+    int maxBit = 0;
+    for (Map.Entry<Integer, Metric> entry : handlers.entrySet()) {
+      maxBit = Math.max(maxBit, entry.getKey());
+      if (!metricIndexes.containsKey(entry.getValue())) {
+        metricIndexes.put(entry.getValue(), metricList.size());
+        metricList.add(entry.getValue());
+      }
+    }
+    metrics = metricList.toArray(new Metric[metricList.size()]);
+    targets = new Target[metrics.length];
+    bitToMetric = new int[maxBit + 1];
+    Arrays.fill(bitToMetric, -1);
+    for (Map.Entry<Integer, Metric> entry : handlers.entrySet()) {
+      bitToMetric[entry.getKey()] = metricIndexes.get(entry.getValue());
+    }
+
+    // Size every list to its largest index before allocating slots.
+    int listLengths[][] = new int[NUM_CONTAINERS][MAX_FIELD_NUMBER];
+    for (int i = 0; i < metrics.length; ++i) {
+      if (!metrics[i].isUnsupported()) {
+        targets[i] = parsePath(metrics[i].getProtoPath());
+        if (targets[i].isRepeated()) {
+          listLengths[targets[i].container][targets[i].fieldNumber] = Math.max(
+              listLengths[targets[i].container][targets[i].fieldNumber], targets[i].index + 1);
+        }
+      }
+    }
+    for (Target target : targets) {
+      if (target == null) {
+        continue;
+      }
+      if (target.isRepeated()) {
+        addList(target.container, target.fieldNumber, target.isFloat,
+            listLengths[target.container][target.fieldNumber]);
+      } else {
+        addScalar(target.container, target.fieldNumber, target.isFloat);
+      }
+    }
+    // The decoder computes the EGT spread for every engine which records EGTs.
+    for (int container = engine(0); container < NUM_CONTAINERS; ++container) {
+      if (hasList(container, EngineDataRecord.EXHAUST_GAS_TEMPERATURE_FIELD_NUMBER)) {
+        addScalar(container,
+            EngineDataRecord.MAX_EXHAUST_GAS_TEMPERATURE_DIFFERENCE_FIELD_NUMBER, false);
+      }
+    }
+  }
+
+  private static int[][] newTable() {
+    int table[][] = new int[NUM_CONTAINERS][MAX_FIELD_NUMBER];
+    for (int row[] : table) {
+      Arrays.fill(row, -1);
+    }
+    return table;
+  }
+
+  private Target parsePath(String path) {
+    Iterator<String> components = PATH_SPLITTER.split(path).iterator();
+    int container = RECORD;
+    Descriptor descriptor = DataRecord.getDescriptor();
+    String component = components.next();
+    if (components.hasNext()) {
+      Iterator<String> engine = INDEX_SPLITTER.split(component).iterator();
+      Preconditions.checkArgument(engine.next().equals("engine"), "Unexpected path %s", path);
+      int engineIndex = Integer.parseInt(engine.next());
+      Preconditions.checkArgument(engineIndex < MAX_ENGINES, "Too many engines in %s", path);
+      maxEngineCount = Math.max(maxEngineCount, engineIndex + 1);
+      container = engine(engineIndex);
+      descriptor = EngineDataRecord.getDescriptor();
+      component = components.next();
+    }
+    Iterator<String> subcomponents = INDEX_SPLITTER.split(component).iterator();
+    FieldDescriptor field = descriptor.findFieldByName(subcomponents.next());
+    Preconditions.checkArgument(field != null, "Unknown field in %s", path);
+    int index = subcomponents.hasNext() ? Integer.parseInt(subcomponents.next()) : -1;
+    Preconditions.checkArgument(field.isRepeated() == (index >= 0), "Bad index in %s", path);
+    return new Target(container, field.getNumber(), index, field.getJavaType() == JavaType.FLOAT);
+  }
+
+  private void addScalar(int container, int fieldNumber, boolean isFloat) {
+    if (presenceBit[container][fieldNumber] >= 0) {
+      return;
+    }
+    Preconditions.checkState(numPresenceBits < MAX_PRESENCE_BITS, "Too many optional fields");
+    presenceBit[container][fieldNumber] = numPresenceBits++;
+    scalarSlot[container][fieldNumber] = newSlot(isFloat, fieldName(container, fieldNumber, -1));
+    this.isFloat[container][fieldNumber] = isFloat;
+  }
+
+  private void addList(int container, int fieldNumber, boolean isFloat, int length) {
+    if (listId[container][fieldNumber] >= 0) {
+      return;
+    }
+    int slots[] = new int[length];
+    for (int i = 0; i < length; ++i) {
+      slots[i] = newSlot(isFloat, fieldName(container, fieldNumber, i));
+    }
+    listId[container][fieldNumber] = listSlots.size();
+    listSlots.add(slots);
+    this.isFloat[container][fieldNumber] = isFloat;
+  }
+
+  private int newSlot(boolean isFloat, String name) {
+    List<String> names = isFloat ? floatSlotNames : intSlotNames;
+    names.add(name);
+    return names.size() - 1;
+  }
+
+  private static String fieldName(int container, int fieldNumber, int index) {
+    Descriptor descriptor = container == RECORD
+        ? DataRecord.getDescriptor() : EngineDataRecord.getDescriptor();
+    String name = descriptor.findFieldByNumber(fieldNumber).getName();
+    if (index >= 0) {
+      name += "[" + index + "]";
+    }
+    return container == RECORD ? name : "engine[" + (container - 1) + "]." + name;
+  }
+
+  int getNumIntSlots() {
+    return intSlotNames.size();
+  }
+
+  int getNumFloatSlots() {
+    return floatSlotNames.size();
+  }
+
+  int getNumLists() {
+    return listSlots.size();
+  }
+
+  /** The number of engines which the decoder may create. */
+  int getMaxEngineCount() {
+    return maxEngineCount;
+  }
+
+  /** Returns the presence bit of an optional field, or -1 if this model never records it. */
+  int getPresenceBit(int container, int fieldNumber) {
+    return presenceBit[container][fieldNumber];
+  }
+
+  int getScalarSlot(int container, int fieldNumber) {
+    return scalarSlot[container][fieldNumber];
+  }
+
+  boolean hasList(int container, int fieldNumber) {
+    return listId[container][fieldNumber] >= 0;
+  }
+
+  /** Returns the list id of a repeated field, or -1 if this model never records it. */
+  int getListId(int container, int fieldNumber) {
+    return listId[container][fieldNumber];
+  }
+
+  /** Returns the value slot of the given position in a list. */
+  int getListSlot(int listId, int position) {
+    return listSlots.get(listId)[position];
+  }
+
+  int getListCapacity(int listId) {
+    return listSlots.get(listId).length;
+  }
+
+  boolean isFloat(int container, int fieldNumber) {
+    return isFloat[container][fieldNumber];
+  }
+
+  String getIntSlotName(int slot) {
+    return intSlotNames.get(slot);
+  }
+
+  String getFloatSlotName(int slot) {
+    return floatSlotNames.get(slot);
+  }
+
+  /**
+   * Describes where each field is stored: for each field, in container and field number order,
+   * its container, field number, type (1 for float), and then either its presence bit and
+   * value slot, or -1, its list id, the list's capacity and its slots.  Layouts with equal
+   * schemas store every value in the same column.
+   */
+  int[] getSchema() {
+    List<Integer> schema = new ArrayList<>();
+    for (int container = 0; container < NUM_CONTAINERS; ++container) {
+      for (int fieldNumber = 0; fieldNumber < MAX_FIELD_NUMBER; ++fieldNumber) {
+        int bit = presenceBit[container][fieldNumber];
+        int list = listId[container][fieldNumber];
+        if (bit < 0 && list < 0) {
+          continue;
+        }
+        schema.addAll(Ints.asList(
+            container, fieldNumber, isFloat[container][fieldNumber] ? 1 : 0));
+        if (bit >= 0) {
+          schema.addAll(Ints.asList(bit, scalarSlot[container][fieldNumber]));
+        } else {
+          int slots[] = listSlots.get(list);
+          schema.addAll(Ints.asList(-1, list, slots.length));
+          schema.addAll(Ints.asList(slots));
+        }
+      }
+    }
+    return Ints.toArray(schema);
+  }
+
+  int getNumMetrics() {
+    return metrics.length;
+  }
+
+  Metric getMetric(int metricIndex) {
+    return metrics[metricIndex];
+  }
+
+  /** Returns the target of a metric, or null if the metric is unsupported. */
+  Target getTarget(int metricIndex) {
+    return targets[metricIndex];
+  }
+
+  /** Returns the index of the metric for a mask bit, or -1 if no metric uses the bit. */
+  int getMetricIndexForBit(int bitIndex) {
+    return bitIndex < bitToMetric.length ? bitToMetric[bitIndex] : -1;
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/**
+ * A decoded JPI file whose flights are held in memory up to a budget, after which they are
+ * spilled to a temporary file as length-delimited {@link Flight} protos and paged back in on
+ * access.  Spilled flights are not cached; each {@link #getFlight} call parses them anew.
+ *
+ * <p>The budget is measured in serialized bytes, which understates the heap footprint of a
+ * parsed proto by a small constant factor.
+ *
+ * <p>Instances must be closed to delete the spill file.
+ */
+public class SpillableJpiFile implements Closeable {
+  private static final Logger logger = Logger.getLogger(SpillableJpiFile.class.getName());
+
+  private final long memoryBudgetBytes;
+  private Metadata metadata;
+
+  /** Flights in file order; null for flights which were spilled. */
+  private final List<Flight> flights = new ArrayList<>();
+  /** Offset of each spilled flight's message bytes (after the length prefix), or -1. */
+  private final List<Long> spillOffsets = new ArrayList<>();
+  private final List<Integer> spillLengths = new ArrayList<>();
+
+  private long inMemoryBytes;
+  private File spillFile;
+  private OutputStream spillStream;
+  private long spillFileLength;
+  private RandomAccessFile spillReader;
+  private boolean closed;
+
+  SpillableJpiFile(long memoryBudgetBytes) {
+    this.memoryBudgetBytes = memoryBudgetBytes;
+  }
+
+  void setMetadata(Metadata metadata) {
+    this.metadata = metadata;
+  }
+
+  void addFlight(Flight flight) throws IOException {
+    Preconditions.checkState(spillReader == null, "Flights may not be added after reading");
+    int size = flight.getSerializedSize();
+    if (spillStream == null && inMemoryBytes + size <= memoryBudgetBytes) {
+      flights.add(flight);
+      spillOffsets.add(-1L);
+      spillLengths.add(0);
+      inMemoryBytes += size;
+      return;
+    }
+    if (spillStream == null) {
+      // Deleted by close(); deleteOnExit() would hold every path until exit in a long-lived JVM.
+      spillFile = File.createTempFile("edmtools", ".spill");
+      spillStream = new BufferedOutputStream(new FileOutputStream(spillFile));
+      logger.fine(String.format("Memory budget of %d bytes exceeded; spilling to %s",
+          memoryBudgetBytes, spillFile));
+    }
+    flight.writeDelimitedTo(spillStream);
+    spillFileLength += CodedOutputStream.computeUInt32SizeNoTag(size);
+    flights.add(null);
+    spillOffsets.add(spillFileLength);
+    spillLengths.add(size);
+    spillFileLength += size;
+  }
+
+  public Metadata getMetadata() {
+    return metadata;
+  }
+
+  public int getFlightCount() {
+    return flights.size();
+  }
+
+  /** Returns true if the flight at {@code index} lives in the spill file rather than the heap. */
+  public boolean isSpilled(int index) {
+    return flights.get(index) == null;
+  }
+
+  /** Returns the flight at {@code index}, reading it back from the spill file if necessary. */
+  public synchronized Flight getFlight(int index) throws IOException {
+    Flight flight = flights.get(index);
+    if (flight != null) {
+      return flight;
+    }
+    if (spillReader == null) {
+      spillStream.close();
+      spillReader = new RandomAccessFile(spillFile, "r");
+    }
+    byte buffer[] = new byte[spillLengths.get(index)];
+    spillReader.seek(spillOffsets.get(index));
+    spillReader.readFully(buffer);
+    return Flight.parseFrom(CodedInputStream.newInstance(buffer));
+  }
+
+  /**
+   * Returns a view of the flights.  Each access to a spilled flight reads it from disk; an
+   * {@link IOException} is rethrown as an {@link IllegalStateException}.
+   */
+  public List<Flight> getFlightList() {
+    return new AbstractList<Flight>() {
+      @Override
+      public Flight get(int index) {
+        try {
+          return getFlight(index);
+        } catch (IOException e) {
+          throw new IllegalStateException("Unable to read spilled flight " + index, e);
+        }
+      }
+
+      @Override
+      public int size() {
+        return getFlightCount();
+      }
+    };
+  }
+
+  /** Materializes the entire file on the heap, defeating the memory budget. */
+  public JpiFile toJpiFile() throws IOException {
+    JpiFile.Builder builder = JpiFile.newBuilder().setMetadata(metadata);
+    for (int i = 0; i < getFlightCount(); ++i) {
+      builder.addFlight(getFlight(i));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (spillStream != null) {
+      spillStream.close();
+    }
+    if (spillReader != null) {
+      spillReader.close();
+    }
+    if (spillFile != null && !spillFile.delete()) {
+      logger.warning("Unable to delete spill file " + spillFile);
+    }
+  }
+}
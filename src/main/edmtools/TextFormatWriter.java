@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.TextFormat;
+
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+/**
+ * Streams decoded flights in the protocol buffer text format, writing each record as it is
+ * decoded.  The output of one JPI file is exactly {@link JpiFile#toString()}.
+ *
+ * <p>Headers and metadata are printed with {@link TextFormat}; records are encoded by hand from
+ * the decoder's columns.
+ */
+public final class TextFormatWriter implements JpiDecoder.FlightVisitor {
+  private static final String INDENT = "  ";
+
+  private final Writer out;
+  private final StringBuilder block = new StringBuilder(2048);
+  private RecordLayout layout;
+  /** Indexed by container. */
+  private RecordFieldPlan plans[][];
+
+  /** {@code out} should be buffered; the writer does not flush or close it. */
+  public TextFormatWriter(Writer out) {
+    this.out = out;
+  }
+
+  @Override
+  public void visitMetadata(Metadata metadata) throws IOException {
+    out.write("metadata {\n");
+    writeIndented(metadata.toString());
+    out.write("}\n");
+  }
+
+  @Override
+  public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+    // Flight.data is field 5 of 8, so the header is printed in two parts around it.
+    Flight.Builder head = header.toBuilder()
+        .clearHeaderLength()
+        .clearDataLength()
+        .clearParseWarning();
+    Flight.Builder tail = Flight.newBuilder().addAllParseWarning(header.getParseWarningList());
+    if (header.hasHeaderLength()) {
+      tail.setHeaderLength(header.getHeaderLength());
+    }
+    if (header.hasDataLength()) {
+      tail.setDataLength(header.getDataLength());
+    }
+
+    out.write("flight {\n");
+    writeIndented(head.build().toString());
+    RecordColumns columns = records.getColumns();
+    if (columns.getLayout() != layout) {
+      layout = columns.getLayout();
+      plans = RecordFieldPlan.forLayout(layout);
+    }
+    byte engineCounts[] = columns.getEngineCountColumn();
+    for (int row = 0; row < columns.size(); ++row) {
+      block.setLength(0);
+      block.append("  data {\n");
+      appendFields(columns, plans[RecordLayout.RECORD], row, "    ");
+      for (int engine = 0; engine < engineCounts[row]; ++engine) {
+        block.append("    engine {\n");
+        appendFields(columns, plans[RecordLayout.engine(engine)], row, "      ");
+        block.append("    }\n");
+      }
+      if (columns.hasWarnings()) {
+        for (String warning : columns.getWarnings(row)) {
+          block.append("    parse_warning: \"")
+              .append(TextFormat.escapeBytes(ByteString.copyFromUtf8(warning)))
+              .append("\"\n");
+        }
+      }
+      block.append("  }\n");
+      out.append(block);
+    }
+    writeIndented(tail.build().toString());
+    out.write("}\n");
+  }
+
+  private void appendFields(
+      RecordColumns columns, RecordFieldPlan fields[], int row, String indent) {
+    for (RecordFieldPlan field : fields) {
+      int count = field.count(columns, row);
+      for (int i = 0; i < count; ++i) {
+        int slot = field.slot(i);
+        block.append(indent).append(field.name).append(": ");
+        if (field.isFloat) {
+          Decimals.appendFloat(block, columns.getFloatColumn(slot)[row]);
+        } else if (field.isEnum) {
+          int value = columns.getIntColumn(slot)[row];
+          Mark mark = Mark.valueOf(value);
+          if (mark == null) {
+            block.append(value);
+          } else {
+            block.append(mark.name());
+          }
+        } else {
+          block.append(columns.getIntColumn(slot)[row]);
+        }
+        block.append('\n');
+      }
+    }
+  }
+
+  /** Writes each line of a {@link TextFormat} message one level deeper. */
+  private void writeIndented(String text) throws IOException {
+    int start = 0;
+    while (start < text.length()) {
+      int end = text.indexOf('\n', start) + 1;
+      out.write(INDENT);
+      out.write(text, start, end - start);
+      start = end;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edmtools;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/** Creates the executors of the long-running services, which block a thread per task. */
+final class VirtualThreads {
+  private static final Logger logger = Logger.getLogger(VirtualThreads.class.getName());
+
+  private VirtualThreads() {}
+
+  /**
+   * Returns an executor running each task on a new virtual thread, found by reflection so that
+   * the tools still run on Java 16 to 20, which get a fixed pool of {@code maxThreads} instead.
+   */
+  static ExecutorService newExecutor(int maxThreads) {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      logger.fine("Virtual threads are unavailable; using a pool of " + maxThreads);
+      return Executors.newFixedThreadPool(maxThreads);
+    }
+  }
+}
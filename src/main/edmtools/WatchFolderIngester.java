@@ -0,0 +1,250 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Watches a directory for JPI files (plain, gzip or zip, as read by {@link JpiArchiveReader})
+ * and passes each to a {@link JpiArchiveReader.Visitor}, the sink, once it has stopped changing.
+ *
+ * <p>A file is ready when its size and modification time have not changed for the quiet
+ * period, so files still being copied in are left alone.  Each file is then read on its own
+ * thread: a virtual thread when the JVM has them (Java 21 and later), else a pooled one.  At
+ * most {@code maxConcurrency} files are read at once.  Afterwards the file is moved to the
+ * {@code done} directory, or to the {@code failed} directory if the sink threw, renamed as
+ * {@link FileNames#moveToUnusedName} does if a file of the same name was moved there before.
+ *
+ * <p>Files already in the directory are picked up when watching starts.
+ */
+public final class WatchFolderIngester implements Closeable {
+  private static final Logger logger = Logger.getLogger(WatchFolderIngester.class.getName());
+
+  /** The state of a file seen but not yet ready. */
+  private static final class Pending {
+    final long length;
+    final long lastModified;
+    final long seenNanos;
+
+    Pending(long length, long lastModified, long seenNanos) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.seenNanos = seenNanos;
+    }
+  }
+
+  private final File directory;
+  private final File doneDirectory;
+  private final File failedDirectory;
+  private final long quietNanos;
+  private final JpiArchiveReader.Visitor sink;
+  private final Semaphore permits;
+  private final ExecutorService executor;
+  private final WatchService watchService;
+
+  /** Touched only by the thread in {@link #run}. */
+  private final Map<File, Pending> pending = new HashMap<>();
+  private final Set<File> inFlight = new HashSet<>();
+  private final AtomicInteger numProcessed = new AtomicInteger();
+  private final AtomicInteger numFailed = new AtomicInteger();
+
+  /**
+   * Creates an ingester for {@code directory}.  Processed files are moved to the
+   * {@code done} and {@code failed} subdirectories, which are created if needed.
+   */
+  public WatchFolderIngester(File directory, long quietMillis, int maxConcurrency,
+      JpiArchiveReader.Visitor sink) throws IOException {
+    Preconditions.checkArgument(directory.isDirectory(), "%s is not a directory", directory);
+    Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+    this.directory = directory;
+    this.doneDirectory = new File(directory, "done");
+    this.failedDirectory = new File(directory, "failed");
+    Files.createDirectories(doneDirectory.toPath());
+    Files.createDirectories(failedDirectory.toPath());
+    this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+    this.sink = sink;
+    this.permits = new Semaphore(maxConcurrency);
+    this.executor = VirtualThreads.newExecutor(maxConcurrency);
+    this.watchService = directory.toPath().getFileSystem().newWatchService();
+    directory.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+  }
+
+  /** The number of files read successfully. */
+  public int getProcessedCount() {
+    return numProcessed.get();
+  }
+
+  /** The number of files moved to the {@code failed} directory. */
+  public int getFailedCount() {
+    return numFailed.get();
+  }
+
+  /** Watches the directory until {@link #close} is called or the thread is interrupted. */
+  public void run() throws IOException {
+    scan();
+    long pollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(10), quietNanos / 4);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = watchService.poll(pollNanos, TimeUnit.NANOSECONDS);
+        if (key != null) {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+              scan();
+            } else {
+              see(directory.toPath().resolve((Path) event.context()).toFile());
+            }
+          }
+          key.reset();
+        }
+        dispatchReadyFiles();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // Closed; stop watching.
+    }
+  }
+
+  /** Stops watching, and waits for the files being read to finish. */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted waiting for files to be read", e);
+    }
+  }
+
+  private void scan() {
+    File children[] = directory.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        see(child);
+      }
+    }
+  }
+
+  private void see(File file) {
+    if (!file.isFile() || !JpiArchiveReader.isJpiEntryName(file.getName())) {
+      return;
+    }
+    synchronized (inFlight) {
+      if (inFlight.contains(file)) {
+        return;
+      }
+    }
+    Pending previous = pending.get(file);
+    if (previous == null
+        || previous.length != file.length() || previous.lastModified != file.lastModified()) {
+      pending.put(file, new Pending(file.length(), file.lastModified(), System.nanoTime()));
+    }
+  }
+
+  private void dispatchReadyFiles() {
+    long now = System.nanoTime();
+    for (Iterator<Map.Entry<File, Pending>> it = pending.entrySet().iterator(); it.hasNext();) {
+      Map.Entry<File, Pending> entry = it.next();
+      final File file = entry.getKey();
+      Pending state = entry.getValue();
+      if (!file.exists()) {
+        it.remove();
+      } else if (state.length != file.length() || state.lastModified != file.lastModified()) {
+        entry.setValue(new Pending(file.length(), file.lastModified(), now));
+      } else if (now - state.seenNanos >= quietNanos) {
+        it.remove();
+        synchronized (inFlight) {
+          inFlight.add(file);
+        }
+        try {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              process(file);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          // Closed while dispatching; the file stays for the next run.
+          synchronized (inFlight) {
+            inFlight.remove(file);
+          }
+          return;
+        }
+      }
+    }
+  }
+
+  private void process(File file) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    try {
+      boolean succeeded;
+      try {
+        JpiArchiveReader.read(file.getPath(), sink);
+        succeeded = true;
+      } catch (IOException | RuntimeException e) {
+        logger.log(Level.WARNING, "Unable to read " + file, e);
+        succeeded = false;
+      }
+      File target = succeeded ? doneDirectory : failedDirectory;
+      try {
+        FileNames.moveToUnusedName(file, target, file.getName());
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Unable to move " + file + " to " + target, e);
+      }
+      (succeeded ? numProcessed : numFailed).incrementAndGet();
+      logger.fine((succeeded ? "Read " : "Failed ") + file);
+    } finally {
+      permits.release();
+      synchronized (inFlight) {
+        inFlight.remove(file);
+      }
+    }
+  }
+}
@@ -16,8 +16,14 @@
 
 package edmtools.tools;
 
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -50,21 +56,32 @@ abstract class CommandLineTool {
   }
 
   public static void initAndRun(String rawArgs[], CommandLineTool instance) throws Exception {
+    if (!parseArguments(rawArgs, instance, System.out)) {
+      System.exit(1);
+    }
+    setVerbosity(instance.verbosity);
+    instance.run();
+  }
+
+  /**
+   * Parses arguments into {@code instance}.  Returns false, having printed usage to
+   * {@code out}, if they are malformed or help was requested.
+   */
+  static boolean parseArguments(String rawArgs[], CommandLineTool instance, PrintStream out) {
     OptionHandlerRegistry.getRegistry().registerHandler(Integer.class, MultiIntegerOptionHandler.class);
     CmdLineParser parser = new CmdLineParser(instance);
     try {
       parser.parseArgument(rawArgs);
-      setVerbosity(instance.verbosity);
     } catch (CmdLineException e) {
-      System.out.println(e);
-      parser.printUsage(System.out);
-      System.exit(1);
+      out.println(e);
+      parser.printUsage(out);
+      return false;
     }
     if (instance.showHelp) {
-      parser.printUsage(System.out);
-      System.exit(1);
+      parser.printUsage(out);
+      return false;
     }
-    instance.run();
+    return true;
   }
 
   public static void setVerbosity(int verbosity) {
@@ -90,5 +107,44 @@ abstract class CommandLineTool {
     }
   }
 
+  /** Accepts regular files. */
+  static final FileFilter FILES = new FileFilter() {
+    @Override
+    public boolean accept(File file) {
+      return file.isFile();
+    }
+  };
+
+  /** Accepts regular files named {@code *.jpi}, in any case. */
+  static final FileFilter JPI_FILES = new FileFilter() {
+    @Override
+    public boolean accept(File file) {
+      return file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".jpi");
+    }
+  };
+
+  /**
+   * Expands {@code args}, each a file or directory, into files: a directory is replaced by
+   * those of its children, in sorted order, which {@code filter} accepts.  Subdirectories are
+   * not searched.  Throws if a directory cannot be listed.
+   */
+  static List<File> expandDirectories(List<String> args, FileFilter filter) throws IOException {
+    List<File> files = new ArrayList<>();
+    for (String arg : args) {
+      File file = new File(arg);
+      if (file.isDirectory()) {
+        File children[] = file.listFiles(filter);
+        if (children == null) {
+          throw new IOException("Unable to list " + file);
+        }
+        Arrays.sort(children);
+        files.addAll(Arrays.asList(children));
+      } else {
+        files.add(file);
+      }
+    }
+    return files;
+  }
+
   public abstract void run() throws Exception;
 }
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.EzSaveCsvReader;
+import edmtools.Proto.JpiFile;
+
+/**
+ * Tool which imports EZSave CSV files, or directories of them, and writes each as a
+ * length-delimited {@link JpiFile} holding one flight, in argument order.
+ */
+public class EzSaveImport extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(EzSaveImport.class.getName());
+
+  @Option(name = "-output", usage="file to write length-delimited JpiFile protos to",
+      aliases="--output", required=true)
+  private File output;
+
+  @Option(name = "-threads", usage="threads reading csv files", aliases="--threads")
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new EzSaveImport());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(!args.isEmpty(), "Specify CSV files or directories");
+    List<File> files = expandDirectories(args, FILES);
+
+    final int flights[] = new int[1];
+    try (final OutputStream out =
+        new BufferedOutputStream(new FileOutputStream(output), 1 << 16)) {
+      EzSaveCsvReader.readAll(files, numThreads, new EzSaveCsvReader.Visitor() {
+        @Override
+        public void visit(File file, JpiFile jpiFile) throws IOException {
+          jpiFile.writeDelimitedTo(out);
+          flights[0]++;
+        }
+      });
+    }
+    logger.info(String.format("Imported %d files to %s", flights[0], output));
+  }
+}
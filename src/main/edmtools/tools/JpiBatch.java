@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.BatchDecoder;
+import edmtools.BatchDecoder.Summary;
+import edmtools.CheckpointJournal;
+import edmtools.JpiInputStream;
+
+/**
+ * Tool which decodes many JPI files, given as files, directories or glob patterns, in
+ * parallel.  Each input is written to its own file in {@code -outputDir}, or all inputs are
+ * written in order to {@code -output} (default: standard output).  Files which fail to decode
+ * are reported at the end and make the tool exit with status 1.  With {@code -journal}, each
+ * flight is written to its own file and completed flights are journaled, so that a killed
+ * run resumes where it stopped.  See {@link BatchDecoder}.
+ */
+public class JpiBatch extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiBatch.class.getName());
+
+  @Option(name = "-outputDir", usage="directory for one output file per input",
+      aliases="--outputDir", forbids="-output")
+  private File outputDirectory;
+
+  @Option(name = "-output", usage="file for the merged output of all inputs (default: stdout)",
+      aliases="--output", forbids="-outputDir")
+  private File output;
+
+  @Option(name = "-journal", usage="checkpoint journal; with -outputDir, writes one file per "
+      + "flight and resumes after the flights already journaled", aliases="--journal")
+  private File journalFile;
+
+  @Option(name = "-format", usage="output format: text, json or delimited", aliases="--format")
+  private OutputFormat format = OutputFormat.DELIMITED;
+
+  @Option(name = "-threads", usage="threads decoding files", aliases="--threads")
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiBatch());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(!args.isEmpty(), "Specify JPI files, directories or globs");
+    List<File> inputs = BatchDecoder.expand(args);
+    BatchDecoder batch = new BatchDecoder(new BatchDecoder.Decoder() {
+      @Override
+      public void decode(String name, JpiInputStream inputStream, OutputStream out)
+          throws IOException {
+        if (format == OutputFormat.TEXT) {
+          out.write(String.format("# %s\n", name).getBytes(StandardCharsets.UTF_8));
+        }
+        format.decode(inputStream, out);
+      }
+    }, numThreads);
+
+    Summary summary;
+    if (journalFile != null) {
+      Preconditions.checkArgument(outputDirectory != null, "-journal requires -outputDir");
+      try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+        summary = batch.decodeFlightsToDirectory(
+            inputs, outputDirectory, "." + format.getExtension(), journal);
+      }
+    } else if (outputDirectory != null) {
+      summary = batch.decodeToDirectory(inputs, outputDirectory, "." + format.getExtension());
+    } else {
+      try (OutputStream out = new BufferedOutputStream(
+          output == null ? System.out : new FileOutputStream(output), 1 << 16)) {
+        summary = batch.decodeToStream(inputs, out);
+      }
+    }
+    for (Map.Entry<String, String> failure : summary.getFailures().entrySet()) {
+      logger.warning(String.format("Failed %s: %s", failure.getKey(), failure.getValue()));
+    }
+    logger.info(summary.toString());
+    if (!summary.getFailures().isEmpty()) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import edmtools.CommandDaemon;
+
+/**
+ * Long-running tool which runs {@link JpiDecode} for clients of a Unix domain socket, so that
+ * scripted calls share one warm JVM.  {@code scripts/JpiDecode.sh} forwards to the daemon when
+ * it is running.  See {@link CommandDaemon}.
+ */
+public class JpiDaemon extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiDaemon.class.getName());
+
+  @Option(name = "-socket", usage="socket file, in a directory private to this user "
+      + "(default: $EDMTOOLS_SOCKET, else $XDG_RUNTIME_DIR/edmtools/decode.sock, else "
+      + "/tmp/edmtools-$USER/decode.sock)", aliases="--socket")
+  private File socketFile = getDefaultSocketFile();
+
+  @Option(name = "-threads", usage="maximum calls run at once", aliases="--threads")
+  private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+  /** The socket {@code scripts/JpiDecode.sh} looks for. */
+  private static File getDefaultSocketFile() {
+    String socket = System.getenv("EDMTOOLS_SOCKET");
+    if (socket != null && !socket.isEmpty()) {
+      return new File(socket);
+    }
+    String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+    File directory = runtimeDirectory != null && !runtimeDirectory.isEmpty()
+        ? new File(runtimeDirectory, "edmtools")
+        : new File("/tmp", "edmtools-" + System.getProperty("user.name"));
+    return new File(directory, "decode.sock");
+  }
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiDaemon());
+  }
+
+  @Override
+  public void run() throws Exception {
+    final CommandDaemon daemon = new CommandDaemon(socketFile, new CommandDaemon.Command() {
+      @Override
+      public int run(File workingDirectory, List<String> args, PrintStream out,
+          PrintStream err) throws Exception {
+        JpiDecode decode = new JpiDecode(out, workingDirectory);
+        if (!CommandLineTool.parseArguments(
+            args.toArray(new String[args.size()]), decode, out)) {
+          return 1;
+        }
+        decode.run();
+        return 0;
+      }
+    }, maxConcurrency);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        try {
+          daemon.close();
+        } catch (IOException e) {
+          System.err.println(e);
+        }
+      }
+    });
+    logger.info("Listening on " + socketFile);
+    daemon.run();
+  }
+}
@@ -16,21 +16,40 @@
 
 package edmtools.tools;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
 import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
 import org.kohsuke.args4j.Option;
 
-import com.google.gson.*;
 import com.google.common.base.Preconditions;
-import com.google.protobuf.util.JsonFormat;
 
+import edmtools.DelimitedJpiWriter;
+import edmtools.EzSaveCsvExporter;
+import edmtools.JpiArchiveReader;
 import edmtools.JpiDecoder;
 import edmtools.JpiDecoder.JpiDecoderConfiguration;
 import edmtools.JpiInputStream;
+import edmtools.JsonLinesWriter;
 import edmtools.Proto.Flight;
 import edmtools.Proto.JpiFile;
+import edmtools.TextFormatWriter;
 
 /**
  * Demo tool which decodes and prints a flight from a JPI file.
+ *
+ * <p>The file may also be gzip-compressed or a zip of JPI files; each is decoded in turn.
+ *
+ * <p>Output is streamed as each record is decoded: as text-format protocol buffers (see
+ * {@link TextFormatWriter}), as JSON Lines with {@code --json} (see {@link JsonLinesWriter}), or
+ * as length-delimited protocol buffers with {@code --format=delimited} (see
+ * {@link DelimitedJpiWriter}).  With {@code --format=csv}, each flight is written to its own
+ * EZSave-compatible CSV file; see {@link EzSaveCsvExporter}.
  */
 public class JpiDecode extends CommandLineTool {
   @Option(name = "-list", usage="list available flights", aliases="--list")
@@ -40,10 +59,35 @@ public class JpiDecode extends CommandLineTool {
       aliases={"--flightNumber", "-flight", "--flight"})
   private int flightNumber = -1;
 
-  @Option(name = "-j", usage="output in json format",
+  @Option(name = "-j", usage="output in json lines format",
       aliases="--json")
   private boolean outputJson = false;
 
+  @Option(name = "-format", usage="output format: text, json, delimited or csv",
+      aliases="--format")
+  private String format = "text";
+
+  @Option(name = "-outputDir", usage="directory for csv files (default: current directory)",
+      aliases="--outputDir")
+  private File outputDirectory = new File(".");
+
+  @Option(name = "-threads", usage="threads writing csv files", aliases="--threads")
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  private final PrintStream stdout;
+  /** The directory relative paths are resolved against, or null for the JVM's. */
+  private final File workingDirectory;
+
+  public JpiDecode() {
+    this(System.out, null);
+  }
+
+  /** Creates an instance writing to {@code stdout}, as {@link JpiDaemon} runs it per call. */
+  JpiDecode(PrintStream stdout, File workingDirectory) {
+    this.stdout = stdout;
+    this.workingDirectory = workingDirectory;
+  }
+
   public static void main(String args[]) throws Exception {
     CommandLineTool.initAndRun(args, new JpiDecode());
   }
@@ -51,32 +95,90 @@ public class JpiDecode extends CommandLineTool {
   @Override
   public void run() throws Exception {
     Preconditions.checkArgument(!args.isEmpty(), "Specify a .JPI filename");
-    JpiInputStream inputStream = new JpiInputStream(args.get(0));
-    if (listAllFlights) {
-      JpiFile jpiFile = JpiDecoder.decode(
-          inputStream,
-          JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build());
-      for (Flight flight : jpiFile.getFlightList()) {
-        System.out.printf("Flight number %4d at %s\n", flight.getFlightNumber(),
-            new DateTime(flight.getStartTimestamp() * 1000));
-      }
+    final String filename = resolve(new File(args.get(0))).getPath();
+    if (format.equalsIgnoreCase("csv")) {
+      writeCsv(filename);
       return;
     }
+    final OutputFormat outputFormat = outputJson ? OutputFormat.JSON : parseFormat(format);
+    final OutputStream out = new BufferedOutputStream(stdout, 1 << 16);
+    JpiArchiveReader.read(filename, new JpiArchiveReader.Visitor() {
+      @Override
+      public void visit(String name, JpiInputStream inputStream) throws IOException {
+        if (outputFormat == OutputFormat.DELIMITED) {
+          outputFormat.decode(inputStream, getConfiguration(), false, out);
+          return;
+        }
+        if (!name.equals(filename) && outputFormat == OutputFormat.TEXT) {
+          write(out, String.format("# %s\n", name));
+        }
+        if (listAllFlights) {
+          listFlights(inputStream, out);
+          return;
+        }
+        // A selected flight's metadata is held back until the flight is found.
+        int numFlights =
+            outputFormat.decode(inputStream, getConfiguration(), flightNumber != -1, out);
+        if (flightNumber != -1 && numFlights == 0) {
+          write(out, String.format("Flight number %d not found.\n", flightNumber));
+        } else if (outputFormat == OutputFormat.TEXT) {
+          write(out, "\n");
+        }
+      }
+    });
+    out.flush();
+  }
+
+  private static OutputFormat parseFormat(String name) {
+    for (OutputFormat format : OutputFormat.values()) {
+      if (format.name().equalsIgnoreCase(name)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Unknown format " + name + "; use text, json, delimited or csv");
+  }
+
+  private void writeCsv(String filename) throws IOException {
+    try (final EzSaveCsvExporter exporter =
+        new EzSaveCsvExporter(resolve(outputDirectory), LocalDate.now(), numThreads)) {
+      JpiArchiveReader.read(filename, new JpiArchiveReader.Visitor() {
+        @Override
+        public void visit(String name, JpiInputStream inputStream) throws IOException {
+          JpiDecoder.decode(inputStream, getConfiguration(), exporter);
+        }
+      });
+      for (File file : exporter.await()) {
+        stdout.println(file.getPath());
+      }
+    }
+  }
+
+  private File resolve(File file) {
+    return workingDirectory == null || file.isAbsolute()
+        ? file : new File(workingDirectory, file.getPath());
+  }
 
+  private JpiDecoderConfiguration getConfiguration() {
     JpiDecoderConfiguration.Builder configBuilder = JpiDecoderConfiguration.newBuilder();
+    if (listAllFlights) {
+      configBuilder.withFlightHeadersOnly();
+    }
     if (flightNumber != -1) {
       configBuilder.withExactFlightNumber(flightNumber);
     }
-    JpiFile jpiFile = JpiDecoder.decode(inputStream, configBuilder.build());
-    if (flightNumber != -1 && jpiFile.getFlightList().isEmpty()) {
-      System.out.printf("Flight number %d not found.\n", flightNumber);
-      return;
-    }
+    return configBuilder.build();
+  }
 
-    if (outputJson){
-      System.out.println(JsonFormat.printer().print(jpiFile));
-    } else {
-      System.out.println(jpiFile);
+  private void listFlights(JpiInputStream inputStream, OutputStream out) throws IOException {
+    JpiFile jpiFile = JpiDecoder.decode(inputStream, getConfiguration());
+    for (Flight flight : jpiFile.getFlightList()) {
+      write(out, String.format("Flight number %4d at %s\n", flight.getFlightNumber(),
+          new DateTime(flight.getStartTimestamp() * 1000)));
     }
   }
+
+  private static void write(OutputStream out, String text) throws IOException {
+    out.write(text.getBytes(StandardCharsets.UTF_8));
+  }
 }
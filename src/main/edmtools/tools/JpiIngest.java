@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.DelimitedJpiWriter;
+import edmtools.IncrementalIngester;
+
+/**
+ * Tool which decodes only the flights of JPI files, or directories of them, which are newer
+ * than the per-aircraft watermarks in a file, appends them to a {@link DelimitedJpiWriter}
+ * stream, and then advances the watermarks.  See {@link IncrementalIngester}.
+ */
+public class JpiIngest extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiIngest.class.getName());
+
+  @Option(name = "-watermarks", usage="file of per-aircraft watermarks, updated after ingest",
+      aliases="--watermarks", required=true)
+  private File watermarksFile;
+
+  @Option(name = "-output", usage="file to append length-delimited flights to",
+      aliases="--output", required=true)
+  private File output;
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiIngest());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(!args.isEmpty(), "Specify JPI files or directories");
+    List<File> files = expandDirectories(args, JPI_FILES);
+
+    IncrementalIngester ingester = IncrementalIngester.load(watermarksFile);
+    int flights = 0;
+    try (OutputStream out =
+        new BufferedOutputStream(new FileOutputStream(output, true), 1 << 16)) {
+      DelimitedJpiWriter writer = new DelimitedJpiWriter(out);
+      for (File file : files) {
+        flights += ingester.ingest(file, writer);
+        writer.finishFile();
+      }
+    }
+    // Watermarks advance only once the flights are safely written.
+    ingester.save(watermarksFile);
+    logger.info(String.format("Ingested %d new flights from %d files to %s",
+        flights, files.size(), output));
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.FileNames;
+import edmtools.JpiMerger;
+
+/**
+ * Tool which merges JPI files, or directories of them, into one archive per aircraft named
+ * {@code <registration>.jpi}, keeping one copy of each flight.  See {@link JpiMerger}.  Fails
+ * before writing anything if two registrations would share an archive name.
+ */
+public class JpiMerge extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiMerge.class.getName());
+
+  @Option(name = "-outputDir", usage="directory for the merged archives (default: .)",
+      aliases="--outputDir")
+  private File outputDirectory = new File(".");
+
+  @Option(name = "-keepLongest", usage="keep the longest of different flights sharing a number, "
+      + "rather than failing", aliases="--keepLongest")
+  private boolean keepLongest;
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiMerge());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(!args.isEmpty(), "Specify JPI files or directories");
+    List<File> files = expandDirectories(args, JPI_FILES);
+
+    JpiMerger merger = new JpiMerger(keepLongest);
+    for (File file : files) {
+      merger.add(file);
+    }
+    // Registrations which differ only in characters unsafe in file names, or in case, would
+    // otherwise overwrite each other's archive.  Conflicting flights are found here too, so
+    // that nothing is written if the merge fails.
+    Map<String, String> archiveNames = new HashMap<>();
+    for (String registration : merger.getRegistrations()) {
+      merger.getFlights(registration);
+      String previous = archiveNames.put(
+          getArchiveName(registration).toLowerCase(Locale.ROOT), registration);
+      Preconditions.checkArgument(previous == null,
+          "Registrations \"%s\" and \"%s\" would share the archive %s; merge them separately",
+          previous, registration, getArchiveName(registration));
+    }
+    for (String registration : merger.getRegistrations()) {
+      File output = new File(outputDirectory, getArchiveName(registration));
+      merger.write(registration, output);
+      System.out.println(output.getPath());
+    }
+    logger.info(String.format("Merged %d flights from %d files, skipping %d duplicates",
+        merger.getFingerprints().size(), files.size(), merger.getDuplicateCount()));
+  }
+
+  static String getArchiveName(String registration) {
+    return FileNames.forRegistration(registration) + ".jpi";
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import edmtools.BatchDecoder;
+import edmtools.DecodeServer;
+import edmtools.JpiDecoder;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiInputStream;
+import edmtools.JsonLinesWriter;
+
+/**
+ * Long-running tool which serves JPI decoding over HTTP, so that callers such as a web front
+ * end need not start a JVM per upload.  Uploads are decoded to JSON Lines (the default), text,
+ * length-delimited protos, or a summary: JSON Lines of the metadata and flight headers only.
+ * See {@link DecodeServer}.
+ */
+public class JpiServe extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiServe.class.getName());
+
+  @Option(name = "-port", usage="port to listen on", aliases="--port")
+  private int port = 8080;
+
+  @Option(name = "-bind", usage="address to listen on (default: all)", aliases="--bind")
+  private String bindAddress;
+
+  @Option(name = "-threads", usage="maximum uploads decoded at once", aliases="--threads")
+  private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+  @Option(name = "-queue", usage="maximum uploads waiting to be decoded", aliases="--queue")
+  private int maxQueued = 64;
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiServe());
+  }
+
+  @Override
+  public void run() throws Exception {
+    InetSocketAddress address = bindAddress == null
+        ? new InetSocketAddress(port) : new InetSocketAddress(bindAddress, port);
+    final DecodeServer server = new DecodeServer(address, maxConcurrency, maxQueued);
+    server.addFormat("json", "application/x-ndjson", newDecoder(OutputFormat.JSON));
+    server.addFormat("text", "text/plain; charset=utf-8", newDecoder(OutputFormat.TEXT));
+    server.addFormat("delimited", "application/octet-stream",
+        newDecoder(OutputFormat.DELIMITED));
+    server.addFormat("summary", "application/x-ndjson", new BatchDecoder.Decoder() {
+      @Override
+      public void decode(String name, JpiInputStream inputStream, OutputStream out)
+          throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JpiDecoder.decode(inputStream,
+            JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build(),
+            new JsonLinesWriter(writer));
+        writer.flush();
+      }
+    });
+    final CountDownLatch stopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        server.close();
+        stopped.countDown();
+      }
+    });
+    server.start();
+    logger.info("Listening on port " + server.getPort());
+    stopped.await();
+  }
+
+  private static BatchDecoder.Decoder newDecoder(final OutputFormat format) {
+    return new BatchDecoder.Decoder() {
+      @Override
+      public void decode(String name, JpiInputStream inputStream, OutputStream out)
+          throws IOException {
+        format.decode(inputStream, out);
+      }
+    };
+  }
+}
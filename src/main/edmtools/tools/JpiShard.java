@@ -0,0 +1,108 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.BatchDecoder;
+import edmtools.BatchDecoder.Summary;
+import edmtools.BatchShards;
+import edmtools.JpiInputStream;
+
+/**
+ * Tool which runs a {@link JpiBatch} job as independent shards, possibly on several machines
+ * sharing a filesystem.  See {@link BatchShards}.
+ *
+ * <ul>
+ * <li>{@code JpiShard -jobDir job -shards N plan <files, directories or globs>} writes the
+ *   shard manifests.
+ * <li>{@code JpiShard -jobDir job -shard I -outputDir out work} decodes shard I; run one
+ *   per shard, anywhere.
+ * <li>{@code JpiShard -jobDir job merge} reports the combined summary once all shards are done.
+ * </ul>
+ */
+public class JpiShard extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiShard.class.getName());
+
+  @Option(name = "-jobDir", usage="directory for manifests, summaries and markers",
+      aliases="--jobDir", required=true)
+  private File jobDirectory;
+
+  @Option(name = "-shards", usage="number of shards to plan", aliases="--shards")
+  private int numShards = 1;
+
+  @Option(name = "-shard", usage="shard to work on", aliases="--shard")
+  private int shard = -1;
+
+  @Option(name = "-outputDir", usage="directory for one output file per input",
+      aliases="--outputDir")
+  private File outputDirectory;
+
+  @Option(name = "-format", usage="output format: text, json or delimited", aliases="--format")
+  private OutputFormat format = OutputFormat.DELIMITED;
+
+  @Option(name = "-threads", usage="threads decoding files", aliases="--threads")
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiShard());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(!args.isEmpty(), "Specify plan, work or merge");
+    switch (args.get(0)) {
+      case "plan":
+        BatchShards.plan(BatchDecoder.expand(args.subList(1, args.size())), numShards,
+            jobDirectory);
+        break;
+      case "work":
+        Preconditions.checkArgument(shard >= 0, "Specify -shard");
+        Preconditions.checkArgument(outputDirectory != null, "Specify -outputDir");
+        BatchDecoder batch = new BatchDecoder(new BatchDecoder.Decoder() {
+          @Override
+          public void decode(String name, JpiInputStream inputStream, OutputStream out)
+              throws IOException {
+            format.decode(inputStream, out);
+          }
+        }, numThreads);
+        BatchShards.runShard(jobDirectory, shard, batch, outputDirectory,
+            "." + format.getExtension());
+        break;
+      case "merge":
+        Summary summary = BatchShards.mergeSummaries(jobDirectory);
+        for (Map.Entry<String, String> failure : summary.getFailures().entrySet()) {
+          logger.warning(String.format("Failed %s: %s", failure.getKey(), failure.getValue()));
+        }
+        System.out.println(summary);
+        if (!summary.getFailures().isEmpty()) {
+          System.exit(1);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown command " + args.get(0));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiFileLayout;
+import edmtools.JpiFileLayout.FlightRange;
+
+/**
+ * Tool which splits a JPI file into one standalone JPI file per flight, named
+ * {@code <input name>.<flight number>.jpi}.
+ *
+ * <p>The input's headers are decoded once; each output then gets a header block with the one
+ * {@code $D} line for its flight, and the flight's bytes are copied with
+ * {@link java.nio.channels.FileChannel#transferTo}.  Outputs are written concurrently.
+ */
+public class JpiSplit extends CommandLineTool {
+  private static final Logger logger = Logger.getLogger(JpiSplit.class.getName());
+
+  @Option(name = "-outputDir", usage="directory for the per-flight files (default: .)",
+      aliases="--outputDir")
+  private File outputDirectory = new File(".");
+
+  @Option(name = "-threads", usage="threads writing files", aliases="--threads")
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiSplit());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(args.size() == 1, "Specify an input .JPI filename");
+    File input = new File(args.get(0));
+    for (File file : split(input, outputDirectory, numThreads)) {
+      System.out.println(file.getPath());
+    }
+  }
+
+  /** Splits {@code input} and returns the files written, in flight order. */
+  static List<File> split(File input, File outputDirectory, int numThreads) throws IOException {
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be positive");
+    final JpiFileLayout layout = JpiFileLayout.read(input);
+    String baseName = Files.getNameWithoutExtension(input.getName());
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<File>> results = new ArrayList<>();
+      for (final FlightRange flight : layout.getFlights()) {
+        final File output =
+            new File(outputDirectory, baseName + "." + flight.getFlightNumber() + ".jpi");
+        results.add(executor.submit(new Callable<File>() {
+          @Override
+          public File call() throws IOException {
+            layout.write(ImmutableList.of(flight), null, output);
+            logger.fine("Wrote flight " + flight.getFlightNumber() + " to " + output);
+            return output;
+          }
+        }));
+      }
+      List<File> files = new ArrayList<>();
+      for (Future<File> result : results) {
+        files.add(result.get());
+      }
+      return files;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while splitting " + input, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Unable to split " + input, e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.kohsuke.args4j.Option;
+
+import com.google.common.base.Preconditions;
+
+import edmtools.FileNames;
+import edmtools.JpiArchiveReader;
+import edmtools.JpiInputStream;
+import edmtools.WatchFolderIngester;
+
+/**
+ * Long-running tool which watches a directory for JPI files and decodes each into its own
+ * output file, named after the input (with a {@code -2}, {@code -3}... suffix if taken), as
+ * JPI files arrive.  Read files are moved to the directory's {@code done} or {@code failed}
+ * subdirectory.  See {@link WatchFolderIngester}.
+ */
+public class JpiWatch extends CommandLineTool {
+  @Option(name = "-outputDir", usage="directory for decoded files", aliases="--outputDir",
+      required=true)
+  private File outputDirectory;
+
+  @Option(name = "-format", usage="output format: text, json or delimited", aliases="--format")
+  private OutputFormat format = OutputFormat.JSON;
+
+  @Option(name = "-quietMillis", usage="time a file must be unchanged before it is read",
+      aliases="--quietMillis")
+  private long quietMillis = 2000;
+
+  @Option(name = "-threads", usage="maximum files decoded at once", aliases="--threads")
+  private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+  /** Numbers temporary files, so that concurrent outputs of the same name never share one. */
+  private final AtomicInteger numTemporaries = new AtomicInteger();
+
+  public static void main(String args[]) throws Exception {
+    CommandLineTool.initAndRun(args, new JpiWatch());
+  }
+
+  @Override
+  public void run() throws Exception {
+    Preconditions.checkArgument(args.size() == 1, "Specify a directory to watch");
+    final WatchFolderIngester ingester = new WatchFolderIngester(
+        new File(args.get(0)), quietMillis, maxConcurrency, new JpiArchiveReader.Visitor() {
+          @Override
+          public void visit(String name, JpiInputStream inputStream) throws IOException {
+            write(name, inputStream);
+          }
+        });
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        try {
+          ingester.close();
+        } catch (IOException e) {
+          System.err.println(e);
+        }
+      }
+    });
+    ingester.run();
+  }
+
+  /**
+   * Decodes one JPI file to a temporary file, renamed into place once complete.  JPI files of
+   * the same name, such as entries of different zip files, get distinct outputs.
+   */
+  private void write(String name, JpiInputStream inputStream) throws IOException {
+    String outputName = new File(name).getName() + "." + format.getExtension();
+    File temporary = new File(outputDirectory,
+        outputName + "." + numTemporaries.incrementAndGet() + ".tmp");
+    try {
+      try (OutputStream out =
+          new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16)) {
+        format.decode(inputStream, out);
+      }
+      FileNames.moveToUnusedName(temporary, outputDirectory, outputName);
+    } finally {
+      temporary.delete();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import edmtools.DataRecordCursor;
+import edmtools.DelimitedJpiWriter;
+import edmtools.JpiDecoder;
+import edmtools.JpiDecoder.FlightVisitor;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiInputStream;
+import edmtools.JsonLinesWriter;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Metadata;
+import edmtools.TextFormatWriter;
+
+/** The streaming output formats of the tools which decode whole files. */
+enum OutputFormat {
+  TEXT, JSON, DELIMITED;
+
+  /** The suffix of files in this format. */
+  String getExtension() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /** Decodes every flight of a JPI file to {@code out}, which is flushed but not closed. */
+  void decode(JpiInputStream inputStream, OutputStream out) throws IOException {
+    decode(inputStream, JpiDecoderConfiguration.newBuilder().build(), false, out);
+  }
+
+  /**
+   * Decodes the flights {@code config} selects from a JPI file to {@code out}, which is flushed
+   * but not closed, and returns how many were written.  If {@code omitEmpty}, the metadata is
+   * held back until the first selected flight, so a file without one writes nothing.
+   */
+  int decode(JpiInputStream inputStream, JpiDecoderConfiguration config, boolean omitEmpty,
+      OutputStream out) throws IOException {
+    if (this == DELIMITED) {
+      DelimitedJpiWriter writer = new DelimitedJpiWriter(out);
+      int numFlights = decode(inputStream, config, omitEmpty, writer);
+      writer.finishFile();
+      out.flush();
+      return numFlights;
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    int numFlights = decode(inputStream, config, omitEmpty,
+        this == JSON ? new JsonLinesWriter(writer) : new TextFormatWriter(writer));
+    writer.flush();
+    return numFlights;
+  }
+
+  private static int decode(JpiInputStream inputStream, JpiDecoderConfiguration config,
+      final boolean omitEmpty, final FlightVisitor writer) throws IOException {
+    final Metadata pendingMetadata[] = new Metadata[1];
+    final int numFlights[] = new int[1];
+    JpiDecoder.decode(inputStream, config, new FlightVisitor() {
+      @Override
+      public void visitMetadata(Metadata metadata) throws IOException {
+        if (omitEmpty) {
+          pendingMetadata[0] = metadata;
+        } else {
+          writer.visitMetadata(metadata);
+        }
+      }
+
+      @Override
+      public void visitFlight(Flight header, DataRecordCursor records) throws IOException {
+        if (pendingMetadata[0] != null) {
+          writer.visitMetadata(pendingMetadata[0]);
+          pendingMetadata[0] = null;
+        }
+        numFlights[0]++;
+        writer.visitFlight(header, records);
+      }
+    });
+    return numFlights[0];
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.BatchDecoder.Summary;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+public class BatchDecoderTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  /** Writes the name and flight numbers of each file. */
+  private static final BatchDecoder.Decoder DECODER = new BatchDecoder.Decoder() {
+    @Override
+    public void decode(String name, JpiInputStream inputStream, OutputStream out)
+        throws IOException {
+      StringBuilder line = new StringBuilder(new File(name).getName());
+      for (Proto.Flight flight : JpiDecoder.decode(inputStream,
+          JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build()).getFlightList()) {
+        line.append(' ').append(flight.getFlightNumber());
+      }
+      out.write(line.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+    }
+  };
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = tempFolder.newFolder("archive");
+    File nested = new File(directory, "2015");
+    nested.mkdir();
+    Files.copy(JPI_FILE, new File(directory, "a.jpi"));
+    Files.copy(JPI_FILE, new File(nested, "b.JPI"));
+    Files.write("not a JPI file".getBytes(), new File(directory, "c.jpi"));
+    Files.write("ignored".getBytes(), new File(directory, "notes.txt"));
+  }
+
+  @Test
+  public void testExpand() throws IOException {
+    File a = new File(directory, "a.jpi");
+    File b = new File(directory, "2015/b.JPI");
+    File c = new File(directory, "c.jpi");
+    assertEquals(ImmutableList.of(b, a, c),
+        BatchDecoder.expand(ImmutableList.of(directory.getPath())));
+    assertEquals(ImmutableList.of(a, c),
+        BatchDecoder.expand(ImmutableList.of(directory.getPath() + "/*.jpi")));
+    assertEquals(ImmutableList.of(b, a, c),
+        BatchDecoder.expand(ImmutableList.of(directory.getPath() + "/**/*.JPI",
+            directory.getPath() + "/a.jpi", directory.getPath() + "/**.jpi")));
+  }
+
+  @Test
+  public void testMergedStreamIsolatesFailures() throws IOException {
+    List<File> inputs = BatchDecoder.expand(ImmutableList.of(directory.getPath()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Summary summary = new BatchDecoder(DECODER, 2).decodeToStream(inputs, out);
+
+    assertEquals("b.JPI 45 72\na.jpi 45 72\n", out.toString("UTF-8"));
+    assertEquals(3, summary.getFileCount());
+    assertEquals(2 * JPI_FILE.length(), summary.getByteCount());
+    assertEquals(ImmutableList.of(new File(directory, "c.jpi").getPath()),
+        ImmutableList.copyOf(summary.getFailures().keySet()));
+  }
+
+  @Test
+  public void testOutputPerInput() throws IOException {
+    File outputDirectory = tempFolder.newFolder("output");
+    List<File> inputs = BatchDecoder.expand(ImmutableList.of(directory.getPath()));
+    Summary summary = new BatchDecoder(DECODER, 2)
+        .decodeToDirectory(inputs, outputDirectory, ".txt");
+
+    assertEquals(1, summary.getFailures().size());
+    assertEquals("a.jpi 45 72\n",
+        Files.toString(new File(outputDirectory, "a.jpi.txt"), StandardCharsets.UTF_8));
+    assertEquals("b.JPI 45 72\n",
+        Files.toString(new File(outputDirectory, "b.JPI.txt"), StandardCharsets.UTF_8));
+    assertFalse(new File(outputDirectory, "c.jpi.txt").exists());
+    assertEquals(2, outputDirectory.list().length);
+  }
+
+  @Test
+  public void testOutputPerInputRefusesSameNames() throws IOException {
+    File outputDirectory = tempFolder.newFolder("output");
+    Files.copy(JPI_FILE, new File(directory, "2015/A.JPI"));
+    List<File> inputs = BatchDecoder.expand(ImmutableList.of(directory.getPath()));
+    try {
+      new BatchDecoder(DECODER, 2).decodeToDirectory(inputs, outputDirectory, ".txt");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    assertEquals(0, outputDirectory.list().length);
+  }
+}
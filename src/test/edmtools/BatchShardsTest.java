@@ -0,0 +1,133 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+
+import edmtools.BatchDecoder.Summary;
+
+public class BatchShardsTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+  private static final int NUM_SHARDS = 3;
+  private static final int NUM_INPUTS = 7;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testWorkerProcesses() throws Exception {
+    File inputDirectory = tempFolder.newFolder("input").getCanonicalFile();
+    List<File> inputs = new ArrayList<>();
+    for (int i = 0; i < NUM_INPUTS; ++i) {
+      File input = new File(inputDirectory, i + ".jpi");
+      Files.copy(JPI_FILE, input);
+      inputs.add(input);
+    }
+    File corrupt = new File(inputDirectory, "corrupt.jpi");
+    Files.write("not a JPI file".getBytes(), corrupt);
+    inputs.add(corrupt);
+
+    File jobDirectory = tempFolder.newFolder("job");
+    // Inputs named relative to this directory must still be found by workers running elsewhere.
+    Path workingDirectory = new File("").getAbsoluteFile().toPath();
+    List<File> relativeInputs = new ArrayList<>();
+    for (File input : inputs) {
+      relativeInputs.add(workingDirectory.relativize(input.toPath()).toFile());
+    }
+    BatchShards.plan(relativeInputs, NUM_SHARDS, jobDirectory);
+    Set<File> planned = new HashSet<>();
+    for (int i = 0; i < NUM_SHARDS; ++i) {
+      for (File input : BatchShards.getInputs(jobDirectory, i)) {
+        assertEquals(i, BatchShards.getShard(input, NUM_SHARDS));
+        assertTrue(input.isAbsolute());
+        assertTrue(planned.add(input.getCanonicalFile()));
+      }
+    }
+    assertEquals(new HashSet<>(inputs), planned);
+    try {
+      BatchShards.plan(relativeInputs, NUM_SHARDS, jobDirectory);
+      fail("Planned over an existing job");
+    } catch (IOException expected) {
+    }
+
+    try {
+      BatchShards.mergeSummaries(jobDirectory);
+      fail("Merged incomplete shards");
+    } catch (IOException expected) {
+    }
+
+    // Each shard runs in its own JVM, as it would on separate machines, and in the job
+    // directory rather than the one the inputs were named relative to.
+    File outputDirectory = tempFolder.newFolder("output");
+    List<Process> workers = new ArrayList<>();
+    for (int i = 0; i < NUM_SHARDS; ++i) {
+      workers.add(new ProcessBuilder(
+          new File(System.getProperty("java.home"), "bin/java").getPath(),
+          "-classpath", new File("bin").getAbsolutePath() + File.pathSeparator
+              + new File("lib").getAbsolutePath() + File.separator + "*",
+          "edmtools.tools.JpiShard", "-jobDir", ".", "-shard", "" + i,
+          "-outputDir", outputDirectory.getPath(), "-threads", "1", "work")
+          .directory(jobDirectory)
+          .redirectErrorStream(true)
+          .redirectOutput(new File(jobDirectory, "worker-" + i + ".log"))
+          .start());
+    }
+    for (Process worker : workers) {
+      assertEquals(0, worker.waitFor());
+    }
+
+    Summary summary = BatchShards.mergeSummaries(jobDirectory);
+    assertEquals(NUM_INPUTS + 1, summary.getFileCount());
+    assertEquals(NUM_INPUTS * JPI_FILE.length(), summary.getByteCount());
+    assertEquals(ImmutableList.of(corrupt), ImmutableList.of(
+        new File(Iterables.getOnlyElement(summary.getFailures().keySet())).getCanonicalFile()));
+    for (int i = 0; i < NUM_INPUTS; ++i) {
+      File output = new File(outputDirectory, i + ".jpi.delimited");
+      assertTrue(output.length() > 0);
+      assertEquals(new File(outputDirectory, "0.jpi.delimited").length(), output.length());
+    }
+    assertEquals(NUM_INPUTS, outputDirectory.list().length);
+
+    // A completed shard is not decoded again.
+    BatchDecoder failing = new BatchDecoder(new BatchDecoder.Decoder() {
+      @Override
+      public void decode(String name, JpiInputStream inputStream, OutputStream out) {
+        throw new AssertionError("Decoded a completed shard");
+      }
+    }, 1);
+    BatchShards.runShard(jobDirectory, 0, failing, outputDirectory, ".delimited");
+  }
+}
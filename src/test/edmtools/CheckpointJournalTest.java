@@ -0,0 +1,173 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+public class CheckpointJournalTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+  private static final int NUM_INPUTS = 300;
+
+  /** Writes delimited output, as {@code JpiBatch -format delimited} does. */
+  private static final BatchDecoder.Decoder DELIMITED = new BatchDecoder.Decoder() {
+    @Override
+    public void decode(String name, JpiInputStream inputStream, OutputStream out)
+        throws IOException {
+      DelimitedJpiWriter writer = new DelimitedJpiWriter(out);
+      JpiDecoder.decode(inputStream, JpiDecoderConfiguration.newBuilder().build(), writer);
+      writer.finishFile();
+    }
+  };
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testReopenDiscardsTornRecord() throws IOException {
+    File file = new File(tempFolder.getRoot(), "journal");
+    try (CheckpointJournal journal = new CheckpointJournal(file, 1000, 1000000)) {
+      journal.recordComplete("a.jpi", 45);
+      journal.recordComplete("a.jpi", CheckpointJournal.WHOLE_FILE);
+      assertTrue(journal.isComplete("a.jpi", 45));
+    }
+    Files.append("72\tb.j", file, StandardCharsets.UTF_8);
+
+    try (CheckpointJournal journal = new CheckpointJournal(file)) {
+      assertEquals(2, journal.getCompletedCount());
+      assertTrue(journal.isComplete("a.jpi", CheckpointJournal.WHOLE_FILE));
+      assertFalse(journal.isComplete("a.jpi", 72));
+      assertFalse(journal.isComplete("b.jpi", 72));
+      journal.recordComplete("b.jpi", 72);
+    }
+    assertEquals(ImmutableList.of("45\ta.jpi", "-1\ta.jpi", "72\tb.jpi"),
+        Files.readLines(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testCountsOnlyBytesDecoded() throws IOException {
+    File outputDirectory = tempFolder.newFolder("output");
+    BatchDecoder batch = new BatchDecoder(DELIMITED, 1);
+    try (CheckpointJournal journal = new CheckpointJournal(new File(outputDirectory, "journal"))) {
+      journal.recordComplete(JPI_FILE.getPath(), 45);
+      long flight45 = JpiFileLayout.read(JPI_FILE).getFlight(45).getLength();
+      assertEquals(JPI_FILE.length() - flight45, batch.decodeFlightsToDirectory(
+          ImmutableList.of(JPI_FILE), outputDirectory, ".delimited", journal).getByteCount());
+      BatchDecoder.Summary resumed = batch.decodeFlightsToDirectory(
+          ImmutableList.of(JPI_FILE), outputDirectory, ".delimited", journal);
+      assertEquals(1, resumed.getFileCount());
+      assertEquals(0, resumed.getByteCount());
+    }
+  }
+
+  @Test
+  public void testKillAndRestart() throws Exception {
+    File inputDirectory = tempFolder.newFolder("input");
+    for (int i = 0; i < NUM_INPUTS; ++i) {
+      Files.copy(JPI_FILE, new File(inputDirectory, i + ".jpi"));
+    }
+    File outputDirectory = tempFolder.newFolder("output");
+    File journalFile = new File(tempFolder.getRoot(), "journal");
+
+    // The first run's last input is a FIFO with no writer, which blocks forever, so the run
+    // cannot finish however fast it is.  Kill it once it has journaled some flights.
+    File fifo = new File(tempFolder.getRoot(), "blocked.jpi");
+    Assume.assumeTrue(new ProcessBuilder("mkfifo", fifo.getPath()).start().waitFor() == 0);
+    Process first = startBatch(outputDirectory, journalFile, inputDirectory.getPath(),
+        fifo.getPath());
+    long deadline = System.currentTimeMillis() + 60000;
+    while (countLines(journalFile) < 64 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue("The first run exited", first.isAlive());
+    first.destroyForcibly();
+    first.waitFor();
+    assertTrue(countLines(journalFile) >= 64);
+
+    Process second = startBatch(outputDirectory, journalFile, inputDirectory.getPath());
+    assertTrue(second.waitFor(120, TimeUnit.SECONDS));
+    assertEquals(0, second.exitValue());
+
+    // Every flight's output exists exactly once, complete.
+    File reference = tempFolder.newFolder("reference");
+    try (CheckpointJournal journal = new CheckpointJournal(new File(reference, "journal"))) {
+      new BatchDecoder(DELIMITED, 1).decodeFlightsToDirectory(ImmutableList.of(JPI_FILE),
+          reference, ".delimited", journal);
+    }
+    byte expected45[] = Files.toByteArray(new File(reference, "edm830.jpi.45.delimited"));
+    byte expected72[] = Files.toByteArray(new File(reference, "edm830.jpi.72.delimited"));
+    Set<String> expectedNames = new HashSet<>();
+    for (int i = 0; i < NUM_INPUTS; ++i) {
+      expectedNames.add(i + ".jpi.45.delimited");
+      expectedNames.add(i + ".jpi.72.delimited");
+      assertArrayEquals(expected45,
+          Files.toByteArray(new File(outputDirectory, i + ".jpi.45.delimited")));
+      assertArrayEquals(expected72,
+          Files.toByteArray(new File(outputDirectory, i + ".jpi.72.delimited")));
+    }
+    assertEquals(expectedNames, ImmutableSet.copyOf(outputDirectory.list()));
+    try (CheckpointJournal journal = new CheckpointJournal(journalFile)) {
+      assertEquals(3 * NUM_INPUTS, journal.getCompletedCount());
+    }
+  }
+
+  private static Process startBatch(File outputDirectory, File journal, String... inputs)
+      throws IOException {
+    List<String> command = new ArrayList<>(ImmutableList.of(
+        new File(System.getProperty("java.home"), "bin/java").getPath(),
+        "-classpath", "bin" + File.pathSeparator + "lib/*",
+        "edmtools.tools.JpiBatch", "-outputDir", outputDirectory.getPath(),
+        "-journal", journal.getPath(), "-format", "delimited", "-threads", "2"));
+    command.addAll(Arrays.asList(inputs));
+    return new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(new File(journal.getPath() + ".log"))
+        .start();
+  }
+
+  private static int countLines(File file) throws IOException {
+    if (!file.exists()) {
+      return 0;
+    }
+    List<String> lines = Files.readLines(file, StandardCharsets.UTF_8);
+    return lines.size();
+  }
+}
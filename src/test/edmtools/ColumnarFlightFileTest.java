@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edmtools.ColumnarFlightReader.Column;
+import edmtools.ColumnarFlightReader.StoredFlight;
+import edmtools.FlightFrame.Channel;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+public class ColumnarFlightFileTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    File file = tempFolder.newFile();
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    ColumnarFlightWriter.write(new JpiInputStream(JPI_FILE), config, file);
+    List<FlightFrame> frames = JpiDecoder.decodeFrames(new JpiInputStream(JPI_FILE), config);
+
+    try (ColumnarFlightReader reader = ColumnarFlightReader.open(file)) {
+      assertEquals(JpiDecoder.decode(new JpiInputStream(JPI_FILE), config).getMetadata(),
+          reader.getMetadata());
+      assertEquals(frames.size(), reader.getFlights().size());
+      for (int i = 0; i < frames.size(); ++i) {
+        FlightFrame frame = frames.get(i);
+        StoredFlight flight = reader.getFlights().get(i);
+        assertEquals(frame.getHeader(), flight.getHeader());
+        assertArrayEquals(frame.getTimestamps(), reader.readTimestamps(flight));
+        assertArrayEquals(frame.getMarks(), reader.readMarks(flight));
+        assertEquals(frame.getChannels().size(), flight.getChannelNames().size());
+        for (Channel channel : frame.getChannels()) {
+          Column column = flight.getColumn(channel.getName());
+          if (channel.isFloat()) {
+            assertArrayEquals(frame.getFloatColumn(channel),
+                reader.readFloats(flight, channel.getName()), 0);
+          } else {
+            assertArrayEquals(frame.getIntColumn(channel),
+                reader.readInts(flight, channel.getName()));
+          }
+          boolean present[] = reader.readPresence(flight, channel.getName());
+          int nullCount = 0;
+          for (int row = 0; row < frame.size(); ++row) {
+            assertEquals(frame.isPresent(channel, row), present[row]);
+            nullCount += present[row] ? 0 : 1;
+          }
+          assertEquals(nullCount, column.getNullCount());
+          assertEquals(frame.min(channel), column.getMin(), 0);
+          assertEquals(frame.max(channel), column.getMax(), 0);
+        }
+        assertNull(flight.getColumn("no such channel"));
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadAfterClose() throws IOException {
+    File file = tempFolder.newFile();
+    ColumnarFlightWriter.write(new JpiInputStream(JPI_FILE),
+        JpiDecoderConfiguration.newBuilder().build(), file);
+    ColumnarFlightReader reader = ColumnarFlightReader.open(file);
+    StoredFlight flight = reader.getFlights().get(0);
+    reader.close();
+    reader.readTimestamps(flight);
+  }
+
+  @Test
+  public void testCodecs() {
+    int values[] = {0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 7, 7, -300};
+    int decoded[] = new int[values.length];
+    ColumnCodec.decodeDelta(ByteBuffer.wrap(ColumnCodec.encodeDelta(values)), decoded);
+    assertArrayEquals(values, decoded);
+
+    int bitWidth = ColumnCodec.bitWidth(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    assertEquals(32, bitWidth);
+    ColumnCodec.decodeBitPacked(ByteBuffer.wrap(
+        ColumnCodec.encodeBitPacked(values, Integer.MIN_VALUE, bitWidth)),
+        Integer.MIN_VALUE, bitWidth, decoded);
+    assertArrayEquals(values, decoded);
+
+    int small[] = {1000, 1003, 1001, 1007};
+    decoded = new int[small.length];
+    ByteBuffer packed = ByteBuffer.wrap(ColumnCodec.encodeBitPacked(small, 1000, 3));
+    ColumnCodec.decodeBitPacked(packed, 1000, 3, decoded);
+    assertArrayEquals(small, decoded);
+    assertEquals(2, packed.position());
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+public class CommandDaemonTest {
+  private static final Logger logger = Logger.getLogger(CommandDaemonTest.class.getName());
+
+  /** Echoes its working directory and arguments; "fail" throws, "status N" exits with N. */
+  private static final CommandDaemon.Command ECHO = new CommandDaemon.Command() {
+    @Override
+    public int run(File workingDirectory, List<String> args, PrintStream out, PrintStream err) {
+      if (args.contains("fail")) {
+        throw new IllegalArgumentException("asked to fail");
+      }
+      if (args.contains("warn")) {
+        logger.warning("asked to warn");
+      }
+      out.println(workingDirectory.getName() + ": " + Joiner.on(' ').join(args));
+      err.print("done");
+      return args.size() == 2 && args.get(0).equals("status") ? Integer.parseInt(args.get(1)) : 0;
+    }
+  };
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private CommandDaemon daemon;
+  private Thread thread;
+
+  @After
+  public void tearDown() throws Exception {
+    if (daemon != null) {
+      daemon.close();
+      thread.join();
+    }
+  }
+
+  @Test
+  public void testRunsCommand() throws Exception {
+    File socket = startDaemon();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    File workingDirectory = tempFolder.newFolder("work");
+    assertEquals(0, CommandDaemon.call(socket, workingDirectory,
+        ImmutableList.of("--list", "\u00fc.jpi"), out, err));
+    assertEquals("work: --list \u00fc.jpi\n",
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+    assertEquals("done", new String(err.toByteArray(), StandardCharsets.UTF_8));
+
+    assertEquals(3, CommandDaemon.call(socket, workingDirectory,
+        ImmutableList.of("status", "3"), new ByteArrayOutputStream(), err));
+  }
+
+  @Test
+  public void testExceptionExitsWithStatusOne() throws Exception {
+    File socket = startDaemon();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    assertEquals(1, CommandDaemon.call(socket, tempFolder.getRoot(), ImmutableList.of("fail"),
+        new ByteArrayOutputStream(), err));
+    assertTrue(err.toString("UTF-8").contains("asked to fail"));
+  }
+
+  @Test
+  public void testCopiesLogToCaller() throws Exception {
+    File socket = startDaemon();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    assertEquals(0, CommandDaemon.call(socket, tempFolder.getRoot(), ImmutableList.of("warn"),
+        new ByteArrayOutputStream(), err));
+    assertTrue(err.toString("UTF-8").contains("asked to warn"));
+  }
+
+  @Test
+  public void testReplacesStaleSocket() throws Exception {
+    File socket = startDaemon();
+    // A second daemon may not take over a live socket.
+    try {
+      new CommandDaemon(socket, ECHO, 1);
+      throw new AssertionError("Expected IOException");
+    } catch (IOException expected) {
+    }
+    daemon.close();
+    thread.join();
+    assertFalse(socket.exists());
+
+    assertTrue(socket.createNewFile());
+    startDaemon();
+    assertEquals(0, CommandDaemon.call(socket, tempFolder.getRoot(), ImmutableList.of("again"),
+        new ByteArrayOutputStream(), new ByteArrayOutputStream()));
+  }
+
+  @Test
+  public void testRefusesSharedDirectory() throws Exception {
+    File directory = tempFolder.newFolder("shared");
+    Files.setPosixFilePermissions(directory.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+    try {
+      new CommandDaemon(new File(directory, "daemon.sock"), ECHO, 1);
+      throw new AssertionError("Expected IOException");
+    } catch (IOException expected) {
+    }
+    assertFalse(new File(directory, "daemon.sock").exists());
+  }
+
+  private File startDaemon() throws IOException {
+    File socket = new File(tempFolder.getRoot(), "private/daemon.sock");
+    daemon = new CommandDaemon(socket, ECHO, 2);
+    thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          daemon.run();
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    };
+    thread.start();
+    return socket;
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edmtools.JpiDecoder.FlightVisitor;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.EngineDataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+public class DataRecordCursorTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testMatchesProtoDecoder() throws IOException {
+    JpiFile expected = JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+    final List<Flight> actual = new ArrayList<>();
+    JpiDecoder.decode(new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build(),
+        new FlightVisitor() {
+          @Override
+          public void visitMetadata(Metadata metadata) {}
+
+          @Override
+          public void visitFlight(Flight header, DataRecordCursor records) {
+            Flight.Builder flight = header.toBuilder();
+            while (records.next()) {
+              assertViewMatchesProto(records, records.toProto());
+              flight.addData(records.toProto());
+            }
+            assertFalse(records.next());
+            actual.add(flight.build());
+          }
+        });
+    assertEquals(expected.getFlightList(), actual);
+  }
+
+  @Test
+  public void testHeadersOnly() throws IOException {
+    final List<Flight> actual = new ArrayList<>();
+    JpiDecoder.decode(new JpiInputStream(JPI_FILE),
+        JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build(),
+        new FlightVisitor() {
+          @Override
+          public void visitMetadata(Metadata metadata) {}
+
+          @Override
+          public void visitFlight(Flight header, DataRecordCursor records) {
+            assertEquals(0, records.size());
+            actual.add(header);
+          }
+        });
+    JpiFile expected = JpiDecoder.decode(new JpiInputStream(JPI_FILE),
+        JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build());
+    assertEquals(expected.getFlightList(), actual);
+  }
+
+  private static void assertViewMatchesProto(DataRecordView view, DataRecord record) {
+    assertEquals(record.getVoltageList().size(), view.getVoltageCount());
+    assertEquals(record.getVoltage(0), view.getVoltage(0), 0);
+    assertEquals(record.hasOutsideAirTemperature(), view.hasOutsideAirTemperature());
+    assertEquals(record.getOutsideAirTemperature(), view.getOutsideAirTemperature());
+    assertEquals(record.getMark(), view.getMark());
+    assertEquals(record.getEngineCount(), view.getEngineCount());
+    EngineDataRecord engine = record.getEngine(0);
+    EngineDataRecordView engineView = view.getEngine(0);
+    assertEquals(engine.getExhaustGasTemperatureCount(),
+        engineView.getExhaustGasTemperatureCount());
+    for (int i = 0; i < engine.getExhaustGasTemperatureCount(); ++i) {
+      assertEquals(engine.getExhaustGasTemperature(i), engineView.getExhaustGasTemperature(i));
+    }
+    assertEquals(engine.getMaxExhaustGasTemperatureDifference(),
+        engineView.getMaxExhaustGasTemperatureDifference());
+    assertEquals(engine.getRpm(), engineView.getRpm());
+    assertEquals(engine.getManifoldPressure(), engineView.getManifoldPressure(), 0);
+    assertEquals(engine.getFuelFlow(0), engineView.getFuelFlow(0), 0);
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DecimalsTest {
+  @Test
+  public void testMatchesFloatToString() {
+    for (int tenths = -200000; tenths <= 200000; ++tenths) {
+      assertFormat(tenths / 10f);
+    }
+    Random random = new Random(0);
+    for (int i = 0; i < 200000; ++i) {
+      assertFormat((random.nextInt(200000000) - 100000000) / 10f);
+      assertFormat(Float.intBitsToFloat(random.nextInt()));
+    }
+    for (float value : new float[] {0f, -0f, 0.05f, 1e-3f, 9999999f, 1e7f, -1e7f, 1e8f,
+        Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MIN_VALUE}) {
+      assertFormat(value);
+    }
+  }
+
+  private static void assertFormat(float value) {
+    assertEquals(Float.toString(value),
+        Decimals.appendFloat(new StringBuilder(), value).toString());
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+public class DecodeServerTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  private static final BatchDecoder.Decoder DELIMITED = new BatchDecoder.Decoder() {
+    @Override
+    public void decode(String name, JpiInputStream inputStream, OutputStream out)
+        throws IOException {
+      DelimitedJpiWriter writer = new DelimitedJpiWriter(out);
+      JpiDecoder.decode(inputStream, JpiDecoderConfiguration.newBuilder().build(), writer);
+      writer.finishFile();
+    }
+  };
+
+  private DecodeServer server;
+
+  @After
+  public void tearDown() {
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Test
+  public void testStreamsDecodedUpload() throws IOException {
+    startServer(2, 2);
+    byte jpi[] = Files.toByteArray(JPI_FILE);
+    HttpURLConnection connection = post("/decode?format=delimited", jpi);
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+    assertEquals("application/octet-stream", connection.getContentType());
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    DELIMITED.decode("edm830.jpi", new JpiInputStream(JPI_FILE.getPath()), expected);
+    assertArrayEquals(expected.toByteArray(), read(connection.getInputStream()));
+
+    DecodeServer.Stats stats = server.getStats();
+    assertEquals(1, stats.getCompletedCount());
+    assertEquals(jpi.length, stats.getBytes());
+    assertTrue(stats.getLatencyMillis(0.99) > 0);
+    assertTrue(read(get("/stats").getInputStream()).length > 0);
+  }
+
+  @Test
+  public void testBadRequests() throws IOException {
+    startServer(2, 2);
+    assertEquals(400, post("/decode?format=csv", new byte[] { 1 }).getResponseCode());
+    assertEquals(405, get("/decode").getResponseCode());
+    assertEquals(400, post("/decode", "not a JPI file".getBytes()).getResponseCode());
+    assertEquals(1, server.getStats().getFailedCount());
+  }
+
+  @Test
+  public void testRejectsMalformedQueries() throws IOException {
+    startServer(2, 2);
+    byte jpi[] = Files.toByteArray(JPI_FILE);
+    assertEquals(400, post("/decode?format=delimited&verbose", jpi).getResponseCode());
+    assertEquals(400, post("/decode?format=delimited&format=json", jpi).getResponseCode());
+    assertEquals(400, post("/decode?format=%zz", jpi).getResponseCode());
+    assertEquals(0, server.getStats().getCompletedCount());
+  }
+
+  @Test
+  public void testRejectsUploadsBeyondQueue() throws Exception {
+    final CountDownLatch decoding = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    server = new DecodeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 0);
+    server.addFormat("blocking", "application/octet-stream", new BatchDecoder.Decoder() {
+      @Override
+      public void decode(String name, JpiInputStream inputStream, OutputStream out)
+          throws IOException {
+        decoding.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        DELIMITED.decode(name, inputStream, out);
+      }
+    });
+    server.start();
+    final byte jpi[] = Files.toByteArray(JPI_FILE);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> first = executor.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() throws IOException {
+          return post("/decode", jpi).getResponseCode();
+        }
+      });
+      decoding.await();
+      HttpURLConnection second = post("/decode", jpi);
+      assertEquals(503, second.getResponseCode());
+      assertEquals("1", second.getHeaderField("Retry-After"));
+      release.countDown();
+      assertEquals(200, (int) first.get());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, server.getStats().getRejectedCount());
+  }
+
+  private void startServer(int maxConcurrency, int maxQueued) throws IOException {
+    server = new DecodeServer(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), maxConcurrency, maxQueued);
+    server.addFormat("delimited", "application/octet-stream", DELIMITED);
+    server.start();
+  }
+
+  private HttpURLConnection post(String path, byte body[]) throws IOException {
+    HttpURLConnection connection = open(path);
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(body.length);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body);
+    }
+    return connection;
+  }
+
+  private HttpURLConnection get(String path) throws IOException {
+    return open(path);
+  }
+
+  private HttpURLConnection open(String path) throws IOException {
+    return (HttpURLConnection) new URL(
+        "http", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), path)
+        .openConnection();
+  }
+
+  private static byte[] read(InputStream in) throws IOException {
+    try {
+      return ByteStreams.toByteArray(in);
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.util.FieldMaskUtil;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+
+public class DecodedFlightCacheTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+  private static final FieldMask ALL = FieldMask.getDefaultInstance();
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testKeyedByFlightContent() throws IOException {
+    Flight expected = decode().getFlight(1);
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    File single = tempFolder.newFile("72.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(72)), null, single);
+
+    DecodedFlightCache cache = new DecodedFlightCache(1 << 24, null);
+    assertEquals(expected, cache.get(JPI_FILE, 72, ALL));
+    assertEquals(expected, cache.get(JPI_FILE, 72, ALL));
+    assertEquals(expected, cache.get(single, 72, ALL));
+    assertNull(cache.get(single, 45, ALL));
+    assertEquals(1, cache.getMissCount());
+    assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void testProjection() throws IOException {
+    Flight full = decode().getFlight(0);
+    FieldMask projection =
+        FieldMaskUtil.fromString("flight_number,data.engine.exhaust_gas_temperature");
+    DecodedFlightCache cache = new DecodedFlightCache(1 << 24, null);
+    Flight projected = cache.get(JPI_FILE, 45, projection);
+
+    assertEquals(45, projected.getFlightNumber());
+    assertFalse(projected.hasStartTimestamp());
+    assertEquals(full.getDataCount(), projected.getDataCount());
+    DataRecord record = projected.getData(10);
+    assertEquals(full.getData(10).getEngine(0).getExhaustGasTemperatureList(),
+        record.getEngine(0).getExhaustGasTemperatureList());
+    assertFalse(record.getEngine(0).hasMaxExhaustGasTemperatureDifference());
+    assertFalse(record.hasOutsideAirTemperature());
+    assertEquals(full, cache.get(JPI_FILE, 45, ALL));
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testDiskTier() throws IOException {
+    Flight expected = decode().getFlight(0);
+    File directory = tempFolder.newFolder("cache");
+    DecodedFlightCache cache = new DecodedFlightCache(0, directory);
+    assertEquals(expected, cache.get(JPI_FILE, 45, ALL));
+    assertEquals(1, cache.getMissCount());
+
+    DecodedFlightCache reopened = new DecodedFlightCache(1 << 24, directory);
+    assertEquals(expected, reopened.get(JPI_FILE, 45, ALL));
+    assertEquals(expected, reopened.get(JPI_FILE, 45, ALL));
+    assertEquals(0, reopened.getMissCount());
+    assertEquals(1, reopened.getDiskHitCount());
+    assertEquals(1, reopened.getHitCount());
+  }
+
+  private static JpiFile decode() throws IOException {
+    return JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE.getPath()), JpiDecoderConfiguration.newBuilder().build());
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class DelimitedJpiTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testRoundTripOfSeveralFiles() throws IOException {
+    JpiDecoderConfiguration all = JpiDecoderConfiguration.newBuilder().build();
+    JpiDecoderConfiguration headers =
+        JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build();
+    JpiDecoderConfiguration none =
+        JpiDecoderConfiguration.newBuilder().withExactFlightNumber(1).build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DelimitedJpiWriter writer = new DelimitedJpiWriter(out);
+    for (JpiDecoderConfiguration config : ImmutableList.of(all, headers, none)) {
+      JpiDecoder.decode(new JpiInputStream(JPI_FILE), config, writer);
+    }
+    writer.finishFile();
+
+    assertEquals(
+        ImmutableList.of(decode(all), decode(headers), decode(none)),
+        DelimitedJpiReader.readAll(new ByteArrayInputStream(out.toByteArray())));
+  }
+
+  private static JpiFile decode(JpiDecoderConfiguration config) throws IOException {
+    return JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+  }
+}
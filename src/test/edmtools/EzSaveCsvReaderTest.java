@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Features.TemperatureUnit;
+import edmtools.Proto.Flight;
+import edmtools.Proto.Fuel.FuelFlowUnits;
+import edmtools.Proto.JpiFile;
+
+public class EzSaveCsvReaderTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+  private static final String PREAMBLE = "Flight #7 1/2/2015 3:04:05 AM\r\n"
+      + "Actual Duration 0.00 Hours, Interval 6 Seconds\r\n";
+
+  @Test
+  public void testMatchesDecoder() throws IOException {
+    JpiFile decoded = JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+    for (Flight expected : decoded.getFlightList()) {
+      JpiFile jpiFile = EzSaveCsvReader.read(
+          new File("testdata/edm830." + expected.getFlightNumber() + ".txt"));
+      assertEquals("edm830", jpiFile.getMetadata().getRegistration());
+      assertEquals(830, jpiFile.getMetadata().getFeatures().getModelNumber());
+      assertEquals(340, jpiFile.getMetadata().getFeatures().getFirmwareVersion());
+      assertEquals(TemperatureUnit.FAHRENHEIT,
+          jpiFile.getMetadata().getFeatures().getEngineTemperatureUnit());
+      assertEquals(FuelFlowUnits.GPH, jpiFile.getMetadata().getFuel().getFuelFlowUnits());
+
+      Flight flight = jpiFile.getFlight(0);
+      assertEquals(expected.getFlightNumber(), flight.getFlightNumber());
+      assertEquals(expected.getStartTimestamp(), flight.getStartTimestamp());
+      assertEquals(expected.getRecordingIntervalSecs(), flight.getRecordingIntervalSecs());
+      assertEquals(expected.getSensors(), flight.getSensors());
+      assertEquals(expected.getDataList(), flight.getDataList());
+    }
+  }
+
+  @Test
+  public void testNotAvailableAndUnknownColumns() throws IOException {
+    Flight flight = read(PREAMBLE
+        + "Date,TIME,E1,E2,XYZ,BAT,MARK\r\n"
+        + "01/02/15, 03:04:05, 1200,NA, 7,-0.5,\r\n"
+        + "01/02/15, 03:04:11, NA, 1210,8,24.25,]\r\n").getFlight(0);
+    assertEquals(7, flight.getFlightNumber());
+    assertEquals(1420167845, flight.getStartTimestamp());
+    assertEquals(6, flight.getRecordingIntervalSecs());
+    assertEquals(2, flight.getSensors().getNumExhaustGasTemperature());
+    assertTrue(flight.getSensors().getVoltage());
+    assertFalse(flight.getSensors().getRpm());
+
+    DataRecord first = flight.getData(0);
+    assertEquals(ImmutableList.of(1200), first.getEngine(0).getExhaustGasTemperatureList());
+    assertEquals(ImmutableList.of(-0.5f), first.getVoltageList());
+    assertEquals(Mark.NOT_MARKED, first.getMark());
+    DataRecord second = flight.getData(1);
+    assertEquals(ImmutableList.of(1210), second.getEngine(0).getExhaustGasTemperatureList());
+    assertEquals(ImmutableList.of(24.25f), second.getVoltageList());
+    assertEquals(Mark.RICH_END, second.getMark());
+  }
+
+  @Test
+  public void testMalformedNumber() {
+    try {
+      read(PREAMBLE + "Date,TIME,E1\n01/02/15, 03:04:05, 12x\n");
+      fail();
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().startsWith("test:4:"));
+    }
+  }
+
+  @Test
+  public void testReadAllKeepsFileOrder() throws IOException {
+    List<File> files = ImmutableList.of(new File("testdata/edm830.72.txt"),
+        new File("testdata/edm830.45.txt"), new File("testdata/edm830.72.txt"));
+    final List<Integer> flightNumbers = new ArrayList<>();
+    EzSaveCsvReader.readAll(files, 2, new EzSaveCsvReader.Visitor() {
+      @Override
+      public void visit(File file, JpiFile jpiFile) {
+        flightNumbers.add(jpiFile.getFlight(0).getFlightNumber());
+      }
+    });
+    assertEquals(ImmutableList.of(72, 45, 72), flightNumbers);
+  }
+
+  private static JpiFile read(String csv) throws IOException {
+    return EzSaveCsvReader.read("test", ByteBuffer.wrap(csv.getBytes(StandardCharsets.US_ASCII)));
+  }
+}
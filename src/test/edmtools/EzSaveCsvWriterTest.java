@@ -0,0 +1,113 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+public class EzSaveCsvWriterTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+  /** The date on which the golden files were exported. */
+  private static final LocalDate EXPORT_DATE = new LocalDate(2015, 9, 7);
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testMatchesEzSave() throws IOException {
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    JpiFile jpiFile = JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+    List<FlightFrame> frames = JpiDecoder.decodeFrames(new JpiInputStream(JPI_FILE), config);
+    EzSaveCsvWriter writer = new EzSaveCsvWriter(jpiFile.getMetadata(), EXPORT_DATE);
+    for (FlightFrame frame : frames) {
+      StringWriter out = new StringWriter();
+      writer.write(frame, out);
+      assertEquals(readGolden(frame.getHeader().getFlightNumber()), out.toString());
+    }
+  }
+
+  @Test
+  public void testExportsEachFlightToAFile() throws IOException {
+    File outputDirectory = tempFolder.newFolder();
+    List<File> files;
+    try (EzSaveCsvExporter exporter = new EzSaveCsvExporter(outputDirectory, EXPORT_DATE, 2)) {
+      JpiDecoder.decode(new JpiInputStream(JPI_FILE),
+          JpiDecoderConfiguration.newBuilder().build(), exporter);
+      files = exporter.await();
+    }
+    assertEquals(2, files.size());
+    assertEquals(new File(outputDirectory, "edm830.45.csv"), files.get(0));
+    assertEquals(readGolden(45), Files.toString(files.get(0), Charsets.US_ASCII));
+    assertEquals(readGolden(72), Files.toString(files.get(1), Charsets.US_ASCII));
+  }
+
+  @Test
+  public void testUnsafeAndRepeatedRegistrations() throws IOException {
+    File outputDirectory = tempFolder.newFolder("out");
+    List<File> files;
+    try (final EzSaveCsvExporter exporter =
+        new EzSaveCsvExporter(outputDirectory, EXPORT_DATE, 2)) {
+      // As if a zip held two downloads whose $U line names another directory.
+      for (int i = 0; i < 2; ++i) {
+        JpiDecoder.decode(new JpiInputStream(JPI_FILE),
+            JpiDecoderConfiguration.newBuilder().withExactFlightNumber(45).build(),
+            new JpiDecoder.FlightVisitor() {
+              @Override
+              public void visitMetadata(Metadata metadata) {
+                exporter.visitMetadata(metadata.toBuilder().setRegistration("../N1").build());
+              }
+
+              @Override
+              public void visitFlight(Flight header, DataRecordCursor records)
+                  throws IOException {
+                exporter.visitFlight(header, records);
+              }
+            });
+      }
+      files = exporter.await();
+    }
+    assertEquals(ImmutableList.of(new File(outputDirectory, "___N1.45.csv"),
+        new File(outputDirectory, "___N1.45-2.csv")), files);
+    assertEquals(ImmutableSet.of("___N1.45.csv", "___N1.45-2.csv"),
+        ImmutableSet.copyOf(outputDirectory.list()));
+    assertEquals(ImmutableList.of(outputDirectory),
+        ImmutableList.copyOf(tempFolder.getRoot().listFiles()));
+  }
+
+  private static String readGolden(int flightNumber) throws IOException {
+    return Files.toString(new File("testdata/edm830." + flightNumber + ".txt"), Charsets.US_ASCII);
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+public class FleetFrameStoreTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testDirectMemory() throws IOException {
+    List<FlightFrame> frames = decodeFrames();
+    try (FleetFrameStore store = new FleetFrameStore()) {
+      for (FlightFrame frame : frames) {
+        store.put("N1", frame);
+        store.put("N2", frame);
+      }
+      assertEquals(2 * frames.size(), store.getFlightCount());
+      assertTrue(store.getSizeInBytes() > 0);
+      for (FlightFrame frame : frames) {
+        assertMatches(frame, store.get("N2", frame.getHeader().getFlightNumber()));
+      }
+      int flightNumber = frames.get(0).getHeader().getFlightNumber();
+      assertTrue(store.remove("N1", flightNumber));
+      assertFalse(store.remove("N1", flightNumber));
+      assertNull(store.get("N1", flightNumber));
+      assertEquals(frames.size() - 1, store.getFlights("N1").size());
+    }
+  }
+
+  @Test
+  public void testMappedFilesAreReopened() throws IOException {
+    File directory = tempFolder.newFolder();
+    try (FleetFrameStore store = new FleetFrameStore(directory)) {
+      assertEquals(2, store.add(new JpiInputStream(JPI_FILE),
+          JpiDecoderConfiguration.newBuilder().build()));
+    }
+    List<FlightFrame> frames = decodeFrames();
+    try (FleetFrameStore store = new FleetFrameStore(directory)) {
+      List<OffHeapFlight> flights = store.getFlights();
+      assertEquals(frames.size(), flights.size());
+      for (int i = 0; i < frames.size(); ++i) {
+        assertMatches(frames.get(i), flights.get(i));
+      }
+      OffHeapFlight flight = flights.get(0);
+      assertTrue(store.remove(flight.getRegistration(), flight.getFlightNumber()));
+    }
+    assertEquals(frames.size() - 1, directory.listFiles().length);
+  }
+
+  @Test
+  public void testConcurrentPutAndGet() throws Exception {
+    runConcurrentPutAndGet(new FleetFrameStore());
+    runConcurrentPutAndGet(new FleetFrameStore(tempFolder.newFolder()));
+  }
+
+  /** Replaces one flight over and over while readers scan whichever copy they got. */
+  private static void runConcurrentPutAndGet(final FleetFrameStore store) throws Exception {
+    final FlightFrame frame = decodeFrames().get(0);
+    final int flightNumber = frame.getHeader().getFlightNumber();
+    store.put("N1", frame);
+    final AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; ++i) {
+        readers.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() {
+            int reads = 0;
+            while (!done.get()) {
+              OffHeapFlight flight = store.get("N1", flightNumber);
+              if (flight != null) {
+                assertMatches(frame, flight);
+                reads++;
+              }
+            }
+            return reads;
+          }
+        }));
+      }
+      for (int i = 0; i < 200; ++i) {
+        store.put("N1", frame);
+        if (i % 50 == 0) {
+          store.remove("N1", flightNumber);
+          store.put("N1", frame);
+        }
+      }
+      store.close();
+      done.set(true);
+      for (Future<Integer> reader : readers) {
+        assertTrue(reader.get() > 0);
+      }
+    } finally {
+      done.set(true);
+      executor.shutdown();
+    }
+  }
+
+  private static void assertMatches(FlightFrame frame, OffHeapFlight flight) {
+    assertEquals(frame.getHeader(), flight.getHeader());
+    assertEquals(frame.size(), flight.size());
+    for (Channel channel : frame.getChannels()) {
+      int index = flight.getChannelIndex(channel.getName());
+      assertEquals(channel.isFloat(), flight.isFloat(index));
+      for (int row = 0; row < frame.size(); ++row) {
+        assertEquals(frame.isPresent(channel, row), flight.isPresent(index, row));
+        if (channel.isFloat()) {
+          assertEquals(frame.getFloatColumn(channel)[row], flight.getFloat(index, row), 0);
+        } else {
+          assertEquals(frame.getIntColumn(channel)[row], flight.getInt(index, row));
+        }
+      }
+      assertEquals(frame.max(channel), flight.max(index), 0);
+      assertEquals(frame.min(channel), flight.min(index), 0);
+      assertEquals(frame.mean(channel), flight.mean(index), 1e-9);
+    }
+    for (int row = 0; row < frame.size(); ++row) {
+      assertEquals(frame.getTimestamps()[row], flight.getTimestamp(row));
+      assertEquals(frame.getMark(row), flight.getMark(row));
+    }
+  }
+
+  private static List<FlightFrame> decodeFrames() throws IOException {
+    return JpiDecoder.decodeFrames(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+  }
+}
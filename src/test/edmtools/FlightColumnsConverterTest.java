@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.FlightColumns;
+import edmtools.Proto.JpiFile;
+
+public class FlightColumnsConverterTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testLosslessRoundTrip() throws IOException {
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    JpiFile jpiFile = JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+    List<FlightFrame> frames = JpiDecoder.decodeFrames(new JpiInputStream(JPI_FILE), config);
+    for (int i = 0; i < jpiFile.getFlightCount(); ++i) {
+      Flight flight = jpiFile.getFlight(i);
+      FlightColumns columns = FlightColumnsConverter.fromFlight(flight);
+      assertEquals(flight, FlightColumnsConverter.toFlight(columns));
+      assertEquals(columns, FlightColumnsConverter.fromFrame(frames.get(i)));
+      assertEquals(flight.getDataCount(), columns.getTimestampDeltaSecsCount());
+      assertTrue(columns.getSerializedSize() < flight.getSerializedSize());
+    }
+  }
+
+  @Test
+  public void testSparseValues() {
+    Flight flight = Flight.newBuilder()
+        .setFlightNumber(7)
+        .setRecordingIntervalSecs(6)
+        .addData(DataRecord.newBuilder().addVoltage(12.3f).setOutsideAirTemperature(-4))
+        .addData(DataRecord.newBuilder().addVoltage(0.1234f).addParseWarning("odd"))
+        .addData(DataRecord.newBuilder().setMark(DataRecord.Mark.RICH_START)
+            .addEngine(Proto.EngineDataRecord.newBuilder().addExhaustGasTemperature(1400)))
+        .addData(DataRecord.newBuilder().setOutsideAirTemperature(-5))
+        .build();
+    FlightColumns columns = FlightColumnsConverter.fromFlight(flight);
+    assertEquals(flight, FlightColumnsConverter.toFlight(columns));
+    assertEquals(3, columns.getUnmarkedRecordCount());
+    assertEquals(1, columns.getTimestampDeltaSecs(3));
+  }
+}
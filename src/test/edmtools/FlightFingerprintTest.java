@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiFileLayout.FlightRange;
+import edmtools.Proto.JpiFile;
+
+public class FlightFingerprintTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Test
+  public void testDecoderMatchesLayoutFingerprints() throws IOException {
+    final List<FlightFingerprint> seen = new ArrayList<>();
+    JpiFile decoded = decode(new Predicate<FlightFingerprint>() {
+      @Override
+      public boolean apply(FlightFingerprint fingerprint) {
+        seen.add(fingerprint);
+        return false;
+      }
+    });
+    assertEquals(layoutFingerprints(), seen);
+    assertEquals(decode(null), decoded);
+  }
+
+  @Test
+  public void testSkipsKnownFlights() throws IOException {
+    final FlightFingerprint known = layoutFingerprints().get(0);
+    JpiFile decoded = decode(new Predicate<FlightFingerprint>() {
+      @Override
+      public boolean apply(FlightFingerprint fingerprint) {
+        return fingerprint.equals(known);
+      }
+    });
+    assertEquals(ImmutableList.of(decode(null).getFlight(1)), decoded.getFlightList());
+  }
+
+  @Test
+  public void testStreamMatchesLayoutFingerprints() throws IOException {
+    // Not a file, so the decoder buffers each flight to hash it rather than reading the file.
+    final List<FlightFingerprint> seen = new ArrayList<>();
+    JpiFile decoded = JpiDecoder.decode(
+        new JpiInputStream(new ByteArrayInputStream(Files.toByteArray(JPI_FILE))),
+        JpiDecoderConfiguration.newBuilder().withKnownFlights(new Predicate<FlightFingerprint>() {
+          @Override
+          public boolean apply(FlightFingerprint fingerprint) {
+            seen.add(fingerprint);
+            return false;
+          }
+        }).build());
+    assertEquals(layoutFingerprints(), seen);
+    assertEquals(decode(null), decoded);
+  }
+
+  private static JpiFile decode(Predicate<FlightFingerprint> isKnownFlight) throws IOException {
+    JpiDecoderConfiguration.Builder config = JpiDecoderConfiguration.newBuilder();
+    if (isKnownFlight != null) {
+      config.withKnownFlights(isKnownFlight);
+    }
+    return JpiDecoder.decode(new JpiInputStream(JPI_FILE.getPath()), config.build());
+  }
+
+  private static List<FlightFingerprint> layoutFingerprints() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    List<FlightFingerprint> result = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(JPI_FILE.toPath(), StandardOpenOption.READ)) {
+      for (FlightRange flight : layout.getFlights()) {
+        result.add(FlightFingerprint.of(layout.getMetadata().getRegistration(), flight, channel));
+      }
+    }
+    return result;
+  }
+}
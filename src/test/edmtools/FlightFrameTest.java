@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import edmtools.FlightFrame.Channel;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord.Mark;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+
+public class FlightFrameTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testFramesMatchProtoFlights() throws IOException {
+    JpiFile expected = JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+    List<FlightFrame> frames = JpiDecoder.decodeFrames(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+    assertEquals(expected.getFlightCount(), frames.size());
+    for (int i = 0; i < frames.size(); ++i) {
+      assertEquals(expected.getFlight(i), frames.get(i).toFlight());
+    }
+  }
+
+  @Test
+  public void testColumnsAndAggregates() throws IOException {
+    FlightFrame frame = decodeFlight(72);
+    Flight flight = frame.toFlight();
+    Channel egt = frame.getChannel("engine[0].exhaust_gas_temperature[4]");
+    int column[] = frame.getIntColumn(egt);
+    assertEquals(flight.getDataCount(), column.length);
+    int max = Integer.MIN_VALUE;
+    long sum = 0;
+    for (int row = 0; row < column.length; ++row) {
+      assertEquals(flight.getData(row).getEngine(0).getExhaustGasTemperature(4), column[row]);
+      max = Math.max(max, column[row]);
+      sum += column[row];
+    }
+    assertEquals(max, frame.max(egt), 0);
+    assertEquals(max, column[frame.argMax(egt)]);
+    assertEquals((double) sum / column.length, frame.mean(egt), 1e-9);
+    // First row of testdata/edm830.72.txt.
+    assertEquals(27.4f, frame.getFloatColumn("voltage[0]")[0], 0);
+  }
+
+  @Test
+  public void testTimestampsAndSlicing() throws IOException {
+    FlightFrame frame = decodeFlight(72);
+    long timestamps[] = frame.getTimestamps();
+    long start = frame.getHeader().getStartTimestamp();
+    assertEquals(start, timestamps[0]);
+    // Records are 6 seconds apart, except 1 second apart while rich-finding.
+    assertEquals(Mark.RICH_START, frame.getMark(18));
+    assertEquals(6, timestamps[18] - timestamps[17]);
+    assertEquals(1, timestamps[19] - timestamps[18]);
+    assertEquals(Mark.RICH_END, frame.getMark(20));
+    for (int row = 1; row < timestamps.length; ++row) {
+      assertTrue(timestamps[row] > timestamps[row - 1]);
+    }
+
+    FlightFrame slice = frame.sliceByTime(start + 6, start + 18);
+    assertEquals(2, slice.size());
+    assertEquals(start + 6, slice.getTimestamps()[0]);
+    assertEquals(frame.toFlight().getData(1), slice.toFlight().getData(0));
+    assertEquals(0, frame.sliceByTime(start + 1, start + 2).size());
+    assertEquals(frame.size(), frame.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE).size());
+  }
+
+  private static FlightFrame decodeFlight(int flightNumber) throws IOException {
+    return JpiDecoder.decodeFrames(new JpiInputStream(JPI_FILE),
+        JpiDecoderConfiguration.newBuilder().withExactFlightNumber(flightNumber).build()).get(0);
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+
+/**
+ * Compares decoding to {@link Proto.JpiFile} and calling {@code toByteArray()} with writing
+ * wire bytes directly through {@link FlightWireWriter}.
+ *
+ * <pre>java -cp bin:lib/* edmtools.FlightWireWriterBenchmark [file.jpi] [seconds]</pre>
+ */
+public class FlightWireWriterBenchmark {
+  private interface Encoder {
+    long encode(byte jpi[]) throws IOException;
+  }
+
+  public static void main(String args[]) throws IOException {
+    byte jpi[] = Files.toByteArray(new File(args.length > 0 ? args[0] : "testdata/edm830.jpi"));
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+    final JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+
+    Encoder messages = new Encoder() {
+      @Override
+      public long encode(byte jpi[]) throws IOException {
+        return JpiDecoder.decode(newStream(jpi), config).toByteArray().length;
+      }
+    };
+    Encoder direct = new Encoder() {
+      @Override
+      public long encode(byte jpi[]) throws IOException {
+        CountingNullStream out = new CountingNullStream();
+        FlightWireWriter.write(newStream(jpi), config, out);
+        return out.count;
+      }
+    };
+    for (int round = 0; round < 2; ++round) {
+      // The first round warms up the JIT.
+      run("JpiFile.toByteArray()", messages, jpi, seconds);
+      run("FlightWireWriter", direct, jpi, seconds);
+    }
+  }
+
+  private static JpiInputStream newStream(byte jpi[]) {
+    return new JpiInputStream(new ByteArrayInputStream(jpi));
+  }
+
+  private static void run(String name, Encoder encoder, byte jpi[], double seconds)
+      throws IOException {
+    long deadline = System.nanoTime() + (long) (seconds * 1e9);
+    long start = System.nanoTime();
+    long iterations = 0;
+    long outputBytes = 0;
+    while (System.nanoTime() < deadline) {
+      outputBytes += encoder.encode(jpi);
+      iterations++;
+    }
+    double elapsed = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-24s %8.1f files/s  %7.1f MB/s in  %7.1f MB/s out%n", name,
+        iterations / elapsed, iterations * jpi.length / elapsed / 1e6,
+        outputBytes / elapsed / 1e6);
+  }
+
+  private static final class CountingNullStream extends OutputStream {
+    long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte b[], int off, int len) {
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class FlightWireWriterTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testMatchesMessageSerialization() throws IOException {
+    assertMatches(JpiDecoderConfiguration.newBuilder().build());
+  }
+
+  @Test
+  public void testHeadersOnlyAndSelectedFlights() throws IOException {
+    assertMatches(JpiDecoderConfiguration.newBuilder().withFlightHeadersOnly().build());
+    assertMatches(JpiDecoderConfiguration.newBuilder().withExactFlightNumber(72).build());
+  }
+
+  private static void assertMatches(JpiDecoderConfiguration config) throws IOException {
+    JpiFile expected = JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FlightWireWriter.write(new JpiInputStream(JPI_FILE), config, out);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    assertEquals(expected, JpiFile.parseFrom(out.toByteArray()));
+  }
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import edmtools.GorillaCodec.BitReader;
+import edmtools.GorillaCodec.BitWriter;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class GorillaArchiveTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testRoundTripMatchesDataRecordParser() throws IOException {
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    JpiFile expected = JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (GorillaArchiveWriter writer = new GorillaArchiveWriter(archive)) {
+      JpiDecoder.decode(new JpiInputStream(JPI_FILE), config, writer);
+    }
+    assertEquals(expected,
+        GorillaArchiveReader.read(new ByteArrayInputStream(archive.toByteArray())));
+    assertTrue(archive.size() < new File(JPI_FILE).length());
+    assertTrue(archive.size() < expected.getSerializedSize());
+  }
+
+  @Test
+  public void testRejectsDifferentLayout() throws IOException {
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    try (GorillaArchiveWriter writer = new GorillaArchiveWriter(archive)) {
+      JpiDecoder.decode(new JpiInputStream(JPI_FILE), config, writer);
+    }
+    // Change the type of the first field, as a change to the layout code might.  The schema
+    // follows the magic number, version and length-prefixed metadata; it is a count and then
+    // shorts, of which the first field's type is the third.
+    byte bytes[] = archive.toByteArray();
+    JpiFile decoded = GorillaArchiveReader.read(new ByteArrayInputStream(bytes));
+    int type = 4 + 4 + 4 + decoded.getMetadata().getSerializedSize() + 4 + 2 * 2;
+    bytes[type + 1] ^= 1;
+    try {
+      GorillaArchiveReader.read(new ByteArrayInputStream(bytes));
+      fail("Read an archive with a different layout");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testCodecEdgeCases() throws EOFException {
+    int ints[] = {0, Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 1, 1, 1, 300, -5000, 70000};
+    float floats[] = {0, -0.0f, Float.NaN, 27.4f, 27.4f, 27.6f, Float.MAX_VALUE,
+        Float.MIN_VALUE, Float.NEGATIVE_INFINITY, 1e-3f};
+    long longs[] = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE, 5, 5, 6, 1L << 40};
+    BitWriter writer = new BitWriter();
+    GorillaCodec.encodeInts(writer, ints, ints.length);
+    GorillaCodec.encodeFloats(writer, floats, floats.length);
+    GorillaCodec.encodeLongs(writer, longs, longs.length);
+
+    BitReader reader = new BitReader(writer.toByteArray());
+    int decodedInts[] = new int[ints.length];
+    GorillaCodec.decodeInts(reader, decodedInts, ints.length);
+    assertArrayEquals(ints, decodedInts);
+    float decodedFloats[] = new float[floats.length];
+    GorillaCodec.decodeFloats(reader, decodedFloats, floats.length);
+    for (int i = 0; i < floats.length; ++i) {
+      assertEquals(Float.floatToRawIntBits(floats[i]), Float.floatToRawIntBits(decodedFloats[i]));
+    }
+    long decodedLongs[] = new long[longs.length];
+    GorillaCodec.decodeLongs(reader, decodedLongs, longs.length);
+    assertArrayEquals(longs, decodedLongs);
+  }
+}
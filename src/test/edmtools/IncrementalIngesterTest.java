@@ -0,0 +1,96 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiDecoder.FlightVisitor;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+import edmtools.Proto.Metadata;
+
+public class IncrementalIngesterTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testDecodesOnlyNewFlights() throws IOException {
+    JpiFile expected = JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE.getPath()), JpiDecoderConfiguration.newBuilder().build());
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    File older = tempFolder.newFile("45.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(45)), null, older);
+
+    IncrementalIngester ingester = new IncrementalIngester();
+    assertEquals(ImmutableList.of(expected.getFlight(0)), ingest(ingester, older));
+    assertEquals(ImmutableList.of(expected.getFlight(1)), ingest(ingester, JPI_FILE));
+    assertEquals(ImmutableList.of(), ingest(ingester, JPI_FILE));
+
+    String registration = expected.getMetadata().getRegistration();
+    assertEquals(72, ingester.getWatermark(registration).getFlightNumber());
+    assertEquals(expected.getFlight(1).getStartTimestamp(),
+        ingester.getWatermark(registration).getStartTimestamp());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File watermarks = new File(tempFolder.getRoot(), "watermarks");
+    IncrementalIngester ingester = IncrementalIngester.load(watermarks);
+    assertNull(ingester.getWatermark("N123"));
+    ingest(ingester, JPI_FILE);
+    ingester.save(watermarks);
+
+    IncrementalIngester loaded = IncrementalIngester.load(watermarks);
+    String registration = JpiFileLayout.read(JPI_FILE).getMetadata().getRegistration();
+    assertEquals(72, loaded.getWatermark(registration).getFlightNumber());
+    assertEquals(ImmutableList.of(), ingest(loaded, JPI_FILE));
+  }
+
+  private static List<Flight> ingest(IncrementalIngester ingester, File file)
+      throws IOException {
+    final List<Flight> flights = new ArrayList<>();
+    ingester.ingest(file, new FlightVisitor() {
+      @Override
+      public void visitMetadata(Metadata metadata) {}
+
+      @Override
+      public void visitFlight(Flight header, DataRecordCursor records) {
+        Flight.Builder flight = header.toBuilder();
+        while (records.next()) {
+          flight.addData(records.toProto());
+        }
+        flights.add(flight.build());
+      }
+    });
+    return flights;
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class JpiArchiveReaderTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testPlain() throws IOException {
+    assertEquals(ImmutableList.of(decodePlain()), decodeArchive(JPI_FILE));
+  }
+
+  @Test
+  public void testGzip() throws IOException {
+    File gzip = tempFolder.newFile("edm830.jpi.gz");
+    try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gzip))) {
+      out.write(Files.toByteArray(new File(JPI_FILE)));
+    }
+    assertEquals(ImmutableList.of(decodePlain()), decodeArchive(gzip.getPath()));
+  }
+
+  @Test
+  public void testZipWithMultipleEntries() throws IOException {
+    byte jpi[] = Files.toByteArray(new File(JPI_FILE));
+    File zip = tempFolder.newFile("downloads.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry("first.JPI"));
+      out.write(jpi);
+      out.putNextEntry(new ZipEntry("README.txt"));
+      out.write("not a JPI file".getBytes());
+      out.putNextEntry(new ZipEntry("nested/second.jpi.gz"));
+      GZIPOutputStream gzip = new GZIPOutputStream(out);
+      gzip.write(jpi);
+      gzip.finish();
+      out.closeEntry();
+    }
+    JpiFile expected = decodePlain();
+    assertEquals(ImmutableList.of(expected, expected), decodeArchive(zip.getPath()));
+  }
+
+  @Test
+  public void testEntryNamesIgnoreDefaultLocale() {
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      assertTrue(JpiArchiveReader.isJpiEntryName("N1.JPI"));
+      assertTrue(JpiArchiveReader.isJpiEntryName("N1.JPI.GZ"));
+      assertTrue(JpiArchiveReader.isJpiEntryName("DOWNLOADS.ZIP"));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+
+  private static JpiFile decodePlain() throws IOException {
+    return JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+  }
+
+  private static List<JpiFile> decodeArchive(String filename) throws IOException {
+    final List<JpiFile> result = new ArrayList<>();
+    JpiArchiveReader.read(filename, new JpiArchiveReader.Visitor() {
+      @Override
+      public void visit(String name, JpiInputStream inputStream) throws IOException {
+        result.add(JpiDecoder.decode(inputStream, JpiDecoderConfiguration.newBuilder().build()));
+      }
+    });
+    return result;
+  }
+}
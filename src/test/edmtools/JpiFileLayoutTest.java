@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiFileLayout.FlightRange;
+import edmtools.Proto.JpiFile;
+
+public class JpiFileLayoutTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testFlightRanges() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    assertEquals(208, layout.getHeaderLength());
+    List<FlightRange> flights = layout.getFlights();
+    assertEquals(2, flights.size());
+    assertEquals(45, flights.get(0).getFlightNumber());
+    assertEquals(208, flights.get(0).getOffset());
+    assertEquals(flights.get(0).getOffset() + flights.get(0).getLength(),
+        flights.get(1).getOffset());
+    assertEquals(JPI_FILE.length(), flights.get(1).getOffset() + flights.get(1).getLength());
+    assertEquals(72, layout.getFlight(72).getFlightNumber());
+    assertNull(layout.getFlight(9));
+  }
+
+  @Test
+  public void testHeaderOfAllFlightsIsUnchanged() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    byte original[] = Files.toByteArray(JPI_FILE);
+    assertArrayEquals(Arrays.copyOf(original, layout.getHeaderLength()),
+        layout.writeHeader(layout.getFlights(), null));
+  }
+
+  @Test
+  public void testExtractedFlightDecodes() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    File output = tempFolder.newFile("72.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(72)), "N123", output);
+
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    JpiFile extracted = JpiDecoder.decode(new JpiInputStream(output.getPath()), config);
+    JpiFile original = JpiDecoder.decode(new JpiInputStream(JPI_FILE.getPath()), config);
+    assertEquals("N123", extracted.getMetadata().getRegistration());
+    assertEquals(0, extracted.getMetadata().getParseWarningCount());
+    assertEquals(ImmutableList.of(original.getFlight(1)), extracted.getFlightList());
+  }
+}
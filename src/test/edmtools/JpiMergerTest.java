@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+public class JpiMergerTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testFingerprintMatchesAcrossFiles() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    File single = tempFolder.newFile("72.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(72)), null, single);
+
+    FlightFingerprint original = fingerprint(layout, 72);
+    FlightFingerprint copy = fingerprint(JpiFileLayout.read(single), 72);
+    assertEquals(original, copy);
+    assertNotEquals(original.getHash(), fingerprint(layout, 45).getHash());
+  }
+
+  @Test
+  public void testMergeSkipsDuplicates() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    File first = tempFolder.newFile("45.jpi");
+    File second = tempFolder.newFile("72.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(72)), null, second);
+    layout.write(ImmutableList.of(layout.getFlight(45)), null, first);
+
+    JpiMerger merger = new JpiMerger();
+    assertEquals(1, merger.add(second));
+    assertEquals(1, merger.add(first));
+    assertEquals(0, merger.add(JPI_FILE));
+    assertEquals(2, merger.getDuplicateCount());
+    String registration = layout.getMetadata().getRegistration();
+    assertEquals(ImmutableList.of(registration), ImmutableList.copyOf(merger.getRegistrations()));
+
+    // Flights are ordered by start time, which reproduces the original download.
+    File archive = tempFolder.newFile("archive.jpi");
+    merger.write(registration, archive);
+    assertArrayEquals(Files.toByteArray(JPI_FILE), Files.toByteArray(archive));
+
+    // Merging the archive back in adds nothing.
+    assertEquals(0, merger.add(archive));
+    merger.write(registration, archive);
+    assertArrayEquals(Files.toByteArray(JPI_FILE), Files.toByteArray(archive));
+  }
+
+  @Test
+  public void testConflictingFlights() throws IOException {
+    JpiFileLayout layout = JpiFileLayout.read(JPI_FILE);
+    // The same flight 72, but with its last byte changed.
+    File changed = tempFolder.newFile("changed.jpi");
+    layout.write(ImmutableList.of(layout.getFlight(72)), null, changed);
+    byte bytes[] = Files.toByteArray(changed);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(bytes, changed);
+    String registration = layout.getMetadata().getRegistration();
+
+    JpiMerger merger = new JpiMerger();
+    merger.add(JPI_FILE);
+    assertEquals(1, merger.add(changed));
+    try {
+      merger.write(registration, tempFolder.newFile("archive.jpi"));
+      fail("Wrote conflicting flights");
+    } catch (IOException expected) {
+    }
+
+    JpiMerger keepLongest = new JpiMerger(true);
+    keepLongest.add(JPI_FILE);
+    keepLongest.add(changed);
+    File archive = tempFolder.newFile("longest.jpi");
+    keepLongest.write(registration, archive);
+    assertArrayEquals(Files.toByteArray(JPI_FILE), Files.toByteArray(archive));
+  }
+
+  private static FlightFingerprint fingerprint(JpiFileLayout layout, int flightNumber)
+      throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(layout.getFile().toPath(), StandardOpenOption.READ)) {
+      return FlightFingerprint.of(
+          layout.getMetadata().getRegistration(), layout.getFlight(flightNumber), channel);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.base.Splitter;
+import com.google.protobuf.util.JsonFormat;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.DataRecord;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+
+public class JsonLinesWriterTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+  private static final JsonFormat.Printer PRINTER =
+      JsonFormat.printer().omittingInsignificantWhitespace();
+
+  @Test
+  public void testOneLinePerMessage() throws IOException {
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder().build();
+    JpiFile expected = JpiDecoder.decode(new JpiInputStream(JPI_FILE), config);
+    StringWriter out = new StringWriter();
+    JpiDecoder.decode(new JpiInputStream(JPI_FILE), config, new JsonLinesWriter(out));
+
+    List<String> lines = Splitter.on('\n').omitEmptyStrings().splitToList(out.toString());
+    int line = 0;
+    assertEquals("{\"metadata\":" + PRINTER.print(expected.getMetadata()) + "}",
+        lines.get(line++));
+    for (Flight flight : expected.getFlightList()) {
+      assertEquals("{\"flight\":" + PRINTER.print(flight.toBuilder().clearData()) + "}",
+          lines.get(line++));
+      for (DataRecord record : flight.getDataList()) {
+        String json = lines.get(line++);
+        assertEquals("{\"data\":" + PRINTER.print(record) + "}", json);
+        DataRecord.Builder parsed = DataRecord.newBuilder();
+        JsonFormat.parser().merge(json.substring("{\"data\":".length(), json.length() - 1),
+            parsed);
+        assertEquals(record, parsed.build());
+      }
+    }
+    assertEquals(lines.size(), line);
+  }
+}
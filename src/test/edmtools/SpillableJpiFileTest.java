@@ -0,0 +1,143 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class SpillableJpiFileTest {
+  private static final String JPI_FILE = "testdata/edm830.jpi";
+
+  @Test
+  public void testUnboundedKeepsEverythingInMemory() throws IOException {
+    JpiFile expected = decode();
+    try (SpillableJpiFile jpiFile = JpiDecoder.decodeSpillable(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build())) {
+      assertFalse(jpiFile.isSpilled(0));
+      assertFalse(jpiFile.isSpilled(1));
+      assertEquals(expected, jpiFile.toJpiFile());
+    }
+  }
+
+  @Test
+  public void testSpillsFlightsBeyondBudget() throws IOException {
+    JpiFile expected = decode();
+    JpiDecoderConfiguration config = JpiDecoderConfiguration.newBuilder()
+        .withMemoryBudgetBytes(expected.getFlight(0).getSerializedSize())
+        .build();
+    try (SpillableJpiFile jpiFile =
+        JpiDecoder.decodeSpillable(new JpiInputStream(JPI_FILE), config)) {
+      assertEquals(2, jpiFile.getFlightCount());
+      assertFalse(jpiFile.isSpilled(0));
+      assertTrue(jpiFile.isSpilled(1));
+      assertEquals(expected.getMetadata(), jpiFile.getMetadata());
+      assertEquals(expected.getFlight(1), jpiFile.getFlight(1));
+      assertEquals(expected.getFlightList(), jpiFile.getFlightList());
+    }
+  }
+
+  @Test
+  public void testZeroBudgetSpillsEverything() throws IOException {
+    JpiFile expected = decode();
+    JpiDecoderConfiguration config =
+        JpiDecoderConfiguration.newBuilder().withMemoryBudgetBytes(0).build();
+    try (SpillableJpiFile jpiFile =
+        JpiDecoder.decodeSpillable(new JpiInputStream(JPI_FILE), config)) {
+      assertTrue(jpiFile.isSpilled(0));
+      assertTrue(jpiFile.isSpilled(1));
+      assertEquals(expected, jpiFile.toJpiFile());
+    }
+  }
+
+  @Test
+  public void testCloseDeletesSpillFile() throws IOException {
+    Set<String> before = listSpillFiles();
+    JpiDecoderConfiguration config =
+        JpiDecoderConfiguration.newBuilder().withMemoryBudgetBytes(0).build();
+    try (SpillableJpiFile jpiFile =
+        JpiDecoder.decodeSpillable(new JpiInputStream(JPI_FILE), config)) {
+      assertTrue(jpiFile.isSpilled(0));
+      assertEquals(before.size() + 1, listSpillFiles().size());
+    }
+    assertEquals(before, listSpillFiles());
+  }
+
+  @Test
+  public void testCloseTwiceWarnsNothing() throws IOException {
+    final List<LogRecord> warnings = new ArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+          warnings.add(record);
+        }
+      }
+
+      @Override
+      public void flush() {}
+
+      @Override
+      public void close() {}
+    };
+    Logger logger = Logger.getLogger(SpillableJpiFile.class.getName());
+    logger.addHandler(handler);
+    try {
+      SpillableJpiFile jpiFile = JpiDecoder.decodeSpillable(new JpiInputStream(JPI_FILE),
+          JpiDecoderConfiguration.newBuilder().withMemoryBudgetBytes(0).build());
+      assertTrue(jpiFile.isSpilled(0));
+      jpiFile.close();
+      jpiFile.close();
+    } finally {
+      logger.removeHandler(handler);
+    }
+    assertEquals(ImmutableList.of(), warnings);
+  }
+
+  private static Set<String> listSpillFiles() {
+    Set<String> names = new HashSet<>();
+    for (String name : new File(System.getProperty("java.io.tmpdir")).list()) {
+      if (name.startsWith("edmtools") && name.endsWith(".spill")) {
+        names.add(name);
+      }
+    }
+    return names;
+  }
+
+  private static JpiFile decode() throws IOException {
+    return JpiDecoder.decode(
+        new JpiInputStream(JPI_FILE), JpiDecoderConfiguration.newBuilder().build());
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.Proto.JpiFile;
+
+public class WatchFolderIngesterTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadsAndMovesFiles() throws Exception {
+    File directory = tempFolder.newFolder("incoming");
+    // Present before watching starts.
+    Files.copy(JPI_FILE, new File(directory, "first.jpi"));
+    // Left by an earlier run; not replaced.
+    new File(directory, "done").mkdir();
+    Files.write("earlier".getBytes(), new File(directory, "done/first.jpi"));
+
+    final List<JpiFile> decoded = new CopyOnWriteArrayList<>();
+    final WatchFolderIngester ingester = new WatchFolderIngester(directory, 100, 2,
+        new JpiArchiveReader.Visitor() {
+          @Override
+          public void visit(String name, JpiInputStream inputStream) throws IOException {
+            decoded.add(
+                JpiDecoder.decode(inputStream, JpiDecoderConfiguration.newBuilder().build()));
+          }
+        });
+    Thread watcher = new Thread() {
+      @Override
+      public void run() {
+        try {
+          ingester.run();
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    };
+    watcher.start();
+    Files.copy(JPI_FILE, new File(directory, "second.JPI"));
+    Files.write("not a JPI file".getBytes(), new File(directory, "bad.jpi"));
+    Files.write("ignored".getBytes(), new File(directory, "notes.txt"));
+
+    long deadline = System.currentTimeMillis() + 20000;
+    while (ingester.getProcessedCount() + ingester.getFailedCount() < 3
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    ingester.close();
+    watcher.join();
+
+    assertEquals(2, ingester.getProcessedCount());
+    assertEquals(1, ingester.getFailedCount());
+    JpiFile expected =
+        JpiDecoder.decode(new JpiInputStream(JPI_FILE.getPath()),
+            JpiDecoderConfiguration.newBuilder().build());
+    assertEquals(ImmutableList.of(expected, expected), ImmutableList.copyOf(decoded));
+    assertEquals("earlier",
+        Files.toString(new File(directory, "done/first.jpi"), StandardCharsets.UTF_8));
+    assertTrue(Files.equal(JPI_FILE, new File(directory, "done/first-2.jpi")));
+    assertTrue(new File(directory, "done/second.JPI").isFile());
+    assertTrue(new File(directory, "failed/bad.jpi").isFile());
+    assertFalse(new File(directory, "first.jpi").exists());
+    assertTrue(new File(directory, "notes.txt").exists());
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2015 Keith Wannamaker
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package edmtools.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import edmtools.JpiDecoder;
+import edmtools.JpiDecoder.JpiDecoderConfiguration;
+import edmtools.JpiInputStream;
+import edmtools.Proto.Flight;
+import edmtools.Proto.JpiFile;
+
+public class JpiSplitTest {
+  private static final File JPI_FILE = new File("testdata/edm830.jpi");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSplit() throws Exception {
+    File outputDirectory = tempFolder.newFolder("split");
+    List<File> outputs = JpiSplit.split(JPI_FILE, outputDirectory, 2);
+
+    List<Flight> flights = decode(JPI_FILE).getFlightList();
+    assertTrue(flights.size() > 1);
+    assertEquals(flights.size(), outputs.size());
+    for (int i = 0; i < flights.size(); ++i) {
+      int flightNumber = flights.get(i).getFlightNumber();
+      File output = outputs.get(i);
+      assertEquals(new File(outputDirectory, "edm830." + flightNumber + ".jpi"), output);
+      assertEquals(ImmutableList.of(flights.get(i)), decode(output).getFlightList());
+
+      File rewritten = tempFolder.newFile("rewritten." + flightNumber + ".jpi");
+      JpiRewrite rewrite = new JpiRewrite();
+      assertTrue(CommandLineTool.parseArguments(new String[] {"-flights", "" + flightNumber,
+          JPI_FILE.getPath(), rewritten.getPath()}, rewrite, System.out));
+      rewrite.run();
+      assertArrayEquals(Files.toByteArray(rewritten), Files.toByteArray(output));
+    }
+  }
+
+  private static JpiFile decode(File file) throws IOException {
+    return JpiDecoder.decode(new JpiInputStream(file.getPath()),
+        JpiDecoderConfiguration.newBuilder().build());
+  }
+}